@@ -1,19 +1,135 @@
 package com.recipewiz.backend.config;
 
+import data_access.CircuitBreaker;
+import data_access.CircuitBreakerMetrics;
+import data_access.QuotaScheduler;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import okhttp3.Dispatcher;
 import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.core.task.support.ExecutorServiceAdapter;
+import use_case.recipe_search.RecipeRanker;
 
 @Configuration
 public class AppConfig {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AppConfig.class);
 
+    /**
+     * Shared HTTP client. The dispatcher limits only apply to asynchronous calls; each of them occupies an
+     * OkHttp dispatcher thread, not a request thread, while it is in flight.
+     * <p>
+     * With virtual threads enabled, asynchronous calls run on virtual threads too, and the client speaks
+     * HTTP/1.1 only: OkHttp waits for HTTP/2 frames with {@code Object.wait()} inside synchronized blocks,
+     * which pins the virtual thread to its carrier for the whole call, whereas HTTP/1.1 responses are read
+     * straight from the socket.
+     * </p>
+     */
     @Bean
-    public OkHttpClient okHttpClient() {
-        return new OkHttpClient.Builder()
+    public OkHttpClient okHttpClient(
+            Environment environment,
+            @Value("${recipewiz.http.max-async-requests:512}") int maxAsyncRequests,
+            @Value("${recipewiz.http.max-async-requests-per-host:512}") int maxAsyncRequestsPerHost
+    ) {
+        final boolean virtualThreads = Threading.VIRTUAL.isActive(environment);
+        if (!virtualThreads && environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false)) {
+            LOGGER.warn("Virtual threads are enabled but need Java 21 or later; running Java {} on platform threads",
+                    Runtime.version().feature());
+        }
+        final Dispatcher dispatcher = virtualThreads
+                ? new Dispatcher(new ExecutorServiceAdapter(new VirtualThreadTaskExecutor("okhttp-")))
+                : new Dispatcher();
+        dispatcher.setMaxRequests(maxAsyncRequests);
+        dispatcher.setMaxRequestsPerHost(maxAsyncRequestsPerHost);
+        final OkHttpClient.Builder builder = new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
                 .connectTimeout(15, TimeUnit.SECONDS)
                 .readTimeout(90, TimeUnit.SECONDS)
-                .writeTimeout(30, TimeUnit.SECONDS)
-                .build();
+                .writeTimeout(30, TimeUnit.SECONDS);
+        if (virtualThreads) {
+            builder.protocols(List.of(Protocol.HTTP_1_1));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Guards Edamam recipe searches: opens on a high error rate or on many slow calls.
+     */
+    @Bean
+    public CircuitBreaker edamamCircuitBreaker(
+            MeterRegistry meterRegistry,
+            @Value("${recipewiz.edamam.circuit-breaker.window-size:20}") int windowSize,
+            @Value("${recipewiz.edamam.circuit-breaker.minimum-calls:10}") int minimumCalls,
+            @Value("${recipewiz.edamam.circuit-breaker.failure-rate-threshold:50}") double failureRateThreshold,
+            @Value("${recipewiz.edamam.circuit-breaker.slow-call-duration:5s}") Duration slowCallDuration,
+            @Value("${recipewiz.edamam.circuit-breaker.slow-call-rate-threshold:50}") double slowCallRateThreshold,
+            @Value("${recipewiz.edamam.circuit-breaker.open-duration:30s}") Duration openDuration,
+            @Value("${recipewiz.edamam.circuit-breaker.half-open-calls:3}") int halfOpenCalls
+    ) {
+        final CircuitBreaker circuitBreaker = new CircuitBreaker("edamam", windowSize, minimumCalls,
+                failureRateThreshold, slowCallDuration.toNanos(), slowCallRateThreshold, openDuration.toNanos(),
+                halfOpenCalls);
+        new CircuitBreakerMetrics(circuitBreaker, "edamam").bindTo(meterRegistry);
+        return circuitBreaker;
+    }
+
+    /**
+     * Request quota of the Edamam recipe search application, shared by every recipe search and lookup.
+     */
+    @Bean
+    public QuotaScheduler edamamRecipeSearchQuota(
+            MeterRegistry meterRegistry,
+            @Value("${recipewiz.edamam.quota.recipe-search.requests-per-minute:10}") int requestsPerMinute,
+            @Value("${recipewiz.edamam.quota.recipe-search.burst:10}") int burst,
+            @Value("${recipewiz.edamam.quota.max-wait.interactive:2s}") Duration interactiveMaxWait,
+            @Value("${recipewiz.edamam.quota.max-wait.background:30s}") Duration backgroundMaxWait
+    ) {
+        return new QuotaScheduler("edamam-recipe-search", requestsPerMinute, burst,
+                maxWaits(interactiveMaxWait, backgroundMaxWait), meterRegistry);
+    }
+
+    /**
+     * Request quota of the Edamam nutrition analysis application.
+     */
+    @Bean
+    public QuotaScheduler edamamNutritionAnalysisQuota(
+            MeterRegistry meterRegistry,
+            @Value("${recipewiz.edamam.quota.nutrition-analysis.requests-per-minute:10}") int requestsPerMinute,
+            @Value("${recipewiz.edamam.quota.nutrition-analysis.burst:10}") int burst,
+            @Value("${recipewiz.edamam.quota.max-wait.interactive:2s}") Duration interactiveMaxWait,
+            @Value("${recipewiz.edamam.quota.max-wait.background:30s}") Duration backgroundMaxWait
+    ) {
+        return new QuotaScheduler("edamam-nutrition-analysis", requestsPerMinute, burst,
+                maxWaits(interactiveMaxWait, backgroundMaxWait), meterRegistry);
+    }
+
+    /**
+     * Orders search results by overlap with the searched ingredients, closeness to a nutrition target and
+     * similarity to the user's saved recipes, with these relative weights.
+     */
+    @Bean
+    public RecipeRanker recipeRanker(
+            @Value("${recipewiz.ranking.weights.ingredients:1.0}") double ingredientWeight,
+            @Value("${recipewiz.ranking.weights.macros:0.5}") double macroWeight,
+            @Value("${recipewiz.ranking.weights.saved:0.25}") double savedWeight
+    ) {
+        return new RecipeRanker(ingredientWeight, macroWeight, savedWeight);
+    }
+
+    private static Map<QuotaScheduler.Priority, Long> maxWaits(Duration interactive, Duration background) {
+        return Map.of(
+                QuotaScheduler.Priority.INTERACTIVE, interactive.toNanos(),
+                QuotaScheduler.Priority.BACKGROUND, background.toNanos());
     }
 }
@@ -1,5 +1,6 @@
 package com.recipewiz.backend.config;
 
+import com.recipewiz.backend.recipe.RecipeController;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
@@ -13,6 +14,7 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowedOrigins("http://localhost:5173", "http://localhost:9272")
                 .allowedMethods("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS")
                 .allowedHeaders("*")
+                .exposedHeaders(RecipeController.NEXT_PAGE_TOKEN_HEADER)
                 .allowCredentials(true);
     }
 }
\ No newline at end of file
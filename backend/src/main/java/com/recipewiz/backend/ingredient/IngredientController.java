@@ -0,0 +1,39 @@
+package com.recipewiz.backend.ingredient;
+
+import com.recipewiz.backend.ingredient.dto.IngredientSuggestionDto;
+import java.util.List;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+@RestController
+@RequestMapping("/api/ingredients")
+public class IngredientController {
+
+    private static final int MAX_SUGGESTIONS = 50;
+
+    private final IngredientService ingredientService;
+
+    public IngredientController(IngredientService ingredientService) {
+        this.ingredientService = ingredientService;
+    }
+
+    /**
+     * Ingredient names starting with {@code prefix}, used by the most known recipes first. Answered from
+     * memory, so it can be called on every keystroke.
+     */
+    @GetMapping("/suggest")
+    public List<IngredientSuggestionDto> suggest(
+            @RequestParam(name = "prefix") String prefix,
+            @RequestParam(name = "limit", defaultValue = "10") int limit
+    ) {
+        if (limit < 1 || limit > MAX_SUGGESTIONS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "limit must be between 1 and " + MAX_SUGGESTIONS);
+        }
+        return ingredientService.suggest(prefix, limit);
+    }
+}
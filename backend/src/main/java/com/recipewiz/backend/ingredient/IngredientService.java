@@ -0,0 +1,49 @@
+package com.recipewiz.backend.ingredient;
+
+import com.recipewiz.backend.ingredient.dto.IngredientSuggestionDto;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.stereotype.Service;
+import use_case.ingredient_suggest.IngredientSuggestDataAccessInterface;
+import use_case.ingredient_suggest.IngredientSuggestInteractor;
+import use_case.ingredient_suggest.IngredientSuggestOutputBoundary;
+import use_case.ingredient_suggest.IngredientSuggestion;
+
+@Service
+public class IngredientService {
+
+    private final IngredientSuggestDataAccessInterface ingredientSuggestGateway;
+
+    public IngredientService(IngredientSuggestDataAccessInterface ingredientSuggestGateway) {
+        this.ingredientSuggestGateway = ingredientSuggestGateway;
+    }
+
+    public List<IngredientSuggestionDto> suggest(String prefix, int limit) {
+        final CollectingIngredientSuggestPresenter presenter = new CollectingIngredientSuggestPresenter();
+        final IngredientSuggestInteractor interactor =
+                new IngredientSuggestInteractor(ingredientSuggestGateway, presenter);
+        interactor.suggest(prefix, limit);
+        return presenter.getSuggestions();
+    }
+
+    private static final class CollectingIngredientSuggestPresenter implements IngredientSuggestOutputBoundary {
+        private final List<IngredientSuggestionDto> suggestions = new ArrayList<>();
+
+        @Override
+        public void presentSuggestions(List<IngredientSuggestion> suggestions) {
+            this.suggestions.clear();
+            for (IngredientSuggestion suggestion : suggestions) {
+                this.suggestions.add(new IngredientSuggestionDto(suggestion.name(), suggestion.recipes()));
+            }
+        }
+
+        @Override
+        public void presentError(String error) {
+            throw new IllegalStateException(error);
+        }
+
+        List<IngredientSuggestionDto> getSuggestions() {
+            return suggestions;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.recipewiz.backend.ingredient.dto;
+
+public record IngredientSuggestionDto(
+        String name,
+        int recipes
+) {
+}
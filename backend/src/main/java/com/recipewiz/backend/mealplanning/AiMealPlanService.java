@@ -58,7 +58,7 @@ public class AiMealPlanService {
         }
 
         // Build recipe lookup map for enriching preview entries
-        Map<Integer, Recipe> recipeMap = new HashMap<>();
+        Map<Long, Recipe> recipeMap = new HashMap<>();
         for (Recipe r : dao.getSavedRecipes(userId)) {
             recipeMap.put(r.getRecipeId(), r);
         }
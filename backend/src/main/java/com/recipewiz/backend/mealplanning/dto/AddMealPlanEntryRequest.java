@@ -5,7 +5,7 @@ import jakarta.validation.constraints.NotNull;
 import java.time.LocalDate;
 
 public record AddMealPlanEntryRequest(
-        @NotNull Integer recipeId,
+        @NotNull Long recipeId,
         @NotNull LocalDate mealDate,
         @NotBlank String mealType
 ) {
@@ -11,7 +11,7 @@ import java.util.List;
 public record AiMealPlanConfirmRequest(@NotEmpty List<EntryToCommit> entries) {
 
     public record EntryToCommit(
-            int recipeId,
+            long recipeId,
             LocalDate mealDate,
             String mealType
     ) {}
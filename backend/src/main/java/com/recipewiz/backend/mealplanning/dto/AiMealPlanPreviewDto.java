@@ -11,7 +11,7 @@ import java.util.List;
 public record AiMealPlanPreviewDto(List<AiMealPlanEntryPreview> entries) {
 
     public record AiMealPlanEntryPreview(
-            int recipeId,
+            long recipeId,
             RecipeDto recipe,
             LocalDate mealDate,
             String mealType
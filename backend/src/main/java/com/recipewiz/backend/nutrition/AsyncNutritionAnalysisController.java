@@ -0,0 +1,33 @@
+package com.recipewiz.backend.nutrition;
+
+import com.recipewiz.backend.nutrition.dto.NutrientDto;
+import com.recipewiz.backend.recipe.dto.RecipeDto;
+import jakarta.validation.Valid;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Nutrition analysis that releases the request thread while Edamam is called, enabled by
+ * {@code recipewiz.async.enabled} in place of {@link NutritionAnalysisController}.
+ */
+@RestController
+@RequestMapping("/api/nutrition")
+@ConditionalOnProperty(name = "recipewiz.async.enabled", havingValue = "true")
+public class AsyncNutritionAnalysisController {
+
+    private final NutritionService nutritionService;
+
+    public AsyncNutritionAnalysisController(NutritionService nutritionService) {
+        this.nutritionService = nutritionService;
+    }
+
+    @PostMapping("/analyze")
+    public CompletableFuture<List<NutrientDto>> analyze(@Valid @RequestBody RecipeDto recipeDto) {
+        return nutritionService.analyzeNutritionAsync(recipeDto);
+    }
+}
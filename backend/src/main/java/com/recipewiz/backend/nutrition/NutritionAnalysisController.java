@@ -0,0 +1,32 @@
+package com.recipewiz.backend.nutrition;
+
+import com.recipewiz.backend.nutrition.dto.NutrientDto;
+import com.recipewiz.backend.recipe.dto.RecipeDto;
+import jakarta.validation.Valid;
+import java.util.List;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Nutrition analysis that holds the request thread until Edamam answers; the default.
+ * {@link AsyncNutritionAnalysisController} replaces it when {@code recipewiz.async.enabled} is set.
+ */
+@RestController
+@RequestMapping("/api/nutrition")
+@ConditionalOnProperty(name = "recipewiz.async.enabled", havingValue = "false", matchIfMissing = true)
+public class NutritionAnalysisController {
+
+    private final NutritionService nutritionService;
+
+    public NutritionAnalysisController(NutritionService nutritionService) {
+        this.nutritionService = nutritionService;
+    }
+
+    @PostMapping("/analyze")
+    public List<NutrientDto> analyze(@Valid @RequestBody RecipeDto recipeDto) {
+        return nutritionService.analyzeNutrition(recipeDto);
+    }
+}
@@ -1,25 +1,88 @@
 package com.recipewiz.backend.nutrition;
 
-import com.recipewiz.backend.recipe.dto.RecipeDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.recipewiz.backend.nutrition.dto.NutritionBatchRequest;
+import com.recipewiz.backend.nutrition.dto.NutritionBatchResultDto;
 import jakarta.validation.Valid;
-import java.util.List;
+import java.io.IOException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 
 @RestController
 @RequestMapping("/api/nutrition")
 public class NutritionController {
 
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final NutritionService nutritionService;
+    private final int maxBatchRecipes;
+    private final ObjectWriter lineWriter;
 
-    public NutritionController(NutritionService nutritionService) {
+    /**
+     * @param maxBatchRecipes the most recipes a batch may hold
+     */
+    public NutritionController(NutritionService nutritionService,
+                               ObjectMapper objectMapper,
+                               @Value("${recipewiz.edamam.nutrition-batch.max-recipes:50}") int maxBatchRecipes) {
         this.nutritionService = nutritionService;
+        this.maxBatchRecipes = maxBatchRecipes;
+        // One result per line, however the mapper is set to indent
+        this.lineWriter = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+    }
+
+    /**
+     * Analyzes a batch of recipes, streaming one JSON result per line (NDJSON) in the order the recipes
+     * finish. The batch is always analyzed asynchronously.
+     */
+    @PostMapping("/analyze/batch")
+    public ResponseEntity<ResponseBodyEmitter> analyzeBatch(@Valid @RequestBody NutritionBatchRequest request) {
+        final int recipes = request.recipes() == null ? 0 : request.recipes().size();
+        final int savedRecipes = request.savedRecipeIds() == null ? 0 : request.savedRecipeIds().size();
+        if (recipes + savedRecipes == 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The batch holds no recipes");
+        }
+        if (recipes + savedRecipes > maxBatchRecipes) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "A batch holds at most " + maxBatchRecipes + " recipes");
+        }
+        if (savedRecipes > 0 && (request.userId() == null || request.savedRecipeIds().contains(null))) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Saved recipes need a userId and their ids");
+        }
+
+        final ResponseBodyEmitter emitter = new ResponseBodyEmitter();
+        nutritionService.analyzeNutritionBatch(request, result -> send(emitter, result))
+                .whenComplete((ignored, failure) -> {
+                    if (failure == null) {
+                        emitter.complete();
+                    }
+                    else {
+                        emitter.completeWithError(failure);
+                    }
+                });
+        return ResponseEntity.ok().contentType(NDJSON).body(emitter);
     }
 
-    @PostMapping("/analyze")
-    public List<String> analyze(@Valid @RequestBody RecipeDto recipeDto) {
-        return nutritionService.analyzeNutrition(recipeDto);
+    private void send(ResponseBodyEmitter emitter, NutritionBatchResultDto result) {
+        try {
+            // A single send per result, so lines from concurrent analyses never interleave
+            emitter.send(lineWriter.writeValueAsString(result) + "\n", NDJSON);
+        }
+        catch (JsonProcessingException exception) {
+            throw new IllegalStateException("Could not write a batch result", exception);
+        }
+        catch (IOException exception) {
+            // The client went away; the remaining analyses still fill the line cache
+        }
     }
 }
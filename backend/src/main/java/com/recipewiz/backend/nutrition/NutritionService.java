@@ -1,27 +1,40 @@
 package com.recipewiz.backend.nutrition;
 
+import com.recipewiz.backend.nutrition.dto.NutrientDto;
+import com.recipewiz.backend.nutrition.dto.NutritionBatchRequest;
+import com.recipewiz.backend.nutrition.dto.NutritionBatchResultDto;
 import com.recipewiz.backend.recipe.RecipeMapper;
 import com.recipewiz.backend.recipe.dto.RecipeDto;
+import data_access.SavedRecipesDataAccessInterface;
 import entity.Nutrient;
+import entity.Recipe;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import org.springframework.stereotype.Service;
 import use_case.nutrition_analysis.NutritionAnalysisDataAccessInterface;
 import use_case.nutrition_analysis.NutritionAnalysisInteractor;
 import use_case.nutrition_analysis.NutritionAnalysisOutputBoundary;
+import use_case.nutrition_analysis.NutritionBatchInteractor;
+import use_case.nutrition_analysis.NutritionBatchOutputBoundary;
 
 @Service
 public class NutritionService {
 
     private final NutritionAnalysisDataAccessInterface nutritionGateway;
+    private final SavedRecipesDataAccessInterface savedRecipesGateway;
     private final RecipeMapper recipeMapper;
 
-    public NutritionService(NutritionAnalysisDataAccessInterface nutritionGateway, RecipeMapper recipeMapper) {
+    public NutritionService(NutritionAnalysisDataAccessInterface nutritionGateway,
+                            SavedRecipesDataAccessInterface savedRecipesGateway,
+                            RecipeMapper recipeMapper) {
         this.nutritionGateway = nutritionGateway;
+        this.savedRecipesGateway = savedRecipesGateway;
         this.recipeMapper = recipeMapper;
     }
 
-    public List<String> analyzeNutrition(RecipeDto recipeDto) {
+    public List<NutrientDto> analyzeNutrition(RecipeDto recipeDto) {
         final CollectingNutritionPresenter presenter = new CollectingNutritionPresenter();
         final NutritionAnalysisInteractor interactor = new NutritionAnalysisInteractor(
                 nutritionGateway,
@@ -31,15 +44,88 @@ public class NutritionService {
         return presenter.getNutritionInfo();
     }
 
+    /**
+     * Asynchronous {@link #analyzeNutrition(RecipeDto)}. The future completes on the thread that finishes
+     * the Edamam call.
+     */
+    public CompletableFuture<List<NutrientDto>> analyzeNutritionAsync(RecipeDto recipeDto) {
+        final CollectingNutritionPresenter presenter = new CollectingNutritionPresenter();
+        final NutritionAnalysisInteractor interactor = new NutritionAnalysisInteractor(
+                nutritionGateway,
+                presenter
+        );
+        return interactor.analyzeNutritionAsync(recipeMapper.toEntity(recipeDto))
+                .thenApply(ignored -> presenter.getNutritionInfo());
+    }
+
+    /**
+     * Analyzes the recipes of a batch, handing each result to {@code results} as soon as its recipe is
+     * analyzed, from whichever thread finished it. Saved recipes that do not exist are reported as errors
+     * straight away.
+     *
+     * @return a future that completes once every result has been handed over
+     */
+    public CompletableFuture<Void> analyzeNutritionBatch(NutritionBatchRequest request,
+                                                         Consumer<NutritionBatchResultDto> results) {
+        final List<Recipe> recipes = new ArrayList<>();
+        final List<Integer> indexes = new ArrayList<>();
+        int index = 0;
+        if (request.recipes() != null) {
+            for (RecipeDto recipeDto : request.recipes()) {
+                recipes.add(recipeMapper.toEntity(recipeDto));
+                indexes.add(index++);
+            }
+        }
+        if (request.savedRecipeIds() != null) {
+            for (Long recipeId : request.savedRecipeIds()) {
+                final Recipe recipe = savedRecipesGateway.getSavedRecipe(request.userId(), recipeId);
+                if (recipe == null) {
+                    results.accept(new NutritionBatchResultDto(index++, recipeId, null, null,
+                            "Saved recipe not found: " + recipeId));
+                    continue;
+                }
+                recipes.add(recipe);
+                indexes.add(index++);
+            }
+        }
+
+        final NutritionBatchInteractor interactor = new NutritionBatchInteractor(
+                nutritionGateway,
+                new NutritionBatchOutputBoundary() {
+                    @Override
+                    public void presentRecipeNutrition(int position, List<Nutrient> nutritionInfo) {
+                        final Recipe recipe = recipes.get(position);
+                        results.accept(new NutritionBatchResultDto(indexes.get(position), recipe.getRecipeId(),
+                                recipe.getTitle(), toDtos(nutritionInfo), null));
+                    }
+
+                    @Override
+                    public void presentRecipeError(int position, String error) {
+                        final Recipe recipe = recipes.get(position);
+                        results.accept(new NutritionBatchResultDto(indexes.get(position), recipe.getRecipeId(),
+                                recipe.getTitle(), null, error));
+                    }
+                }
+        );
+        return interactor.analyzeNutritionBatch(recipes);
+    }
+
+    private static List<NutrientDto> toDtos(List<Nutrient> nutrients) {
+        final List<NutrientDto> dtos = new ArrayList<>();
+        for (Nutrient nutrient : nutrients) {
+            dtos.add(new NutrientDto(nutrient.getCode().code(), nutrient.getLabel(),
+                    nutrient.getQuantity(), nutrient.getUnit()));
+        }
+        return dtos;
+    }
+
     private static final class CollectingNutritionPresenter implements NutritionAnalysisOutputBoundary {
-        private final List<String> nutritionInfo = new ArrayList<>();
+        private final List<NutrientDto> nutritionInfo = new ArrayList<>();
 
         @Override
         public void presentNutritionInfo(List<Nutrient> NutritionInfo) {
             nutritionInfo.clear();
-            for (Nutrient nutrient : NutritionInfo) {
-                nutritionInfo.add(nutrient.getNutrientInfo());
-            }
+            nutritionInfo.addAll(toDtos(NutritionInfo));
         }
 
         @Override
@@ -47,7 +133,7 @@ public class NutritionService {
             throw new IllegalStateException(error);
         }
 
-        List<String> getNutritionInfo() {
+        List<NutrientDto> getNutritionInfo() {
             return nutritionInfo;
         }
     }
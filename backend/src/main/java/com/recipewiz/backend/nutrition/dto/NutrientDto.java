@@ -0,0 +1,13 @@
+package com.recipewiz.backend.nutrition.dto;
+
+/**
+ * One nutrient of an analysis, e.g. {@code {"code": "ENERC_KCAL", "label": "Energy", "quantity": 667.2,
+ * "unit": "kcal"}}. {@code code} is the Edamam nutrient code.
+ */
+public record NutrientDto(
+        String code,
+        String label,
+        double quantity,
+        String unit
+) {
+}
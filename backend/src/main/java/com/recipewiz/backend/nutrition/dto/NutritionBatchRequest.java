@@ -0,0 +1,17 @@
+package com.recipewiz.backend.nutrition.dto;
+
+import com.recipewiz.backend.recipe.dto.RecipeDto;
+import jakarta.validation.Valid;
+import java.util.List;
+
+/**
+ * Request body for POST /api/nutrition/analyze/batch: recipes sent in full, recipes saved by
+ * {@code userId} by their id, or both. Results are numbered over {@code recipes} first, then
+ * {@code savedRecipeIds}.
+ */
+public record NutritionBatchRequest(
+        Integer userId,
+        List<@Valid RecipeDto> recipes,
+        List<Long> savedRecipeIds
+) {
+}
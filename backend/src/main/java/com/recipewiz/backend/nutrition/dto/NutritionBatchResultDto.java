@@ -0,0 +1,16 @@
+package com.recipewiz.backend.nutrition.dto;
+
+import java.util.List;
+
+/**
+ * The analysis of one recipe of a batch, streamed as a line of its own once the recipe is analyzed.
+ * {@code index} is the recipe's position in the request; either {@code nutrients} or {@code error} is set.
+ */
+public record NutritionBatchResultDto(
+        int index,
+        long recipeId,
+        String title,
+        List<NutrientDto> nutrients,
+        String error
+) {
+}
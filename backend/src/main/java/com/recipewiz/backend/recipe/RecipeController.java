@@ -1,12 +1,10 @@
 package com.recipewiz.backend.recipe;
 
+import com.recipewiz.backend.recipe.dto.PantryMatchDto;
 import com.recipewiz.backend.recipe.dto.RecipeDto;
-import com.recipewiz.backend.recipe.dto.RestrictionSearchRequest;
 import com.recipewiz.backend.recipe.dto.SaveRecipeRequest;
 import jakarta.validation.Valid;
-import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
 import org.springframework.http.HttpStatus;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -18,30 +16,38 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
 @Validated
 @RestController
 @RequestMapping("/api")
 public class RecipeController {
 
+    /**
+     * Response header carrying the opaque token of the next result page; absent on the last page.
+     * Pass it back as the {@code pageToken} query parameter to fetch that page.
+     */
+    public static final String NEXT_PAGE_TOKEN_HEADER = "X-Next-Page-Token";
+
     private final RecipeService recipeService;
 
     public RecipeController(RecipeService recipeService) {
         this.recipeService = recipeService;
     }
 
-    @GetMapping("/recipes/search")
-    public List<RecipeDto> searchRecipes(@RequestParam(name = "ingredients") String ingredients) {
-        final List<String> ingredientList = Arrays.stream(ingredients.split(","))
-                .map(String::trim)
-                .filter(token -> !token.isEmpty())
-                .collect(Collectors.toList());
-        return recipeService.searchRecipes(ingredientList);
-    }
-
-    @PostMapping("/recipes/search/restricted")
-    public List<RecipeDto> searchWithRestrictions(@Valid @RequestBody RestrictionSearchRequest request) {
-        return recipeService.searchWithRestrictions(request);
+    /**
+     * Recipes from the local catalog that use at most {@code maxMissing} ingredients outside the given
+     * list, best coverage first.
+     */
+    @GetMapping("/recipes/pantry")
+    public List<PantryMatchDto> searchByPantry(
+            @RequestParam(name = "ingredients") String ingredients,
+            @RequestParam(name = "maxMissing", defaultValue = "0") int maxMissing
+    ) {
+        if (maxMissing < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "maxMissing must not be negative");
+        }
+        return recipeService.searchByPantry(RecipeSearchRequests.parseIngredients(ingredients), maxMissing);
     }
 
     @ResponseStatus(HttpStatus.CREATED)
@@ -57,7 +63,7 @@ public class RecipeController {
 
     @ResponseStatus(HttpStatus.NO_CONTENT)
     @DeleteMapping("/users/{userId}/recipes/{recipeId}")
-    public void deleteRecipe(@PathVariable int userId, @PathVariable int recipeId) {
+    public void deleteRecipe(@PathVariable int userId, @PathVariable long recipeId) {
         recipeService.deleteRecipe(userId, recipeId);
     }
 }
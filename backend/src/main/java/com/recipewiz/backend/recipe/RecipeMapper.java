@@ -47,6 +47,7 @@ public class RecipeMapper {
 
         return new RecipeDto(
                 recipe.getRecipeId(),
+                recipe.getUri(),
                 recipe.getTitle(),
                 recipe.getDescription(),
                 recipe.getInstructions(),
@@ -83,7 +84,7 @@ public class RecipeMapper {
             dto.ingredientLines().forEach(ingredientJson::put);
         }
 
-        return new Recipe(
+        final Recipe recipe = new Recipe(
                 dto.recipeId(),
                 dto.title(),
                 dto.description(),
@@ -94,5 +95,7 @@ public class RecipeMapper {
                 ingredientJson,
                 dto.servings()
         );
+        recipe.setUri(dto.uri());
+        return recipe;
     }
 }
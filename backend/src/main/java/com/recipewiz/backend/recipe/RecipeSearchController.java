@@ -0,0 +1,65 @@
+package com.recipewiz.backend.recipe;
+
+import static com.recipewiz.backend.recipe.RecipeSearchRequests.parseIngredients;
+import static com.recipewiz.backend.recipe.RecipeSearchRequests.parseMode;
+import static com.recipewiz.backend.recipe.RecipeSearchRequests.preferences;
+import static com.recipewiz.backend.recipe.RecipeSearchRequests.toResponse;
+import static com.recipewiz.backend.recipe.RecipeSearchRequests.validatePageToken;
+
+import com.recipewiz.backend.recipe.dto.RecipeDto;
+import com.recipewiz.backend.recipe.dto.RestrictionSearchRequest;
+import jakarta.validation.Valid;
+import java.util.List;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Recipe searches that hold the request thread until Edamam answers; the default.
+ * {@link AsyncRecipeSearchController} replaces it when {@code recipewiz.async.enabled} is set.
+ */
+@Validated
+@RestController
+@RequestMapping("/api")
+@ConditionalOnProperty(name = "recipewiz.async.enabled", havingValue = "false", matchIfMissing = true)
+public class RecipeSearchController {
+
+    private final RecipeService recipeService;
+
+    public RecipeSearchController(RecipeService recipeService) {
+        this.recipeService = recipeService;
+    }
+
+    @GetMapping("/recipes/search")
+    public ResponseEntity<List<RecipeDto>> searchRecipes(
+            @RequestParam(name = "ingredients") String ingredients,
+            @RequestParam(name = "pageToken", required = false) String pageToken,
+            @RequestParam(name = "mode", defaultValue = "edamam") String mode,
+            @RequestParam(name = "userId", required = false) Integer userId,
+            @RequestParam(name = "targetCalories", required = false) Double targetCalories,
+            @RequestParam(name = "targetProtein", required = false) Double targetProtein,
+            @RequestParam(name = "targetFat", required = false) Double targetFat,
+            @RequestParam(name = "targetCarbohydrates", required = false) Double targetCarbohydrates
+    ) {
+        final List<String> ingredientList = parseIngredients(ingredients);
+        final RecipeSearchMode searchMode = parseMode(mode, pageToken);
+        validatePageToken(pageToken);
+        return toResponse(recipeService.searchRecipes(ingredientList, pageToken, searchMode,
+                preferences(userId, targetCalories, targetProtein, targetFat, targetCarbohydrates)));
+    }
+
+    @PostMapping("/recipes/search/restricted")
+    public ResponseEntity<List<RecipeDto>> searchWithRestrictions(
+            @Valid @RequestBody RestrictionSearchRequest request,
+            @RequestParam(name = "pageToken", required = false) String pageToken
+    ) {
+        validatePageToken(pageToken);
+        return toResponse(recipeService.searchWithRestrictions(request, pageToken));
+    }
+}
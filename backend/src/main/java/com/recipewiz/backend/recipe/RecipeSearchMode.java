@@ -0,0 +1,26 @@
+package com.recipewiz.backend.recipe;
+
+import java.util.Locale;
+
+/**
+ * Where a recipe search is answered from.
+ */
+public enum RecipeSearchMode {
+    /**
+     * Search Edamam, falling back to the local catalog when Edamam is unavailable.
+     */
+    EDAMAM,
+    /**
+     * Search only the local catalog of recipes previously returned by Edamam.
+     */
+    LOCAL;
+
+    /**
+     * Parses the {@code mode} request parameter, ignoring case.
+     *
+     * @throws IllegalArgumentException if the value names no mode
+     */
+    public static RecipeSearchMode fromParameter(String value) {
+        return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,75 @@
+package com.recipewiz.backend.recipe;
+
+import com.recipewiz.backend.recipe.dto.RecipeDto;
+import com.recipewiz.backend.recipe.dto.RecipePageDto;
+import data_access.RecipePageToken;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+import use_case.recipe_search.RankingPreferences;
+
+/**
+ * Request parsing and responses shared by the blocking and asynchronous recipe search controllers.
+ */
+final class RecipeSearchRequests {
+
+    private RecipeSearchRequests() {
+    }
+
+    /**
+     * Parses the {@code mode} parameter of a search for the given page.
+     */
+    static RecipeSearchMode parseMode(String mode, String pageToken) {
+        final RecipeSearchMode searchMode;
+        try {
+            searchMode = RecipeSearchMode.fromParameter(mode);
+        }
+        catch (IllegalArgumentException exception) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown search mode: " + mode);
+        }
+        if (searchMode == RecipeSearchMode.LOCAL && pageToken != null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Local search results have a single page");
+        }
+        return searchMode;
+    }
+
+    /**
+     * Rejects a page token that was not issued by this API, before the search reaches the use case.
+     */
+    static void validatePageToken(String pageToken) {
+        if (pageToken == null) {
+            return;
+        }
+        try {
+            RecipePageToken.decode(pageToken);
+        }
+        catch (IllegalArgumentException exception) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid page token");
+        }
+    }
+
+    static RankingPreferences preferences(Integer userId, Double targetCalories, Double targetProtein,
+                                          Double targetFat, Double targetCarbohydrates) {
+        final RankingPreferences.MacroTarget target = new RankingPreferences.MacroTarget(
+                targetCalories, targetProtein, targetFat, targetCarbohydrates);
+        return new RankingPreferences(userId, target.isEmpty() ? null : target);
+    }
+
+    static List<String> parseIngredients(String ingredients) {
+        return Arrays.stream(ingredients.split(","))
+                .map(String::trim)
+                .filter(token -> !token.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    static ResponseEntity<List<RecipeDto>> toResponse(RecipePageDto page) {
+        final ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextPageToken() != null) {
+            response.header(RecipeController.NEXT_PAGE_TOKEN_HEADER, page.nextPageToken());
+        }
+        return response.body(page.recipes());
+    }
+}
@@ -1,6 +1,8 @@
 package com.recipewiz.backend.recipe;
 
+import com.recipewiz.backend.recipe.dto.PantryMatchDto;
 import com.recipewiz.backend.recipe.dto.RecipeDto;
+import com.recipewiz.backend.recipe.dto.RecipePageDto;
 import com.recipewiz.backend.recipe.dto.RestrictionSearchRequest;
 import com.recipewiz.backend.recipe.dto.SaveRecipeRequest;
 import entity.Recipe;
@@ -8,7 +10,18 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
+import use_case.pantry_search.PantryMatch;
+import use_case.pantry_search.PantrySearchDataAccessInterface;
+import use_case.pantry_search.PantrySearchInteractor;
+import use_case.pantry_search.PantrySearchOutputBoundary;
+import use_case.recipe_search.RankingPreferences;
+import use_case.recipe_search.RecipeRanker;
 import use_case.recipe_search.RecipeSearchDataAccessInterface;
 import use_case.recipe_search.RecipeSearchInteractor;
 import use_case.recipe_search.RecipeSearchOutputBoundary;
@@ -19,6 +32,7 @@ import data_access.SavedRecipesDataAccessInterface;
 
 @Service
 public class RecipeService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(RecipeService.class);
 
     private static final String FOOD_NAME_KEY = "Food Name";
     private static final String DIET_LABEL_KEY = "Diet Label";
@@ -26,32 +40,140 @@ public class RecipeService {
     private static final String CUISINE_TYPE_KEY = "Cuisine Type";
 
     private final RecipeSearchDataAccessInterface recipeSearchGateway;
+    private final RecipeSearchDataAccessInterface localRecipeSearchGateway;
     private final SearchWithRestrictionDataAccessInterface restrictionSearchGateway;
+    private final PantrySearchDataAccessInterface pantrySearchGateway;
     private final SavedRecipesDataAccessInterface savedRecipesGateway;
     private final RecipeMapper recipeMapper;
+    private final RecipeRanker recipeRanker;
 
     public RecipeService(RecipeSearchDataAccessInterface recipeSearchGateway,
+                         @Qualifier("recipeCatalogDataAccessObject")
+                         RecipeSearchDataAccessInterface localRecipeSearchGateway,
                          SearchWithRestrictionDataAccessInterface restrictionSearchGateway,
+                         PantrySearchDataAccessInterface pantrySearchGateway,
                          SavedRecipesDataAccessInterface savedRecipesGateway,
-                         RecipeMapper recipeMapper) {
+                         RecipeMapper recipeMapper,
+                         RecipeRanker recipeRanker) {
         this.recipeSearchGateway = recipeSearchGateway;
+        this.localRecipeSearchGateway = localRecipeSearchGateway;
         this.restrictionSearchGateway = restrictionSearchGateway;
+        this.pantrySearchGateway = pantrySearchGateway;
         this.savedRecipesGateway = savedRecipesGateway;
         this.recipeMapper = recipeMapper;
+        this.recipeRanker = recipeRanker;
     }
 
-    public List<RecipeDto> searchRecipes(List<String> ingredients) {
+    public RecipePageDto searchRecipes(List<String> ingredients, String pageToken, RecipeSearchMode mode,
+                                       RankingPreferences preferences) {
+        if (mode == RecipeSearchMode.LOCAL) {
+            return searchRecipes(localRecipeSearchGateway, ingredients, pageToken, preferences);
+        }
+        try {
+            return searchRecipes(recipeSearchGateway, ingredients, pageToken, preferences);
+        }
+        catch (RuntimeException exception) {
+            // Edamam page tokens cannot be followed locally, so only first pages fall back
+            if (pageToken != null) {
+                throw exception;
+            }
+            LOGGER.warn("Edamam search failed, answering from the local catalog: {}", exception.getMessage());
+            return searchRecipes(localRecipeSearchGateway, ingredients, null, preferences);
+        }
+    }
+
+    private RecipePageDto searchRecipes(RecipeSearchDataAccessInterface gateway, List<String> ingredients,
+                                        String pageToken, RankingPreferences preferences) {
         final CollectingRecipeSearchPresenter presenter = new CollectingRecipeSearchPresenter(recipeMapper);
         final RecipeSearchInteractor interactor = new RecipeSearchInteractor(
-                recipeSearchGateway,
+                gateway,
+                savedRecipesGateway,
+                presenter,
+                recipeRanker
+        );
+        interactor.searchRecipes(ingredients, pageToken, preferences);
+        return new RecipePageDto(presenter.getRecipes(), presenter.getNextPageToken());
+    }
+
+    /**
+     * Asynchronous {@link #searchRecipes(List, String, RecipeSearchMode, RankingPreferences)}, with the same
+     * fallback to the local catalog. The future completes on the thread that finishes the Edamam call.
+     */
+    public CompletableFuture<RecipePageDto> searchRecipesAsync(List<String> ingredients, String pageToken,
+                                                               RecipeSearchMode mode, RankingPreferences preferences) {
+        if (mode == RecipeSearchMode.LOCAL) {
+            return searchRecipesAsync(localRecipeSearchGateway, ingredients, pageToken, preferences);
+        }
+        return searchRecipesAsync(recipeSearchGateway, ingredients, pageToken, preferences)
+                .exceptionallyCompose(failure -> {
+                    final Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                            ? failure.getCause()
+                            : failure;
+                    // Edamam page tokens cannot be followed locally, so only first pages fall back
+                    if (pageToken != null) {
+                        return CompletableFuture.failedFuture(cause);
+                    }
+                    LOGGER.warn("Edamam search failed, answering from the local catalog: {}", cause.getMessage());
+                    return searchRecipesAsync(localRecipeSearchGateway, ingredients, null, preferences);
+                });
+    }
+
+    private CompletableFuture<RecipePageDto> searchRecipesAsync(RecipeSearchDataAccessInterface gateway,
+                                                                List<String> ingredients, String pageToken,
+                                                                RankingPreferences preferences) {
+        final CollectingRecipeSearchPresenter presenter = new CollectingRecipeSearchPresenter(recipeMapper);
+        final RecipeSearchInteractor interactor = new RecipeSearchInteractor(
+                gateway,
+                savedRecipesGateway,
+                presenter,
+                recipeRanker
+        );
+        try {
+            return interactor.searchRecipesAsync(ingredients, pageToken, preferences)
+                    .thenApply(ignored -> new RecipePageDto(presenter.getRecipes(), presenter.getNextPageToken()));
+        }
+        catch (RuntimeException exception) {
+            return CompletableFuture.failedFuture(exception);
+        }
+    }
+
+    public List<PantryMatchDto> searchByPantry(List<String> ingredients, int maxMissing) {
+        final CollectingPantrySearchPresenter presenter = new CollectingPantrySearchPresenter(recipeMapper);
+        final PantrySearchInteractor interactor = new PantrySearchInteractor(pantrySearchGateway, presenter);
+        interactor.searchByPantry(ingredients, maxMissing);
+        return presenter.getMatches();
+    }
+
+    public RecipePageDto searchWithRestrictions(RestrictionSearchRequest request, String pageToken) {
+        final CollectingRestrictionSearchPresenter presenter = new CollectingRestrictionSearchPresenter(recipeMapper);
+        final RecipeSearchWithRestrictionInteractor interactor = new RecipeSearchWithRestrictionInteractor(
+                restrictionSearchGateway,
+                savedRecipesGateway,
+                presenter,
+                recipeRanker
+        );
+        interactor.searchRestrictionRecipes(toRestrictions(request), pageToken, toPreferences(request));
+        return new RecipePageDto(presenter.getRecipes(), presenter.getNextPageToken());
+    }
+
+    /**
+     * Asynchronous {@link #searchWithRestrictions(RestrictionSearchRequest, String)}. The future completes
+     * on the thread that finishes the Edamam call.
+     */
+    public CompletableFuture<RecipePageDto> searchWithRestrictionsAsync(RestrictionSearchRequest request,
+                                                                        String pageToken) {
+        final CollectingRestrictionSearchPresenter presenter = new CollectingRestrictionSearchPresenter(recipeMapper);
+        final RecipeSearchWithRestrictionInteractor interactor = new RecipeSearchWithRestrictionInteractor(
+                restrictionSearchGateway,
                 savedRecipesGateway,
-                presenter
+                presenter,
+                recipeRanker
         );
-        interactor.searchRecipes(ingredients);
-        return presenter.getRecipes();
+        return interactor.searchRestrictionRecipesAsync(toRestrictions(request), pageToken, toPreferences(request))
+                .thenApply(ignored -> new RecipePageDto(presenter.getRecipes(), presenter.getNextPageToken()));
     }
 
-    public List<RecipeDto> searchWithRestrictions(RestrictionSearchRequest request) {
+    private Map<String, List<String>> toRestrictions(RestrictionSearchRequest request) {
         final Map<String, List<String>> restrictions = new HashMap<>();
         restrictions.put(FOOD_NAME_KEY, request.foodName() == null
                 ? List.of()
@@ -65,14 +187,14 @@ public class RecipeService {
         if (request.cuisineTypes() != null && !request.cuisineTypes().isEmpty()) {
             restrictions.put(CUISINE_TYPE_KEY, request.cuisineTypes());
         }
+        return restrictions;
+    }
 
-        final CollectingRestrictionSearchPresenter presenter = new CollectingRestrictionSearchPresenter(recipeMapper);
-        final RecipeSearchWithRestrictionInteractor interactor = new RecipeSearchWithRestrictionInteractor(
-                restrictionSearchGateway,
-                presenter
-        );
-        interactor.searchRestrictionRecipes(restrictions);
-        return presenter.getRecipes();
+    private static RankingPreferences toPreferences(RestrictionSearchRequest request) {
+        final RankingPreferences.MacroTarget target = new RankingPreferences.MacroTarget(
+                request.targetCalories(), request.targetProtein(), request.targetFat(),
+                request.targetCarbohydrates());
+        return new RankingPreferences(request.userId(), target.isEmpty() ? null : target);
     }
 
     public void saveRecipe(int userId, SaveRecipeRequest request) {
@@ -80,13 +202,14 @@ public class RecipeService {
         final RecipeSearchInteractor interactor = new RecipeSearchInteractor(
                 recipeSearchGateway,
                 savedRecipesGateway,
-                presenter
+                presenter,
+                recipeRanker
         );
         Recipe recipe = recipeMapper.toEntity(request.recipe());
         interactor.saveRecipe(userId, recipe);
     }
 
-    public void deleteRecipe(int userId, int recipeId) {
+    public void deleteRecipe(int userId, long recipeId) {
         savedRecipesGateway.removeRecipe(userId, recipeId);
     }
 
@@ -102,6 +225,7 @@ public class RecipeService {
     private static final class CollectingRecipeSearchPresenter implements RecipeSearchOutputBoundary {
         private final RecipeMapper mapper;
         private final List<RecipeDto> recipes = new ArrayList<>();
+        private String nextPageToken;
 
         CollectingRecipeSearchPresenter(RecipeMapper mapper) {
             this.mapper = mapper;
@@ -115,6 +239,11 @@ public class RecipeService {
             }
         }
 
+        @Override
+        public void presentNextPageToken(String nextPageToken) {
+            this.nextPageToken = nextPageToken;
+        }
+
         @Override
         public void presentError(String error) {
             throw new IllegalStateException(error);
@@ -128,11 +257,16 @@ public class RecipeService {
         List<RecipeDto> getRecipes() {
             return recipes;
         }
+
+        String getNextPageToken() {
+            return nextPageToken;
+        }
     }
 
     private static final class CollectingRestrictionSearchPresenter implements SearchWithRestrictionOutputBoundary {
         private final RecipeMapper mapper;
         private final List<RecipeDto> recipes = new ArrayList<>();
+        private String nextPageToken;
 
         CollectingRestrictionSearchPresenter(RecipeMapper mapper) {
             this.mapper = mapper;
@@ -146,6 +280,11 @@ public class RecipeService {
             }
         }
 
+        @Override
+        public void presentNextPageToken(String nextPageToken) {
+            this.nextPageToken = nextPageToken;
+        }
+
         @Override
         public void presentError(String error) {
             throw new IllegalStateException(error);
@@ -154,5 +293,39 @@ public class RecipeService {
         List<RecipeDto> getRecipes() {
             return recipes;
         }
+
+        String getNextPageToken() {
+            return nextPageToken;
+        }
+    }
+
+    private static final class CollectingPantrySearchPresenter implements PantrySearchOutputBoundary {
+        private final RecipeMapper mapper;
+        private final List<PantryMatchDto> matches = new ArrayList<>();
+
+        CollectingPantrySearchPresenter(RecipeMapper mapper) {
+            this.mapper = mapper;
+        }
+
+        @Override
+        public void presentMatches(List<PantryMatch> matches) {
+            this.matches.clear();
+            for (PantryMatch match : matches) {
+                this.matches.add(new PantryMatchDto(
+                        mapper.toDto(match.recipe()),
+                        match.matchedIngredients(),
+                        match.missingIngredients(),
+                        match.coverage()));
+            }
+        }
+
+        @Override
+        public void presentError(String error) {
+            throw new IllegalStateException(error);
+        }
+
+        List<PantryMatchDto> getMatches() {
+            return matches;
+        }
     }
 }
@@ -0,0 +1,9 @@
+package com.recipewiz.backend.recipe.dto;
+
+public record PantryMatchDto(
+        RecipeDto recipe,
+        int matchedIngredients,
+        int missingIngredients,
+        double coverage
+) {
+}
@@ -3,7 +3,8 @@ package com.recipewiz.backend.recipe.dto;
 import java.util.List;
 
 public record RecipeDto(
-        int recipeId,
+        long recipeId,
+        String uri,
         String title,
         String description,
         String instructions,
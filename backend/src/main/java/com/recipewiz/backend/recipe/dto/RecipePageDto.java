@@ -0,0 +1,9 @@
+package com.recipewiz.backend.recipe.dto;
+
+import java.util.List;
+
+public record RecipePageDto(
+        List<RecipeDto> recipes,
+        String nextPageToken
+) {
+}
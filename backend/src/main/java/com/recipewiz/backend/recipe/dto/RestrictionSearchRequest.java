@@ -1,11 +1,42 @@
 package com.recipewiz.backend.recipe.dto;
 
 import java.util.List;
+import java.util.Objects;
 
 public record RestrictionSearchRequest(
         String foodName,
         List<String> dietLabels,
         List<String> healthLabels,
-        List<String> cuisineTypes
+        List<String> cuisineTypes,
+        // Optional ranking inputs: the user whose saved recipes similar results are ranked up for, and
+        // the nutrition per serving results should be close to
+        Integer userId,
+        Double targetCalories,
+        Double targetProtein,
+        Double targetFat,
+        Double targetCarbohydrates
 ) {
+
+    /**
+     * Trims, deduplicates and sorts the label lists, so that requests listing the same labels in another
+     * order are the same search.
+     */
+    public RestrictionSearchRequest {
+        dietLabels = sortedLabels(dietLabels);
+        healthLabels = sortedLabels(healthLabels);
+        cuisineTypes = sortedLabels(cuisineTypes);
+    }
+
+    private static List<String> sortedLabels(List<String> labels) {
+        if (labels == null) {
+            return null;
+        }
+        return labels.stream()
+                .filter(Objects::nonNull)
+                .map(String::trim)
+                .filter(label -> !label.isEmpty())
+                .distinct()
+                .sorted()
+                .toList();
+    }
 }
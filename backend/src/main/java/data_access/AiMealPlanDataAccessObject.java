@@ -2,6 +2,7 @@ package data_access;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import entity.Nutrition;
 import entity.Recipe;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -31,6 +32,7 @@ public class AiMealPlanDataAccessObject implements AiMealPlanDataAccessInterface
         this.gson = new GsonBuilder()
                 .registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
                 .registerTypeAdapter(JSONArray.class, new JSONArrayTypeAdapter())
+                .registerTypeAdapter(Nutrition.class, new NutritionTypeAdapter())
                 .create();
     }
 
@@ -40,7 +42,7 @@ public class AiMealPlanDataAccessObject implements AiMealPlanDataAccessInterface
     }
 
     @Override
-    public Recipe getSavedRecipe(int userId, int recipeId) {
+    public Recipe getSavedRecipe(int userId, long recipeId) {
         return savedRecipesDao.getSavedRecipe(userId, recipeId);
     }
 
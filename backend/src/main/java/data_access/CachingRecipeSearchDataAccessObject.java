@@ -0,0 +1,352 @@
+package data_access;
+
+import entity.Recipe;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+import use_case.recipe_search.RecipeSearchDataAccessInterface;
+import use_case.recipe_search.RecipeSearchPage;
+import use_case.search_with_restriction.SearchWithRestrictionDataAccessInterface;
+
+/**
+ * Caches Edamam recipe search results in front of both search DAOs.
+ * <p>
+ * A plain search and a restricted search without filters hit the same Edamam query, so both
+ * interfaces share one cache of pages keyed on the canonical {@link RecipeSearchKey}. Concurrent misses
+ * for the same key are coalesced so that only one Edamam call per key and priority is in flight at any
+ * moment.
+ * {@code recipewiz.edamam.search.queries.distinct} estimates how many distinct first-page searches were
+ * made as given ({@code form=raw}) and after canonicalization ({@code form=canonical}); the gap is the
+ * traffic canonicalization lets share cache entries.
+ * </p>
+ * <p>
+ * Whenever a page is served through a paged method, the following page is fetched into the cache in
+ * the background. Prefetches run on a small bounded pool and are dropped when its queue is full.
+ * A search never waits on a prefetch or refresh of the same page, which may be queueing for background
+ * quota; it makes its own interactive call instead.
+ * </p>
+ * <p>
+ * Edamam calls go through a circuit breaker. Expired pages are kept for a stale period: a request for
+ * one is answered from the stale page immediately and the page is refreshed in the background, or only
+ * answered from it while the breaker is open. With the breaker open and nothing cached, searches fail
+ * fast with a {@link CircuitBreakerOpenException} instead of waiting on Edamam.
+ * </p>
+ * <p>
+ * Searches made for a caller take Edamam quota at interactive priority; prefetches and refreshes take it
+ * at background priority, so they queue behind interactive searches. The permit is taken before the call
+ * enters the circuit breaker, so time spent queueing for it never counts as a slow Edamam call.
+ * </p>
+ * <p>
+ * The asynchronous page methods return as soon as the Edamam request is enqueued; prefetches and
+ * refreshes still run on their own pools.
+ * </p>
+ */
+@Primary
+@Component
+public class CachingRecipeSearchDataAccessObject
+        implements RecipeSearchDataAccessInterface, SearchWithRestrictionDataAccessInterface {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CachingRecipeSearchDataAccessObject.class);
+
+    private final RecipeSearchDataAccessObject recipeSearchDao;
+    private final SearchWithRestrictionDataAccessObject restrictionSearchDao;
+    private final EdamamClient edamamClient;
+    private final TtlLruCache<RecipeSearchKey, EdamamSearchPage> cache;
+    private final SingleFlight<SearchFlight, EdamamSearchPage> inFlightSearches = new SingleFlight<>();
+    private final ThreadPoolExecutor prefetchExecutor;
+    private final LongAdder prefetchesDropped = new LongAdder();
+    private final CircuitBreaker circuitBreaker;
+    private final ThreadPoolExecutor refreshExecutor;
+    private final Set<RecipeSearchKey> refreshing = ConcurrentHashMap.newKeySet();
+    private final LongAdder refreshesDropped = new LongAdder();
+    private final LongAdder staleServedExpired = new LongAdder();
+    private final LongAdder staleServedCircuitOpen = new LongAdder();
+    private final DistinctCounter rawQueries = new DistinctCounter();
+    private final DistinctCounter canonicalQueries = new DistinctCounter();
+
+    public CachingRecipeSearchDataAccessObject(
+            RecipeSearchDataAccessObject recipeSearchDao,
+            SearchWithRestrictionDataAccessObject restrictionSearchDao,
+            EdamamClient edamamClient,
+            CircuitBreaker edamamCircuitBreaker,
+            MeterRegistry meterRegistry,
+            @Value("${recipewiz.edamam.search-cache.max-size:1000}") int maxSize,
+            @Value("${recipewiz.edamam.search-cache.ttl:10m}") Duration ttl,
+            @Value("${recipewiz.edamam.search-cache.stale-ttl:1h}") Duration staleTtl,
+            @Value("${recipewiz.edamam.search-prefetch.threads:2}") int prefetchThreads,
+            @Value("${recipewiz.edamam.search-prefetch.queue-capacity:32}") int prefetchQueueCapacity,
+            @Value("${recipewiz.edamam.search-refresh.threads:1}") int refreshThreads,
+            @Value("${recipewiz.edamam.search-refresh.queue-capacity:16}") int refreshQueueCapacity
+    ) {
+        this.recipeSearchDao = recipeSearchDao;
+        this.restrictionSearchDao = restrictionSearchDao;
+        this.edamamClient = edamamClient;
+        this.circuitBreaker = edamamCircuitBreaker;
+        this.cache = new TtlLruCache<>(maxSize, ttl.toNanos(), staleTtl.toNanos());
+        this.prefetchExecutor = newBackgroundExecutor("recipe-prefetch-", prefetchThreads, prefetchQueueCapacity,
+                (runnable, pool) -> prefetchesDropped.increment());
+        this.refreshExecutor = newBackgroundExecutor("recipe-refresh-", refreshThreads, refreshQueueCapacity,
+                new ThreadPoolExecutor.AbortPolicy());
+
+        new TtlLruCacheMetrics(cache, "recipe-search", Tags.empty()).bindTo(meterRegistry);
+        FunctionCounter.builder("recipewiz.edamam.search.coalesced", inFlightSearches, SingleFlight::coalescedCount)
+                .description("Searches served by an identical search already in flight")
+                .register(meterRegistry);
+        Gauge.builder("recipewiz.edamam.search.queries.distinct", rawQueries, DistinctCounter::estimate)
+                .tag("form", "raw")
+                .description("Distinct first-page searches since startup, estimated")
+                .register(meterRegistry);
+        Gauge.builder("recipewiz.edamam.search.queries.distinct", canonicalQueries, DistinctCounter::estimate)
+                .tag("form", "canonical")
+                .description("Distinct first-page searches since startup, estimated")
+                .register(meterRegistry);
+        Gauge.builder("recipewiz.edamam.search.in-flight", inFlightSearches, SingleFlight::inFlightCount)
+                .description("Distinct Edamam searches currently in flight")
+                .register(meterRegistry);
+        FunctionCounter.builder("recipewiz.edamam.search.prefetch", prefetchExecutor,
+                        ThreadPoolExecutor::getCompletedTaskCount)
+                .tag("result", "completed")
+                .description("Next-page prefetches")
+                .register(meterRegistry);
+        FunctionCounter.builder("recipewiz.edamam.search.prefetch", prefetchesDropped, LongAdder::sum)
+                .tag("result", "dropped")
+                .description("Next-page prefetches")
+                .register(meterRegistry);
+        FunctionCounter.builder("recipewiz.edamam.search.stale", staleServedExpired, LongAdder::sum)
+                .tag("reason", "expired")
+                .description("Searches answered from an expired cached page")
+                .register(meterRegistry);
+        FunctionCounter.builder("recipewiz.edamam.search.stale", staleServedCircuitOpen, LongAdder::sum)
+                .tag("reason", "circuit-open")
+                .description("Searches answered from an expired cached page")
+                .register(meterRegistry);
+        FunctionCounter.builder("recipewiz.edamam.search.refresh", refreshExecutor,
+                        ThreadPoolExecutor::getCompletedTaskCount)
+                .tag("result", "completed")
+                .description("Background refreshes of expired cached pages")
+                .register(meterRegistry);
+        FunctionCounter.builder("recipewiz.edamam.search.refresh", refreshesDropped, LongAdder::sum)
+                .tag("result", "dropped")
+                .description("Background refreshes of expired cached pages")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public List<Recipe> searchRecipesByFoodName(String foodName) {
+        return load(firstPageKey(foodName, null, null, null), QuotaScheduler.Priority.INTERACTIVE).recipes();
+    }
+
+    @Override
+    public RecipeSearchPage searchRecipePage(String foodName, String pageToken) {
+        return servePage(pageToken == null
+                ? firstPageKey(foodName, null, null, null)
+                : RecipePageToken.decode(pageToken));
+    }
+
+    @Override
+    public CompletableFuture<RecipeSearchPage> searchRecipePageAsync(String foodName, String pageToken) {
+        return servePageAsync(pageToken == null
+                ? firstPageKey(foodName, null, null, null)
+                : RecipePageToken.decode(pageToken));
+    }
+
+    @Override
+    public List<Recipe> searchRecipesByRestriction(String foodName, String diet, String health,
+                                                   String cuisineType) {
+        return load(firstPageKey(foodName, diet, health, cuisineType), QuotaScheduler.Priority.INTERACTIVE)
+                .recipes();
+    }
+
+    @Override
+    public RecipeSearchPage searchRecipePageByRestriction(String foodName, String diet, String health,
+                                                          String cuisineType, String pageToken) {
+        return servePage(pageToken == null
+                ? firstPageKey(foodName, diet, health, cuisineType)
+                : RecipePageToken.decode(pageToken));
+    }
+
+    @Override
+    public CompletableFuture<RecipeSearchPage> searchRecipePageByRestrictionAsync(
+            String foodName, String diet, String health, String cuisineType, String pageToken) {
+        return servePageAsync(pageToken == null
+                ? firstPageKey(foodName, diet, health, cuisineType)
+                : RecipePageToken.decode(pageToken));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        prefetchExecutor.shutdownNow();
+        refreshExecutor.shutdownNow();
+    }
+
+    /**
+     * Returns the canonical key of a first page, counting the search as given and as canonicalized.
+     */
+    private RecipeSearchKey firstPageKey(String foodName, String diet, String health, String cuisineType) {
+        final RecipeSearchKey key = RecipeSearchKey.of(foodName, diet, health, cuisineType);
+        rawQueries.add(foodName + '\u0000' + diet + '\u0000' + health + '\u0000' + cuisineType);
+        canonicalQueries.add(key.toString());
+        return key;
+    }
+
+    private RecipeSearchPage servePage(RecipeSearchKey key) {
+        return toRecipePage(key, load(key, QuotaScheduler.Priority.INTERACTIVE));
+    }
+
+    private CompletableFuture<RecipeSearchPage> servePageAsync(RecipeSearchKey key) {
+        final EdamamSearchPage cached = cachedOrStale(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(toRecipePage(key, cached));
+        }
+        return inFlightSearches
+                .executeAsync(new SearchFlight(key, QuotaScheduler.Priority.INTERACTIVE), () -> circuitBreaker
+                        .executeAsync(() -> edamamClient.acquireRecipeQuotaAsync(QuotaScheduler.Priority.INTERACTIVE),
+                                () -> fetchAsync(key))
+                        .thenApply(fetched -> store(key, fetched)))
+                .thenApply(page -> toRecipePage(key, page));
+    }
+
+    private RecipeSearchPage toRecipePage(RecipeSearchKey key, EdamamSearchPage page) {
+        if (!page.hasNext()) {
+            return new RecipeSearchPage(page.recipes(), null);
+        }
+        final RecipeSearchKey nextKey = key.withCursor(page.nextCursor());
+        prefetch(nextKey);
+        return new RecipeSearchPage(page.recipes(), RecipePageToken.encode(nextKey));
+    }
+
+    private EdamamSearchPage load(RecipeSearchKey key, QuotaScheduler.Priority priority) {
+        final EdamamSearchPage cached = cachedOrStale(key);
+        if (cached != null) {
+            return cached;
+        }
+        return inFlightSearches.execute(new SearchFlight(key, priority), () -> fetchAndCache(key, priority));
+    }
+
+    /**
+     * Returns the fresh cached page, or a stale one while scheduling its refresh; null if neither exists.
+     */
+    private EdamamSearchPage cachedOrStale(RecipeSearchKey key) {
+        final TtlLruCache.Lookup<EdamamSearchPage> cached = cache.lookup(key);
+        if (cached == null) {
+            return null;
+        }
+        if (cached.stale()) {
+            if (circuitBreaker.isCallPermitted()) {
+                staleServedExpired.increment();
+                refresh(key);
+            }
+            else {
+                staleServedCircuitOpen.increment();
+            }
+        }
+        return cached.value();
+    }
+
+    private EdamamSearchPage fetchAndCache(RecipeSearchKey key, QuotaScheduler.Priority priority) {
+        return store(key, circuitBreaker.execute(() -> edamamClient.acquireRecipeQuota(priority), () -> fetch(key)));
+    }
+
+    private EdamamSearchPage store(RecipeSearchKey key, EdamamSearchPage fetched) {
+        final EdamamSearchPage loaded = new EdamamSearchPage(List.copyOf(fetched.recipes()), fetched.nextCursor());
+        cache.put(key, loaded);
+        return loaded;
+    }
+
+    /**
+     * Fetches a page under a quota permit already taken.
+     */
+    private EdamamSearchPage fetch(RecipeSearchKey key) {
+        if (key.diet() == null && key.health() == null && key.cuisineType() == null) {
+            return recipeSearchDao.searchPage(key);
+        }
+        return restrictionSearchDao.searchPage(key);
+    }
+
+    private CompletableFuture<EdamamSearchPage> fetchAsync(RecipeSearchKey key) {
+        if (key.diet() == null && key.health() == null && key.cuisineType() == null) {
+            return recipeSearchDao.searchPageAsync(key);
+        }
+        return restrictionSearchDao.searchPageAsync(key);
+    }
+
+    private void prefetch(RecipeSearchKey key) {
+        if (cache.containsKey(key)) {
+            return;
+        }
+        // Rejected when the queue is full; the rejection handler counts the drop
+        prefetchExecutor.execute(() -> {
+            try {
+                load(key, QuotaScheduler.Priority.BACKGROUND);
+            }
+            catch (RuntimeException exception) {
+                LOGGER.debug("Prefetch of next search page failed: {}", exception.getMessage());
+            }
+        });
+    }
+
+    private void refresh(RecipeSearchKey key) {
+        // At most one queued or running refresh per key
+        if (!refreshing.add(key)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    inFlightSearches.execute(new SearchFlight(key, QuotaScheduler.Priority.BACKGROUND),
+                            () -> fetchAndCache(key, QuotaScheduler.Priority.BACKGROUND));
+                }
+                catch (RuntimeException exception) {
+                    LOGGER.debug("Refresh of expired search page failed: {}", exception.getMessage());
+                }
+                finally {
+                    refreshing.remove(key);
+                }
+            });
+        }
+        catch (RejectedExecutionException exception) {
+            refreshing.remove(key);
+            refreshesDropped.increment();
+        }
+    }
+
+    private static ThreadPoolExecutor newBackgroundExecutor(String threadPrefix, int threads, int queueCapacity,
+                                                            RejectedExecutionHandler rejectionHandler) {
+        final AtomicInteger threadCount = new AtomicInteger();
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads, threads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    final Thread thread = new Thread(runnable, threadPrefix + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                rejectionHandler);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * A search in flight: interactive callers only share interactive calls.
+     */
+    private record SearchFlight(RecipeSearchKey key, QuotaScheduler.Priority priority) {
+    }
+}
@@ -0,0 +1,336 @@
+package data_access;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A count-based circuit breaker around calls to a remote service.
+ * <p>
+ * The outcomes of the last {@code windowSize} calls are kept in a ring. Once at least
+ * {@code minimumCalls} have been recorded, the breaker opens when the share of failed calls, or of calls
+ * slower than the slow-call duration, reaches its threshold. While open, calls are rejected with a
+ * {@link CircuitBreakerOpenException} without running. After the open duration a limited number of trial
+ * calls are let through: the breaker closes if all of them succeed in time and opens again otherwise.
+ * Calls failing with a {@link QuotaExceededException} are not recorded, and a setup run before the call, such as
+ * waiting for a quota permit, is not timed.
+ * </p>
+ * <p>
+ * All state changes synchronize on the breaker; the protected calls themselves run unsynchronized.
+ * </p>
+ */
+public class CircuitBreaker {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    private static final byte FAILED = 1;
+    private static final byte SLOW = 2;
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String name;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long slowCallNanos;
+    private final double slowCallRateThreshold;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final LongSupplier clock;
+
+    private final byte[] window;
+    private int windowNext;
+    private int windowCount;
+    private int windowFailures;
+    private int windowSlowCalls;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenPermits;
+    private int halfOpenSucceeded;
+    // Bumped on every transition so that outcomes of calls admitted in an earlier state are ignored
+    private long generation;
+
+    private final LongAdder successes = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder slowCalls = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+
+    /**
+     * @param name                  names the protected service in log messages and exceptions
+     * @param windowSize            number of most recent calls the rates are computed over
+     * @param minimumCalls          calls that must be recorded before the breaker can open
+     * @param failureRateThreshold  failed share of the window, in percent, that opens the breaker
+     * @param slowCallNanos         duration from which a call counts as slow
+     * @param slowCallRateThreshold slow share of the window, in percent, that opens the breaker
+     * @param openNanos             how long the breaker stays open before trial calls are allowed
+     * @param halfOpenCalls         number of trial calls that must succeed to close the breaker again
+     */
+    public CircuitBreaker(String name, int windowSize, int minimumCalls, double failureRateThreshold,
+                          long slowCallNanos, double slowCallRateThreshold, long openNanos, int halfOpenCalls) {
+        this(name, windowSize, minimumCalls, failureRateThreshold, slowCallNanos, slowCallRateThreshold, openNanos,
+                halfOpenCalls, System::nanoTime);
+    }
+
+    CircuitBreaker(String name, int windowSize, int minimumCalls, double failureRateThreshold,
+                   long slowCallNanos, double slowCallRateThreshold, long openNanos, int halfOpenCalls,
+                   LongSupplier clock) {
+        if (windowSize <= 0 || halfOpenCalls <= 0) {
+            throw new IllegalArgumentException("windowSize and halfOpenCalls must be positive");
+        }
+        if (minimumCalls <= 0 || minimumCalls > windowSize) {
+            throw new IllegalArgumentException("minimumCalls must be between 1 and windowSize");
+        }
+        this.name = name;
+        this.window = new byte[windowSize];
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallNanos = slowCallNanos;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.openNanos = openNanos;
+        this.halfOpenCalls = halfOpenCalls;
+        this.clock = clock;
+    }
+
+    /**
+     * Runs the call if the breaker permits it and records its outcome.
+     *
+     * @throws CircuitBreakerOpenException if the breaker is open
+     */
+    public <T> T execute(Supplier<T> call) {
+        return execute(() -> { }, call);
+    }
+
+    /**
+     * Runs {@code setup}, then the call, if the breaker permits it and records the outcome of the call. Only
+     * the call is timed: time spent in the setup, such as waiting for a quota permit, is never counted as a
+     * slow call, and a setup that fails is not recorded.
+     *
+     * @throws CircuitBreakerOpenException if the breaker is open, in which case the setup does not run
+     */
+    public <T> T execute(Runnable setup, Supplier<T> call) {
+        final long admittedIn = acquirePermission();
+        try {
+            setup.run();
+        }
+        catch (RuntimeException | Error exception) {
+            release(admittedIn);
+            throw exception;
+        }
+        final long start = clock.getAsLong();
+        final T value;
+        try {
+            value = call.get();
+        }
+        catch (QuotaExceededException exception) {
+            // Rejected locally or throttled: says nothing about the health of the service
+            release(admittedIn);
+            throw exception;
+        }
+        catch (RuntimeException | Error exception) {
+            record(admittedIn, true, clock.getAsLong() - start);
+            throw exception;
+        }
+        record(admittedIn, false, clock.getAsLong() - start);
+        return value;
+    }
+
+    /**
+     * Starts the asynchronous call if the breaker permits it and records its outcome when it completes.
+     *
+     * @return the call's future, or a future failed with {@link CircuitBreakerOpenException} if the breaker
+     *         is open
+     */
+    public <T> CompletableFuture<T> executeAsync(Supplier<CompletableFuture<T>> call) {
+        return executeAsync(() -> CompletableFuture.completedFuture(null), call);
+    }
+
+    /**
+     * Asynchronous {@link #execute(Runnable, Supplier)}: starts the call once the setup's future completes,
+     * and times the call from then on.
+     *
+     * @return the call's future, failed with the setup's exception if the setup fails, or failed with
+     *         {@link CircuitBreakerOpenException} if the breaker is open
+     */
+    public <T> CompletableFuture<T> executeAsync(Supplier<CompletableFuture<Void>> setup,
+                                                 Supplier<CompletableFuture<T>> call) {
+        final long admittedIn;
+        try {
+            admittedIn = acquirePermission();
+        }
+        catch (CircuitBreakerOpenException exception) {
+            return CompletableFuture.failedFuture(exception);
+        }
+        CompletableFuture<Void> prepared;
+        try {
+            prepared = setup.get();
+        }
+        catch (RuntimeException exception) {
+            prepared = CompletableFuture.failedFuture(exception);
+        }
+        return prepared
+                .whenComplete((ignored, failure) -> {
+                    if (failure != null) {
+                        release(admittedIn);
+                    }
+                })
+                .thenCompose(ignored -> timed(admittedIn, call));
+    }
+
+    /**
+     * Returns whether a call made now would be let through, without taking a trial-call permit.
+     */
+    public synchronized boolean isCallPermitted() {
+        return switch (currentState()) {
+            case CLOSED -> true;
+            case OPEN -> false;
+            case HALF_OPEN -> halfOpenPermits > 0;
+        };
+    }
+
+    public synchronized State state() {
+        return currentState();
+    }
+
+    public long successCount() {
+        return successes.sum();
+    }
+
+    public long failureCount() {
+        return failures.sum();
+    }
+
+    /**
+     * Number of calls that succeeded but took at least the slow-call duration.
+     */
+    public long slowCallCount() {
+        return slowCalls.sum();
+    }
+
+    /**
+     * Number of calls rejected because the breaker was open.
+     */
+    public long rejectionCount() {
+        return rejections.sum();
+    }
+
+    private <T> CompletableFuture<T> timed(long admittedIn, Supplier<CompletableFuture<T>> call) {
+        final long start = clock.getAsLong();
+        CompletableFuture<T> result;
+        try {
+            result = call.get();
+        }
+        catch (RuntimeException exception) {
+            result = CompletableFuture.failedFuture(exception);
+        }
+        return result.whenComplete((value, failure) -> {
+            final Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                    ? failure.getCause()
+                    : failure;
+            if (cause instanceof QuotaExceededException) {
+                release(admittedIn);
+            }
+            else {
+                record(admittedIn, cause != null, clock.getAsLong() - start);
+            }
+        });
+    }
+
+    private synchronized long acquirePermission() {
+        final State current = currentState();
+        if (current == State.OPEN || current == State.HALF_OPEN && halfOpenPermits == 0) {
+            rejections.increment();
+            throw new CircuitBreakerOpenException(name);
+        }
+        if (current == State.HALF_OPEN) {
+            halfOpenPermits--;
+        }
+        return generation;
+    }
+
+    private synchronized void release(long admittedIn) {
+        if (admittedIn == generation && state == State.HALF_OPEN) {
+            halfOpenPermits++;
+        }
+    }
+
+    private synchronized void record(long admittedIn, boolean failed, long elapsedNanos) {
+        final boolean slow = elapsedNanos >= slowCallNanos;
+        if (failed) {
+            failures.increment();
+        }
+        else if (slow) {
+            slowCalls.increment();
+        }
+        else {
+            successes.increment();
+        }
+        if (admittedIn != generation) {
+            return;
+        }
+
+        if (state == State.HALF_OPEN) {
+            if (failed || slow) {
+                transitionTo(State.OPEN);
+            }
+            else if (++halfOpenSucceeded == halfOpenCalls) {
+                transitionTo(State.CLOSED);
+            }
+            return;
+        }
+
+        final byte outcome = (byte) ((failed ? FAILED : 0) | (slow ? SLOW : 0));
+        if (windowCount == window.length) {
+            final byte evicted = window[windowNext];
+            windowFailures -= evicted & FAILED;
+            windowSlowCalls -= (evicted & SLOW) >> 1;
+        }
+        else {
+            windowCount++;
+        }
+        window[windowNext] = outcome;
+        windowNext = (windowNext + 1) % window.length;
+        windowFailures += outcome & FAILED;
+        windowSlowCalls += (outcome & SLOW) >> 1;
+
+        if (windowCount >= minimumCalls
+                && (windowFailures * 100.0 / windowCount >= failureRateThreshold
+                || windowSlowCalls * 100.0 / windowCount >= slowCallRateThreshold)) {
+            transitionTo(State.OPEN);
+        }
+    }
+
+    private State currentState() {
+        if (state == State.OPEN && clock.getAsLong() - openedAt >= openNanos) {
+            transitionTo(State.HALF_OPEN);
+        }
+        return state;
+    }
+
+    private void transitionTo(State next) {
+        if (next == State.OPEN && state == State.HALF_OPEN) {
+            LOGGER.warn("Circuit breaker {} reopened after a failed or slow trial call", name);
+            openedAt = clock.getAsLong();
+        }
+        else if (next == State.OPEN) {
+            LOGGER.warn("Circuit breaker {} opened after {} failed and {} slow of the last {} calls",
+                    name, windowFailures, windowSlowCalls, windowCount);
+            openedAt = clock.getAsLong();
+        }
+        else {
+            LOGGER.info("Circuit breaker {} is now {}", name, next);
+        }
+        state = next;
+        generation++;
+        halfOpenPermits = halfOpenCalls;
+        halfOpenSucceeded = 0;
+        windowNext = 0;
+        windowCount = 0;
+        windowFailures = 0;
+        windowSlowCalls = 0;
+    }
+}
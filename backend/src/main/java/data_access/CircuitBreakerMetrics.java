@@ -0,0 +1,50 @@
+package data_access;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.Locale;
+import java.util.function.ToLongFunction;
+
+/**
+ * Publishes the state and call outcomes of a {@link CircuitBreaker}.
+ * <p>
+ * {@code recipewiz.circuit-breaker.state} has one gauge per state, 1 for the current state and 0 for the
+ * others; {@code recipewiz.circuit-breaker.calls} counts calls by {@code result}.
+ * </p>
+ */
+public class CircuitBreakerMetrics implements MeterBinder {
+
+    private final CircuitBreaker circuitBreaker;
+    private final String name;
+
+    public CircuitBreakerMetrics(CircuitBreaker circuitBreaker, String name) {
+        this.circuitBreaker = circuitBreaker;
+        this.name = name;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (CircuitBreaker.State state : CircuitBreaker.State.values()) {
+            Gauge.builder("recipewiz.circuit-breaker.state", circuitBreaker,
+                            breaker -> breaker.state() == state ? 1 : 0)
+                    .tag("name", name)
+                    .tag("state", state.name().toLowerCase(Locale.ROOT))
+                    .description("Whether the circuit breaker is in this state")
+                    .register(registry);
+        }
+        registerCalls(registry, "success", CircuitBreaker::successCount);
+        registerCalls(registry, "failure", CircuitBreaker::failureCount);
+        registerCalls(registry, "slow", CircuitBreaker::slowCallCount);
+        registerCalls(registry, "rejected", CircuitBreaker::rejectionCount);
+    }
+
+    private void registerCalls(MeterRegistry registry, String result, ToLongFunction<CircuitBreaker> count) {
+        FunctionCounter.builder("recipewiz.circuit-breaker.calls", circuitBreaker, breaker -> count.applyAsLong(breaker))
+                .tag("name", name)
+                .tag("result", result)
+                .description("Calls through the circuit breaker")
+                .register(registry);
+    }
+}
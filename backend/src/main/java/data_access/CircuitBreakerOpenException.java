@@ -0,0 +1,11 @@
+package data_access;
+
+/**
+ * Thrown instead of calling a remote service while its circuit breaker is open.
+ */
+public class CircuitBreakerOpenException extends RuntimeException {
+
+    public CircuitBreakerOpenException(String name) {
+        super("Circuit breaker " + name + " is open");
+    }
+}
@@ -1,13 +1,26 @@
 package data_access;
 
+import entity.Recipe;
 import jakarta.annotation.PostConstruct;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
 import javax.sql.DataSource;
+import org.json.JSONException;
+import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 /**
@@ -17,10 +30,26 @@ import org.springframework.stereotype.Component;
 public class DatabaseManager {
     private static final Logger LOGGER = LoggerFactory.getLogger(DatabaseManager.class);
 
+    // PRAGMA user_version from which saved recipes and meal plan entries use stable recipe ids
+    private static final int STABLE_RECIPE_IDS_VERSION = 1;
+
     private final DataSource dataSource;
+    // Null when connections are not limited
+    private final Semaphore connectionPermits;
 
-    public DatabaseManager(DataSource dataSource) {
+    /**
+     * @param maxConcurrentConnections how many connections may be open through this manager at once; 0 for
+     *                                 no limit beyond the connection pool's. The SQLite driver runs every
+     *                                 statement in synchronized native methods, which pin a virtual thread
+     *                                 to its carrier thread. Waiting for a permit here parks the virtual
+     *                                 thread instead, so with virtual threads this should be lower than the
+     *                                 number of carrier threads (CPU cores) to keep some of them free for
+     *                                 other requests.
+     */
+    public DatabaseManager(DataSource dataSource,
+                           @Value("${recipewiz.jdbc.max-concurrent-connections:0}") int maxConcurrentConnections) {
         this.dataSource = dataSource;
+        this.connectionPermits = maxConcurrentConnections > 0 ? new Semaphore(maxConcurrentConnections, true) : null;
     }
 
     /**
@@ -29,6 +58,26 @@ public class DatabaseManager {
      * @throws SQLException 如果连接失败
      */
     public Connection getConnection() throws SQLException {
+        if (connectionPermits == null) {
+            return openConnection();
+        }
+        try {
+            connectionPermits.acquire();
+        }
+        catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", exception);
+        }
+        try {
+            return releasingPermitOnClose(openConnection());
+        }
+        catch (SQLException | RuntimeException exception) {
+            connectionPermits.release();
+            throw exception;
+        }
+    }
+
+    private Connection openConnection() throws SQLException {
         final Connection connection = dataSource.getConnection();
         try (Statement statement = connection.createStatement()) {
             statement.execute("PRAGMA foreign_keys = ON;");
@@ -36,6 +85,27 @@ public class DatabaseManager {
         return connection;
     }
 
+    /**
+     * Wraps the connection so that closing it, once, gives the connection permit back.
+     */
+    private Connection releasingPermitOnClose(Connection connection) {
+        final AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+                    try {
+                        return method.invoke(connection, args);
+                    }
+                    catch (InvocationTargetException exception) {
+                        throw exception.getCause();
+                    }
+                    finally {
+                        if (method.getName().equals("close") && released.compareAndSet(false, true)) {
+                            connectionPermits.release();
+                        }
+                    }
+                });
+    }
+
     /**
      * Ensure a user record exists; used to avoid foreign key errors for demo/test user IDs.
      * @param userId the user ID that should be present
@@ -77,6 +147,7 @@ public class DatabaseManager {
                     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
                 )
             """);
+            migrateRecipeCatalog(conn);
 
             stmt.execute("""
                 CREATE TABLE IF NOT EXISTS saved_recipes (
@@ -103,7 +174,32 @@ public class DatabaseManager {
                     FOREIGN KEY (user_id) REFERENCES users(user_id)
                 )
             """);
+            migrateToStableRecipeIds(conn);
+
+            // Edamam nutrients per normalized ingredient line, as JSON keyed by nutrient code
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS nutrition_line_cache (
+                    line TEXT PRIMARY KEY,
+                    nutrients TEXT NOT NULL,
+                    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                )
+            """);
+
+            // Nutrients per 100 g of common foods, seeded from the bundled table, as JSON keyed by nutrient code
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS food_composition (
+                    name TEXT PRIMARY KEY,
+                    aliases TEXT NOT NULL DEFAULT '',
+                    grams_per_cup REAL,
+                    grams_per_piece REAL,
+                    nutrients TEXT NOT NULL,
+                    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                )
+            """);
 
+            stmt.execute("CREATE UNIQUE INDEX IF NOT EXISTS idx_recipes_uri ON recipes(uri)");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_recipes_stable_id ON recipes(stable_id)");
+            createRecipeSearchIndex(conn);
             stmt.execute("CREATE INDEX IF NOT EXISTS idx_saved_recipes_user_id ON saved_recipes(user_id)");
             stmt.execute("CREATE INDEX IF NOT EXISTS idx_meal_plan_user_date ON meal_plan_entries(user_id, meal_date)");
 
@@ -114,4 +210,210 @@ public class DatabaseManager {
             LOGGER.error("数据库初始化失败: {}", e.getMessage(), e);
         }
     }
+
+    /**
+     * Adds the local catalog columns to a {@code recipes} table created before they existed.
+     * The catalog is keyed by the Edamam recipe URI and stores what a recipe needs to be served
+     * without calling Edamam again.
+     */
+    private void migrateRecipeCatalog(Connection conn) throws SQLException {
+        final Set<String> columns = new HashSet<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA table_info(recipes)")) {
+            while (rs.next()) {
+                columns.add(rs.getString("name"));
+            }
+        }
+        final String[][] catalogColumns = {
+                {"uri", "TEXT"},
+                {"stable_id", "INTEGER"},
+                {"ingredients", "TEXT"},
+                {"calories", "REAL DEFAULT 0"},
+                {"protein", "REAL DEFAULT 0"},
+                {"fat", "REAL DEFAULT 0"},
+                {"carbohydrates", "REAL DEFAULT 0"},
+                {"fiber", "REAL DEFAULT 0"},
+                {"sugar", "REAL DEFAULT 0"},
+                {"updated_at", "TIMESTAMP"},
+        };
+        try (Statement stmt = conn.createStatement()) {
+            for (String[] column : catalogColumns) {
+                if (!columns.contains(column[0])) {
+                    stmt.execute("ALTER TABLE recipes ADD COLUMN " + column[0] + " " + column[1]);
+                }
+            }
+        }
+
+        // Catalog rows written before stable_id existed get the id of their URI
+        final List<long[]> missing = new ArrayList<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(
+                     "SELECT recipe_id, uri FROM recipes WHERE stable_id IS NULL AND uri IS NOT NULL")) {
+            while (rs.next()) {
+                missing.add(new long[] {rs.getLong("recipe_id"), Recipe.idFor(rs.getString("uri"))});
+            }
+        }
+        if (!missing.isEmpty()) {
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "UPDATE recipes SET stable_id = ? WHERE recipe_id = ?")) {
+                for (long[] row : missing) {
+                    pstmt.setLong(1, row[1]);
+                    pstmt.setLong(2, row[0]);
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+            }
+            LOGGER.info("Assigned stable ids to {} catalog recipe(s)", missing.size());
+        }
+    }
+
+    /**
+     * Moves saved recipes and meal plan entries from the position ids search results used to carry
+     * (1, 2, 3, ... in every search) to the stable id of the recipe's Edamam URI, or of its title for
+     * recipes stored without a URI. Both the {@code recipe_id} column and the id inside the stored recipe
+     * JSON are rewritten. A recipe saved twice from different searches is kept once, as saved last.
+     * Runs once per database, tracked by {@code PRAGMA user_version}.
+     */
+    private void migrateToStableRecipeIds(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            if (rs.next() && rs.getInt(1) >= STABLE_RECIPE_IDS_VERSION) {
+                return;
+            }
+        }
+        conn.setAutoCommit(false);
+        try {
+            final int saved = restampRecipeIds(conn, "saved_recipes", "id", "saved_at DESC, id DESC", true);
+            final int planned = restampRecipeIds(conn, "meal_plan_entries", "entry_id", "entry_id", false);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("PRAGMA user_version = " + STABLE_RECIPE_IDS_VERSION);
+            }
+            conn.commit();
+            LOGGER.info("Moved {} saved recipe(s) and {} meal plan entry(ies) to stable recipe ids", saved, planned);
+        }
+        catch (SQLException | RuntimeException e) {
+            conn.rollback();
+            throw e;
+        }
+        finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * Rewrites the recipe ids of one table holding {@code user_id}, {@code recipe_id} and
+     * {@code recipe_data} columns; rows whose recipe JSON cannot be read keep their id.
+     *
+     * @param dedupe whether to delete all but the first row, in {@code order}, of a user's recipe
+     * @return the number of rows rewritten
+     */
+    private int restampRecipeIds(Connection conn, String table, String key, String order, boolean dedupe)
+            throws SQLException {
+        final List<StampedRow> rows = new ArrayList<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT " + key + ", user_id, recipe_data FROM " + table
+                     + " WHERE recipe_data IS NOT NULL ORDER BY " + order)) {
+            while (rs.next()) {
+                final StampedRow row = stamp(rs.getLong(1), rs.getInt(2), rs.getString(3));
+                if (row != null) {
+                    rows.add(row);
+                }
+            }
+        }
+
+        final Set<String> seen = new HashSet<>();
+        int stamped = 0;
+        try (PreparedStatement delete = conn.prepareStatement("DELETE FROM " + table + " WHERE " + key + " = ?");
+             PreparedStatement update = conn.prepareStatement(
+                     "UPDATE " + table + " SET recipe_id = ?, recipe_data = ? WHERE " + key + " = ?")) {
+            for (StampedRow row : rows) {
+                if (dedupe && !seen.add(row.userId() + ":" + row.recipeId())) {
+                    delete.setLong(1, row.key());
+                    delete.addBatch();
+                }
+                else {
+                    update.setLong(1, row.recipeId());
+                    update.setString(2, row.recipeData());
+                    update.setLong(3, row.key());
+                    update.addBatch();
+                    stamped++;
+                }
+            }
+            delete.executeBatch();
+            update.executeBatch();
+        }
+        return stamped;
+    }
+
+    private StampedRow stamp(long key, int userId, String recipeData) {
+        try {
+            final JSONObject recipe = new JSONObject(recipeData);
+            final String identity = recipe.optString("uri", recipe.optString("title", null));
+            if (identity == null) {
+                return null;
+            }
+            final long recipeId = Recipe.idFor(identity);
+            recipe.put("recipeId", recipeId);
+            return new StampedRow(key, userId, recipeId, recipe.toString());
+        }
+        catch (JSONException e) {
+            LOGGER.warn("Keeping the recipe id of unreadable recipe data (row {}): {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private record StampedRow(long key, int userId, long recipeId, String recipeData) {
+    }
+
+    /**
+     * Creates the FTS5 index over catalog title, source and ingredient lines. The index stores no
+     * copy of the text (external content on {@code recipes}) and triggers keep it in sync with every
+     * insert, upsert and delete. An index created over an existing catalog is built from it once.
+     */
+    private void createRecipeSearchIndex(Connection conn) throws SQLException {
+        final boolean exists;
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = 'recipes_fts'");
+             ResultSet rs = pstmt.executeQuery()) {
+            exists = rs.next();
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("""
+                CREATE VIRTUAL TABLE IF NOT EXISTS recipes_fts USING fts5(
+                    title,
+                    description,
+                    ingredient_lines,
+                    content = 'recipes',
+                    content_rowid = 'recipe_id',
+                    tokenize = 'porter unicode61 remove_diacritics 2'
+                )
+            """);
+            stmt.execute("""
+                CREATE TRIGGER IF NOT EXISTS recipes_fts_insert AFTER INSERT ON recipes BEGIN
+                    INSERT INTO recipes_fts (rowid, title, description, ingredient_lines)
+                    VALUES (new.recipe_id, new.title, new.description, new.ingredient_lines);
+                END
+            """);
+            stmt.execute("""
+                CREATE TRIGGER IF NOT EXISTS recipes_fts_delete AFTER DELETE ON recipes BEGIN
+                    INSERT INTO recipes_fts (recipes_fts, rowid, title, description, ingredient_lines)
+                    VALUES ('delete', old.recipe_id, old.title, old.description, old.ingredient_lines);
+                END
+            """);
+            stmt.execute("""
+                CREATE TRIGGER IF NOT EXISTS recipes_fts_update
+                AFTER UPDATE OF title, description, ingredient_lines ON recipes BEGIN
+                    INSERT INTO recipes_fts (recipes_fts, rowid, title, description, ingredient_lines)
+                    VALUES ('delete', old.recipe_id, old.title, old.description, old.ingredient_lines);
+                    INSERT INTO recipes_fts (rowid, title, description, ingredient_lines)
+                    VALUES (new.recipe_id, new.title, new.description, new.ingredient_lines);
+                END
+            """);
+            // Default ORDER BY rank: BM25 with a title match worth ten source matches
+            stmt.execute("INSERT INTO recipes_fts (recipes_fts, rank) VALUES ('rank', 'bm25(10.0, 1.0, 4.0)')");
+            if (!exists) {
+                stmt.execute("INSERT INTO recipes_fts (recipes_fts) VALUES ('rebuild')");
+            }
+        }
+    }
 }
@@ -1,11 +1,14 @@
 package data_access;
 
-import entity.Nutrition;
 import entity.Recipe;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import java.io.IOException;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
@@ -14,6 +17,8 @@ import okhttp3.Response;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import use_case.ai_meal_plan.AiGenerationGateway;
@@ -21,11 +26,18 @@ import use_case.ai_meal_plan.AiGenerationGateway;
 /**
  * Adapter that calls the DeepSeek Chat Completions API to generate structured meal plans.
  * Uses OkHttp (same pattern as NutritionAnalysisDataAccessObject) and org.json for parsing.
+ * <p>
+ * The user message is built by {@link MealPlanPromptBuilder} within {@code recipewiz.deepseek.prompt.token-budget}
+ * estimated tokens, since the model's latency grows with its input; recipes are offered under short ids, which
+ * are mapped back to recipe ids when the answer is parsed. The prompt size and generation time of every call
+ * are recorded.
+ * </p>
  */
 @Component
 public class DeepSeekAiGateway implements AiGenerationGateway {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeepSeekAiGateway.class);
 
-    private static final String DEEPSEEK_URL = "https://api.deepseek.com/chat/completions";
+    private static final String CHAT_COMPLETIONS_PATH = "chat/completions";
     private static final String MODEL = "deepseek-chat";
     private static final MediaType JSON_MEDIA = MediaType.get("application/json; charset=utf-8");
 
@@ -35,7 +47,7 @@ public class DeepSeekAiGateway implements AiGenerationGateway {
             Your task is to create a structured meal plan covering the specified date range.
 
             Rules:
-            - Use ONLY recipeIds from the provided recipe list.
+            - Recipes are given as a table with a header row; use ONLY ids from its id column as recipeId.
             - mealType MUST be exactly one of: Breakfast, Lunch, Dinner, Snack (case-sensitive).
             - mealDate MUST be in ISO-8601 format (YYYY-MM-DD) and within the requested date range (inclusive).
             - Assign 2-3 meals per day (e.g. Breakfast + Lunch + Dinner, optionally Snack).
@@ -43,18 +55,37 @@ public class DeepSeekAiGateway implements AiGenerationGateway {
             - Distribute meals across the week to ensure nutritional variety.
             - Balance macronutrients according to the user's health goal.
             - Return ONLY a valid JSON object with this exact structure:
-              { "mealPlan": [ { "recipeId": <integer>, "mealDate": "<YYYY-MM-DD>", "mealType": "<string>" } ] }
+              { "mealPlan": [ { "recipeId": <id>, "mealDate": "<YYYY-MM-DD>", "mealType": "<string>" } ] }
             - Return no prose, no markdown fences, only the JSON object.
             """;
 
     private final OkHttpClient httpClient;
     private final String apiKey;
+    private final String chatCompletionsUrl;
+    private final MealPlanPromptBuilder promptBuilder;
+    private final MeterRegistry meterRegistry;
+    private final DistributionSummary promptTokens;
+    private final DistributionSummary promptRecipes;
 
     public DeepSeekAiGateway(
             OkHttpClient httpClient,
-            @Value("${recipewiz.deepseek.api-key}") String apiKey) {
+            MeterRegistry meterRegistry,
+            @Value("${recipewiz.deepseek.api-key}") String apiKey,
+            @Value("${recipewiz.deepseek.base-url:https://api.deepseek.com}") String baseUrl,
+            @Value("${recipewiz.deepseek.prompt.token-budget:1500}") int tokenBudget) {
         this.httpClient = httpClient;
         this.apiKey = apiKey;
+        this.chatCompletionsUrl = (baseUrl.endsWith("/") ? baseUrl : baseUrl + "/") + CHAT_COMPLETIONS_PATH;
+        this.promptBuilder = new MealPlanPromptBuilder(tokenBudget);
+        this.meterRegistry = meterRegistry;
+        this.promptTokens = DistributionSummary.builder("recipewiz.deepseek.prompt.tokens")
+                .baseUnit("tokens")
+                .description("Estimated tokens of the meal plan prompts sent to DeepSeek")
+                .register(meterRegistry);
+        this.promptRecipes = DistributionSummary.builder("recipewiz.deepseek.prompt.recipes")
+                .baseUnit("recipes")
+                .description("Saved recipes offered in the meal plan prompts sent to DeepSeek")
+                .register(meterRegistry);
     }
 
     @PostConstruct
@@ -73,20 +104,41 @@ public class DeepSeekAiGateway implements AiGenerationGateway {
             throw new IllegalStateException("DeepSeek API key is not configured.");
         }
 
-        String userMessage = buildUserMessage(profile, recipes, dateFrom, dateTo);
-        String requestBodyJson = buildRequestBody(userMessage);
+        MealPlanPromptBuilder.Prompt prompt = promptBuilder.build(profile, recipes, dateFrom, dateTo);
+        promptTokens.record(prompt.estimatedTokens());
+        promptRecipes.record(prompt.recipeIds().size());
+        String requestBodyJson = buildRequestBody(prompt.text());
 
         Request request = new Request.Builder()
-                .url(DEEPSEEK_URL)
+                .url(chatCompletionsUrl)
                 .addHeader("Authorization", "Bearer " + apiKey)
                 .post(RequestBody.create(requestBodyJson, JSON_MEDIA))
                 .build();
 
+        long start = System.nanoTime();
+        String outcome = "error";
         try (Response response = httpClient.newCall(request).execute()) {
             if (!response.isSuccessful() || response.body() == null) {
                 throw new IOException("DeepSeek API returned HTTP " + response.code());
             }
-            return parseResponse(response.body().string());
+            JSONObject root = new JSONObject(response.body().string());
+            List<RawEntry> entries = parseResponse(root, prompt);
+            outcome = "success";
+            JSONObject usage = root.optJSONObject("usage");
+            LOGGER.info("Meal plan of {} entries generated in {} ms from {} of {} recipes, prompt ~{} tokens"
+                            + " ({} reported)",
+                    entries.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                    prompt.recipeIds().size(), prompt.recipes(), prompt.estimatedTokens(),
+                    usage == null ? "none" : usage.opt("prompt_tokens"));
+            return entries;
+        }
+        finally {
+            Timer.builder("recipewiz.deepseek.generation")
+                    .tag("outcome", outcome)
+                    .description("Meal plan generation calls to DeepSeek, until the answer is parsed")
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
@@ -110,40 +162,9 @@ public class DeepSeekAiGateway implements AiGenerationGateway {
                 .toString();
     }
 
-    private String buildUserMessage(UserProfile p, List<Recipe> recipes,
-                                    LocalDate from, LocalDate to) {
-        StringBuilder sb = new StringBuilder();
-        sb.append("=== User Profile ===\n");
-        sb.append("Gender: ").append(p.gender()).append("\n");
-        sb.append("Height: ").append(p.heightCm()).append(" cm\n");
-        sb.append("Weight: ").append(p.weightKg()).append(" kg\n");
-        sb.append("Age: ").append(p.age()).append(" years\n");
-        sb.append("Health Goal: ").append(p.goal()).append("\n\n");
-
-        sb.append("=== Meal Plan Date Range ===\n");
-        sb.append("From: ").append(from).append(" (inclusive)\n");
-        sb.append("To:   ").append(to).append(" (inclusive)\n\n");
-
-        sb.append("=== Available Recipes (use ONLY these recipeIds) ===\n");
-        for (Recipe r : recipes) {
-            sb.append("recipeId=").append(r.getRecipeId())
-              .append(" | title=\"").append(r.getTitle()).append("\"");
-            Nutrition n = r.getNutrition();
-            if (n != null) {
-                sb.append(" | cal=").append(Math.round(n.getCalories()))
-                  .append("kcal, protein=").append(Math.round(n.getProtein()))
-                  .append("g, fat=").append(Math.round(n.getFat()))
-                  .append("g, carbs=").append(Math.round(n.getCarbohydrates())).append("g");
-            }
-            sb.append("\n");
-        }
-        return sb.toString();
-    }
-
     // ── Response parser ───────────────────────────────────────────────────────
 
-    private List<RawEntry> parseResponse(String responseBody) throws Exception {
-        JSONObject root = new JSONObject(responseBody);
+    private List<RawEntry> parseResponse(JSONObject root, MealPlanPromptBuilder.Prompt prompt) {
         String content = root
                 .getJSONArray("choices")
                 .getJSONObject(0)
@@ -154,8 +175,9 @@ public class DeepSeekAiGateway implements AiGenerationGateway {
         List<RawEntry> result = new ArrayList<>();
         for (int i = 0; i < mealPlan.length(); i++) {
             JSONObject entry = mealPlan.getJSONObject(i);
+            // Ids the prompt did not offer map to -1, which no saved recipe has
             result.add(new RawEntry(
-                    entry.getInt("recipeId"),
+                    prompt.recipeId(entry.getLong("recipeId")),
                     LocalDate.parse(entry.getString("mealDate")),
                     entry.getString("mealType")));
         }
@@ -0,0 +1,55 @@
+package data_access;
+
+/**
+ * Estimates how many distinct strings have been added, in fixed memory (a HyperLogLog of 4096 one-byte
+ * registers, about 1.6% standard error). Thread-safe.
+ */
+public class DistinctCounter {
+
+    private static final int REGISTER_BITS = 12;
+    private static final int REGISTERS = 1 << REGISTER_BITS;
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTERS);
+
+    private final byte[] registers = new byte[REGISTERS];
+
+    public void add(String value) {
+        final long hash = mix(value.hashCode());
+        final int register = (int) (hash >>> (Long.SIZE - REGISTER_BITS));
+        // Position of the first set bit after the register bits; the sentinel bit bounds it
+        final int rank = Long.numberOfLeadingZeros(hash << REGISTER_BITS | 1L << (REGISTER_BITS - 1)) + 1;
+        synchronized (registers) {
+            if (rank > registers[register]) {
+                registers[register] = (byte) rank;
+            }
+        }
+    }
+
+    public long estimate() {
+        double sum = 0;
+        int empty = 0;
+        synchronized (registers) {
+            for (byte rank : registers) {
+                sum += Math.scalb(1.0, -rank);
+                if (rank == 0) {
+                    empty++;
+                }
+            }
+        }
+        final double raw = ALPHA * REGISTERS * REGISTERS / sum;
+        if (raw <= 2.5 * REGISTERS && empty > 0) {
+            // Linear counting is more accurate while few registers are set
+            return Math.round(REGISTERS * Math.log((double) REGISTERS / empty));
+        }
+        return Math.round(raw);
+    }
+
+    /**
+     * Spreads the 32 bits of a string hash over 64 (the SplitMix64 finalizer).
+     */
+    private static long mix(int hash) {
+        long z = hash * 0x9e3779b97f4a7c15L;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,461 @@
+package data_access;
+
+import entity.Recipe;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import okhttp3.Call;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.EventListener;
+import okhttp3.HttpUrl;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * The one place that talks to the Edamam APIs: builds the requests, takes the request quota of the
+ * Edamam application, sends the calls and reads the responses.
+ * <p>
+ * Requests go to {@code recipewiz.edamam.base-url}, normally {@code https://api.edamam.com}; the emulator
+ * module serves the same paths locally. Error statuses fail the call, except 555, with which Edamam answers
+ * ingredient lines it could not analyze.
+ * </p>
+ * <p>
+ * Calls go through their own connection pool and dispatcher, derived from the shared HTTP client so they
+ * keep its interceptors and executor. The pool keeps up to {@code max-idle-connections} connections alive
+ * for {@code keep-alive}; the dispatcher limits asynchronous calls in flight to Edamam. Every endpoint has
+ * its own call timeout. Responses are requested gzip-compressed and decoded transparently by OkHttp.
+ * </p>
+ * <p>
+ * Publishes {@code recipewiz.edamam.requests} (latency histogram, tagged with endpoint and HTTP status, or
+ * {@code IO_ERROR} when no response arrived), and {@code recipewiz.edamam.request.bytes} and
+ * {@code recipewiz.edamam.response.bytes} (bytes on the wire, i.e. compressed, tagged with endpoint).
+ * </p>
+ */
+@Component
+public class EdamamClient {
+
+    private static final String RECIPES_PATH = "api/recipes/v2";
+    private static final String RECIPES_BY_URI_PATH = RECIPES_PATH + "/by-uri";
+    private static final String NUTRITION_PATH = "api/nutrition-details";
+    private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+    // Edamam's answer when it cannot analyze the ingredient lines; the body still describes the recipe
+    private static final int HTTP_LOW_QUALITY = 555;
+    private static final String NO_RESPONSE = "IO_ERROR";
+
+    /** Most recipe URIs Edamam accepts in one by-URI lookup. */
+    public static final int MAX_URIS_PER_LOOKUP = 20;
+
+    public enum Endpoint {
+        RECIPE_SEARCH("recipe-search"),
+        RECIPE_LOOKUP("recipe-lookup"),
+        NUTRITION_ANALYSIS("nutrition-analysis");
+
+        private final String tag;
+
+        Endpoint(String tag) {
+            this.tag = tag;
+        }
+
+        public String tag() {
+            return tag;
+        }
+    }
+
+    private final Map<Endpoint, OkHttpClient> httpClients = new EnumMap<>(Endpoint.class);
+    private final MeterRegistry meterRegistry;
+    private final EdamamRecipeParser parser = new EdamamRecipeParser();
+    private final HttpUrl recipesUrl;
+    private final HttpUrl recipesByUriUrl;
+    private final HttpUrl nutritionUrl;
+    private final String recipeAppId;
+    private final String recipeAppKey;
+    private final List<String> fields;
+    private final QuotaScheduler recipeQuota;
+    private final String nutritionAppId;
+    private final String nutritionAppKey;
+    private final QuotaScheduler nutritionQuota;
+
+    public EdamamClient(
+            OkHttpClient httpClient,
+            MeterRegistry meterRegistry,
+            @Value("${recipewiz.edamam.base-url:https://api.edamam.com}") String baseUrl,
+            @Value("${recipewiz.edamam.recipe-search.app-id}") String recipeAppId,
+            @Value("${recipewiz.edamam.recipe-search.app-key}") String recipeAppKey,
+            @Value("${recipewiz.edamam.recipe-search.fields:}") List<String> fields,
+            @Qualifier("edamamRecipeSearchQuota") QuotaScheduler recipeQuota,
+            @Value("${recipewiz.edamam.nutrition-analysis.app-id}") String nutritionAppId,
+            @Value("${recipewiz.edamam.nutrition-analysis.app-key}") String nutritionAppKey,
+            @Qualifier("edamamNutritionAnalysisQuota") QuotaScheduler nutritionQuota,
+            @Value("${recipewiz.edamam.client.max-idle-connections:10}") int maxIdleConnections,
+            @Value("${recipewiz.edamam.client.keep-alive:5m}") Duration keepAlive,
+            @Value("${recipewiz.edamam.client.max-concurrent-requests:512}") int maxConcurrentRequests,
+            @Value("${recipewiz.edamam.client.connect-timeout:10s}") Duration connectTimeout,
+            @Value("${recipewiz.edamam.client.timeouts.recipe-search:30s}") Duration recipeSearchTimeout,
+            @Value("${recipewiz.edamam.client.timeouts.recipe-lookup:15s}") Duration recipeLookupTimeout,
+            @Value("${recipewiz.edamam.client.timeouts.nutrition-analysis:60s}") Duration nutritionAnalysisTimeout
+    ) {
+        this.meterRegistry = meterRegistry;
+        this.recipesUrl = endpointUrl(baseUrl, RECIPES_PATH);
+        this.recipesByUriUrl = endpointUrl(baseUrl, RECIPES_BY_URI_PATH);
+        this.nutritionUrl = endpointUrl(baseUrl, NUTRITION_PATH);
+        this.recipeAppId = recipeAppId;
+        this.recipeAppKey = recipeAppKey;
+        this.fields = fields;
+        this.recipeQuota = recipeQuota;
+        this.nutritionAppId = nutritionAppId;
+        this.nutritionAppKey = nutritionAppKey;
+        this.nutritionQuota = nutritionQuota;
+
+        // Reuse the shared dispatcher's executor, which runs on virtual threads when they are enabled
+        final Dispatcher dispatcher = new Dispatcher(httpClient.dispatcher().executorService());
+        dispatcher.setMaxRequests(maxConcurrentRequests);
+        dispatcher.setMaxRequestsPerHost(maxConcurrentRequests);
+        final OkHttpClient edamamClient = httpClient.newBuilder()
+                .dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(maxIdleConnections, keepAlive.toMillis(), TimeUnit.MILLISECONDS))
+                .connectTimeout(connectTimeout)
+                .eventListenerFactory(call -> new MetricsListener(call.request().tag(Endpoint.class)))
+                .build();
+        final Map<Endpoint, Duration> timeouts = Map.of(
+                Endpoint.RECIPE_SEARCH, recipeSearchTimeout,
+                Endpoint.RECIPE_LOOKUP, recipeLookupTimeout,
+                Endpoint.NUTRITION_ANALYSIS, nutritionAnalysisTimeout);
+        for (Endpoint endpoint : Endpoint.values()) {
+            httpClients.put(endpoint, edamamClient.newBuilder().callTimeout(timeouts.get(endpoint)).build());
+        }
+    }
+
+    /**
+     * Fetches the page of search results identified by the key, following its continuation cursor if set.
+     */
+    public EdamamSearchPage searchRecipes(RecipeSearchKey key, QuotaScheduler.Priority priority) {
+        final Request request = searchRequest(key);
+        recipeQuota.acquire(priority);
+        return executeSearch(request);
+    }
+
+    /**
+     * Fetches a page of search results like {@link #searchRecipes(RecipeSearchKey, QuotaScheduler.Priority)}
+     * for a caller that has already taken a permit of the recipe search quota, e.g. with
+     * {@link #acquireRecipeQuota(QuotaScheduler.Priority)}.
+     */
+    public EdamamSearchPage searchRecipes(RecipeSearchKey key) {
+        return executeSearch(searchRequest(key));
+    }
+
+    /**
+     * Takes one permit of the recipe search quota, waiting for it if needed.
+     *
+     * @throws QuotaExceededException if the permit cannot be had within the priority's maximum wait
+     */
+    public void acquireRecipeQuota(QuotaScheduler.Priority priority) {
+        recipeQuota.acquire(priority);
+    }
+
+    /**
+     * Asynchronous {@link #acquireRecipeQuota(QuotaScheduler.Priority)}.
+     */
+    public CompletableFuture<Void> acquireRecipeQuotaAsync(QuotaScheduler.Priority priority) {
+        return recipeQuota.acquireAsync(priority);
+    }
+
+    /**
+     * Fetches the page of search results identified by the key without blocking the calling thread while
+     * the request is in flight. The page is parsed on an OkHttp dispatcher thread.
+     */
+    public CompletableFuture<EdamamSearchPage> searchRecipesAsync(RecipeSearchKey key,
+                                                                 QuotaScheduler.Priority priority) {
+        final Request request;
+        try {
+            request = searchRequest(key);
+        }
+        catch (RuntimeException exception) {
+            return CompletableFuture.failedFuture(exception);
+        }
+        return recipeQuota.acquireAsync(priority).thenCompose(ignored -> enqueueSearch(request));
+    }
+
+    /**
+     * Asynchronous {@link #searchRecipes(RecipeSearchKey)}, for a caller that has already taken a permit of
+     * the recipe search quota.
+     */
+    public CompletableFuture<EdamamSearchPage> searchRecipesAsync(RecipeSearchKey key) {
+        final Request request;
+        try {
+            request = searchRequest(key);
+        }
+        catch (RuntimeException exception) {
+            return CompletableFuture.failedFuture(exception);
+        }
+        return enqueueSearch(request);
+    }
+
+    /**
+     * Fetches up to {@link #MAX_URIS_PER_LOOKUP} recipes by their Edamam URIs in one call, without blocking
+     * the calling thread while the request is in flight.
+     *
+     * @return the recipes Edamam found, in no particular order; URIs it does not know are left out
+     */
+    public CompletableFuture<List<Recipe>> lookupRecipesAsync(Collection<String> uris,
+                                                             QuotaScheduler.Priority priority) {
+        final Request request;
+        try {
+            request = lookupRequest(uris);
+        }
+        catch (RuntimeException exception) {
+            return CompletableFuture.failedFuture(exception);
+        }
+        return recipeQuota.acquireAsync(priority)
+                .thenCompose(ignored -> OkHttpFutures.enqueue(httpClients.get(Endpoint.RECIPE_LOOKUP), request,
+                        response -> readSearchPage(response).recipes(), "Edamam recipe lookup failed"));
+    }
+
+    /**
+     * Sends ingredient lines to the nutrition analysis API.
+     *
+     * @param title the title of the recipe the lines belong to
+     * @param lines the ingredient lines, one ingredient each
+     * @return the JSON response body, or null if Edamam returned none
+     * @throws IOException if the call failed
+     */
+    public String analyzeNutrition(String title, List<String> lines) throws IOException {
+        final Request request = nutritionRequest(title, lines);
+        nutritionQuota.acquire(QuotaScheduler.Priority.INTERACTIVE);
+        try (Response response = httpClients.get(Endpoint.NUTRITION_ANALYSIS).newCall(request).execute()) {
+            return readNutritionBody(response);
+        }
+        catch (IOException exception) {
+            throw new IOException("Error processing nutrition analysis", exception);
+        }
+    }
+
+    /**
+     * Asynchronous {@link #analyzeNutrition(String, List)}: I/O failures complete the future with a
+     * {@link RuntimeException}.
+     */
+    public CompletableFuture<String> analyzeNutritionAsync(String title, List<String> lines) {
+        final Request request;
+        try {
+            request = nutritionRequest(title, lines);
+        }
+        catch (RuntimeException exception) {
+            return CompletableFuture.failedFuture(exception);
+        }
+        return nutritionQuota.acquireAsync(QuotaScheduler.Priority.INTERACTIVE)
+                .thenCompose(ignored -> OkHttpFutures.enqueue(httpClients.get(Endpoint.NUTRITION_ANALYSIS),
+                        request, this::readNutritionBody, "Error processing nutrition analysis"));
+    }
+
+    private EdamamSearchPage executeSearch(Request request) {
+        try (Response response = httpClients.get(Endpoint.RECIPE_SEARCH).newCall(request).execute()) {
+            return readSearchPage(response);
+        }
+        catch (IOException exception) {
+            throw new RuntimeException("Edamam recipe search failed", exception);
+        }
+    }
+
+    private CompletableFuture<EdamamSearchPage> enqueueSearch(Request request) {
+        return OkHttpFutures.enqueue(httpClients.get(Endpoint.RECIPE_SEARCH), request, this::readSearchPage,
+                "Edamam recipe search failed");
+    }
+
+    private Request searchRequest(RecipeSearchKey key) {
+        final HttpUrl.Builder url = recipesUrl(recipesUrl).addQueryParameter("q", key.edamamQuery());
+        // Add optional filters if provided
+        addIfPresent(url, "diet", key.diet());
+        addIfPresent(url, "health", key.health());
+        addIfPresent(url, "cuisineType", key.cuisineType());
+        addIfPresent(url, "_cont", key.cursor());
+        // Only request the recipe fields we parse
+        addFieldProjection(url);
+        return request(Endpoint.RECIPE_SEARCH).url(url.build()).build();
+    }
+
+    private Request lookupRequest(Collection<String> uris) {
+        if (uris.isEmpty() || uris.size() > MAX_URIS_PER_LOOKUP) {
+            throw new IllegalArgumentException("A lookup takes 1 to " + MAX_URIS_PER_LOOKUP + " URIs");
+        }
+        final HttpUrl.Builder url = recipesUrl(recipesByUriUrl);
+        for (String uri : uris) {
+            url.addQueryParameter("uri", uri);
+        }
+        addFieldProjection(url);
+        return request(Endpoint.RECIPE_LOOKUP).url(url.build()).build();
+    }
+
+    private HttpUrl.Builder recipesUrl(HttpUrl endpointUrl) {
+        requireCredentials(recipeAppId, recipeAppKey);
+        return endpointUrl.newBuilder()
+                .addQueryParameter("type", "public")
+                .addQueryParameter("app_id", recipeAppId)
+                .addQueryParameter("app_key", recipeAppKey);
+    }
+
+    private Request nutritionRequest(String title, List<String> lines) {
+        requireCredentials(nutritionAppId, nutritionAppKey);
+        final HttpUrl url = nutritionUrl.newBuilder()
+                .addQueryParameter("app_id", nutritionAppId)
+                .addQueryParameter("app_key", nutritionAppKey)
+                .build();
+
+        final JSONObject body = new JSONObject();
+        body.put("title", title);
+        body.put("ingr", new JSONArray(lines));
+        return request(Endpoint.NUTRITION_ANALYSIS)
+                .url(url)
+                .post(RequestBody.create(body.toString(), JSON))
+                .build();
+    }
+
+    private static Request.Builder request(Endpoint endpoint) {
+        return new Request.Builder().tag(Endpoint.class, endpoint);
+    }
+
+    private EdamamSearchPage readSearchPage(Response response) throws IOException {
+        if (response.code() == HTTP_TOO_MANY_REQUESTS) {
+            throw recipeQuota.throttled();
+        }
+        if (!response.isSuccessful()) {
+            // Error bodies carry no hits; reading one as an empty page would hide the failure
+            throw new IOException("Edamam returned HTTP " + response.code());
+        }
+        if (response.body() == null) {
+            return new EdamamSearchPage(new ArrayList<>(), null);
+        }
+        return parser.parseSearchPage(response.body().byteStream());
+    }
+
+    private String readNutritionBody(Response response) throws IOException {
+        if (response.code() == HTTP_TOO_MANY_REQUESTS) {
+            throw nutritionQuota.throttled();
+        }
+        if (response.code() >= 500 && response.code() != HTTP_LOW_QUALITY) {
+            throw new IOException("Edamam returned HTTP " + response.code());
+        }
+        return response.body() == null ? null : response.body().string();
+    }
+
+    /**
+     * Add one {@code field} parameter per projected recipe field; no projection returns every field.
+     */
+    private void addFieldProjection(HttpUrl.Builder url) {
+        for (String field : fields) {
+            if (!field.isBlank()) {
+                url.addQueryParameter("field", field.trim());
+            }
+        }
+    }
+
+    private static void addIfPresent(HttpUrl.Builder url, String name, String value) {
+        if (value != null && !value.isEmpty()) {
+            url.addQueryParameter(name, value);
+        }
+    }
+
+    /**
+     * Resolves an endpoint path against the configured base URL, with or without a trailing slash.
+     */
+    private static HttpUrl endpointUrl(String baseUrl, String path) {
+        final HttpUrl base = HttpUrl.parse(baseUrl.endsWith("/") ? baseUrl : baseUrl + "/");
+        if (base == null) {
+            throw new IllegalArgumentException("Invalid Edamam base URL: " + baseUrl);
+        }
+        return Objects.requireNonNull(base.resolve(path));
+    }
+
+    private static void requireCredentials(String appId, String appKey) {
+        if (appId == null || appId.isBlank() || appKey == null || appKey.isBlank()) {
+            throw new IllegalStateException("Edamam credentials are not configured");
+        }
+    }
+
+    /**
+     * Records the metrics of one call. OkHttp reports body sizes as read from and written to the
+     * connection, before gzip decoding.
+     */
+    private final class MetricsListener extends EventListener {
+        private final String endpoint;
+        private long start;
+        private String status = NO_RESPONSE;
+        private long requestBytes;
+        private long responseBytes;
+
+        MetricsListener(Endpoint endpoint) {
+            this.endpoint = endpoint == null ? "unknown" : endpoint.tag();
+        }
+
+        @Override
+        public void callStart(Call call) {
+            start = System.nanoTime();
+        }
+
+        @Override
+        public void requestBodyEnd(Call call, long byteCount) {
+            requestBytes += byteCount;
+        }
+
+        @Override
+        public void responseHeadersEnd(Call call, Response response) {
+            status = Integer.toString(response.code());
+        }
+
+        @Override
+        public void responseBodyEnd(Call call, long byteCount) {
+            responseBytes += byteCount;
+        }
+
+        @Override
+        public void callEnd(Call call) {
+            record();
+        }
+
+        @Override
+        public void callFailed(Call call, IOException exception) {
+            status = NO_RESPONSE;
+            record();
+        }
+
+        private void record() {
+            Timer.builder("recipewiz.edamam.requests")
+                    .tag("endpoint", endpoint)
+                    .tag("status", status)
+                    .description("Calls to the Edamam APIs")
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            DistributionSummary.builder("recipewiz.edamam.request.bytes")
+                    .tag("endpoint", endpoint)
+                    .baseUnit("bytes")
+                    .description("Request body bytes sent to Edamam")
+                    .register(meterRegistry)
+                    .record(requestBytes);
+            DistributionSummary.builder("recipewiz.edamam.response.bytes")
+                    .tag("endpoint", endpoint)
+                    .baseUnit("bytes")
+                    .description("Response body bytes received from Edamam, as sent on the wire")
+                    .register(meterRegistry)
+                    .record(responseBytes);
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package data_access;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadFeature;
+import entity.Ingredient;
+import entity.NutrientCode;
+import entity.NutrientVector;
+import entity.Nutrition;
+import entity.Recipe;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import okhttp3.HttpUrl;
+import org.json.JSONArray;
+
+/**
+ * Streaming parser for Edamam recipe API responses.
+ * <p>
+ * Reads the response token by token and builds {@link Recipe} entities directly, skipping every field
+ * a recipe does not need (images, digest, totalDaily, links, ...) without materializing it.
+ * </p>
+ */
+public class EdamamRecipeParser {
+
+    private static final JsonFactory JSON_FACTORY = JsonFactory.builder()
+            .disable(StreamReadFeature.AUTO_CLOSE_SOURCE)
+            .build();
+
+    /**
+     * Parses a recipe search response ({@code {"hits": [{"recipe": {...}}, ...]}}).
+     * Every recipe gets the stable id of its URI, see {@link Recipe#idFor(String)}.
+     *
+     * @param body the response body; not closed by this method
+     * @return the parsed recipes
+     * @throws IOException if the body cannot be read or is not valid JSON
+     */
+    public List<Recipe> parseSearchResponse(InputStream body) throws IOException {
+        return parseSearchPage(body).recipes();
+    }
+
+    /**
+     * Parses a recipe search response together with the cursor of the next page, taken from the
+     * {@code _cont} parameter of {@code _links.next.href}.
+     *
+     * @param body the response body; not closed by this method
+     * @return the parsed page
+     * @throws IOException if the body cannot be read or is not valid JSON
+     */
+    public EdamamSearchPage parseSearchPage(InputStream body) throws IOException {
+        final List<Recipe> recipes = new ArrayList<>();
+        String nextCursor = null;
+        boolean sawHits = false;
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            expect(parser, parser.nextToken(), JsonToken.START_OBJECT);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String field = parser.currentName();
+                final JsonToken value = parser.nextToken();
+                if ("hits".equals(field) && value == JsonToken.START_ARRAY) {
+                    sawHits = true;
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        final Recipe recipe = readHit(parser);
+                        if (recipe != null) {
+                            recipes.add(recipe);
+                        }
+                    }
+                }
+                else if ("_links".equals(field) && value == JsonToken.START_OBJECT) {
+                    nextCursor = readNextCursor(parser);
+                }
+                else {
+                    parser.skipChildren();
+                }
+            }
+            if (!sawHits) {
+                throw new JsonParseException(parser, "Edamam response has no hits array");
+            }
+        }
+        return new EdamamSearchPage(recipes, nextCursor);
+    }
+
+    /**
+     * Parses a single recipe response ({@code {"recipe": {...}}}).
+     *
+     * @param body the response body; not closed by this method
+     * @return the parsed recipe, or null if the response carries none
+     * @throws IOException if the body cannot be read or is not valid JSON
+     */
+    public Recipe parseRecipeResponse(InputStream body) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            expect(parser, parser.nextToken(), JsonToken.START_OBJECT);
+            return readHit(parser);
+        }
+    }
+
+    /**
+     * Reads an object holding a {@code recipe} field; the parser is positioned on its START_OBJECT
+     * and is left on the matching END_OBJECT.
+     */
+    private Recipe readHit(JsonParser parser) throws IOException {
+        Recipe recipe = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String field = parser.currentName();
+            final JsonToken value = parser.nextToken();
+            if ("recipe".equals(field) && value == JsonToken.START_OBJECT) {
+                recipe = readRecipe(parser);
+            }
+            else {
+                parser.skipChildren();
+            }
+        }
+        return recipe;
+    }
+
+    /**
+     * Reads {@code _links} and returns the {@code _cont} cursor of {@code next.href}, if present.
+     */
+    private String readNextCursor(JsonParser parser) throws IOException {
+        String href = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String field = parser.currentName();
+            final JsonToken value = parser.nextToken();
+            if ("next".equals(field) && value == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    final String linkField = parser.currentName();
+                    final JsonToken linkValue = parser.nextToken();
+                    if ("href".equals(linkField)) {
+                        href = textOrDefault(parser, linkValue, null);
+                    }
+                    else {
+                        parser.skipChildren();
+                    }
+                }
+            }
+            else {
+                parser.skipChildren();
+            }
+        }
+        final HttpUrl url = href == null ? null : HttpUrl.parse(href);
+        return url == null ? null : url.queryParameter("_cont");
+    }
+
+    private Recipe readRecipe(JsonParser parser) throws IOException {
+        String uri = null;
+        String name = null;
+        String description = "No description available";
+        String instructions = "Instructions not available";
+        double yield = 1;
+        JSONArray ingredientLines = new JSONArray();
+        List<Ingredient> ingredients = new ArrayList<>();
+        final NutrientVector nutrients = new NutrientVector();
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String field = parser.currentName();
+            final JsonToken value = parser.nextToken();
+            switch (field) {
+                case "uri" -> uri = textOrDefault(parser, value, null);
+                case "label" -> name = textOrDefault(parser, value, null);
+                case "source" -> description = textOrDefault(parser, value, description);
+                case "url" -> instructions = textOrDefault(parser, value, instructions);
+                case "yield" -> yield = value.isNumeric() ? parser.getDoubleValue() : yield;
+                case "ingredientLines" -> ingredientLines = readStringArray(parser, value);
+                case "ingredients" -> ingredients = readIngredients(parser, value);
+                case "totalNutrients" -> readNutrients(parser, value, nutrients);
+                default -> parser.skipChildren();
+            }
+        }
+
+        final Nutrition nutrition = new Nutrition(nutrients);
+        final int servings = (int) Math.max(1, yield);
+
+        final Recipe recipe = new Recipe(
+                Recipe.idFor(uri != null ? uri : String.valueOf(name)),
+                name,
+                description,
+                ingredients,
+                instructions,
+                nutrition,
+                new ArrayList<>(),
+                ingredientLines,
+                servings
+        );
+        recipe.setUri(uri);
+        return recipe;
+    }
+
+    private JSONArray readStringArray(JsonParser parser, JsonToken value) throws IOException {
+        final JSONArray lines = new JSONArray();
+        if (value != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return lines;
+        }
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == JsonToken.VALUE_STRING) {
+                lines.put(parser.getText());
+            }
+            else {
+                parser.skipChildren();
+            }
+        }
+        return lines;
+    }
+
+    private List<Ingredient> readIngredients(JsonParser parser, JsonToken value) throws IOException {
+        final List<Ingredient> ingredients = new ArrayList<>();
+        if (value != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return ingredients;
+        }
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            String food = null;
+            double quantity = 0.0;
+            String unit = "";
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String field = parser.currentName();
+                final JsonToken fieldValue = parser.nextToken();
+                switch (field) {
+                    case "food" -> food = textOrDefault(parser, fieldValue, null);
+                    case "quantity" -> quantity = fieldValue.isNumeric() ? parser.getDoubleValue() : quantity;
+                    case "measure" -> unit = textOrDefault(parser, fieldValue, unit);
+                    default -> parser.skipChildren();
+                }
+            }
+            ingredients.add(new Ingredient(ingredients.size() + 1, food, quantity, unit));
+        }
+        return ingredients;
+    }
+
+    /**
+     * Reads the quantities of a {@code totalNutrients} object; nutrients outside the {@link NutrientCode}
+     * dictionary are skipped.
+     */
+    private void readNutrients(JsonParser parser, JsonToken value, NutrientVector nutrients) throws IOException {
+        if (value != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final NutrientCode code = NutrientCode.forCode(parser.currentName());
+            final JsonToken nutrient = parser.nextToken();
+            if (code == null || nutrient != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String field = parser.currentName();
+                final JsonToken fieldValue = parser.nextToken();
+                if ("quantity".equals(field) && fieldValue.isNumeric()) {
+                    nutrients.set(code, parser.getDoubleValue());
+                }
+                else {
+                    parser.skipChildren();
+                }
+            }
+        }
+    }
+
+    private String textOrDefault(JsonParser parser, JsonToken value, String defaultValue) throws IOException {
+        if (value == JsonToken.VALUE_STRING) {
+            return parser.getText();
+        }
+        parser.skipChildren();
+        return defaultValue;
+    }
+
+    private void expect(JsonParser parser, JsonToken actual, JsonToken expected) throws IOException {
+        if (actual != expected) {
+            throw new JsonParseException(parser, "Expected " + expected + " but found " + actual);
+        }
+    }
+}
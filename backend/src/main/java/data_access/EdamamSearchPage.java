@@ -0,0 +1,14 @@
+package data_access;
+
+import entity.Recipe;
+import java.util.List;
+
+/**
+ * One page of Edamam search hits and the continuation cursor of the next page, if there is one.
+ */
+public record EdamamSearchPage(List<Recipe> recipes, String nextCursor) {
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
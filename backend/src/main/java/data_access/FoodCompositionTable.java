@@ -0,0 +1,333 @@
+package data_access;
+
+import entity.NutrientCode;
+import entity.NutrientVector;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory food composition table: nutrients per 100 g of common foods, with the grams in a cup and in
+ * a piece of each, looked up by fuzzy name.
+ * <p>
+ * Names and aliases are reduced to tokens: lower case words, plurals made singular, and descriptive words
+ * that do not change the food ({@code fresh}, {@code chopped}, {@code boneless}, ...) dropped. A food text
+ * matches an alias when the alias holds its last token, the head noun, and the alias and the text have the
+ * same tokens; a token of five letters or more may be one edit away, at a lower weight. A modifier the
+ * alias lacks is never ignored, as it may name another food: {@code peanut butter} matches the
+ * {@code peanut butter} alias but not {@code butter}, {@code cauliflower rice} matches no rice and
+ * {@code chicken broth} never matches {@code chicken}. The confidence of a match is the share of the text's
+ * tokens the alias covers, below 1 only when a token is a near miss.
+ * </p>
+ * <p>
+ * Aliases are indexed by head noun, so a lookup only scores the few aliases sharing it. Immutable and
+ * thread-safe.
+ * </p>
+ */
+public final class FoodCompositionTable {
+
+    /**
+     * The classpath resource of the bundled table.
+     */
+    public static final String BUNDLED = "/nutrition/foods.csv";
+
+    private static final double TYPO_WEIGHT = 0.75;
+    private static final int MIN_TYPO_LENGTH = 5;
+
+    private static final Set<String> IGNORED_WORDS = Set.of(
+            "fresh", "freshly", "chopped", "diced", "minced", "sliced", "grated", "shredded", "crushed", "cubed",
+            "peeled", "halved", "quartered", "trimmed", "finely", "roughly", "coarsely", "thinly", "lightly",
+            "melted", "softened", "beaten", "packed", "heaping", "level", "organic", "raw", "boneless", "skinless",
+            "lean", "extra", "virgin", "unsalted", "salted", "ripe", "large", "medium", "small", "leaf", "leaves",
+            "sprig", "sprigs", "about", "approximately", "the", "of", "for", "to", "taste", "optional", "divided",
+            "plus", "more", "x");
+
+    /**
+     * One food of the table.
+     *
+     * @param gramsPerCup   grams in a cup of the food, NaN if it is not measured by volume
+     * @param gramsPerPiece grams in one piece (clove, slice, fillet, ...), NaN if it is not counted
+     * @param per100g       nutrients in 100 g; shared, must not be changed
+     */
+    public record Food(String name, List<String> aliases, double gramsPerCup, double gramsPerPiece,
+                       NutrientVector per100g) {
+    }
+
+    /**
+     * A food found for a text, with the share of the text's tokens its name covers.
+     */
+    public record Match(Food food, double confidence) {
+    }
+
+    private final List<Food> foods;
+    private final Map<String, int[]> aliasesByHead = new HashMap<>();
+    private final List<String[]> aliasTokens = new ArrayList<>();
+    private final List<Food> aliasFoods = new ArrayList<>();
+
+    public FoodCompositionTable(List<Food> foods) {
+        this.foods = List.copyOf(foods);
+        final Map<String, List<Integer>> byHead = new HashMap<>();
+        for (Food food : this.foods) {
+            final List<String> names = new ArrayList<>(food.aliases());
+            names.add(0, food.name());
+            for (String name : names) {
+                final List<String> tokens = tokens(name);
+                if (tokens.isEmpty()) {
+                    continue;
+                }
+                byHead.computeIfAbsent(tokens.get(tokens.size() - 1), key -> new ArrayList<>())
+                        .add(aliasTokens.size());
+                aliasTokens.add(tokens.toArray(String[]::new));
+                aliasFoods.add(food);
+            }
+        }
+        byHead.forEach((head, aliases) ->
+                aliasesByHead.put(head, aliases.stream().mapToInt(Integer::intValue).toArray()));
+    }
+
+    public int size() {
+        return foods.size();
+    }
+
+    public List<Food> foods() {
+        return foods;
+    }
+
+    /**
+     * Finds the food a text names.
+     *
+     * @param text a food as written in a recipe, e.g. {@code "boneless chicken breasts"}
+     * @return the best match, or null if no alias matches
+     */
+    public Match match(String text) {
+        final List<String> query = tokens(text);
+        if (query.isEmpty()) {
+            return null;
+        }
+        final String head = query.get(query.size() - 1);
+        int[] candidates = aliasesByHead.get(head);
+        double headWeight = 1;
+        if (candidates == null && head.length() >= MIN_TYPO_LENGTH) {
+            for (Map.Entry<String, int[]> entry : aliasesByHead.entrySet()) {
+                if (withinOneEdit(head, entry.getKey())) {
+                    candidates = entry.getValue();
+                    headWeight = TYPO_WEIGHT;
+                    break;
+                }
+            }
+        }
+        if (candidates == null) {
+            return null;
+        }
+
+        Match best = null;
+        for (int alias : candidates) {
+            final String[] tokens = aliasTokens.get(alias);
+            if (tokens.length < query.size()) {
+                // Some word of the text is not in the alias: a modifier that may name another food
+                continue;
+            }
+            double covered = headWeight;
+            for (int i = 0; i < tokens.length - 1 && covered > 0; i++) {
+                covered = covers(query, tokens[i], covered);
+            }
+            final double confidence = covered > 0 ? covered / query.size() : 0;
+            if (confidence > 0 && (best == null || confidence > best.confidence())) {
+                best = new Match(aliasFoods.get(alias), confidence);
+            }
+        }
+        return best;
+    }
+
+    private static double covers(List<String> query, String token, double covered) {
+        double weight = 0;
+        for (String word : query) {
+            if (word.equals(token)) {
+                return covered + 1;
+            }
+            if (word.length() >= MIN_TYPO_LENGTH && withinOneEdit(word, token)) {
+                weight = TYPO_WEIGHT;
+            }
+        }
+        return weight > 0 ? covered + weight : 0;
+    }
+
+    /**
+     * Analyzes an ingredient line: parses it, matches its food and scales the food's nutrients to the line's
+     * grams.
+     *
+     * @param minConfidence the lowest {@link Match#confidence()} accepted
+     * @return the line's nutrients, or null if the line does not parse, its food does not match with at
+     *         least {@code minConfidence} or its unit does not convert to grams for the food
+     */
+    public NutrientVector analyzeLine(String line, double minConfidence) {
+        final IngredientLineParser.ParsedLine parsed = IngredientLineParser.parse(line);
+        if (parsed == null) {
+            return null;
+        }
+        final Match match = match(parsed.food());
+        if (match == null || match.confidence() < minConfidence) {
+            return null;
+        }
+        final double grams = grams(match.food(), parsed.quantity(), parsed.unit());
+        if (Double.isNaN(grams)) {
+            return null;
+        }
+        return new NutrientVector().addScaled(match.food().per100g(), grams / 100);
+    }
+
+    /**
+     * Converts an amount of a food to grams.
+     *
+     * @return the grams, or NaN if the food is not measured in the unit's kind
+     */
+    public static double grams(Food food, double quantity, IngredientLineParser.Unit unit) {
+        return switch (unit.kind()) {
+            case MASS -> quantity * unit.size();
+            case VOLUME -> quantity * unit.size() * food.gramsPerCup();
+            case COUNT -> quantity * unit.size() * food.gramsPerPiece();
+        };
+    }
+
+    /**
+     * Reduces a name to its matching tokens: lower case words of letters, made singular, without the
+     * {@link #IGNORED_WORDS}.
+     */
+    static List<String> tokens(String name) {
+        final String lower = name.toLowerCase(Locale.ROOT);
+        final List<String> tokens = new ArrayList<>(4);
+        int i = 0;
+        while (i < lower.length()) {
+            if (!isLetter(lower.charAt(i))) {
+                i++;
+                continue;
+            }
+            final int start = i;
+            while (i < lower.length() && isLetter(lower.charAt(i))) {
+                i++;
+            }
+            final String word = lower.substring(start, i);
+            if (!IGNORED_WORDS.contains(word)) {
+                tokens.add(singular(word));
+            }
+        }
+        return tokens;
+    }
+
+    private static boolean isLetter(char c) {
+        return c >= 'a' && c <= 'z';
+    }
+
+    private static String singular(String word) {
+        if (word.length() <= 3 || word.endsWith("ss") || word.endsWith("us")) {
+            return word;
+        }
+        if (word.endsWith("ies")) {
+            return word.substring(0, word.length() - 3) + "y";
+        }
+        if (word.endsWith("oes") || word.endsWith("ches") || word.endsWith("shes") || word.endsWith("xes")) {
+            return word.substring(0, word.length() - 2);
+        }
+        return word.endsWith("s") ? word.substring(0, word.length() - 1) : word;
+    }
+
+    private static boolean withinOneEdit(String a, String b) {
+        if (Math.abs(a.length() - b.length()) > 1) {
+            return false;
+        }
+        int i = 0;
+        int j = 0;
+        boolean edited = false;
+        while (i < a.length() && j < b.length()) {
+            if (a.charAt(i) == b.charAt(j)) {
+                i++;
+                j++;
+                continue;
+            }
+            if (edited) {
+                return false;
+            }
+            edited = true;
+            if (a.length() > b.length()) {
+                i++;
+            }
+            else if (a.length() < b.length()) {
+                j++;
+            }
+            else {
+                i++;
+                j++;
+            }
+        }
+        return !edited || i == a.length() && j == b.length();
+    }
+
+    /**
+     * Reads the bundled table.
+     */
+    public static List<Food> readBundled() {
+        try (InputStream bundled = FoodCompositionTable.class.getResourceAsStream(BUNDLED)) {
+            if (bundled == null) {
+                throw new IllegalStateException("Missing bundled food composition table " + BUNDLED);
+            }
+            return readCsv(new InputStreamReader(bundled, StandardCharsets.UTF_8));
+        }
+        catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * Reads a table in the bundled CSV form: lines starting with {@code #} are comments, then a header
+     * {@code name,aliases,grams_per_cup,grams_per_piece,} followed by Edamam nutrient codes, then one food
+     * per line with aliases separated by {@code ;}. Columns of codes outside the {@link NutrientCode}
+     * dictionary are skipped.
+     */
+    public static List<Food> readCsv(Reader reader) throws IOException {
+        final BufferedReader lines = new BufferedReader(reader);
+        final List<Food> foods = new ArrayList<>();
+        NutrientCode[] codes = null;
+        String line;
+        while ((line = lines.readLine()) != null) {
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            final String[] columns = line.split(",", -1);
+            if (codes == null) {
+                codes = new NutrientCode[columns.length];
+                for (int i = 4; i < columns.length; i++) {
+                    codes[i] = NutrientCode.forCode(columns[i].trim());
+                }
+                continue;
+            }
+            if (columns.length != codes.length) {
+                throw new IOException("Expected " + codes.length + " columns: " + line);
+            }
+            final NutrientVector per100g = new NutrientVector();
+            for (int i = 4; i < columns.length; i++) {
+                if (codes[i] != null && !columns[i].isBlank()) {
+                    per100g.set(codes[i], Double.parseDouble(columns[i].trim()));
+                }
+            }
+            final List<String> aliases = columns[1].isBlank() ? List.of()
+                    : Arrays.stream(columns[1].split(";")).map(String::trim).toList();
+            foods.add(new Food(columns[0].trim(), aliases, optional(columns[2]), optional(columns[3]), per100g));
+        }
+        return foods;
+    }
+
+    private static double optional(String column) {
+        return column.isBlank() ? Double.NaN : Double.parseDouble(column.trim());
+    }
+}
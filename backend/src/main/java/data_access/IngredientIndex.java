@@ -0,0 +1,314 @@
+package data_access;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.roaringbitmap.ContainerPointer;
+import org.roaringbitmap.RoaringBitmap;
+
+/**
+ * In-memory inverted index from normalized ingredient name to the catalog ids of the recipes that use
+ * it, held as compressed (Roaring) bitmaps.
+ * <p>
+ * The number of distinct ingredients of every recipe is stored bit-sliced: bit {@code i} of a recipe's
+ * count is set in {@code countSlices[i]}. A pantry query adds the bitmaps of the pantry ingredients into
+ * a bit-sliced matched count, subtracts it from the ingredient count and compares the difference with
+ * the allowed number of missing ingredients. This is AND/OR/XOR work on 64 recipes at a time, fused
+ * into one pass over the bitmap containers so no intermediate bitmaps are built; only recipes that pass
+ * the filter are visited one by one, to rank them by coverage.
+ * </p>
+ * <p>
+ * Recipes are indexed once: a catalog recipe keeps its ingredients for as long as its Edamam URI
+ * exists, so adding an already indexed recipe again is a no-op. Thread-safe.
+ * </p>
+ */
+public class IngredientIndex {
+
+    private static final int CHUNK_WORDS = 1 << 16 >>> 6;
+
+    private static final Comparator<Match> BEST_FIRST = Comparator
+            .comparingDouble(Match::coverage)
+            .thenComparing(Comparator.comparingInt(Match::missingIngredients).reversed())
+            .thenComparingInt(Match::recipeId);
+
+    private final Map<String, RoaringBitmap> postings = new HashMap<>();
+    private final List<RoaringBitmap> countSlices = new ArrayList<>();
+    private final RoaringBitmap indexed = new RoaringBitmap();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Normalizes an ingredient name for indexing and lookup: lower case, trimmed, single spaces.
+     *
+     * @return the normalized name, or null if the name is null or blank
+     */
+    public static String normalize(String name) {
+        if (name == null) {
+            return null;
+        }
+        final String normalized = name.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        return normalized.isEmpty() ? null : normalized;
+    }
+
+    /**
+     * Indexes a recipe under each of its ingredient names.
+     *
+     * @param recipeId        the catalog id of the recipe
+     * @param ingredientNames the ingredient names, as given by {@code Ingredient.getName()}
+     * @return true if the recipe was not indexed yet
+     */
+    public boolean add(int recipeId, Collection<String> ingredientNames) {
+        final Set<String> names = normalizeAll(ingredientNames);
+        lock.writeLock().lock();
+        try {
+            if (!indexed.checkedAdd(recipeId)) {
+                return false;
+            }
+            for (String name : names) {
+                postings.computeIfAbsent(name, key -> new RoaringBitmap()).add(recipeId);
+            }
+            final int count = names.size();
+            for (int bit = 0; count >>> bit != 0; bit++) {
+                if (bit == countSlices.size()) {
+                    countSlices.add(new RoaringBitmap());
+                }
+                if ((count >>> bit & 1) != 0) {
+                    countSlices.get(bit).add(recipeId);
+                }
+            }
+            return true;
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds recipes that use at least one pantry ingredient and at most {@code maxMissing} ingredients
+     * outside the pantry.
+     *
+     * @param pantry     the ingredient names the user has
+     * @param maxMissing the number of recipe ingredients allowed to be missing from the pantry
+     * @param limit      maximum number of matches to return
+     * @return the matches with the highest coverage first, then the fewest missing ingredients
+     */
+    public List<Match> search(Collection<String> pantry, int maxMissing, int limit) {
+        final Set<String> names = normalizeAll(pantry);
+        lock.readLock().lock();
+        try {
+            final List<RoaringBitmap> pantryPostings = new ArrayList<>(names.size());
+            for (String name : names) {
+                final RoaringBitmap posting = postings.get(name);
+                if (posting != null) {
+                    pantryPostings.add(posting);
+                }
+            }
+            if (pantryPostings.isEmpty() || limit <= 0) {
+                return List.of();
+            }
+
+            return search(pantryPostings, maxMissing, limit);
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of indexed recipes.
+     */
+    public long size() {
+        lock.readLock().lock();
+        try {
+            return indexed.getLongCardinality();
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Runs the query one 2^16-id chunk at a time. The pantry postings and count slices of a chunk are
+     * expanded into 1024-word bitsets, then each 64-bit word is processed on its own: the pantry words
+     * are added into a bit-sliced matched count with a ripple-carry adder, the matched count is
+     * subtracted from the ingredient count, and the difference is compared with {@code maxMissing}.
+     * Only the set bits of the resulting accepted word are visited individually.
+     */
+    private List<Match> search(List<RoaringBitmap> pantryPostings, int maxMissing, int limit) {
+        final int postingCount = pantryPostings.size();
+        final int sliceCount = countSlices.size();
+        final ContainerPointer[] postingPointers = pointers(pantryPostings);
+        final ContainerPointer[] slicePointers = pointers(countSlices);
+        final long[][] postingWords = new long[postingCount][CHUNK_WORDS];
+        final long[][] sliceWords = new long[sliceCount][CHUNK_WORDS];
+        final boolean[] postingPresent = new boolean[postingCount];
+
+        final int matchedBits = 32 - Integer.numberOfLeadingZeros(postingCount);
+        final int bits = Math.max(Math.max(matchedBits, sliceCount), 32 - Integer.numberOfLeadingZeros(maxMissing));
+        final long[] matched = new long[bits];
+        final long[] missing = new long[bits];
+        final PriorityQueue<Match> best = new PriorityQueue<>(limit, BEST_FIRST);
+
+        for (int key = nextKey(postingPointers); key >= 0; key = nextKey(postingPointers)) {
+            load(postingPointers, key, postingWords, postingPresent);
+            load(slicePointers, key, sliceWords, null);
+
+            for (int word = 0; word < CHUNK_WORDS; word++) {
+                long candidates = 0;
+                Arrays.fill(matched, 0);
+                for (int j = 0; j < postingCount; j++) {
+                    if (!postingPresent[j]) {
+                        continue;
+                    }
+                    long carry = postingWords[j][word];
+                    candidates |= carry;
+                    for (int bit = 0; carry != 0; bit++) {
+                        final long nextCarry = matched[bit] & carry;
+                        matched[bit] ^= carry;
+                        carry = nextCarry;
+                    }
+                }
+                if (candidates == 0) {
+                    continue;
+                }
+
+                // missing = total - matched; matched never exceeds total, so no borrow is left over
+                long borrow = 0;
+                for (int bit = 0; bit < bits; bit++) {
+                    final long total = bit < sliceCount ? sliceWords[bit][word] : 0;
+                    missing[bit] = total ^ matched[bit] ^ borrow;
+                    borrow = (~total & (matched[bit] | borrow)) | (matched[bit] & borrow);
+                }
+
+                // Compare missing with maxMissing from the most significant bit down
+                long greater = 0;
+                long equal = candidates;
+                for (int bit = bits - 1; bit >= 0 && equal != 0; bit--) {
+                    if ((maxMissing >>> bit & 1) == 0) {
+                        greater |= equal & missing[bit];
+                        equal &= ~missing[bit];
+                    }
+                    else {
+                        equal &= missing[bit];
+                    }
+                }
+
+                long accepted = candidates & ~greater;
+                while (accepted != 0) {
+                    final int offset = Long.numberOfTrailingZeros(accepted);
+                    accepted &= accepted - 1;
+                    final int recipeId = key << 16 | word << 6 | offset;
+                    final Match match = new Match(recipeId, decode(matched, offset), decode(sliceWords, word, offset));
+                    if (best.size() < limit) {
+                        best.add(match);
+                    }
+                    else if (BEST_FIRST.compare(match, best.peek()) > 0) {
+                        best.poll();
+                        best.add(match);
+                    }
+                }
+            }
+        }
+
+        final List<Match> ranked = new ArrayList<>(best);
+        ranked.sort(BEST_FIRST.reversed());
+        return ranked;
+    }
+
+    private static ContainerPointer[] pointers(List<RoaringBitmap> bitmaps) {
+        final ContainerPointer[] pointers = new ContainerPointer[bitmaps.size()];
+        for (int i = 0; i < pointers.length; i++) {
+            pointers[i] = bitmaps.get(i).getContainerPointer();
+        }
+        return pointers;
+    }
+
+    /**
+     * Returns the smallest chunk key any pointer is on, or -1 when all are exhausted.
+     */
+    private static int nextKey(ContainerPointer[] pointers) {
+        int key = -1;
+        for (ContainerPointer pointer : pointers) {
+            if (pointer.getContainer() != null && (key < 0 || pointer.key() < key)) {
+                key = pointer.key();
+            }
+        }
+        return key;
+    }
+
+    /**
+     * Expands the containers of the chunk {@code key} into {@code words}, zeroing the rows of bitmaps
+     * without one, and moves the pointers past the chunk.
+     */
+    private static void load(ContainerPointer[] pointers, int key, long[][] words, boolean[] present) {
+        for (int i = 0; i < pointers.length; i++) {
+            final ContainerPointer pointer = pointers[i];
+            while (pointer.getContainer() != null && pointer.key() < key) {
+                pointer.advance();
+            }
+            final boolean atKey = pointer.getContainer() != null && pointer.key() == key;
+            Arrays.fill(words[i], 0);
+            if (atKey) {
+                pointer.getContainer().copyBitmapTo(words[i], 0);
+                pointer.advance();
+            }
+            if (present != null) {
+                present[i] = atKey;
+            }
+        }
+    }
+
+    private static int decode(long[] slices, int offset) {
+        int value = 0;
+        for (int bit = 0; bit < slices.length; bit++) {
+            value |= (int) (slices[bit] >>> offset & 1) << bit;
+        }
+        return value;
+    }
+
+    private static int decode(long[][] slices, int word, int offset) {
+        int value = 0;
+        for (int bit = 0; bit < slices.length; bit++) {
+            value |= (int) (slices[bit][word] >>> offset & 1) << bit;
+        }
+        return value;
+    }
+
+    private static Set<String> normalizeAll(Collection<String> names) {
+        final Set<String> normalized = new LinkedHashSet<>();
+        for (String name : names) {
+            final String value = normalize(name);
+            if (value != null) {
+                normalized.add(value);
+            }
+        }
+        return normalized;
+    }
+
+    /**
+     * A recipe found by a pantry search.
+     *
+     * @param recipeId           the catalog id of the recipe
+     * @param matchedIngredients how many of its distinct ingredients are in the pantry
+     * @param totalIngredients   how many distinct ingredients it uses
+     */
+    public record Match(int recipeId, int matchedIngredients, int totalIngredients) {
+
+        public int missingIngredients() {
+            return totalIngredients - matchedIngredients;
+        }
+
+        public double coverage() {
+            return (double) matchedIngredients / totalIngredients;
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package data_access;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Splits a free-text ingredient line such as {@code "1 1/2 cups chopped onion, diced"} into its quantity
+ * ({@code 1.5}), unit ({@link Unit#CUP}) and food ({@code "chopped onion"}).
+ * <p>
+ * Understands whole, decimal, fractional, mixed ({@code 1 1/2}) and unicode ({@code ½}) quantities, small
+ * number words ({@code a}, {@code two}), ranges ({@code 2-3}, read as their middle) and the usual metric,
+ * US and count units. Counted foods and containers with a weight or volume in parentheses
+ * ({@code 1 can (15 oz) beans}, {@code 4 fillets (6 oz each)}) are read by that size. What
+ * follows the first comma and anything else in parentheses is dropped; of alternatives
+ * ({@code butter or margarine}) the first is kept. Lines without a quantity, with an unknown unit or with
+ * several foods ({@code salt and pepper}) are not parsed.
+ * </p>
+ */
+public final class IngredientLineParser {
+
+    /**
+     * How a unit measures a food: by weight, by volume or by counting pieces.
+     */
+    public enum Kind { MASS, VOLUME, COUNT }
+
+    /**
+     * The units a line can be measured in, with their size in grams, cups or pieces.
+     */
+    public enum Unit {
+        MILLIGRAM(Kind.MASS, 0.001, "mg", "milligram", "milligrams"),
+        GRAM(Kind.MASS, 1, "g", "gr", "gram", "grams", "gramme", "grammes"),
+        KILOGRAM(Kind.MASS, 1000, "kg", "kilogram", "kilograms", "kilo", "kilos"),
+        OUNCE(Kind.MASS, 28.3495, "oz", "ounce", "ounces"),
+        POUND(Kind.MASS, 453.592, "lb", "lbs", "pound", "pounds"),
+        PINCH(Kind.VOLUME, 1.0 / 768, "pinch", "pinches"),
+        DASH(Kind.VOLUME, 1.0 / 384, "dash", "dashes"),
+        TEASPOON(Kind.VOLUME, 1.0 / 48, "tsp", "tsps", "teaspoon", "teaspoons"),
+        TABLESPOON(Kind.VOLUME, 1.0 / 16, "tbsp", "tbsps", "tbs", "tbl", "tablespoon", "tablespoons"),
+        FLUID_OUNCE(Kind.VOLUME, 1.0 / 8, "floz"),
+        CUP(Kind.VOLUME, 1, "c", "cup", "cups"),
+        PINT(Kind.VOLUME, 2, "pt", "pint", "pints"),
+        QUART(Kind.VOLUME, 4, "qt", "quart", "quarts"),
+        MILLILITER(Kind.VOLUME, 1 / 236.588, "ml", "milliliter", "milliliters", "millilitre", "millilitres"),
+        LITER(Kind.VOLUME, 1000 / 236.588, "l", "liter", "liters", "litre", "litres"),
+        PIECE(Kind.COUNT, 1, "piece", "pieces", "whole", "large", "medium", "small", "clove", "cloves",
+                "slice", "slices", "stalk", "stalks", "rib", "ribs", "sprig", "sprigs", "fillet", "fillets",
+                "ear", "ears", "stick", "sticks", "strip", "strips", "leaf", "leaves");
+
+        private final Kind kind;
+        private final double size;
+        private final String[] names;
+
+        Unit(Kind kind, double size, String... names) {
+            this.kind = kind;
+            this.size = size;
+            this.names = names;
+        }
+
+        public Kind kind() {
+            return kind;
+        }
+
+        /**
+         * @return the size of one unit in grams, cups or pieces, depending on its {@link #kind()}
+         */
+        public double size() {
+            return size;
+        }
+    }
+
+    /**
+     * A parsed line: {@code quantity} of {@code unit} of {@code food}, the food in lower case.
+     */
+    public record ParsedLine(double quantity, Unit unit, String food) {
+    }
+
+    private static final Map<String, Unit> UNITS = new HashMap<>();
+    private static final List<String> CONTAINERS = List.of(
+            "can", "cans", "tin", "tins", "jar", "jars", "package", "packages", "pkg", "packet", "packets",
+            "box", "boxes", "bag", "bags", "carton", "cartons", "container", "containers");
+    private static final List<String> UNSUPPORTED_UNITS = List.of(
+            "head", "heads", "bunch", "bunches", "handful", "handfuls", "knob", "knobs", "drizzle", "splash",
+            "sheet", "sheets", "loaf", "loaves", "scoop", "scoops");
+    private static final Pattern SIZE_WORDS =
+            Pattern.compile("\\b(?:about|approximately|approx|roughly|each|total)\\b");
+    private static final Map<String, Double> NUMBER_WORDS = Map.ofEntries(
+            Map.entry("a", 1.0), Map.entry("an", 1.0), Map.entry("one", 1.0), Map.entry("two", 2.0),
+            Map.entry("three", 3.0), Map.entry("four", 4.0), Map.entry("five", 5.0), Map.entry("six", 6.0),
+            Map.entry("seven", 7.0), Map.entry("eight", 8.0), Map.entry("nine", 9.0), Map.entry("ten", 10.0),
+            Map.entry("dozen", 12.0));
+    private static final Map<Character, String> VULGAR_FRACTIONS = Map.of(
+            '½', "1/2", '⅓', "1/3", '⅔', "2/3", '¼', "1/4", '¾', "3/4", '⅛', "1/8", '⅜', "3/8", '⅝', "5/8",
+            '⅞', "7/8");
+
+    private static final Pattern PARENTHESES = Pattern.compile("\\(([^)]*)\\)");
+    private static final Pattern FLUID_OUNCE = Pattern.compile("\\bfl(?:uid)?\\.?\\s*(?:oz|ounces?)\\b");
+    private static final Pattern RANGE = Pattern.compile("(\\d+(?:\\.\\d+)?|\\d+/\\d+)-(\\d+(?:\\.\\d+)?|\\d+/\\d+)");
+    private static final Pattern NUMBER = Pattern.compile("\\d+(?:\\.\\d+)?|\\d+/\\d+");
+
+    static {
+        for (Unit unit : Unit.values()) {
+            for (String name : unit.names) {
+                UNITS.put(name, unit);
+            }
+        }
+    }
+
+    private IngredientLineParser() {
+    }
+
+    /**
+     * Parses an ingredient line.
+     *
+     * @return the parsed line, or null if the line could not be parsed
+     */
+    public static ParsedLine parse(String line) {
+        if (line == null) {
+            return null;
+        }
+        String text = replaceVulgarFractions(line.toLowerCase(Locale.ROOT));
+        final Matcher parentheses = PARENTHESES.matcher(text);
+        final String size = parentheses.find() ? parentheses.group(1) : null;
+        if (size != null) {
+            text = PARENTHESES.matcher(text).replaceAll(" ");
+        }
+        final int comma = text.indexOf(',');
+        if (comma >= 0) {
+            text = text.substring(0, comma);
+        }
+        final List<String> tokens = tokenize(text);
+
+        final int[] position = {0};
+        double quantity = readQuantity(tokens, position);
+        if (Double.isNaN(quantity)) {
+            return null;
+        }
+        Unit unit = Unit.PIECE;
+        if (position[0] < tokens.size() && UNITS.containsKey(tokens.get(position[0]))) {
+            unit = UNITS.get(tokens.get(position[0]));
+            position[0]++;
+        }
+        final boolean container = unit == Unit.PIECE && position[0] < tokens.size()
+                && CONTAINERS.contains(tokens.get(position[0]));
+        if (container) {
+            position[0]++;
+        }
+        else if (position[0] < tokens.size() && UNSUPPORTED_UNITS.contains(tokens.get(position[0]))) {
+            return null;
+        }
+        // "1 can (15 oz)", "1 chicken (about 1.5 kg)", "4 fillets (6 oz each)": the size in parentheses counts
+        if (unit == Unit.PIECE) {
+            final ParsedLine measured = size == null ? null : parse(SIZE_WORDS.matcher(size).replaceAll(" ") + " x");
+            if (measured != null && measured.unit().kind() != Kind.COUNT) {
+                quantity = size.contains("each") ? quantity * measured.quantity()
+                        : container ? quantity * measured.quantity() : measured.quantity();
+                unit = measured.unit();
+            }
+            else if (container) {
+                return null;
+            }
+        }
+        if (position[0] < tokens.size() && tokens.get(position[0]).equals("of")) {
+            position[0]++;
+        }
+
+        final List<String> food = new ArrayList<>();
+        for (String token : tokens.subList(position[0], tokens.size())) {
+            if (token.equals("or")) {
+                break;
+            }
+            if (token.equals("and") || token.equals("&") || token.equals("+")) {
+                return null;
+            }
+            food.add(token);
+        }
+        if (food.isEmpty() || !(quantity > 0)) {
+            return null;
+        }
+        return new ParsedLine(quantity, unit, String.join(" ", food));
+    }
+
+    private static String replaceVulgarFractions(String text) {
+        final StringBuilder replaced = new StringBuilder(text.length() + 8);
+        for (int i = 0; i < text.length(); i++) {
+            final String fraction = VULGAR_FRACTIONS.get(text.charAt(i));
+            if (fraction == null) {
+                replaced.append(text.charAt(i));
+            }
+            else {
+                replaced.append(' ').append(fraction).append(' ');
+            }
+        }
+        return replaced.toString();
+    }
+
+    /**
+     * Splits a line into words at whitespace, trimming punctuation and separating numbers from the unit or
+     * word glued to them ({@code 200g}, {@code 15-ounce}).
+     */
+    private static List<String> tokenize(String text) {
+        final String normalized = text.contains("fl oz") || text.contains("fl. oz") || text.contains("fluid")
+                ? FLUID_OUNCE.matcher(text).replaceAll(" floz ")
+                : text;
+        final List<String> tokens = new ArrayList<>();
+        final int length = normalized.length();
+        int i = 0;
+        while (i < length) {
+            if (Character.isWhitespace(normalized.charAt(i))) {
+                i++;
+                continue;
+            }
+            final int start = i;
+            while (i < length && !Character.isWhitespace(normalized.charAt(i))) {
+                i++;
+            }
+            addToken(tokens, normalized, start, i);
+        }
+        return tokens;
+    }
+
+    private static void addToken(List<String> tokens, String text, int start, int end) {
+        if (end - start == 1 && "-–&+".indexOf(text.charAt(start)) >= 0) {
+            tokens.add(text.charAt(start) == '–' ? "-" : text.substring(start, end));
+            return;
+        }
+        while (start < end && !isLetterOrDigit(text.charAt(start)) && text.charAt(start) != '.') {
+            start++;
+        }
+        while (end > start && !isLetterOrDigit(text.charAt(end - 1))) {
+            end--;
+        }
+        int from = start;
+        for (int i = start + 1; i < end; i++) {
+            final char previous = text.charAt(i - 1);
+            final char current = text.charAt(i);
+            if (isDigit(previous) && isLetter(current)) {
+                tokens.add(text.substring(from, i));
+                from = i;
+            }
+            else if (current == '-' && i + 1 < end && (isDigit(previous) && isLetter(text.charAt(i + 1))
+                    || isLetter(previous) && isDigit(text.charAt(i + 1)))) {
+                tokens.add(text.substring(from, i));
+                from = i + 1;
+            }
+        }
+        if (from < end) {
+            tokens.add(text.substring(from, end));
+        }
+    }
+
+    private static boolean isLetter(char c) {
+        return c >= 'a' && c <= 'z';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isLetterOrDigit(char c) {
+        return isLetter(c) || isDigit(c);
+    }
+
+    /**
+     * Reads a whole, decimal, fractional or mixed number, a range or a number word, advancing
+     * {@code position[0]} past it.
+     *
+     * @return the quantity, or NaN if the tokens do not start with one
+     */
+    private static double readQuantity(List<String> tokens, int[] position) {
+        if (tokens.isEmpty()) {
+            return Double.NaN;
+        }
+        final String first = tokens.get(0);
+        final Double word = NUMBER_WORDS.get(first);
+        if (word != null) {
+            position[0] = 1;
+            return word;
+        }
+        final Matcher range = RANGE.matcher(first);
+        if (range.matches()) {
+            position[0] = 1;
+            return (number(range.group(1)) + number(range.group(2))) / 2;
+        }
+        if (!NUMBER.matcher(first).matches()) {
+            return Double.NaN;
+        }
+        double quantity = number(first);
+        int next = 1;
+        if (next < tokens.size() && tokens.get(next).contains("/") && NUMBER.matcher(tokens.get(next)).matches()
+                && !first.contains("/")) {
+            quantity += number(tokens.get(next++));
+        }
+        if (next + 1 < tokens.size() && (tokens.get(next).equals("-") || tokens.get(next).equals("to"))
+                && NUMBER.matcher(tokens.get(next + 1)).matches()) {
+            quantity = (quantity + number(tokens.get(next + 1))) / 2;
+            next += 2;
+        }
+        position[0] = next;
+        return quantity;
+    }
+
+    private static double number(String token) {
+        final int slash = token.indexOf('/');
+        if (slash < 0) {
+            return Double.parseDouble(token);
+        }
+        final double denominator = Double.parseDouble(token.substring(slash + 1));
+        return denominator == 0 ? Double.NaN : Double.parseDouble(token.substring(0, slash)) / denominator;
+    }
+}
@@ -0,0 +1,109 @@
+package data_access;
+
+import entity.Ingredient;
+import entity.Recipe;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import use_case.ingredient_suggest.IngredientSuggestDataAccessInterface;
+import use_case.ingredient_suggest.IngredientSuggestion;
+
+/**
+ * Ingredient typeahead over every ingredient name seen, served from an in-memory
+ * {@link IngredientSuggestionIndex}.
+ * <p>
+ * Names are counted once per catalog recipe, which covers every Edamam search hit, and once per saved
+ * recipe: the catalog reports its recipes as it indexes them, saved recipes are loaded at startup and
+ * reported as they are saved. Counts only grow; a recipe removed from the saved list keeps counting
+ * until the next restart.
+ * </p>
+ */
+@Component
+public class IngredientSuggestionDataAccessObject implements IngredientSuggestDataAccessInterface {
+    private static final Logger LOGGER = LoggerFactory.getLogger(IngredientSuggestionDataAccessObject.class);
+
+    private final DatabaseManager databaseManager;
+    private final IngredientSuggestionIndex index = new IngredientSuggestionIndex();
+
+    public IngredientSuggestionDataAccessObject(DatabaseManager databaseManager, MeterRegistry meterRegistry) {
+        this.databaseManager = databaseManager;
+        Gauge.builder("recipewiz.ingredients.suggestion-index.names", index, IngredientSuggestionIndex::size)
+                .description("Distinct ingredient names offered as suggestions")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Counts one more recipe for each of the recipe's ingredient names.
+     */
+    public void addRecipe(Recipe recipe) {
+        if (recipe != null && recipe.getIngredients() != null) {
+            addIngredientNames(ingredientNames(recipe.getIngredients()));
+        }
+    }
+
+    /**
+     * Counts one more recipe for each of the given ingredient names of one recipe.
+     */
+    public void addIngredientNames(Collection<String> ingredientNames) {
+        index.add(ingredientNames);
+    }
+
+    @Override
+    public List<IngredientSuggestion> suggest(String prefix, int limit) {
+        final List<IngredientSuggestionIndex.Suggestion> found = index.suggest(prefix, limit);
+        final List<IngredientSuggestion> suggestions = new ArrayList<>(found.size());
+        for (IngredientSuggestionIndex.Suggestion suggestion : found) {
+            suggestions.add(new IngredientSuggestion(suggestion.name(), suggestion.recipes()));
+        }
+        return suggestions;
+    }
+
+    @PostConstruct
+    public void loadSavedRecipes() {
+        int loaded = 0;
+        try (Connection conn = databaseManager.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT recipe_data FROM saved_recipes")) {
+            while (rs.next()) {
+                final JSONArray ingredients = new JSONObject(rs.getString("recipe_data")).optJSONArray("ingredients");
+                if (ingredients == null) {
+                    continue;
+                }
+                final List<String> names = new ArrayList<>(ingredients.length());
+                for (int i = 0; i < ingredients.length(); i++) {
+                    final JSONObject ingredient = ingredients.optJSONObject(i);
+                    if (ingredient != null) {
+                        names.add(ingredient.optString("name", null));
+                    }
+                }
+                index.add(names);
+                loaded++;
+            }
+            LOGGER.info("Loaded the ingredients of {} saved recipe(s) into the suggestion index", loaded);
+        }
+        catch (SQLException | JSONException e) {
+            LOGGER.error("Failed to load saved recipes into the suggestion index: {}", e.getMessage(), e);
+        }
+    }
+
+    private static List<String> ingredientNames(List<Ingredient> ingredients) {
+        final List<String> names = new ArrayList<>(ingredients.size());
+        for (Ingredient ingredient : ingredients) {
+            names.add(ingredient.getName());
+        }
+        return names;
+    }
+}
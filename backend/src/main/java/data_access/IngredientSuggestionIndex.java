@@ -0,0 +1,374 @@
+package data_access;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory prefix index of ingredient names for typeahead, ranked by the number of recipes using each
+ * name.
+ * <p>
+ * The names are kept sorted as UTF-8 in one byte array with an offset per name, so the names starting
+ * with a prefix are one contiguous range, found by binary search. A segment tree over the recipe counts
+ * holds the most used name of every power-of-two block, which yields the most used name of any range in
+ * O(log n); the top {@code k} names of a range are taken one at a time, splitting the range around each
+ * name taken. A query therefore costs O(k log n) however many names share the prefix, and 100k names of
+ * 15 characters take about 3 MB.
+ * </p>
+ * <p>
+ * Counts of known names are updated in place. New names wait in a small sorted map, read by queries as
+ * well, and are merged into new arrays once {@value #MERGE_THRESHOLD} of them have accumulated.
+ * Thread-safe.
+ * </p>
+ */
+public class IngredientSuggestionIndex {
+
+    private static final int MERGE_THRESHOLD = 1024;
+
+    private static final Comparator<Suggestion> MOST_USED_FIRST = Comparator
+            .comparingInt(Suggestion::recipes).reversed()
+            .thenComparing(Suggestion::name);
+
+    private Names names = Names.EMPTY;
+    private final TreeMap<String, Integer> pending = new TreeMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Normalizes a typed prefix like {@link IngredientIndex#normalize(String)} normalizes names, but
+     * keeps a trailing space, so "olive " only matches names with a word after "olive".
+     *
+     * @return the normalized prefix, or null if the prefix is null or blank
+     */
+    public static String normalizePrefix(String prefix) {
+        if (prefix == null) {
+            return null;
+        }
+        final String normalized = prefix.stripLeading().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        return normalized.isEmpty() ? null : normalized;
+    }
+
+    /**
+     * Counts one more recipe for each of its ingredient names.
+     *
+     * @param ingredientNames the ingredient names of the recipe, as given by {@code Ingredient.getName()}
+     */
+    public void add(Collection<String> ingredientNames) {
+        final Set<String> distinct = new LinkedHashSet<>();
+        for (String name : ingredientNames) {
+            final String normalized = IngredientIndex.normalize(name);
+            if (normalized != null) {
+                distinct.add(normalized);
+            }
+        }
+        if (distinct.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (String name : distinct) {
+                final int index = names.indexOf(name.getBytes(StandardCharsets.UTF_8));
+                if (index >= 0) {
+                    names.increment(index);
+                }
+                else {
+                    pending.merge(name, 1, Integer::sum);
+                }
+            }
+            if (pending.size() >= MERGE_THRESHOLD) {
+                mergePending();
+            }
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the most used names starting with a prefix.
+     *
+     * @param prefix the typed prefix; normalized with {@link #normalizePrefix(String)}
+     * @param limit  maximum number of names to return
+     * @return the names used by the most recipes first, then alphabetically
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        final String normalized = normalizePrefix(prefix);
+        if (normalized == null || limit <= 0) {
+            return List.of();
+        }
+        final byte[] key = normalized.getBytes(StandardCharsets.UTF_8);
+        final List<Suggestion> suggestions = new ArrayList<>(limit);
+        lock.readLock().lock();
+        try {
+            names.collectMostUsed(key, limit, suggestions);
+            for (Map.Entry<String, Integer> entry : pending.tailMap(normalized).entrySet()) {
+                if (!entry.getKey().startsWith(normalized)) {
+                    break;
+                }
+                suggestions.add(new Suggestion(entry.getKey(), entry.getValue()));
+            }
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+        suggestions.sort(MOST_USED_FIRST);
+        return suggestions.size() > limit ? new ArrayList<>(suggestions.subList(0, limit)) : suggestions;
+    }
+
+    /**
+     * Returns the number of distinct names.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return names.size() + pending.size();
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Merges the pending names into new sorted arrays. Both sides are sorted by their UTF-8 bytes, which
+     * is code point order, and no pending name is in the arrays yet.
+     */
+    private void mergePending() {
+        final byte[][] added = new byte[pending.size()][];
+        final int[] addedCounts = new int[added.length];
+        final Integer[] order = new Integer[added.length];
+        int n = 0;
+        int addedBytes = 0;
+        for (Map.Entry<String, Integer> entry : pending.entrySet()) {
+            added[n] = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            addedCounts[n] = entry.getValue();
+            addedBytes += added[n].length;
+            order[n] = n;
+            n++;
+        }
+        Arrays.sort(order, (a, b) -> Arrays.compareUnsigned(added[a], added[b]));
+
+        final Names old = names;
+        final int size = old.size() + added.length;
+        final byte[] text = new byte[old.text.length + addedBytes];
+        final int[] offsets = new int[size + 1];
+        final int[] counts = new int[size];
+        int from = 0;
+        int next = 0;
+        int length = 0;
+        for (int i = 0; i < size; i++) {
+            final boolean takeOld = next == added.length
+                    || from < old.size() && old.compareTo(from, added[order[next]]) < 0;
+            if (takeOld) {
+                final int start = old.offsets[from];
+                final int nameLength = old.offsets[from + 1] - start;
+                System.arraycopy(old.text, start, text, length, nameLength);
+                length += nameLength;
+                counts[i] = old.counts[from++];
+            }
+            else {
+                final int index = order[next++];
+                System.arraycopy(added[index], 0, text, length, added[index].length);
+                length += added[index].length;
+                counts[i] = addedCounts[index];
+            }
+            offsets[i + 1] = length;
+        }
+        names = new Names(text, offsets, counts);
+        pending.clear();
+    }
+
+    /**
+     * The merged names: sorted UTF-8 text, a recipe count per name and the segment tree over the counts.
+     */
+    private static final class Names {
+        static final Names EMPTY = new Names(new byte[0], new int[1], new int[0]);
+
+        // Name i is text[offsets[i], offsets[i + 1])
+        final byte[] text;
+        final int[] offsets;
+        final int[] counts;
+        // Node k covers nodes 2k and 2k + 1; leaf leaves + i is name i. Each node holds the index of the
+        // most used name below it, or -1 below padding leaves only
+        private final int leaves;
+        private final int[] mostUsed;
+
+        Names(byte[] text, int[] offsets, int[] counts) {
+            this.text = text;
+            this.offsets = offsets;
+            this.counts = counts;
+            this.leaves = Integer.highestOneBit(Math.max(1, counts.length) * 2 - 1);
+            this.mostUsed = new int[2 * leaves];
+            for (int i = 0; i < leaves; i++) {
+                mostUsed[leaves + i] = i < counts.length ? i : -1;
+            }
+            for (int node = leaves - 1; node >= 1; node--) {
+                mostUsed[node] = moreUsed(mostUsed[2 * node], mostUsed[2 * node + 1]);
+            }
+        }
+
+        int size() {
+            return counts.length;
+        }
+
+        /**
+         * @return the index of the name, or -1 if it is not here
+         */
+        int indexOf(byte[] name) {
+            int low = 0;
+            int high = counts.length - 1;
+            while (low <= high) {
+                final int middle = (low + high) >>> 1;
+                final int c = Arrays.compareUnsigned(text, offsets[middle], offsets[middle + 1], name, 0, name.length);
+                if (c < 0) {
+                    low = middle + 1;
+                }
+                else if (c > 0) {
+                    high = middle - 1;
+                }
+                else {
+                    return middle;
+                }
+            }
+            return -1;
+        }
+
+        void increment(int index) {
+            counts[index]++;
+            for (int node = (leaves + index) >>> 1; node >= 1; node >>>= 1) {
+                mostUsed[node] = moreUsed(mostUsed[2 * node], mostUsed[2 * node + 1]);
+            }
+        }
+
+        /**
+         * Adds the {@code limit} most used names starting with the prefix to {@code suggestions}.
+         */
+        void collectMostUsed(byte[] prefix, int limit, List<Suggestion> suggestions) {
+            // Open ranges of names still to take from; each name taken splits one range into at most two
+            final int[] froms = new int[limit + 1];
+            final int[] tos = new int[limit + 1];
+            final int[] best = new int[limit + 1];
+            int ranges = 0;
+            final int from = firstAtLeast(prefix, false);
+            final int to = firstAtLeast(prefix, true);
+            if (from < to) {
+                froms[0] = from;
+                tos[0] = to;
+                best[0] = mostUsed(from, to);
+                ranges = 1;
+            }
+            for (int taken = 0; taken < limit && ranges > 0; taken++) {
+                int range = 0;
+                for (int r = 1; r < ranges; r++) {
+                    if (moreUsed(best[range], best[r]) == best[r]) {
+                        range = r;
+                    }
+                }
+                final int index = best[range];
+                suggestions.add(new Suggestion(name(index), counts[index]));
+
+                // Swap the range out for the names before and after the one taken
+                final int rangeFrom = froms[range];
+                final int rangeTo = tos[range];
+                ranges--;
+                froms[range] = froms[ranges];
+                tos[range] = tos[ranges];
+                best[range] = best[ranges];
+                if (rangeFrom < index) {
+                    froms[ranges] = rangeFrom;
+                    tos[ranges] = index;
+                    best[ranges] = mostUsed(rangeFrom, index);
+                    ranges++;
+                }
+                if (index + 1 < rangeTo) {
+                    froms[ranges] = index + 1;
+                    tos[ranges] = rangeTo;
+                    best[ranges] = mostUsed(index + 1, rangeTo);
+                    ranges++;
+                }
+            }
+        }
+
+        /**
+         * Returns the first name that is not before the prefix or, with {@code past}, the first name after
+         * every name starting with it.
+         */
+        private int firstAtLeast(byte[] prefix, boolean past) {
+            int low = 0;
+            int high = counts.length;
+            while (low < high) {
+                final int middle = (low + high) >>> 1;
+                final int c = compareToPrefix(middle, prefix);
+                if (c < 0 || past && c == 0) {
+                    low = middle + 1;
+                }
+                else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Compares name {@code index} with a prefix; 0 if the name starts with it.
+         */
+        private int compareToPrefix(int index, byte[] prefix) {
+            final int start = offsets[index];
+            final int length = offsets[index + 1] - start;
+            final int common = Math.min(length, prefix.length);
+            final int c = Arrays.compareUnsigned(text, start, start + common, prefix, 0, common);
+            if (c != 0) {
+                return c;
+            }
+            return length < prefix.length ? -1 : 0;
+        }
+
+        int compareTo(int index, byte[] name) {
+            return Arrays.compareUnsigned(text, offsets[index], offsets[index + 1], name, 0, name.length);
+        }
+
+        private int mostUsed(int from, int to) {
+            int result = -1;
+            for (int low = from + leaves, high = to + leaves; low < high; low >>>= 1, high >>>= 1) {
+                if ((low & 1) == 1) {
+                    result = moreUsed(result, mostUsed[low++]);
+                }
+                if ((high & 1) == 1) {
+                    result = moreUsed(result, mostUsed[--high]);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Returns whichever name is used by more recipes, the earlier one on a tie; -1 stands for none.
+         */
+        private int moreUsed(int a, int b) {
+            if (a < 0 || b < 0) {
+                return a < 0 ? b : a;
+            }
+            return counts[b] > counts[a] || counts[b] == counts[a] && b < a ? b : a;
+        }
+
+        private String name(int index) {
+            return new String(text, offsets[index], offsets[index + 1] - offsets[index], StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * An ingredient name suggested for a prefix.
+     *
+     * @param name    the normalized ingredient name
+     * @param recipes how many recipes use it
+     */
+    public record Suggestion(String name, int recipes) {
+    }
+}
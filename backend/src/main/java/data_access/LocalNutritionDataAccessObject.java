@@ -0,0 +1,257 @@
+package data_access;
+
+import entity.NutrientVector;
+import entity.Recipe;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+import use_case.nutrition_analysis.NutritionAnalysisDataAccessInterface;
+
+/**
+ * Analyzes nutrition with the local {@link FoodCompositionTable} first, in front of the Edamam DAO.
+ * <p>
+ * Each ingredient line is {@link IngredientLineParser parsed} into quantity, unit and food, the food is
+ * matched by name in the table and its nutrients per 100 g are scaled to the line's grams, in microseconds
+ * and without a network call. A line is resolved only when it parses, its food matches with at least
+ * {@code min-confidence} and its unit converts to grams for that food; the remaining lines of a recipe are
+ * sent to Edamam together, through its line cache, and their nutrients added to the local ones. Nutrients
+ * only one of the two reports are dropped from such a mixed total rather than summed over some lines, unless
+ * Edamam analyzed none of the remaining lines, in which case the local total stands. A recipe whose lines
+ * all resolve costs no Edamam call.
+ * </p>
+ * <p>
+ * The table is the {@code food_composition} database table, into which the bundled table is upserted at
+ * startup, so foods added to the database are matched too. If the database cannot be read, the bundled
+ * table is used as is.
+ * </p>
+ */
+@Primary
+@Component
+public class LocalNutritionDataAccessObject implements NutritionAnalysisDataAccessInterface {
+    private static final Logger LOGGER = LoggerFactory.getLogger(LocalNutritionDataAccessObject.class);
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO food_composition (name, aliases, grams_per_cup, grams_per_piece, nutrients, updated_at)
+            VALUES (?, ?, ?, ?, ?, CURRENT_TIMESTAMP)
+            ON CONFLICT(name) DO UPDATE SET aliases = excluded.aliases, grams_per_cup = excluded.grams_per_cup,
+                grams_per_piece = excluded.grams_per_piece, nutrients = excluded.nutrients,
+                updated_at = excluded.updated_at
+            """;
+
+    private static final String SELECT_SQL =
+            "SELECT name, aliases, grams_per_cup, grams_per_piece, nutrients FROM food_composition ORDER BY name";
+
+    private final NutritionAnalysisDataAccessObject edamamDao;
+    private final FoodCompositionTable table;
+    private final boolean enabled;
+    private final double minConfidence;
+    private final LongAdder resolved = new LongAdder();
+    private final LongAdder sentToEdamam = new LongAdder();
+
+    public LocalNutritionDataAccessObject(
+            DatabaseManager databaseManager,
+            NutritionAnalysisDataAccessObject edamamDao,
+            MeterRegistry meterRegistry,
+            @Value("${recipewiz.nutrition.local.enabled:true}") boolean enabled,
+            @Value("${recipewiz.nutrition.local.min-confidence:0.5}") double minConfidence
+    ) {
+        this.edamamDao = edamamDao;
+        this.enabled = enabled;
+        this.minConfidence = minConfidence;
+        this.table = new FoodCompositionTable(enabled ? loadFoods(databaseManager) : List.of());
+
+        FunctionCounter.builder("recipewiz.nutrition.local.lines", resolved, LongAdder::sum)
+                .tag("result", "resolved")
+                .description("Ingredient lines analyzed with the local food composition table")
+                .register(meterRegistry);
+        FunctionCounter.builder("recipewiz.nutrition.local.lines", sentToEdamam, LongAdder::sum)
+                .tag("result", "edamam")
+                .description("Ingredient lines analyzed with the local food composition table")
+                .register(meterRegistry);
+        Gauge.builder("recipewiz.nutrition.local.foods", table, FoodCompositionTable::size)
+                .description("Foods in the local food composition table")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public NutrientVector analyzeNutrition(Recipe recipe) throws IOException {
+        final LocalAnalysis analysis = analyzeLocally(recipe);
+        if (analysis.rest == null) {
+            return analysis.nutrients;
+        }
+        return analysis.combine(edamamDao.analyzeNutrition(analysis.rest));
+    }
+
+    @Override
+    public CompletableFuture<NutrientVector> analyzeNutritionAsync(Recipe recipe) {
+        final LocalAnalysis analysis;
+        try {
+            analysis = analyzeLocally(recipe);
+        }
+        catch (RuntimeException exception) {
+            return CompletableFuture.failedFuture(exception);
+        }
+        if (analysis.rest == null) {
+            return CompletableFuture.completedFuture(analysis.nutrients);
+        }
+        return edamamDao.analyzeNutritionAsync(analysis.rest).thenApply(analysis::combine);
+    }
+
+    @Override
+    public List<CompletableFuture<NutrientVector>> analyzeNutritionBatch(List<Recipe> recipes) {
+        final List<LocalAnalysis> analyses = new ArrayList<>();
+        final List<Recipe> rests = new ArrayList<>();
+        for (Recipe recipe : recipes) {
+            final LocalAnalysis analysis = analyzeLocally(recipe);
+            analyses.add(analysis);
+            if (analysis.rest != null) {
+                rests.add(analysis.rest);
+            }
+        }
+        final List<CompletableFuture<NutrientVector>> remote = rests.isEmpty() ? List.of()
+                : edamamDao.analyzeNutritionBatch(rests);
+
+        final List<CompletableFuture<NutrientVector>> results = new ArrayList<>();
+        int next = 0;
+        for (LocalAnalysis analysis : analyses) {
+            results.add(analysis.rest == null ? CompletableFuture.completedFuture(analysis.nutrients)
+                    : remote.get(next++).thenApply(analysis::combine));
+        }
+        return results;
+    }
+
+    /**
+     * The nutrients of a recipe's locally resolved lines, or null if there are none, and a copy of the recipe
+     * with only the other lines, or null if there are none.
+     */
+    private record LocalAnalysis(NutrientVector nutrients, Recipe rest) {
+
+        /**
+         * Adds the Edamam nutrients of the other lines. Edamam reports many nutrients the local table does not
+         * have, so only those known for every line are kept: the others would be totals of some lines only.
+         * An empty answer means Edamam analyzed none of the other lines, typically seasonings such as
+         * "salt to taste", and leaves the local totals as they are.
+         */
+        NutrientVector combine(NutrientVector edamam) {
+            if (nutrients == null) {
+                return edamam;
+            }
+            return edamam.isEmpty() ? nutrients : nutrients.addCommon(edamam);
+        }
+    }
+
+    private LocalAnalysis analyzeLocally(Recipe recipe) {
+        if (!enabled) {
+            return new LocalAnalysis(null, recipe);
+        }
+        NutrientVector nutrients = null;
+        final JSONArray rest = new JSONArray();
+        final JSONArray jsonIngredient = recipe.getJsonIngredient();
+        if (jsonIngredient != null) {
+            for (int i = 0; i < jsonIngredient.length(); i++) {
+                final String line = jsonIngredient.optString(i, "");
+                if (line.isBlank()) {
+                    continue;
+                }
+                final NutrientVector lineNutrients = table.analyzeLine(line, minConfidence);
+                if (lineNutrients != null) {
+                    nutrients = nutrients == null ? lineNutrients : nutrients.addCommon(lineNutrients);
+                    resolved.increment();
+                }
+                else {
+                    rest.put(line);
+                    sentToEdamam.increment();
+                }
+            }
+        }
+        if (rest.isEmpty()) {
+            return new LocalAnalysis(nutrients == null ? new NutrientVector() : nutrients, null);
+        }
+        return new LocalAnalysis(nutrients, new Recipe(recipe.getRecipeId(), recipe.getTitle(),
+                recipe.getDescription(), recipe.getIngredients(), recipe.getInstructions(), recipe.getNutrition(),
+                recipe.getFood(), rest, recipe.getServings()));
+    }
+
+    /**
+     * Upserts the bundled foods into {@code food_composition} and reads the whole table back.
+     */
+    private static List<FoodCompositionTable.Food> loadFoods(DatabaseManager databaseManager) {
+        final List<FoodCompositionTable.Food> bundled = FoodCompositionTable.readBundled();
+        try (Connection conn = databaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement upsert = conn.prepareStatement(UPSERT_SQL)) {
+                for (FoodCompositionTable.Food food : bundled) {
+                    upsert.setString(1, food.name());
+                    upsert.setString(2, String.join(";", food.aliases()));
+                    setOptional(upsert, 3, food.gramsPerCup());
+                    setOptional(upsert, 4, food.gramsPerPiece());
+                    upsert.setString(5, NutritionLineCache.toJson(food.per100g()));
+                    upsert.addBatch();
+                }
+                upsert.executeBatch();
+                conn.commit();
+            }
+            catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+            finally {
+                conn.setAutoCommit(true);
+            }
+
+            final List<FoodCompositionTable.Food> foods = new ArrayList<>();
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(SELECT_SQL)) {
+                while (rs.next()) {
+                    final String aliases = rs.getString("aliases");
+                    foods.add(new FoodCompositionTable.Food(
+                            rs.getString("name"),
+                            aliases == null || aliases.isBlank() ? List.of()
+                                    : Arrays.stream(aliases.split(";")).map(String::trim).toList(),
+                            getOptional(rs, "grams_per_cup"),
+                            getOptional(rs, "grams_per_piece"),
+                            NutritionLineCache.fromJson(rs.getString("nutrients"))));
+                }
+            }
+            LOGGER.info("Loaded {} food(s) into the local food composition table", foods.size());
+            return foods;
+        }
+        catch (SQLException | JSONException e) {
+            LOGGER.warn("Could not load the food composition table, using the bundled one: {}", e.getMessage());
+            return bundled;
+        }
+    }
+
+    private static void setOptional(PreparedStatement statement, int index, double value) throws SQLException {
+        if (Double.isNaN(value)) {
+            statement.setNull(index, Types.REAL);
+        }
+        else {
+            statement.setDouble(index, value);
+        }
+    }
+
+    private static double getOptional(ResultSet rs, String column) throws SQLException {
+        final double value = rs.getDouble(column);
+        return rs.wasNull() ? Double.NaN : value;
+    }
+}
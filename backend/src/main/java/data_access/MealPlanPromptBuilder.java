@@ -0,0 +1,277 @@
+package data_access;
+
+import entity.Nutrition;
+import entity.Recipe;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+import use_case.ai_meal_plan.AiGenerationGateway.UserProfile;
+
+/**
+ * Builds the user message of a meal plan request within a token budget.
+ * <p>
+ * Recipes are written as a table: one header row, then one comma separated row per recipe with a short id
+ * (1, 2, 3, ...) in place of its recipe id, its title cut to {@value #MAX_TITLE_LENGTH} characters and its
+ * calories and macronutrients rounded to whole numbers. The model answers with the short ids, which
+ * {@link Prompt#recipeId(long)} maps back.
+ * </p>
+ * <p>
+ * Tokens are estimated at {@value #CHARS_PER_TOKEN} characters each. When not every recipe fits the budget,
+ * a diverse subset is offered instead: first the recipe closest to the average calories and macro split,
+ * then each time the one least like all those already chosen, by calories, share of energy from protein,
+ * fat and carbohydrates, and words in common in the title, while it still fits. Stateless and thread-safe.
+ * </p>
+ */
+public final class MealPlanPromptBuilder {
+
+    /**
+     * The header row of the recipe table.
+     */
+    public static final String TABLE_HEADER = "id,title,kcal,protein_g,fat_g,carbs_g";
+
+    static final int CHARS_PER_TOKEN = 4;
+    static final int MAX_TITLE_LENGTH = 48;
+
+    // A difference of KCAL_SCALE calories weighs as much as moving all the energy from one macronutrient
+    // to another; titles with no word in common add TITLE_WEIGHT
+    private static final double KCAL_SCALE = 1000;
+    private static final double TITLE_WEIGHT = 0.5;
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    /**
+     * A built user message.
+     *
+     * @param text            the message
+     * @param recipeIds       the recipe id of each short id, short id {@code n} at index {@code n - 1}
+     * @param recipes         recipes that were available
+     * @param estimatedTokens the message's estimated size in tokens
+     */
+    public record Prompt(String text, List<Long> recipeIds, int recipes, int estimatedTokens) {
+
+        /**
+         * @return the recipe id of a short id in the message, or -1 if the message has no such short id
+         */
+        public long recipeId(long shortId) {
+            return shortId >= 1 && shortId <= recipeIds.size() ? recipeIds.get((int) shortId - 1) : -1;
+        }
+    }
+
+    private final int tokenBudget;
+
+    /**
+     * @param tokenBudget the largest message, in estimated tokens; one recipe is offered even if it does not
+     *                    fit
+     */
+    public MealPlanPromptBuilder(int tokenBudget) {
+        if (tokenBudget <= 0) {
+            throw new IllegalArgumentException("tokenBudget must be positive");
+        }
+        this.tokenBudget = tokenBudget;
+    }
+
+    public Prompt build(UserProfile p, List<Recipe> recipes, LocalDate from, LocalDate to) {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("=== User Profile ===\n");
+        sb.append("Gender: ").append(p.gender()).append("\n");
+        sb.append("Height: ").append(p.heightCm()).append(" cm\n");
+        sb.append("Weight: ").append(p.weightKg()).append(" kg\n");
+        sb.append("Age: ").append(p.age()).append(" years\n");
+        sb.append("Health Goal: ").append(p.goal()).append("\n\n");
+
+        sb.append("=== Meal Plan Date Range ===\n");
+        sb.append("From: ").append(from).append(" (inclusive)\n");
+        sb.append("To:   ").append(to).append(" (inclusive)\n\n");
+
+        sb.append("=== Available Recipes (use ONLY these ids) ===\n");
+        sb.append(TABLE_HEADER).append("\n");
+
+        final List<String> rows = new ArrayList<>(recipes.size());
+        for (Recipe recipe : recipes) {
+            rows.add(row(recipe));
+        }
+        final List<Integer> chosen = choose(recipes, rows, (long) tokenBudget * CHARS_PER_TOKEN - sb.length());
+
+        final List<Long> recipeIds = new ArrayList<>(chosen.size());
+        for (int index : chosen) {
+            recipeIds.add(recipes.get(index).getRecipeId());
+            sb.append(recipeIds.size()).append(',').append(rows.get(index)).append('\n');
+        }
+        return new Prompt(sb.toString(), List.copyOf(recipeIds), recipes.size(), estimateTokens(sb));
+    }
+
+    public static int estimateTokens(CharSequence text) {
+        return (text.length() + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+    }
+
+    /**
+     * Returns the indexes of the recipes to offer, in their original order.
+     *
+     * @param budget characters left for the rows
+     */
+    private static List<Integer> choose(List<Recipe> recipes, List<String> rows, long budget) {
+        final int count = recipes.size();
+        long all = 0;
+        for (int i = 0; i < count; i++) {
+            all += rowLength(rows.get(i), i + 1);
+        }
+        final List<Integer> chosen = new ArrayList<>(count);
+        if (all <= budget) {
+            for (int i = 0; i < count; i++) {
+                chosen.add(i);
+            }
+            return chosen;
+        }
+
+        final double[][] features = new double[count][];
+        final List<Set<String>> titles = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final Recipe recipe = recipes.get(i);
+            features[i] = features(recipe.getNutrition());
+            titles.add(new HashSet<>(FoodCompositionTable.tokens(
+                    recipe.getTitle() == null ? "" : recipe.getTitle())));
+        }
+
+        final double[] nearest = new double[count];
+        Arrays.fill(nearest, Double.POSITIVE_INFINITY);
+        final boolean[] done = new boolean[count];
+        int next = typical(features);
+        long used = 0;
+        while (next >= 0) {
+            done[next] = true;
+            final long length = rowLength(rows.get(next), chosen.size() + 1);
+            if (used + length <= budget || chosen.isEmpty()) {
+                used += length;
+                chosen.add(next);
+                for (int i = 0; i < count; i++) {
+                    if (!done[i]) {
+                        nearest[i] = Math.min(nearest[i], distance(features[i], titles.get(i),
+                                features[next], titles.get(next)));
+                    }
+                }
+            }
+            next = -1;
+            for (int i = 0; i < count; i++) {
+                if (!done[i] && (next < 0 || nearest[i] > nearest[next])) {
+                    next = i;
+                }
+            }
+        }
+        chosen.sort(null);
+        return chosen;
+    }
+
+    private static long rowLength(String row, int shortId) {
+        return Integer.toString(shortId).length() + 1 + row.length() + 1;
+    }
+
+    /**
+     * Calories scaled by {@link #KCAL_SCALE} and the shares of energy from protein, fat and carbohydrates,
+     * or null if the recipe has no nutrition.
+     */
+    private static double[] features(Nutrition n) {
+        if (n == null) {
+            return null;
+        }
+        final double protein = Math.max(0, n.getProtein()) * 4;
+        final double fat = Math.max(0, n.getFat()) * 9;
+        final double carbs = Math.max(0, n.getCarbohydrates()) * 4;
+        final double energy = protein + fat + carbs;
+        if (energy <= 0) {
+            return null;
+        }
+        return new double[] {Math.max(0, n.getCalories()) / KCAL_SCALE, protein / energy, fat / energy,
+                carbs / energy};
+    }
+
+    /**
+     * Returns the recipe closest to the average features, or 0 if none has nutrition.
+     */
+    private static int typical(double[][] features) {
+        final double[] mean = new double[4];
+        int known = 0;
+        for (double[] f : features) {
+            if (f != null) {
+                for (int j = 0; j < mean.length; j++) {
+                    mean[j] += f[j];
+                }
+                known++;
+            }
+        }
+        if (known == 0) {
+            return features.length == 0 ? -1 : 0;
+        }
+        for (int j = 0; j < mean.length; j++) {
+            mean[j] /= known;
+        }
+        int best = -1;
+        double bestDistance = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < features.length; i++) {
+            if (features[i] != null) {
+                final double distance = macroDistance(features[i], mean);
+                if (distance < bestDistance) {
+                    best = i;
+                    bestDistance = distance;
+                }
+            }
+        }
+        return best;
+    }
+
+    private static double distance(double[] a, Set<String> aTitle, double[] b, Set<String> bTitle) {
+        final double macros = a == null || b == null ? (a == b ? 0 : 1) : macroDistance(a, b);
+        return macros + TITLE_WEIGHT * (1 - jaccard(aTitle, bTitle));
+    }
+
+    private static double macroDistance(double[] a, double[] b) {
+        double distance = 0;
+        for (int j = 0; j < a.length; j++) {
+            distance += Math.abs(a[j] - b[j]);
+        }
+        return distance;
+    }
+
+    private static double jaccard(Set<String> a, Set<String> b) {
+        if (a.isEmpty() && b.isEmpty()) {
+            return 1;
+        }
+        int common = 0;
+        for (String word : a) {
+            if (b.contains(word)) {
+                common++;
+            }
+        }
+        return (double) common / (a.size() + b.size() - common);
+    }
+
+    /**
+     * The row of a recipe after its short id: title, calories, protein, fat and carbohydrates, the numbers
+     * left empty if the recipe has no nutrition.
+     */
+    private static String row(Recipe recipe) {
+        final StringBuilder row = new StringBuilder();
+        String title = recipe.getTitle() == null ? ""
+                : WHITESPACE.matcher(recipe.getTitle().strip()).replaceAll(" ");
+        if (title.length() > MAX_TITLE_LENGTH) {
+            title = title.substring(0, MAX_TITLE_LENGTH).strip();
+        }
+        if (title.indexOf(',') >= 0 || title.indexOf('"') >= 0) {
+            row.append('"').append(title.replace("\"", "\"\"")).append('"');
+        }
+        else {
+            row.append(title);
+        }
+        final Nutrition n = recipe.getNutrition();
+        if (n == null) {
+            return row.append(",,,,").toString();
+        }
+        return row.append(',').append(Math.round(n.getCalories()))
+                .append(',').append(Math.round(n.getProtein()))
+                .append(',').append(Math.round(n.getFat()))
+                .append(',').append(Math.round(n.getCarbohydrates()))
+                .toString();
+    }
+}
@@ -3,6 +3,7 @@ package data_access;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import entity.MealPlanEntry;
+import entity.Nutrition;
 import entity.Recipe;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -38,6 +39,7 @@ public class MealPlanningDataAccessObject implements MealPlanningDataAccessInter
         this.gson = new GsonBuilder()
                 .registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
                 .registerTypeAdapter(JSONArray.class, new JSONArrayTypeAdapter())
+                .registerTypeAdapter(Nutrition.class, new NutritionTypeAdapter())
                 .create();
     }
 
@@ -92,7 +94,7 @@ public class MealPlanningDataAccessObject implements MealPlanningDataAccessInter
     }
 
     @Override
-    public void addMealPlanEntry(int userId, int recipeId, LocalDate date, String mealType) {
+    public void addMealPlanEntry(int userId, long recipeId, LocalDate date, String mealType) {
         final Recipe recipe = savedRecipesDataAccessInterface.getSavedRecipe(userId, recipeId);
         if (recipe == null) {
             throw new IllegalArgumentException("Recipe not found in saved recipes");
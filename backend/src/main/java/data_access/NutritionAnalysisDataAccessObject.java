@@ -1,17 +1,18 @@
 package data_access;
 
-import entity.Nutrient;
+import entity.NutrientCode;
+import entity.NutrientVector;
 import entity.Recipe;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Objects;
-import okhttp3.HttpUrl;
-import okhttp3.MediaType;
-import okhttp3.OkHttpClient;
-import okhttp3.Request;
-import okhttp3.RequestBody;
-import okhttp3.Response;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.springframework.beans.factory.annotation.Value;
@@ -25,127 +26,323 @@ import use_case.nutrition_analysis.NutritionAnalysisException;
  * Contains the main method of the interface, which extract information from an api.
  * Contains several helper methods.
  * </p>
+ * <p>
+ * Nutrients are added up per ingredient line. Lines analyzed before come from the {@link NutritionLineCache};
+ * only the others are sent to Edamam, whose answer breaks its nutrients down by line, and a recipe whose
+ * lines are all cached costs no Edamam call. Lines Edamam could not break down are not cached, and the
+ * answer's totals are used for the lines sent. Nutrients outside the {@link NutrientCode} dictionary are
+ * dropped.
+ * </p>
+ * <p>
+ * A batch of recipes sends each distinct uncached line once, however many recipes share it: the lines are
+ * split into Edamam calls of up to {@code lines-per-call} lines, at most {@code parallelism} of them in
+ * flight, and each recipe completes as soon as the calls carrying its lines have. Recipes with a line
+ * Edamam could not break down are analyzed on their own afterwards, which sends only that line.
+ * </p>
  */
 @Component
 public class NutritionAnalysisDataAccessObject implements NutritionAnalysisDataAccessInterface {
-    private static final String NA_URL = "https://api.edamam.com/api/nutrition-details";
-    private final OkHttpClient httpClient;
-    private final String appId;
-    private final String appKey;
+    private static final String BATCH_TITLE = "Recipe Wiz batch";
+
+    private final EdamamClient edamamClient;
+    private final NutritionLineCache lineCache;
+    private final int batchParallelism;
+    private final int linesPerCall;
 
     public NutritionAnalysisDataAccessObject(
-            OkHttpClient httpClient,
-            @Value("${recipewiz.edamam.nutrition-analysis.app-id}") String appId,
-            @Value("${recipewiz.edamam.nutrition-analysis.app-key}") String appKey
+            EdamamClient edamamClient,
+            NutritionLineCache lineCache,
+            @Value("${recipewiz.edamam.nutrition-batch.parallelism:4}") int batchParallelism,
+            @Value("${recipewiz.edamam.nutrition-batch.lines-per-call:25}") int linesPerCall
     ) {
-        this.httpClient = httpClient;
-        this.appId = appId;
-        this.appKey = appKey;
+        if (batchParallelism <= 0 || linesPerCall <= 0) {
+            throw new IllegalArgumentException("Batch parallelism and lines per call must be positive");
+        }
+        this.edamamClient = edamamClient;
+        this.lineCache = lineCache;
+        this.batchParallelism = batchParallelism;
+        this.linesPerCall = linesPerCall;
     }
 
     @Override
-    public List<Nutrient> analyzeNutrition(Recipe recipe) throws IOException {
-        List<Nutrient> nutrientsList = new ArrayList<>();
-
-        // Build the HTTP request
-        final Request request = buildNutritionRequest(recipe);
+    public NutrientVector analyzeNutrition(Recipe recipe) throws IOException {
+        final LineAnalysis analysis = new LineAnalysis(recipe);
+        if (analysis.uncachedLines.isEmpty()) {
+            return analysis.cachedTotals;
+        }
+        return analysis.complete(edamamClient.analyzeNutrition(recipe.getTitle(), analysis.uncachedLines));
+    }
 
-        // Process the response
-        try (Response response = httpClient.newCall(request).execute()) {
-            if (response.body() != null) {
-                nutrientsList = parseNutrientsResponse(response.body().string());
-            }
+    @Override
+    public CompletableFuture<NutrientVector> analyzeNutritionAsync(Recipe recipe) {
+        final LineAnalysis analysis;
+        try {
+            analysis = new LineAnalysis(recipe);
         }
-        catch (IOException exception) {
-            throw new IOException("Error processing nutrition analysis", exception);
+        catch (RuntimeException exception) {
+            return CompletableFuture.failedFuture(exception);
         }
-
-        return nutrientsList;
+        if (analysis.uncachedLines.isEmpty()) {
+            return CompletableFuture.completedFuture(analysis.cachedTotals);
+        }
+        return edamamClient.analyzeNutritionAsync(recipe.getTitle(), analysis.uncachedLines)
+                .thenApply(analysis::complete);
     }
 
-    private Request buildNutritionRequest(Recipe recipe) {
-        if (appId == null || appId.isBlank() || appKey == null || appKey.isBlank()) {
-            throw new IllegalStateException("Edamam credentials are not configured");
+    @Override
+    public List<CompletableFuture<NutrientVector>> analyzeNutritionBatch(List<Recipe> recipes) {
+        final List<List<String>> recipeLines = new ArrayList<>();
+        final LinkedHashSet<String> keys = new LinkedHashSet<>();
+        for (Recipe recipe : recipes) {
+            final List<String> lines = ingredientLines(recipe);
+            recipeLines.add(lines);
+            lines.forEach(line -> keys.add(NutritionLineCache.normalize(line)));
         }
+        final Map<String, NutrientVector> cached = lineCache.getAll(keys);
 
-        final HttpUrl urlBuilder = Objects.requireNonNull(HttpUrl.parse(NA_URL)).newBuilder()
-                .addQueryParameter("app_id", appId)
-                .addQueryParameter("app_key", appKey)
-                .build();
-
-        final JSONObject requestBody = new JSONObject();
-        requestBody.put("title", recipe.getTitle());
-        requestBody.put("ingr", recipe.getJsonIngredient());
+        // Each distinct uncached line goes into one call, as the first recipe wrote it
+        final Map<String, Integer> callOfLine = new HashMap<>();
+        final List<List<String>> callLines = new ArrayList<>();
+        for (List<String> lines : recipeLines) {
+            for (String line : lines) {
+                final String key = NutritionLineCache.normalize(line);
+                if (cached.containsKey(key) || callOfLine.containsKey(key)) {
+                    continue;
+                }
+                if (callLines.isEmpty() || callLines.get(callLines.size() - 1).size() == linesPerCall) {
+                    callLines.add(new ArrayList<>());
+                }
+                callLines.get(callLines.size() - 1).add(line);
+                callOfLine.put(key, callLines.size() - 1);
+            }
+        }
+        final List<CompletableFuture<Map<String, NutrientVector>>> calls = startBounded(callLines.size(),
+                call -> edamamClient.analyzeNutritionAsync(BATCH_TITLE, callLines.get(call))
+                        .thenApply(this::readLines));
 
-        return new Request.Builder()
-                .url(urlBuilder)
-                .post(RequestBody.create(
-                        requestBody.toString(),
-                        MediaType.get("application/json; charset=utf-8")
-                ))
-                .build();
+        final List<CompletableFuture<NutrientVector>> results = new ArrayList<>();
+        for (int i = 0; i < recipes.size(); i++) {
+            final Recipe recipe = recipes.get(i);
+            final List<String> lines = recipeLines.get(i);
+            final Map<Integer, CompletableFuture<Map<String, NutrientVector>>> needed = new HashMap<>();
+            for (String line : lines) {
+                final Integer call = callOfLine.get(NutritionLineCache.normalize(line));
+                if (call != null) {
+                    needed.putIfAbsent(call, calls.get(call));
+                }
+            }
+            results.add(CompletableFuture.allOf(needed.values().toArray(CompletableFuture[]::new))
+                    .thenCompose(ignored -> {
+                        final NutrientVector totals = new NutrientVector();
+                        for (String line : lines) {
+                            final String key = NutritionLineCache.normalize(line);
+                            final Integer call = callOfLine.get(key);
+                            final NutrientVector nutrients = call == null ? cached.get(key)
+                                    : needed.get(call).join().get(key);
+                            if (nutrients == null) {
+                                return analyzeNutritionAsync(recipe);
+                            }
+                            totals.add(nutrients);
+                        }
+                        return CompletableFuture.completedFuture(totals);
+                    }));
+        }
+        return results;
     }
 
-    private List<Nutrient> parseNutrientsResponse(String jsonData) throws NutritionAnalysisException {
+    /**
+     * Reads and caches the lines Edamam broke down in a batch call.
+     */
+    private Map<String, NutrientVector> readLines(String jsonData) throws NutritionAnalysisException {
+        if (jsonData == null) {
+            return Map.of();
+        }
+        final Map<String, NutrientVector> byLine;
         try {
-            final JSONObject jsonObject = new JSONObject(jsonData);
-
-            // Prefer top-level totalNutrients when available (paid tier)
-            if (jsonObject.has("totalNutrients")) {
-                return parseFromTotalNutrients(jsonObject.getJSONObject("totalNutrients"));
-            }
-
-            // Fallback: aggregate per-ingredient nutrients (free/developer tier)
-            return parseFromIngredients(jsonObject);
+            byLine = parseIngredientLines(new JSONObject(jsonData));
         }
         catch (JSONException exception) {
             throw new NutritionAnalysisException("Error processing nutrition analysis", exception);
         }
+        lineCache.putAll(byLine);
+        return byLine;
     }
 
-    private List<Nutrient> parseFromTotalNutrients(JSONObject totalNutrients) {
-        final List<Nutrient> result = new ArrayList<>();
-        for (String key : totalNutrients.keySet()) {
-            final JSONObject n = totalNutrients.getJSONObject(key);
-            result.add(new Nutrient(
-                    n.getString("label") + ": "
-                    + Math.round(n.getDouble("quantity"))
-                    + n.getString("unit")));
+    /**
+     * Starts {@code count} calls, at most {@link #batchParallelism} at once, each as soon as an earlier one
+     * finishes.
+     *
+     * @return the futures of the calls, by index
+     */
+    private <T> List<CompletableFuture<T>> startBounded(int count, IntFunction<CompletableFuture<T>> call) {
+        final List<CompletableFuture<T>> results = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            results.add(new CompletableFuture<>());
         }
-        return result;
+        final AtomicInteger next = new AtomicInteger();
+        final Runnable startNext = new Runnable() {
+            @Override
+            public void run() {
+                final int index = next.getAndIncrement();
+                if (index >= count) {
+                    return;
+                }
+                CompletableFuture<T> started;
+                try {
+                    started = call.apply(index);
+                }
+                catch (RuntimeException exception) {
+                    started = CompletableFuture.failedFuture(exception);
+                }
+                started.whenComplete((value, failure) -> {
+                    if (failure == null) {
+                        results.get(index).complete(value);
+                    }
+                    else {
+                        results.get(index).completeExceptionally(failure);
+                    }
+                    run();
+                });
+            }
+        };
+        for (int i = 0; i < Math.min(batchParallelism, count); i++) {
+            startNext.run();
+        }
+        return results;
+    }
+
+    private static List<String> ingredientLines(Recipe recipe) {
+        final List<String> lines = new ArrayList<>();
+        final JSONArray jsonIngredient = recipe.getJsonIngredient();
+        if (jsonIngredient != null) {
+            for (int i = 0; i < jsonIngredient.length(); i++) {
+                final String line = jsonIngredient.optString(i, "");
+                if (!line.isBlank()) {
+                    lines.add(line);
+                }
+            }
+        }
+        return lines;
     }
 
-    private List<Nutrient> parseFromIngredients(JSONObject jsonObject) {
-        // Aggregate nutrients across all ingredients
-        final java.util.Map<String, double[]> aggregated = new java.util.LinkedHashMap<>();
-        final java.util.Map<String, String[]> meta = new java.util.LinkedHashMap<>();
+    /**
+     * The ingredient lines of one recipe, split into those found in the cache, already added up, and
+     * those still to be sent to Edamam.
+     */
+    private final class LineAnalysis {
+        private final NutrientVector cachedTotals = new NutrientVector();
+        // Every occurrence, as written in the recipe
+        private final List<String> uncachedLines = new ArrayList<>();
 
-        final org.json.JSONArray ingredients = jsonObject.optJSONArray("ingredients");
-        if (ingredients == null) {
-            return new ArrayList<>();
+        LineAnalysis(Recipe recipe) {
+            final List<String> lines = ingredientLines(recipe);
+            final LinkedHashSet<String> keys = new LinkedHashSet<>();
+            lines.forEach(line -> keys.add(NutritionLineCache.normalize(line)));
+            final Map<String, NutrientVector> cached = lineCache.getAll(keys);
+            for (String line : lines) {
+                final NutrientVector nutrients = cached.get(NutritionLineCache.normalize(line));
+                if (nutrients != null) {
+                    cachedTotals.add(nutrients);
+                }
+                else {
+                    uncachedLines.add(line);
+                }
+            }
+        }
+
+        /**
+         * Adds Edamam's answer for the uncached lines to the cached totals, and caches the lines it broke
+         * down.
+         *
+         * @return the totals, empty if Edamam analyzed nothing
+         */
+        NutrientVector complete(String jsonData) throws NutritionAnalysisException {
+            if (jsonData == null) {
+                return new NutrientVector();
+            }
+            final JSONObject jsonObject;
+            final Map<String, NutrientVector> byLine;
+            try {
+                jsonObject = new JSONObject(jsonData);
+                byLine = parseIngredientLines(jsonObject);
+            }
+            catch (JSONException exception) {
+                throw new NutritionAnalysisException("Error processing nutrition analysis", exception);
+            }
+
+            final NutrientVector sentTotals = new NutrientVector();
+            boolean everyLineBrokenDown = true;
+            for (String line : uncachedLines) {
+                final NutrientVector nutrients = byLine.get(NutritionLineCache.normalize(line));
+                if (nutrients != null) {
+                    sentTotals.add(nutrients);
+                }
+                else {
+                    everyLineBrokenDown = false;
+                }
+            }
+            lineCache.putAll(byLine);
+
+            final JSONObject totalNutrients = jsonObject.optJSONObject("totalNutrients");
+            if (everyLineBrokenDown) {
+                return cachedTotals.add(sentTotals);
+            }
+            if (totalNutrients != null) {
+                return readNutrients(totalNutrients, cachedTotals);
+            }
+            if (byLine.isEmpty()) {
+                // Nothing analyzed, typically a 555 answer; partial totals would read as the recipe's
+                return new NutrientVector();
+            }
+            return cachedTotals.add(sentTotals);
         }
+    }
 
+    /**
+     * Reads the nutrients of every line in an Edamam answer's {@code ingredients}, summing the foods the
+     * line was parsed into, keyed by normalized line text. Lines without nutrients are left out.
+     */
+    private static Map<String, NutrientVector> parseIngredientLines(JSONObject jsonObject) {
+        final Map<String, NutrientVector> byLine = new HashMap<>();
+        final JSONArray ingredients = jsonObject.optJSONArray("ingredients");
+        if (ingredients == null) {
+            return byLine;
+        }
         for (int i = 0; i < ingredients.length(); i++) {
-            final org.json.JSONArray parsed = ingredients.getJSONObject(i).optJSONArray("parsed");
-            if (parsed == null) continue;
+            final JSONObject ingredient = ingredients.getJSONObject(i);
+            final JSONArray parsed = ingredient.optJSONArray("parsed");
+            final String text = ingredient.optString("text", null);
+            if (parsed == null || text == null) {
+                continue;
+            }
+            final NutrientVector nutrients = new NutrientVector();
+            boolean hasNutrients = false;
             for (int j = 0; j < parsed.length(); j++) {
-                final JSONObject nutrients = parsed.getJSONObject(j).optJSONObject("nutrients");
-                if (nutrients == null) continue;
-                for (String key : nutrients.keySet()) {
-                    final JSONObject n = nutrients.getJSONObject(key);
-                    final double qty = n.optDouble("quantity", 0);
-                    aggregated.merge(key, new double[]{qty}, (a, b) -> new double[]{a[0] + b[0]});
-                    meta.putIfAbsent(key, new String[]{n.optString("label", key), n.optString("unit", "")});
+                final JSONObject food = parsed.getJSONObject(j).optJSONObject("nutrients");
+                if (food != null) {
+                    readNutrients(food, nutrients);
+                    hasNutrients = true;
                 }
             }
+            if (hasNutrients) {
+                byLine.put(NutritionLineCache.normalize(text), nutrients);
+            }
         }
+        return byLine;
+    }
 
-        final List<Nutrient> result = new ArrayList<>();
-        for (String key : aggregated.keySet()) {
-            final String[] labelUnit = meta.get(key);
-            final long qty = Math.round(aggregated.get(key)[0]);
-            result.add(new Nutrient(labelUnit[0] + ": " + qty + labelUnit[1]));
+    /**
+     * Adds the quantities of an Edamam {@code nutrients} or {@code totalNutrients} object,
+     * {@code {"ENERC_KCAL": {"label": "Energy", "quantity": 667.2, "unit": "kcal"}, ...}}, to {@code into}.
+     */
+    private static NutrientVector readNutrients(JSONObject nutrients, NutrientVector into) {
+        for (String key : nutrients.keySet()) {
+            final NutrientCode code = NutrientCode.forCode(key);
+            final JSONObject nutrient = nutrients.optJSONObject(key);
+            if (code != null && nutrient != null) {
+                into.add(code, nutrient.optDouble("quantity", 0));
+            }
         }
-        return result;
+        return into;
     }
 }
@@ -0,0 +1,231 @@
+package data_access;
+
+import entity.Nutrient;
+import entity.NutrientCode;
+import entity.NutrientVector;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PreDestroy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Nutrients of every ingredient line Edamam has analyzed, keyed by the {@link #normalize(String) normalized}
+ * line, so that a recipe only sends Edamam the lines it has not seen before.
+ * <p>
+ * Lines are kept for good in the {@code nutrition_line_cache} table, and the most recently used ones in a
+ * {@link TtlLruCache} in front of it. Lookups read the table once for all lines missing from memory;
+ * new lines are written by a background thread, so writes never add to an analysis's latency. When its
+ * queue is full further writes are dropped and counted, as the lines are written again the next time they
+ * are analyzed. Database failures only cost cache misses.
+ * </p>
+ * <p>
+ * The {@link NutrientVector}s handed in and out are shared between analyses and must not be changed; sum
+ * them into a vector of your own.
+ * </p>
+ */
+@Component
+public class NutritionLineCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(NutritionLineCache.class);
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final String SELECT_SQL = "SELECT line, nutrients FROM nutrition_line_cache WHERE line IN (%s)";
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO nutrition_line_cache (line, nutrients, updated_at) VALUES (?, ?, CURRENT_TIMESTAMP)
+            ON CONFLICT(line) DO UPDATE SET nutrients = excluded.nutrients, updated_at = excluded.updated_at
+            """;
+
+    // Keeps IN lists well below SQLite's limit on bound parameters
+    private static final int MAX_LINES_PER_QUERY = 500;
+
+    private final DatabaseManager databaseManager;
+    private final TtlLruCache<String, NutrientVector> memory;
+    private final ThreadPoolExecutor writer;
+    private final LongAdder databaseHits = new LongAdder();
+    private final LongAdder writesDropped = new LongAdder();
+
+    public NutritionLineCache(DatabaseManager databaseManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${recipewiz.edamam.nutrition-cache.max-size:10000}") int maxSize,
+                              @Value("${recipewiz.edamam.nutrition-cache.ttl:24h}") Duration ttl,
+                              @Value("${recipewiz.edamam.nutrition-cache.write-queue-capacity:1000}")
+                              int writeQueueCapacity) {
+        this.databaseManager = databaseManager;
+        this.memory = new TtlLruCache<>(maxSize, ttl.toNanos());
+        this.writer = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(writeQueueCapacity),
+                runnable -> {
+                    final Thread thread = new Thread(runnable, "nutrition-line-writer");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, pool) -> writesDropped.increment());
+        writer.allowCoreThreadTimeOut(true);
+
+        new TtlLruCacheMetrics(memory, "nutrition-line", Tags.empty()).bindTo(meterRegistry);
+        FunctionCounter.builder("recipewiz.nutrition.line-cache.database-hits", databaseHits, LongAdder::sum)
+                .description("Ingredient lines missing from memory but found in the database")
+                .register(meterRegistry);
+        FunctionCounter.builder("recipewiz.nutrition.line-cache.writes-dropped", writesDropped, LongAdder::sum)
+                .description("Analyzed ingredient lines not stored because the write queue was full")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the key a line is cached under: trimmed, lower case, with runs of whitespace as one space.
+     */
+    public static String normalize(String line) {
+        return WHITESPACE.matcher(line.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Looks up normalized lines, from memory first and then in one query per
+     * {@value #MAX_LINES_PER_QUERY} lines from the database.
+     *
+     * @return the nutrients of the lines found; the others are left out
+     */
+    public Map<String, NutrientVector> getAll(Collection<String> lines) {
+        final Map<String, NutrientVector> found = new HashMap<>();
+        final Set<String> missing = new LinkedHashSet<>();
+        for (String line : lines) {
+            final NutrientVector nutrients = memory.get(line);
+            if (nutrients != null) {
+                found.put(line, nutrients);
+            }
+            else {
+                missing.add(line);
+            }
+        }
+        if (missing.isEmpty()) {
+            return found;
+        }
+
+        final List<String> pending = new ArrayList<>(missing);
+        try (Connection connection = databaseManager.getConnection()) {
+            for (int start = 0; start < pending.size(); start += MAX_LINES_PER_QUERY) {
+                final List<String> chunk = pending.subList(start,
+                        Math.min(start + MAX_LINES_PER_QUERY, pending.size()));
+                readChunk(connection, chunk, found);
+            }
+        }
+        catch (SQLException exception) {
+            LOGGER.warn("Could not read cached ingredient lines: {}", exception.getMessage());
+        }
+        return found;
+    }
+
+    private void readChunk(Connection connection, List<String> lines, Map<String, NutrientVector> found)
+            throws SQLException {
+        final String placeholders = String.join(",", Collections.nCopies(lines.size(), "?"));
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_SQL.formatted(placeholders))) {
+            for (int i = 0; i < lines.size(); i++) {
+                statement.setString(i + 1, lines.get(i));
+            }
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    final String line = rs.getString("line");
+                    final NutrientVector nutrients;
+                    try {
+                        nutrients = fromJson(rs.getString("nutrients"));
+                    }
+                    catch (JSONException exception) {
+                        LOGGER.warn("Ignoring unreadable cached nutrients of '{}'", line);
+                        continue;
+                    }
+                    memory.put(line, nutrients);
+                    found.put(line, nutrients);
+                    databaseHits.increment();
+                }
+            }
+        }
+    }
+
+    /**
+     * Caches the nutrients of normalized lines: in memory at once, in the database soon after.
+     */
+    public void putAll(Map<String, NutrientVector> lines) {
+        if (lines.isEmpty()) {
+            return;
+        }
+        lines.forEach(memory::put);
+        final Map<String, NutrientVector> copy = Map.copyOf(lines);
+        writer.execute(() -> write(copy));
+    }
+
+    private void write(Map<String, NutrientVector> lines) {
+        try (Connection connection = databaseManager.getConnection();
+             PreparedStatement statement = connection.prepareStatement(UPSERT_SQL)) {
+            for (Map.Entry<String, NutrientVector> line : lines.entrySet()) {
+                statement.setString(1, line.getKey());
+                statement.setString(2, toJson(line.getValue()));
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+        catch (SQLException exception) {
+            LOGGER.warn("Could not store {} analyzed ingredient line(s): {}", lines.size(), exception.getMessage());
+        }
+    }
+
+    /**
+     * Writes the nutrients with a quantity as {@code {"ENERC_KCAL": 667.2, ...}}.
+     */
+    static String toJson(NutrientVector nutrients) {
+        final JSONObject json = new JSONObject();
+        for (Nutrient nutrient : nutrients.toNutrients()) {
+            json.put(nutrient.getCode().code(), nutrient.getQuantity());
+        }
+        return json.toString();
+    }
+
+    /**
+     * Reads {@link #toJson(NutrientVector)}, or Edamam's {@code {"ENERC_KCAL": {"quantity": 667.2, ...}}}
+     * form lines were stored in before; codes outside the dictionary are skipped.
+     */
+    static NutrientVector fromJson(String json) {
+        final JSONObject object = new JSONObject(json);
+        final NutrientVector nutrients = new NutrientVector();
+        for (String key : object.keySet()) {
+            final NutrientCode code = NutrientCode.forCode(key);
+            if (code == null) {
+                continue;
+            }
+            final JSONObject edamam = object.optJSONObject(key);
+            nutrients.set(code, edamam != null ? edamam.optDouble("quantity", 0) : object.getDouble(key));
+        }
+        return nutrients;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // Let queued lines reach the database
+        writer.shutdown();
+        writer.awaitTermination(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,74 @@
+package data_access;
+
+import java.lang.reflect.Type;
+import java.util.Map;
+
+import com.google.gson.JsonDeserializationContext;
+import com.google.gson.JsonDeserializer;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonSerializationContext;
+import com.google.gson.JsonSerializer;
+
+import entity.Nutrient;
+import entity.NutrientCode;
+import entity.NutrientVector;
+import entity.Nutrition;
+
+/**
+ * Custom Gson type adapter for {@link Nutrition}, which keeps its nutrients in a {@link NutrientVector}.
+ * <p>
+ * Writes the six fields recipes were stored with before ({@code calories}, {@code protein}, {@code fat},
+ * {@code carbohydrates}, {@code fiber}, {@code sugar}) followed by {@code nutrients}, every nutrient with a
+ * quantity by Edamam code. Recipes stored with only the six fields read as before.
+ * </p>
+ */
+public class NutritionTypeAdapter implements JsonDeserializer<Nutrition>, JsonSerializer<Nutrition> {
+
+    private static final Map<String, NutrientCode> LEGACY_FIELDS = Map.of(
+            "calories", NutrientCode.ENERGY,
+            "protein", NutrientCode.PROTEIN,
+            "fat", NutrientCode.FAT,
+            "carbohydrates", NutrientCode.CARBOHYDRATES,
+            "fiber", NutrientCode.FIBER,
+            "sugar", NutrientCode.SUGAR);
+
+    @Override
+    public JsonElement serialize(Nutrition src, Type typeOfSrc, JsonSerializationContext context) {
+        final JsonObject json = new JsonObject();
+        json.addProperty("calories", src.getCalories());
+        json.addProperty("protein", src.getProtein());
+        json.addProperty("fat", src.getFat());
+        json.addProperty("carbohydrates", src.getCarbohydrates());
+        json.addProperty("fiber", src.getFiber());
+        json.addProperty("sugar", src.getSugar());
+        final JsonObject nutrients = new JsonObject();
+        for (Nutrient nutrient : src.getNutrients().toNutrients()) {
+            nutrients.addProperty(nutrient.getCode().code(), nutrient.getQuantity());
+        }
+        json.add("nutrients", nutrients);
+        return json;
+    }
+
+    @Override
+    public Nutrition deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context) {
+        final JsonObject object = json.getAsJsonObject();
+        final NutrientVector nutrients = new NutrientVector();
+        final JsonElement stored = object.get("nutrients");
+        if (stored != null && stored.isJsonObject()) {
+            for (Map.Entry<String, JsonElement> entry : stored.getAsJsonObject().entrySet()) {
+                final NutrientCode code = NutrientCode.forCode(entry.getKey());
+                if (code != null && entry.getValue().isJsonPrimitive()) {
+                    nutrients.set(code, entry.getValue().getAsDouble());
+                }
+            }
+        }
+        LEGACY_FIELDS.forEach((field, code) -> {
+            final JsonElement value = object.get(field);
+            if (!nutrients.has(code) && value != null && value.isJsonPrimitive()) {
+                nutrients.set(code, value.getAsDouble());
+            }
+        });
+        return new Nutrition(nutrients);
+    }
+}
@@ -0,0 +1,63 @@
+package data_access;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Runs OkHttp calls with {@link Call#enqueue(Callback)} instead of blocking the calling thread.
+ * <p>
+ * The response handler runs on an OkHttp dispatcher thread once the response headers have arrived, and
+ * the response is closed after it returns. I/O failures complete the future with a
+ * {@link RuntimeException} carrying the given message, like the blocking DAO methods throw. Cancelling
+ * the future cancels the call.
+ * </p>
+ */
+final class OkHttpFutures {
+
+    /**
+     * Turns a response into a result; may read the body.
+     */
+    @FunctionalInterface
+    interface ResponseHandler<T> {
+        T handle(Response response) throws IOException;
+    }
+
+    private OkHttpFutures() {
+    }
+
+    static <T> CompletableFuture<T> enqueue(OkHttpClient httpClient, Request request, ResponseHandler<T> handler,
+                                            String failureMessage) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        final Call call = httpClient.newCall(request);
+        future.whenComplete((value, failure) -> {
+            if (future.isCancelled()) {
+                call.cancel();
+            }
+        });
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call failedCall, IOException exception) {
+                future.completeExceptionally(new RuntimeException(failureMessage, exception));
+            }
+
+            @Override
+            public void onResponse(Call respondedCall, Response response) {
+                try (response) {
+                    future.complete(handler.handle(response));
+                }
+                catch (IOException exception) {
+                    future.completeExceptionally(new RuntimeException(failureMessage, exception));
+                }
+                catch (RuntimeException exception) {
+                    future.completeExceptionally(exception);
+                }
+            }
+        });
+        return future;
+    }
+}
@@ -0,0 +1,148 @@
+package data_access;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+/**
+ * Rewrites recipe search parameters into one canonical form, so that searches Edamam answers alike share
+ * cache entries, in-flight calls and page tokens.
+ * <p>
+ * A query is a comma separated list of ingredients. Each ingredient is lower-cased, trimmed, its
+ * whitespace collapsed and each of its words made singular ("Cherry Tomatoes" becomes "cherry tomato");
+ * the ingredients are then deduplicated and sorted, so "Chicken, rice" and "rice,chicken ,chicken" are
+ * both "chicken,rice". Label lists (diet, health, cuisine type) are trimmed, deduplicated and sorted but
+ * keep their case, as Edamam matches some labels case-sensitively.
+ * </p>
+ * <p>
+ * The canonical query is only a key: Edamam is sent the {@link #edamamQuery(String)} form, which is not
+ * singularized.
+ * </p>
+ * <p>
+ * Singular forms come from a few English suffix rules plus a short list of exceptions. They are meant
+ * for ingredient names only; words the rules do not know are left alone.
+ * </p>
+ */
+public final class QueryCanonicalizer {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final Map<String, String> IRREGULAR_SINGULARS = Map.ofEntries(
+            Map.entry("leaves", "leaf"),
+            Map.entry("loaves", "loaf"),
+            Map.entry("halves", "half"),
+            Map.entry("chilies", "chili"),
+            Map.entry("chillies", "chilli"),
+            Map.entry("anchovies", "anchovy"),
+            Map.entry("cookies", "cookie"),
+            Map.entry("brownies", "brownie"),
+            Map.entry("smoothies", "smoothie"),
+            Map.entry("veggies", "veggie"),
+            Map.entry("quiches", "quiche"),
+            Map.entry("geese", "goose")
+    );
+
+    // Words that end like plurals but are not
+    private static final Set<String> INVARIANT_WORDS = Set.of(
+            "molasses", "swiss", "brussels", "madras", "christmas", "grits"
+    );
+
+    private QueryCanonicalizer() {
+    }
+
+    /**
+     * Returns the canonical form of a comma separated ingredient query; "" if it has no ingredients.
+     */
+    public static String canonicalQuery(String query) {
+        if (query == null) {
+            return "";
+        }
+        final Set<String> ingredients = new TreeSet<>();
+        for (String ingredient : query.split(",")) {
+            final String canonical = canonicalIngredient(ingredient);
+            if (!canonical.isEmpty()) {
+                ingredients.add(canonical);
+            }
+        }
+        return String.join(",", ingredients);
+    }
+
+    /**
+     * Returns the query to send to Edamam for a comma separated ingredient query: each ingredient
+     * lower-cased, trimmed and its whitespace collapsed, duplicates dropped, in the original order. Words
+     * are not made singular, since Edamam may answer "greens" and "green" differently.
+     */
+    public static String edamamQuery(String query) {
+        if (query == null) {
+            return "";
+        }
+        final Set<String> ingredients = new LinkedHashSet<>();
+        for (String ingredient : query.split(",")) {
+            final String trimmed = ingredient.trim();
+            if (!trimmed.isEmpty()) {
+                ingredients.add(WHITESPACE.matcher(trimmed.toLowerCase(Locale.ROOT)).replaceAll(" "));
+            }
+        }
+        return String.join(",", ingredients);
+    }
+
+    /**
+     * Returns the canonical form of a comma separated label list, or null if it has no labels.
+     */
+    public static String canonicalLabels(String labels) {
+        if (labels == null) {
+            return null;
+        }
+        final Set<String> distinct = new TreeSet<>();
+        for (String label : labels.split(",")) {
+            final String trimmed = label.trim();
+            if (!trimmed.isEmpty()) {
+                distinct.add(trimmed);
+            }
+        }
+        return distinct.isEmpty() ? null : String.join(",", distinct);
+    }
+
+    private static String canonicalIngredient(String ingredient) {
+        final String trimmed = ingredient.trim();
+        if (trimmed.isEmpty()) {
+            return "";
+        }
+        final StringJoiner words = new StringJoiner(" ");
+        for (String word : WHITESPACE.split(trimmed.toLowerCase(Locale.ROOT))) {
+            words.add(singular(word));
+        }
+        return words.toString();
+    }
+
+    /**
+     * Returns the singular of a lower-case English word, or the word itself if it does not look plural.
+     */
+    private static String singular(String word) {
+        final String irregular = IRREGULAR_SINGULARS.get(word);
+        if (irregular != null) {
+            return irregular;
+        }
+        final int length = word.length();
+        if (length <= 3 || !word.endsWith("s") || INVARIANT_WORDS.contains(word)) {
+            return word;
+        }
+        if (word.endsWith("ss") || word.endsWith("us") || word.endsWith("is")) {
+            return word;
+        }
+        if (length > 4 && word.endsWith("ies")) {
+            // berries -> berry; the exceptions are listed as irregular
+            return word.substring(0, length - 3) + "y";
+        }
+        if (word.endsWith("oes") || word.endsWith("ches") || word.endsWith("shes") || word.endsWith("xes")
+                || word.endsWith("zzes")) {
+            // tomatoes -> tomato, peaches -> peach, radishes -> radish
+            return word.substring(0, length - 2);
+        }
+        return word.substring(0, length - 1);
+    }
+}
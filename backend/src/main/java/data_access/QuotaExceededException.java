@@ -0,0 +1,11 @@
+package data_access;
+
+/**
+ * Thrown instead of calling a remote service when its request quota has no permit available in time.
+ */
+public class QuotaExceededException extends RuntimeException {
+
+    public QuotaExceededException(String name, String reason) {
+        super("Quota " + name + " exceeded: " + reason);
+    }
+}
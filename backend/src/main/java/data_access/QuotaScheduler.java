@@ -0,0 +1,285 @@
+package data_access;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Paces outbound calls against a per-minute request quota with a token bucket.
+ * <p>
+ * The bucket holds up to {@code burst} permits and refills continuously at {@code permitsPerMinute}. A
+ * caller takes one permit with {@link #acquire(Priority)} before every call. Calls that find no permit
+ * wait in a queue ordered by {@link Priority} and then arrival, so interactive calls go ahead of
+ * background ones. Every priority has a maximum wait: a call whose expected wait is longer is rejected
+ * right away with a {@link QuotaExceededException}, and so is a queued call still waiting when its maximum
+ * wait runs out.
+ * </p>
+ * <p>
+ * Publishes {@code recipewiz.quota.queue} (calls waiting), {@code recipewiz.quota.permits} (permits
+ * available), {@code recipewiz.quota.wait} (time spent waiting for a permit, with a percentile
+ * histogram) and {@code recipewiz.quota.rejected}, all tagged with the quota name.
+ * </p>
+ */
+public class QuotaScheduler {
+
+    public enum Priority {
+        /** A user is waiting on the response. */
+        INTERACTIVE,
+        /** Prefetches and cache refreshes. */
+        BACKGROUND
+    }
+
+    private final String name;
+    private final double burst;
+    private final double permitsPerNano;
+    private final Map<Priority, Long> maxWaitNanos;
+    private final LongSupplier clock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final PriorityQueue<Waiter> queue = new PriorityQueue<>();
+    private final Map<Priority, Integer> queuedByPriority = new EnumMap<>(Priority.class);
+    private double permits;
+    private long refilledAt;
+    private long arrivals;
+
+    private final Map<Priority, Timer> waitTimers = new EnumMap<>(Priority.class);
+    private final Map<Priority, Counter> rejections = new EnumMap<>(Priority.class);
+    private final ExecutorService waitExecutor;
+
+    /**
+     * @param name             names the quota in metrics and exceptions
+     * @param permitsPerMinute sustained rate allowed by the quota
+     * @param burst            permits that can be used at once after an idle period
+     * @param maxWaitNanos     longest time a call of each priority may wait for a permit
+     */
+    public QuotaScheduler(String name, int permitsPerMinute, int burst, Map<Priority, Long> maxWaitNanos,
+                          MeterRegistry meterRegistry) {
+        this(name, permitsPerMinute, burst, maxWaitNanos, meterRegistry, System::nanoTime);
+    }
+
+    QuotaScheduler(String name, int permitsPerMinute, int burst, Map<Priority, Long> maxWaitNanos,
+                   MeterRegistry meterRegistry, LongSupplier clock) {
+        if (permitsPerMinute <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("permitsPerMinute and burst must be positive");
+        }
+        if (!maxWaitNanos.keySet().containsAll(EnumSet.allOf(Priority.class))) {
+            throw new IllegalArgumentException("A maximum wait is required for every priority");
+        }
+        this.name = name;
+        this.burst = burst;
+        this.permitsPerNano = permitsPerMinute / (double) TimeUnit.MINUTES.toNanos(1);
+        this.maxWaitNanos = new EnumMap<>(maxWaitNanos);
+        this.clock = clock;
+        this.permits = burst;
+        this.refilledAt = clock.getAsLong();
+        final AtomicInteger threadCount = new AtomicInteger();
+        this.waitExecutor = Executors.newCachedThreadPool(runnable -> {
+            final Thread thread = new Thread(runnable, name + "-quota-wait-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("recipewiz.quota.queue", this, QuotaScheduler::queueDepth)
+                .tag("quota", name)
+                .description("Calls waiting for a quota permit")
+                .register(meterRegistry);
+        Gauge.builder("recipewiz.quota.permits", this, QuotaScheduler::availablePermits)
+                .tag("quota", name)
+                .description("Quota permits available now")
+                .register(meterRegistry);
+        for (Priority priority : Priority.values()) {
+            final String priorityTag = priority.name().toLowerCase(Locale.ROOT);
+            waitTimers.put(priority, Timer.builder("recipewiz.quota.wait")
+                    .tag("quota", name)
+                    .tag("priority", priorityTag)
+                    .description("Time calls spent waiting for a quota permit")
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+            rejections.put(priority, Counter.builder("recipewiz.quota.rejected")
+                    .tag("quota", name)
+                    .tag("priority", priorityTag)
+                    .description("Calls rejected because no permit was available in time")
+                    .register(meterRegistry));
+            queuedByPriority.put(priority, 0);
+        }
+    }
+
+    /**
+     * Records that the remote service rejected a call for exceeding the quota, e.g. because another client
+     * shares the same credentials. Empties the bucket so that further calls wait for the quota to refill.
+     *
+     * @return the exception to throw for the rejected call
+     */
+    public QuotaExceededException throttled() {
+        lock.lock();
+        try {
+            refill();
+            permits = Math.min(permits, 0);
+        }
+        finally {
+            lock.unlock();
+        }
+        return new QuotaExceededException(name, "rejected by the remote service");
+    }
+
+    public int queueDepth() {
+        lock.lock();
+        try {
+            return queue.size();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public double availablePermits() {
+        lock.lock();
+        try {
+            refill();
+            return Math.max(permits, 0);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes a permit for one call, waiting for it if necessary.
+     *
+     * @throws QuotaExceededException if no permit becomes available within the priority's maximum wait
+     */
+    public void acquire(Priority priority) {
+        final long start = clock.getAsLong();
+        lock.lock();
+        try {
+            if (tryAcquireNow(priority)) {
+                return;
+            }
+
+            // Every queued call of the same or a higher priority is served first
+            int ahead = 0;
+            for (Priority other : Priority.values()) {
+                if (other.compareTo(priority) <= 0) {
+                    ahead += queuedByPriority.get(other);
+                }
+            }
+            final long maxWait = maxWaitNanos.get(priority);
+            final double expectedWait = (ahead + 1 - permits) / permitsPerNano;
+            if (expectedWait > maxWait) {
+                throw reject(priority);
+            }
+
+            final Waiter waiter = new Waiter(priority, arrivals++, lock.newCondition());
+            enqueue(waiter);
+            final long deadline = start + maxWait;
+            try {
+                while (true) {
+                    refill();
+                    if (queue.peek() == waiter && permits >= 1) {
+                        permits--;
+                        break;
+                    }
+                    final long remaining = deadline - clock.getAsLong();
+                    if (remaining <= 0) {
+                        throw reject(priority);
+                    }
+                    final long untilPermit = queue.peek() == waiter
+                            ? (long) Math.ceil((1 - permits) / permitsPerNano)
+                            : remaining;
+                    waiter.turn.awaitNanos(Math.max(1, Math.min(remaining, untilPermit)));
+                }
+            }
+            catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new QuotaExceededException(name, "interrupted while waiting for a permit");
+            }
+            finally {
+                dequeue(waiter);
+            }
+            waitTimers.get(priority).record(clock.getAsLong() - start, TimeUnit.NANOSECONDS);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes a permit for one call without blocking the caller. The future completes right away when a
+     * permit is free and no call is queued; otherwise a wait thread queues for the permit as
+     * {@link #acquire(Priority)} does, and the future fails with a {@link QuotaExceededException} if none
+     * becomes available in time.
+     */
+    public CompletableFuture<Void> acquireAsync(Priority priority) {
+        lock.lock();
+        try {
+            if (tryAcquireNow(priority)) {
+                return CompletableFuture.completedFuture(null);
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+        return CompletableFuture.runAsync(() -> acquire(priority), waitExecutor);
+    }
+
+    private boolean tryAcquireNow(Priority priority) {
+        refill();
+        if (queue.isEmpty() && permits >= 1) {
+            permits--;
+            waitTimers.get(priority).record(0, TimeUnit.NANOSECONDS);
+            return true;
+        }
+        return false;
+    }
+
+    private QuotaExceededException reject(Priority priority) {
+        rejections.get(priority).increment();
+        return new QuotaExceededException(name, "no permit available within the maximum wait");
+    }
+
+    private void enqueue(Waiter waiter) {
+        queue.add(waiter);
+        queuedByPriority.merge(waiter.priority, 1, Integer::sum);
+    }
+
+    /**
+     * Removes the waiter and wakes the one now at the head of the queue, so it can take the next permit.
+     */
+    private void dequeue(Waiter waiter) {
+        queue.remove(waiter);
+        queuedByPriority.merge(waiter.priority, -1, Integer::sum);
+        final Waiter head = queue.peek();
+        if (head != null) {
+            head.turn.signal();
+        }
+    }
+
+    private void refill() {
+        final long now = clock.getAsLong();
+        permits = Math.min(burst, permits + (now - refilledAt) * permitsPerNano);
+        refilledAt = now;
+    }
+
+    private record Waiter(Priority priority, long arrival, Condition turn) implements Comparable<Waiter> {
+
+        @Override
+        public int compareTo(Waiter other) {
+            final int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(arrival, other.arrival);
+        }
+    }
+}
@@ -0,0 +1,492 @@
+package data_access;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import entity.Ingredient;
+import entity.Nutrition;
+import entity.Recipe;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.lang.reflect.Type;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import org.json.JSONArray;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import use_case.recipe_search.RecipeSearchDataAccessInterface;
+import use_case.pantry_search.PantryMatch;
+import use_case.pantry_search.PantrySearchDataAccessInterface;
+import use_case.recipe_search.RecipeSearchPage;
+
+/**
+ * Local catalog of every recipe seen in an Edamam response, stored in the {@code recipes} table and
+ * keyed by the stable Edamam recipe URI. Recipes read from the catalog carry the id derived from their
+ * URI ({@code stable_id}); the {@code recipe_id} row id is only used inside the catalog, by the search
+ * and ingredient indexes.
+ * <p>
+ * Search DAOs hand their parsed hits to {@link #enqueue(Collection)}, which only queues them; a single
+ * writer thread drains the queue and upserts the recipes in batched transactions, so search latency
+ * does not include any database writes. When the queue is full further recipes are dropped and
+ * counted, as they will be written again the next time Edamam returns them.
+ * </p>
+ * <p>
+ * The catalog is also a recipe search source that never leaves the box: an FTS5 index over title,
+ * source and ingredient lines answers searches ranked by BM25. Scoring costs a few microseconds per
+ * match, so only the most recently catalogued matches, up to {@code search-candidates}, are ranked;
+ * this bounds the latency of queries for staples that match a large part of the catalog. Local
+ * results come as a single page.
+ * </p>
+ * <p>
+ * Pantry searches ("what can I cook with these?") are answered by an in-memory {@link IngredientIndex}
+ * over the ingredient names of the catalog, loaded by the writer thread at startup and updated with
+ * every upsert. Every recipe newly indexed there also counts towards the ingredient suggestions of
+ * {@link IngredientSuggestionDataAccessObject}.
+ * </p>
+ */
+@Component
+public class RecipeCatalogDataAccessObject
+        implements RecipeSearchDataAccessInterface, PantrySearchDataAccessInterface {
+    private static final Logger LOGGER = LoggerFactory.getLogger(RecipeCatalogDataAccessObject.class);
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final Type INGREDIENT_LIST_TYPE = new TypeToken<List<Ingredient>>() { }.getType();
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO recipes (uri, stable_id, title, description, instructions, servings, ingredient_lines,
+                                 ingredients, calories, protein, fat, carbohydrates, fiber, sugar, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP)
+            ON CONFLICT(uri) DO UPDATE SET
+                stable_id = excluded.stable_id,
+                title = excluded.title,
+                description = excluded.description,
+                instructions = excluded.instructions,
+                servings = excluded.servings,
+                ingredient_lines = excluded.ingredient_lines,
+                ingredients = excluded.ingredients,
+                calories = excluded.calories,
+                protein = excluded.protein,
+                fat = excluded.fat,
+                carbohydrates = excluded.carbohydrates,
+                fiber = excluded.fiber,
+                sugar = excluded.sugar,
+                updated_at = excluded.updated_at
+            RETURNING recipe_id
+            """;
+
+    private static final String SELECT_BY_URI_SQL = """
+            SELECT recipe_id, uri, stable_id, title, description, instructions, servings, ingredient_lines,
+                   ingredients, calories, protein, fat, carbohydrates, fiber, sugar
+            FROM recipes WHERE uri = ?
+            """;
+
+    private static final String SELECT_BY_URIS_SQL = """
+            SELECT recipe_id, uri, stable_id, title, description, instructions, servings, ingredient_lines,
+                   ingredients, calories, protein, fat, carbohydrates, fiber, sugar
+            FROM recipes WHERE uri IN (%s)
+            """;
+
+    // Keeps IN lists well below SQLite's limit on bound parameters
+    private static final int MAX_URIS_PER_QUERY = 500;
+
+    private static final String SELECT_BY_IDS_SQL = """
+            SELECT recipe_id, uri, stable_id, title, description, instructions, servings, ingredient_lines,
+                   ingredients, calories, protein, fat, carbohydrates, fiber, sugar
+            FROM recipes WHERE recipe_id IN (%s)
+            """;
+
+    // Ranks the newest candidate matches by BM25 (the recipes_fts rank) and reads only the top rows
+    private static final String SEARCH_SQL = """
+            SELECT r.recipe_id, r.uri, r.stable_id, r.title, r.description, r.instructions, r.servings,
+                   r.ingredient_lines, r.ingredients, r.calories, r.protein, r.fat, r.carbohydrates, r.fiber, r.sugar
+            FROM (
+                SELECT rowid, rank FROM (
+                    SELECT rowid, rank FROM recipes_fts
+                    WHERE recipes_fts MATCH ?
+                    ORDER BY rowid DESC
+                    LIMIT ?
+                )
+                ORDER BY rank
+                LIMIT ?
+            ) AS m
+            JOIN recipes r ON r.recipe_id = m.rowid
+            ORDER BY m.rank
+            """;
+
+    private final DatabaseManager databaseManager;
+    private final Gson gson;
+    private final int batchSize;
+    private final int searchLimit;
+    private final int searchCandidates;
+    private final BlockingQueue<Recipe> pendingWrites;
+    private final IngredientIndex ingredientIndex = new IngredientIndex();
+    private final IngredientSuggestionDataAccessObject ingredientSuggestions;
+    private final Thread writer;
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private volatile boolean running = true;
+
+    public RecipeCatalogDataAccessObject(
+            DatabaseManager databaseManager,
+            IngredientSuggestionDataAccessObject ingredientSuggestions,
+            MeterRegistry meterRegistry,
+            @Value("${recipewiz.catalog.write-batch-size:100}") int batchSize,
+            @Value("${recipewiz.catalog.queue-capacity:10000}") int queueCapacity,
+            @Value("${recipewiz.catalog.search-limit:20}") int searchLimit,
+            @Value("${recipewiz.catalog.search-candidates:500}") int searchCandidates
+    ) {
+        this.databaseManager = databaseManager;
+        this.ingredientSuggestions = ingredientSuggestions;
+        this.gson = new Gson();
+        this.batchSize = batchSize;
+        this.searchLimit = searchLimit;
+        this.searchCandidates = searchCandidates;
+        this.pendingWrites = new LinkedBlockingQueue<>(queueCapacity);
+        this.writer = new Thread(this::drainLoop, "recipe-catalog-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+
+        FunctionCounter.builder("recipewiz.catalog.upserts", written, LongAdder::sum)
+                .tag("result", "written")
+                .description("Recipes upserted into the local catalog")
+                .register(meterRegistry);
+        FunctionCounter.builder("recipewiz.catalog.upserts", dropped, LongAdder::sum)
+                .tag("result", "dropped")
+                .description("Recipes upserted into the local catalog")
+                .register(meterRegistry);
+        Gauge.builder("recipewiz.catalog.pending", pendingWrites, BlockingQueue::size)
+                .description("Recipes waiting to be written to the local catalog")
+                .register(meterRegistry);
+        Gauge.builder("recipewiz.catalog.ingredient-index.recipes", ingredientIndex, IngredientIndex::size)
+                .description("Catalog recipes in the in-memory ingredient index")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues recipes for a background upsert. Recipes without an Edamam URI or title are ignored.
+     */
+    public void enqueue(Collection<Recipe> recipes) {
+        for (Recipe recipe : recipes) {
+            if (recipe == null || recipe.getUri() == null || recipe.getTitle() == null) {
+                continue;
+            }
+            if (!pendingWrites.offer(recipe)) {
+                dropped.increment();
+            }
+        }
+    }
+
+    /**
+     * Upserts the recipes by URI in one transaction on the calling thread, then adds them to the
+     * ingredient index.
+     */
+    public void upsert(Collection<Recipe> recipes) {
+        final int[] recipeIds = new int[recipes.size()];
+        try (Connection conn = databaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(UPSERT_SQL)) {
+                int i = 0;
+                for (Recipe recipe : recipes) {
+                    bindRecipe(pstmt, recipe);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        rs.next();
+                        recipeIds[i++] = rs.getInt(1);
+                    }
+                }
+                conn.commit();
+            }
+            catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+            finally {
+                conn.setAutoCommit(true);
+            }
+        }
+        catch (SQLException e) {
+            throw new RuntimeException("Failed to write recipe catalog: " + e.getMessage(), e);
+        }
+        written.add(recipes.size());
+
+        int i = 0;
+        for (Recipe recipe : recipes) {
+            index(recipeIds[i++], ingredientNames(recipe.getIngredients()));
+        }
+    }
+
+    /**
+     * Look up a recipe in the catalog by its Edamam URI.
+     *
+     * @return the stored recipe, or null if it has not been seen yet
+     */
+    public Recipe findByUri(String uri) {
+        try (Connection conn = databaseManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_BY_URI_SQL)) {
+            pstmt.setString(1, uri);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? readRecipe(rs) : null;
+            }
+        }
+        catch (SQLException e) {
+            throw new RuntimeException("Failed to read recipe catalog: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Look up recipes in the catalog by their Edamam URIs.
+     *
+     * @return the stored recipes keyed by URI; URIs not seen yet are left out
+     */
+    public Map<String, Recipe> findByUris(Collection<String> uris) {
+        final List<String> all = new ArrayList<>(uris);
+        final Map<String, Recipe> recipes = new HashMap<>();
+        try (Connection conn = databaseManager.getConnection()) {
+            for (int from = 0; from < all.size(); from += MAX_URIS_PER_QUERY) {
+                final List<String> chunk = all.subList(from, Math.min(from + MAX_URIS_PER_QUERY, all.size()));
+                final String placeholders = String.join(",", Collections.nCopies(chunk.size(), "?"));
+                try (PreparedStatement pstmt = conn.prepareStatement(SELECT_BY_URIS_SQL.formatted(placeholders))) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        pstmt.setString(i + 1, chunk.get(i));
+                    }
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            final Recipe recipe = readRecipe(rs);
+                            recipes.put(recipe.getUri(), recipe);
+                        }
+                    }
+                }
+            }
+        }
+        catch (SQLException e) {
+            throw new RuntimeException("Failed to read recipe catalog: " + e.getMessage(), e);
+        }
+        return recipes;
+    }
+
+    @Override
+    public List<Recipe> searchRecipesByFoodName(String foodName) {
+        return search(foodName, searchLimit);
+    }
+
+    @Override
+    public RecipeSearchPage searchRecipePage(String foodName, String pageToken) {
+        if (pageToken != null) {
+            throw new IllegalArgumentException("Local search results have a single page");
+        }
+        return new RecipeSearchPage(search(foodName, searchLimit), null);
+    }
+
+    /**
+     * Full-text search of the catalog. Every word of the text must match; the newest
+     * {@code search-candidates} matches are ordered by BM25 relevance.
+     *
+     * @param text  free text, e.g. a comma separated ingredient list
+     * @param limit maximum number of recipes to return
+     * @return the best matching recipes, best first
+     */
+    public List<Recipe> search(String text, int limit) {
+        final List<Recipe> recipes = new ArrayList<>();
+        final String matchQuery = toMatchQuery(text);
+        if (matchQuery == null) {
+            return recipes;
+        }
+        try (Connection conn = databaseManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SEARCH_SQL)) {
+            pstmt.setString(1, matchQuery);
+            pstmt.setInt(2, Math.max(searchCandidates, limit));
+            pstmt.setInt(3, limit);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    recipes.add(readRecipe(rs));
+                }
+            }
+        }
+        catch (SQLException e) {
+            throw new RuntimeException("Failed to search recipe catalog: " + e.getMessage(), e);
+        }
+        return recipes;
+    }
+
+    @Override
+    public List<PantryMatch> searchByPantry(List<String> ingredients, int maxMissing) {
+        final List<IngredientIndex.Match> matches = ingredientIndex.search(ingredients, maxMissing, searchLimit);
+        final List<PantryMatch> result = new ArrayList<>(matches.size());
+        if (matches.isEmpty()) {
+            return result;
+        }
+        final Map<Integer, Recipe> recipes = findByIds(matches);
+        for (IngredientIndex.Match match : matches) {
+            final Recipe recipe = recipes.get(match.recipeId());
+            if (recipe != null) {
+                result.add(new PantryMatch(recipe, match.matchedIngredients(), match.totalIngredients()));
+            }
+        }
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private void drainLoop() {
+        loadIngredientIndex();
+        final List<Recipe> batch = new ArrayList<>(batchSize);
+        while (running || !pendingWrites.isEmpty()) {
+            try {
+                final Recipe first = running ? pendingWrites.take() : pendingWrites.poll();
+                if (first == null) {
+                    break;
+                }
+                batch.add(first);
+                pendingWrites.drainTo(batch, batchSize - 1);
+                upsert(batch);
+            }
+            catch (InterruptedException e) {
+                // Shutdown requested; flush whatever is still queued before exiting
+                running = false;
+            }
+            catch (RuntimeException e) {
+                LOGGER.warn("Dropped {} catalog write(s): {}", batch.size(), e.getMessage());
+                dropped.add(batch.size());
+            }
+            finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void loadIngredientIndex() {
+        try (Connection conn = databaseManager.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT recipe_id, ingredients FROM recipes WHERE uri IS NOT NULL")) {
+            while (rs.next()) {
+                final List<Ingredient> ingredients = gson.fromJson(rs.getString("ingredients"), INGREDIENT_LIST_TYPE);
+                index(rs.getInt("recipe_id"), ingredientNames(ingredients));
+            }
+            LOGGER.info("Loaded {} catalog recipe(s) into the ingredient index", ingredientIndex.size());
+        }
+        catch (SQLException | RuntimeException e) {
+            LOGGER.error("Failed to load the ingredient index: {}", e.getMessage(), e);
+        }
+    }
+
+    private void index(int recipeId, List<String> ingredientNames) {
+        if (ingredientIndex.add(recipeId, ingredientNames)) {
+            ingredientSuggestions.addIngredientNames(ingredientNames);
+        }
+    }
+
+    private Map<Integer, Recipe> findByIds(List<IngredientIndex.Match> matches) {
+        final String placeholders = String.join(",", Collections.nCopies(matches.size(), "?"));
+        final Map<Integer, Recipe> recipes = new HashMap<>();
+        try (Connection conn = databaseManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_BY_IDS_SQL.formatted(placeholders))) {
+            for (int i = 0; i < matches.size(); i++) {
+                pstmt.setInt(i + 1, matches.get(i).recipeId());
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    recipes.put(rs.getInt("recipe_id"), readRecipe(rs));
+                }
+            }
+        }
+        catch (SQLException e) {
+            throw new RuntimeException("Failed to read recipe catalog: " + e.getMessage(), e);
+        }
+        return recipes;
+    }
+
+    private static List<String> ingredientNames(List<Ingredient> ingredients) {
+        final List<String> names = new ArrayList<>();
+        if (ingredients != null) {
+            for (Ingredient ingredient : ingredients) {
+                names.add(ingredient.getName());
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Turns free text into an FTS5 query of quoted terms, so user input can never use FTS5 syntax.
+     */
+    private String toMatchQuery(String text) {
+        if (text == null) {
+            return null;
+        }
+        final StringBuilder query = new StringBuilder();
+        for (String term : NON_WORD.split(text.toLowerCase(Locale.ROOT))) {
+            if (!term.isEmpty()) {
+                if (query.length() > 0) {
+                    query.append(' ');
+                }
+                query.append('"').append(term).append('"');
+            }
+        }
+        return query.length() == 0 ? null : query.toString();
+    }
+
+    private void bindRecipe(PreparedStatement pstmt, Recipe recipe) throws SQLException {
+        final Nutrition nutrition = recipe.getNutrition();
+        pstmt.setString(1, recipe.getUri());
+        pstmt.setLong(2, Recipe.idFor(recipe.getUri()));
+        pstmt.setString(3, recipe.getTitle());
+        pstmt.setString(4, recipe.getDescription());
+        pstmt.setString(5, recipe.getInstructions());
+        pstmt.setInt(6, recipe.getServings());
+        pstmt.setString(7, recipe.getJsonIngredient() == null ? null : recipe.getJsonIngredient().toString());
+        pstmt.setString(8, gson.toJson(recipe.getIngredients(), INGREDIENT_LIST_TYPE));
+        pstmt.setDouble(9, nutrition == null ? 0 : nutrition.getCalories());
+        pstmt.setDouble(10, nutrition == null ? 0 : nutrition.getProtein());
+        pstmt.setDouble(11, nutrition == null ? 0 : nutrition.getFat());
+        pstmt.setDouble(12, nutrition == null ? 0 : nutrition.getCarbohydrates());
+        pstmt.setDouble(13, nutrition == null ? 0 : nutrition.getFiber());
+        pstmt.setDouble(14, nutrition == null ? 0 : nutrition.getSugar());
+    }
+
+    private Recipe readRecipe(ResultSet rs) throws SQLException {
+        final String ingredientLines = rs.getString("ingredient_lines");
+        final List<Ingredient> ingredients = gson.fromJson(rs.getString("ingredients"), INGREDIENT_LIST_TYPE);
+        final Nutrition nutrition = new Nutrition(
+                rs.getDouble("calories"),
+                rs.getDouble("protein"),
+                rs.getDouble("fat"),
+                rs.getDouble("carbohydrates"),
+                rs.getDouble("fiber"),
+                rs.getDouble("sugar"));
+
+        final Recipe recipe = new Recipe(
+                rs.getLong("stable_id"),
+                rs.getString("title"),
+                rs.getString("description"),
+                ingredients == null ? new ArrayList<>() : ingredients,
+                rs.getString("instructions"),
+                nutrition,
+                new ArrayList<>(),
+                ingredientLines == null ? new JSONArray() : new JSONArray(ingredientLines),
+                rs.getInt("servings"));
+        recipe.setUri(rs.getString("uri"));
+        return recipe;
+    }
+}
@@ -0,0 +1,155 @@
+package data_access;
+
+import entity.Recipe;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Merges recipe lookups by URI into Edamam by-URI calls of up to {@link EdamamClient#MAX_URIS_PER_LOOKUP}
+ * recipes.
+ * <p>
+ * The first lookup of a batch opens a window of {@code batch-window}; lookups arriving before it closes join
+ * the batch, which is sent when the window closes or as soon as it is full. A lookup of a URI already in the
+ * open batch shares its future. Every future completes with its recipe, or null if Edamam does not know the
+ * URI; a failed call fails every future of its batch. A window of 0 sends every lookup on its own.
+ * </p>
+ * <p>
+ * Publishes {@code recipewiz.edamam.lookup.batch.size}, the number of URIs per call.
+ * </p>
+ */
+@Component
+public class RecipeLookupBatcher {
+
+    private final EdamamClient edamamClient;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final DistributionSummary batchSizes;
+    private final ScheduledExecutorService timer;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private Map<String, CompletableFuture<Recipe>> pending = new LinkedHashMap<>();
+    // Sends the open batch when its window closes; null while no batch is open
+    private ScheduledFuture<?> scheduledSend;
+
+    public RecipeLookupBatcher(
+            EdamamClient edamamClient,
+            MeterRegistry meterRegistry,
+            @Value("${recipewiz.edamam.recipe-lookup.batch-window:20ms}") Duration window,
+            @Value("${recipewiz.edamam.recipe-lookup.max-batch-size:20}") int maxBatchSize
+    ) {
+        if (maxBatchSize < 1 || maxBatchSize > EdamamClient.MAX_URIS_PER_LOOKUP) {
+            throw new IllegalArgumentException(
+                    "max-batch-size must be between 1 and " + EdamamClient.MAX_URIS_PER_LOOKUP);
+        }
+        this.edamamClient = edamamClient;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.batchSizes = DistributionSummary.builder("recipewiz.edamam.lookup.batch.size")
+                .description("Recipe URIs per Edamam by-URI lookup")
+                .register(meterRegistry);
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "recipe-lookup-batcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Looks up one recipe by its Edamam URI as part of the next batch.
+     *
+     * @return the recipe, or null if Edamam does not know the URI
+     */
+    public CompletableFuture<Recipe> lookup(String uri) {
+        final CompletableFuture<Recipe> future;
+        Map<String, CompletableFuture<Recipe>> full = null;
+        lock.lock();
+        try {
+            final CompletableFuture<Recipe> joined = pending.get(uri);
+            if (joined != null) {
+                return joined;
+            }
+            future = new CompletableFuture<>();
+            pending.put(uri, future);
+            if (pending.size() >= maxBatchSize || windowNanos <= 0) {
+                full = takeBatch();
+            }
+            else if (scheduledSend == null) {
+                scheduledSend = timer.schedule(this::sendOpenBatch, windowNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+        if (full != null) {
+            send(full);
+        }
+        return future;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+
+    private void sendOpenBatch() {
+        final Map<String, CompletableFuture<Recipe>> batch;
+        lock.lock();
+        try {
+            batch = pending.isEmpty() ? null : takeBatch();
+        }
+        finally {
+            lock.unlock();
+        }
+        if (batch != null) {
+            send(batch);
+        }
+    }
+
+    private Map<String, CompletableFuture<Recipe>> takeBatch() {
+        final Map<String, CompletableFuture<Recipe>> batch = pending;
+        pending = new LinkedHashMap<>();
+        if (scheduledSend != null) {
+            scheduledSend.cancel(false);
+            scheduledSend = null;
+        }
+        return batch;
+    }
+
+    private void send(Map<String, CompletableFuture<Recipe>> batch) {
+        batchSizes.record(batch.size());
+        edamamClient.lookupRecipesAsync(batch.keySet(), QuotaScheduler.Priority.INTERACTIVE)
+                .whenComplete((recipes, failure) -> {
+                    if (failure != null) {
+                        batch.values().forEach(future -> future.completeExceptionally(failure));
+                    }
+                    else {
+                        final Map<String, Recipe> byUri = byUri(recipes);
+                        batch.forEach((uri, future) -> future.complete(byUri.get(uri)));
+                    }
+                });
+    }
+
+    private static Map<String, Recipe> byUri(List<Recipe> recipes) {
+        final Map<String, Recipe> byUri = new HashMap<>();
+        for (Recipe recipe : recipes) {
+            if (recipe != null && recipe.getUri() != null) {
+                byUri.put(recipe.getUri(), recipe);
+            }
+        }
+        return byUri;
+    }
+}
@@ -0,0 +1,86 @@
+package data_access;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Base64;
+
+/**
+ * Encodes and decodes the opaque page tokens handed to API clients.
+ * <p>
+ * A token carries the whole {@link RecipeSearchKey} of the page it points to, so following a token
+ * needs no server-side state. Only the search parameters and the Edamam cursor are encoded; the
+ * request URL, including credentials, is always rebuilt on the server.
+ * </p>
+ */
+public final class RecipePageToken {
+
+    private static final int VERSION = 1;
+
+    private RecipePageToken() {
+    }
+
+    /**
+     * Encodes the key of a follow-up page.
+     *
+     * @param key a key with a non-null cursor
+     * @return a URL-safe token
+     */
+    public static String encode(RecipeSearchKey key) {
+        if (key.cursor() == null) {
+            throw new IllegalArgumentException("Only follow-up pages have page tokens");
+        }
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            writeNullable(out, key.edamamQuery());
+            writeNullable(out, key.diet());
+            writeNullable(out, key.health());
+            writeNullable(out, key.cuisineType());
+            writeNullable(out, key.cursor());
+        }
+        catch (IOException exception) {
+            throw new IllegalStateException("Failed to encode page token", exception);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode(RecipeSearchKey)}.
+     *
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static RecipeSearchKey decode(String token) {
+        try (DataInputStream in = new DataInputStream(
+                new ByteArrayInputStream(Base64.getUrlDecoder().decode(token)))) {
+            if (in.readUnsignedByte() != VERSION) {
+                throw new IllegalArgumentException("Unsupported page token version");
+            }
+            final String query = readNullable(in);
+            final String diet = readNullable(in);
+            final String health = readNullable(in);
+            final String cuisineType = readNullable(in);
+            final String cursor = readNullable(in);
+            if (cursor == null || in.available() > 0) {
+                throw new IllegalArgumentException("Invalid page token");
+            }
+            return RecipeSearchKey.of(query, diet, health, cuisineType).withCursor(cursor);
+        }
+        catch (IOException | IllegalArgumentException exception) {
+            throw new IllegalArgumentException("Invalid page token", exception);
+        }
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
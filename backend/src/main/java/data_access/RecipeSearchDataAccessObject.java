@@ -1,220 +1,146 @@
 package data_access;
 
-import entity.Food;
-import entity.Ingredient;
-import entity.Nutrition;
 import entity.Recipe;
-import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import okhttp3.HttpUrl;
-import okhttp3.OkHttpClient;
-import okhttp3.Request;
-import okhttp3.Response;
-import org.json.JSONArray;
-import org.json.JSONObject;
-import org.springframework.beans.factory.annotation.Value;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import org.springframework.stereotype.Component;
 import use_case.recipe_search.RecipeSearchDataAccessInterface;
+import use_case.recipe_search.RecipeSearchPage;
 
 @Component
 public class RecipeSearchDataAccessObject implements RecipeSearchDataAccessInterface {
 
-    private static final String BASE_URL = "https://api.edamam.com/api/recipes/v2";
+    private static final String RECIPE_URI_PREFIX = "http://www.edamam.com/ontologies/edamam.owl#recipe_";
 
-    private final OkHttpClient httpClient;
-    private final String appId;
-    private final String appKey;
+    private final EdamamClient edamamClient;
+    private final RecipeCatalogDataAccessObject catalog;
+    private final RecipeLookupBatcher lookupBatcher;
 
-    public RecipeSearchDataAccessObject(
-            OkHttpClient httpClient,
-            @Value("${recipewiz.edamam.recipe-search.app-id}") String appId,
-            @Value("${recipewiz.edamam.recipe-search.app-key}") String appKey
-    ) {
-        this.httpClient = httpClient;
-        this.appId = appId;
-        this.appKey = appKey;
+    public RecipeSearchDataAccessObject(EdamamClient edamamClient, RecipeCatalogDataAccessObject catalog,
+                                        RecipeLookupBatcher lookupBatcher) {
+        this.edamamClient = edamamClient;
+        this.catalog = catalog;
+        this.lookupBatcher = lookupBatcher;
     }
 
     @Override
     public List<Recipe> searchRecipesByFoodName(String foodName) {
-        return searchRecipes(foodName, null, null, null);
+        return searchPage(RecipeSearchKey.of(foodName, null, null, null), QuotaScheduler.Priority.INTERACTIVE)
+                .recipes();
+    }
+
+    @Override
+    public RecipeSearchPage searchRecipePage(String foodName, String pageToken) {
+        final RecipeSearchKey key = pageToken == null
+                ? RecipeSearchKey.of(foodName, null, null, null)
+                : RecipePageToken.decode(pageToken);
+        final EdamamSearchPage page = searchPage(key, QuotaScheduler.Priority.INTERACTIVE);
+        return new RecipeSearchPage(page.recipes(),
+                page.hasNext() ? RecipePageToken.encode(key.withCursor(page.nextCursor())) : null);
     }
 
     /**
-     * Fetch recipes from Edamam API.
+     * Fetch the page of results identified by the key, following its continuation cursor if set.
      */
-    private List<Recipe> searchRecipes(String foodName, String diet, String health, String cuisineType) {
-        List<Recipe> recipes = new ArrayList<>();
-
-        // Build API URL
-        if (appId == null || appId.isBlank() || appKey == null || appKey.isBlank()) {
-            throw new IllegalStateException("Edamam credentials are not configured");
-        }
-
-        HttpUrl.Builder urlBuilder = HttpUrl.parse(BASE_URL).newBuilder();
-        urlBuilder.addQueryParameter("type", "public");
-        urlBuilder.addQueryParameter("q", foodName);
-        urlBuilder.addQueryParameter("app_id", appId);
-        urlBuilder.addQueryParameter("app_key", appKey);
-
-        // Add optional filters if provided
-        if (diet != null && !diet.isEmpty()) {
-            urlBuilder.addQueryParameter("diet", diet);
-        }
-        if (health != null && !health.isEmpty()) {
-            urlBuilder.addQueryParameter("health", health);
-        }
-        if (cuisineType != null && !cuisineType.isEmpty()) {
-            urlBuilder.addQueryParameter("cuisineType", cuisineType);
-        }
-
-        Request request = new Request.Builder().url(urlBuilder.build().toString()).build();
-
-        // API Call
-        try (Response response = httpClient.newCall(request).execute()) {
-            if (response.body() != null) {
-                String jsonData = response.body().string();
-                JSONObject jsonObject = new JSONObject(jsonData);
-                JSONArray hitsArray = jsonObject.getJSONArray("hits");
-
-                for (int i = 0; i < hitsArray.length(); i++) {
-                    JSONObject recipeJson = hitsArray.getJSONObject(i).getJSONObject("recipe");
-
-                    // Extract details
-                    String name = recipeJson.getString("label");
-                    JSONArray jsonIngredient = recipeJson.getJSONArray("ingredientLines");
-                    String description = recipeJson.optString("source", "No description available");
-                    String instructions = recipeJson.optString("url", "Instructions not available");
-                    List<Ingredient> ingredients = extractIngredients(recipeJson.getJSONArray("ingredients"));
-
-                    // Extract nutrition from API response
-                    JSONObject totalNutrients = recipeJson.optJSONObject("totalNutrients");
-                    Nutrition nutrition = extractNutrition(totalNutrients);
-
-                    // Add a default food list and servings
-                    List<Food> food = new ArrayList<>();
-                    int servings = (int) Math.max(1, recipeJson.optDouble("yield", 1));
-
-                    // Create Recipe
-                    Recipe recipe = new Recipe(
-                            i + 1,
-                            name,
-                            description,
-                            ingredients,
-                            instructions,
-                            nutrition,
-                            food,
-                            jsonIngredient,
-                            servings
-                    );
-
-                    recipes.add(recipe);
-                }
-            }
-        } catch (IOException e) {
-            throw new RuntimeException();
-        }
-        return recipes;
+    public EdamamSearchPage searchPage(RecipeSearchKey key, QuotaScheduler.Priority priority) {
+        return writeThrough(edamamClient.searchRecipes(key, priority));
     }
 
     /**
-     * Extract Nutrition from a totalNutrients JSON object (may be null).
+     * Fetch the page of results identified by the key for a caller that has already taken a permit of the
+     * recipe search quota.
      */
-    private Nutrition extractNutrition(JSONObject totalNutrients) {
-        if (totalNutrients == null) {
-            return new Nutrition(0, 0, 0, 0, 0, 0);
-        }
-        return new Nutrition(
-                optQty(totalNutrients, "ENERC_KCAL"),
-                optQty(totalNutrients, "PROCNT"),
-                optQty(totalNutrients, "FAT"),
-                optQty(totalNutrients, "CHOCDF"),
-                optQty(totalNutrients, "FIBTG"),
-                optQty(totalNutrients, "SUGAR")
-        );
+    public EdamamSearchPage searchPage(RecipeSearchKey key) {
+        return writeThrough(edamamClient.searchRecipes(key));
     }
 
-    private double optQty(JSONObject nutrients, String key) {
-        JSONObject entry = nutrients.optJSONObject(key);
-        return entry != null ? entry.optDouble("quantity", 0) : 0;
+    /**
+     * Fetch the page of results identified by the key without blocking the calling thread while the
+     * request is in flight.
+     */
+    public CompletableFuture<EdamamSearchPage> searchPageAsync(RecipeSearchKey key,
+                                                              QuotaScheduler.Priority priority) {
+        return edamamClient.searchRecipesAsync(key, priority).thenApply(this::writeThrough);
     }
 
     /**
-     * Extract detailed ingredients from a JSON array.
+     * Asynchronous {@link #searchPage(RecipeSearchKey)}.
      */
-    private List<Ingredient> extractIngredients(JSONArray ingredientsArray) {
-        List<Ingredient> ingredients = new ArrayList<>();
-        for (int i = 0; i < ingredientsArray.length(); i++) {
-            JSONObject ingredientJson = ingredientsArray.getJSONObject(i);
+    public CompletableFuture<EdamamSearchPage> searchPageAsync(RecipeSearchKey key) {
+        return edamamClient.searchRecipesAsync(key).thenApply(this::writeThrough);
+    }
 
-            String food = ingredientJson.getString("food");
-            double quantity = ingredientJson.optDouble("quantity", 0.0);
-            String unit = ingredientJson.optString("measure", "");
+    /**
+     * Retrieve detailed recipe information by recipe ID, either the Edamam recipe id or its full URI.
+     * The local catalog is consulted first; Edamam is only called for recipes it has not seen.
+     */
+    public Recipe getRecipeById(String recipeId) {
+        final String uri = recipeId.startsWith(RECIPE_URI_PREFIX) ? recipeId : RECIPE_URI_PREFIX + recipeId;
+        final Recipe cached = catalog.findByUri(uri);
+        if (cached != null) {
+            return cached;
+        }
 
-            ingredients.add(new Ingredient(i + 1, food, quantity, unit));
+        final Recipe recipe = await(lookupBatcher.lookup(uri));
+        if (recipe != null) {
+            catalog.enqueue(List.of(recipe));
         }
-        return ingredients;
+        return recipe;
     }
 
     /**
-     * Retrieve detailed recipe information by recipe ID.
+     * Retrieve many recipes by their Edamam URIs, e.g. to refresh stored copies. Recipes in the local catalog
+     * are served from it; the others are looked up on Edamam by URI, up to
+     * {@link EdamamClient#MAX_URIS_PER_LOOKUP} per call, in batches shared with concurrent lookups.
+     *
+     * @return the recipes found, keyed by URI; URIs unknown to Edamam are left out
      */
-    public Recipe getRecipeById(String recipeId) {
-        if (appId == null || appId.isBlank() || appKey == null || appKey.isBlank()) {
-            throw new IllegalStateException("Edamam credentials are not configured");
+    public Map<String, Recipe> getRecipesByUri(Collection<String> uris) {
+        final Map<String, Recipe> recipes = new HashMap<>(catalog.findByUris(uris));
+        final Map<String, CompletableFuture<Recipe>> lookups = new LinkedHashMap<>();
+        for (String uri : uris) {
+            if (!recipes.containsKey(uri) && !lookups.containsKey(uri)) {
+                lookups.put(uri, lookupBatcher.lookup(uri));
+            }
         }
+        if (lookups.isEmpty()) {
+            return recipes;
+        }
+
+        await(CompletableFuture.allOf(lookups.values().toArray(CompletableFuture[]::new)));
+        final List<Recipe> fetched = new ArrayList<>();
+        lookups.forEach((uri, lookup) -> {
+            final Recipe recipe = lookup.join();
+            if (recipe != null) {
+                recipes.put(uri, recipe);
+                fetched.add(recipe);
+            }
+        });
+        catalog.enqueue(fetched);
+        return recipes;
+    }
+
+    private EdamamSearchPage writeThrough(EdamamSearchPage page) {
+        // Write every hit through to the local catalog in the background
+        catalog.enqueue(page.recipes());
+        return page;
+    }
 
-        HttpUrl.Builder urlBuilder = HttpUrl.parse(BASE_URL).newBuilder();
-        urlBuilder.addQueryParameter("type", "public");
-        urlBuilder.addQueryParameter("id", recipeId);
-        urlBuilder.addQueryParameter("app_id", appId);
-        urlBuilder.addQueryParameter("app_key", appKey);
-
-        Request request = new Request.Builder().url(urlBuilder.build().toString()).build();
-
-        try (Response response = httpClient.newCall(request).execute()) {
-            if (response.body() != null) {
-                String jsonData = response.body().string();
-                JSONObject jsonObject = new JSONObject(jsonData);
-                JSONObject recipeJson = jsonObject.getJSONObject("recipe");
-
-                // Extract details
-                String name = recipeJson.getString("label");
-                String description = recipeJson.optString("source", "No description available");
-                String instructions = recipeJson.optString("url", "Instructions not available");
-                List<Ingredient> ingredients = extractIngredients(recipeJson.getJSONArray("ingredients"));
-
-                // Extract nutrition
-                JSONObject nutritionJson = recipeJson.optJSONObject("totalNutrients");
-                Nutrition nutrition = (nutritionJson != null) ? new Nutrition(
-                        nutritionJson.optJSONObject("ENERC_KCAL").optDouble("quantity", 0),
-                        nutritionJson.optJSONObject("PROCNT").optDouble("quantity", 0),
-                        nutritionJson.optJSONObject("FAT").optDouble("quantity", 0),
-                        nutritionJson.optJSONObject("CHOCDF").optDouble("quantity", 0),
-                        nutritionJson.optJSONObject("FIBTG").optDouble("quantity", 0),
-                        nutritionJson.optJSONObject("SUGAR").optDouble("quantity", 0)
-                ) : new Nutrition(0, 0, 0, 0, 0, 0);
-
-                List<Food> food = new ArrayList<>();
-                int servings = 1;
-
-                return new Recipe(
-                        Integer.parseInt(recipeId),
-                        name,
-                        description,
-                        ingredients,
-                        instructions,
-                        nutrition,
-                        food,
-                        new JSONArray(),
-                        servings
-
-                );
+    private static <T> T await(CompletableFuture<T> lookup) {
+        try {
+            return lookup.join();
+        }
+        catch (CompletionException exception) {
+            if (exception.getCause() instanceof RuntimeException cause) {
+                throw cause;
             }
-        } catch (IOException e) {
-            throw new RuntimeException();
+            throw exception;
         }
-        return null;
     }
 }
@@ -0,0 +1,55 @@
+package data_access;
+
+import java.util.Objects;
+
+/**
+ * The canonical (q, diet, health, cuisineType) tuple of an Edamam recipe search, plus the Edamam
+ * continuation cursor of the page ({@code null} for the first page).
+ * <p>
+ * The query and the label lists are rewritten by {@link QueryCanonicalizer}, and blank filters collapse
+ * to null, so that searches which Edamam would answer identically share one key. The query sent to
+ * Edamam, {@code edamamQuery}, is only normalized, not singularized; it is carried along but is not part
+ * of the key's identity, so a cached page serves every query with the same canonical form.
+ * </p>
+ */
+public record RecipeSearchKey(String query, String diet, String health, String cuisineType, String cursor,
+                              String edamamQuery) {
+
+    public static RecipeSearchKey of(String query, String diet, String health, String cuisineType) {
+        return new RecipeSearchKey(
+                QueryCanonicalizer.canonicalQuery(query),
+                QueryCanonicalizer.canonicalLabels(diet),
+                QueryCanonicalizer.canonicalLabels(health),
+                QueryCanonicalizer.canonicalLabels(cuisineType),
+                null,
+                QueryCanonicalizer.edamamQuery(query)
+        );
+    }
+
+    /**
+     * Returns the key of the page that starts at the given Edamam cursor.
+     */
+    public RecipeSearchKey withCursor(String nextCursor) {
+        return new RecipeSearchKey(query, diet, health, cuisineType, trimToNull(nextCursor), edamamQuery);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof RecipeSearchKey key && query.equals(key.query) && Objects.equals(diet, key.diet)
+                && Objects.equals(health, key.health) && Objects.equals(cuisineType, key.cuisineType)
+                && Objects.equals(cursor, key.cursor);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(query, diet, health, cuisineType, cursor);
+    }
+
+    private static String trimToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        final String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+}
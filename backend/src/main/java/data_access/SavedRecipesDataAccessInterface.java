@@ -5,7 +5,7 @@ import java.util.*;
 
 public interface SavedRecipesDataAccessInterface {
     void saveRecipe(int userId, Recipe recipe);
-    void removeRecipe(int userId, int recipeId);
+    void removeRecipe(int userId, long recipeId);
     List<Recipe> getSavedRecipes(int userId);
-    Recipe getSavedRecipe(int userId, int recipeId);
+    Recipe getSavedRecipe(int userId, long recipeId);
 }
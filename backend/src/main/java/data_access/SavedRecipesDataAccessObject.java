@@ -2,6 +2,7 @@ package data_access;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import entity.Nutrition;
 import entity.Recipe;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -15,12 +16,16 @@ import org.springframework.stereotype.Component;
 @Component
 public class SavedRecipesDataAccessObject implements SavedRecipesDataAccessInterface {
     private final DatabaseManager databaseManager;
+    private final IngredientSuggestionDataAccessObject ingredientSuggestions;
     private final Gson gson;
 
-    public SavedRecipesDataAccessObject(DatabaseManager databaseManager) {
+    public SavedRecipesDataAccessObject(DatabaseManager databaseManager,
+                                        IngredientSuggestionDataAccessObject ingredientSuggestions) {
         this.databaseManager = databaseManager;
+        this.ingredientSuggestions = ingredientSuggestions;
         this.gson = new GsonBuilder()
                 .registerTypeAdapter(JSONArray.class, new JSONArrayTypeAdapter())
+                .registerTypeAdapter(Nutrition.class, new NutritionTypeAdapter())
                 .create();
     }
 
@@ -32,28 +37,45 @@ public class SavedRecipesDataAccessObject implements SavedRecipesDataAccessInter
 
         databaseManager.ensureUserExists(userId);
         
-        String sql = "INSERT OR REPLACE INTO saved_recipes (user_id, recipe_id, recipe_data) VALUES (?, ?, ?)";
-        try (Connection conn = databaseManager.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setInt(1, userId);
-            pstmt.setInt(2, recipe.getRecipeId());
-            pstmt.setString(3, gson.toJson(recipe));
-            pstmt.executeUpdate();
+        // A recipe saved again only has its data refreshed, so its ingredients are counted once
+        String insertSql = "INSERT INTO saved_recipes (user_id, recipe_id, recipe_data) VALUES (?, ?, ?) "
+                + "ON CONFLICT(user_id, recipe_id) DO NOTHING";
+        String updateSql = "UPDATE saved_recipes SET recipe_data = ?, saved_at = CURRENT_TIMESTAMP "
+                + "WHERE user_id = ? AND recipe_id = ?";
+        String recipeJson = gson.toJson(recipe);
+        boolean inserted;
+        try (Connection conn = databaseManager.getConnection()) {
+            try (PreparedStatement pstmt = conn.prepareStatement(insertSql)) {
+                pstmt.setInt(1, userId);
+                pstmt.setLong(2, recipe.getRecipeId());
+                pstmt.setString(3, recipeJson);
+                inserted = pstmt.executeUpdate() > 0;
+            }
+            if (!inserted) {
+                try (PreparedStatement pstmt = conn.prepareStatement(updateSql)) {
+                    pstmt.setString(1, recipeJson);
+                    pstmt.setInt(2, userId);
+                    pstmt.setLong(3, recipe.getRecipeId());
+                    pstmt.executeUpdate();
+                }
+            }
             
         } catch (SQLException e) {
             throw new RuntimeException("Failed to save recipe: " + e.getMessage(), e);
         }
+        if (inserted) {
+            ingredientSuggestions.addRecipe(recipe);
+        }
     }
 
     @Override
-    public void removeRecipe(int userId, int recipeId) {
+    public void removeRecipe(int userId, long recipeId) {
         String sql = "DELETE FROM saved_recipes WHERE user_id = ? AND recipe_id = ?";
         try (Connection conn = databaseManager.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, userId);
-            pstmt.setInt(2, recipeId);
+            pstmt.setLong(2, recipeId);
             int rowsAffected = pstmt.executeUpdate();
             
             if (rowsAffected == 0) {
@@ -90,14 +112,14 @@ public class SavedRecipesDataAccessObject implements SavedRecipesDataAccessInter
     }
 
     @Override
-    public Recipe getSavedRecipe(int userId, int recipeId) {
+    public Recipe getSavedRecipe(int userId, long recipeId) {
         String sql = "SELECT recipe_data FROM saved_recipes WHERE user_id = ? AND recipe_id = ?";
         
         try (Connection conn = databaseManager.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, userId);
-            pstmt.setInt(2, recipeId);
+            pstmt.setLong(2, recipeId);
             ResultSet rs = pstmt.executeQuery();
             
             if (rs.next()) {
@@ -2,6 +2,7 @@ package data_access;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import entity.Nutrition;
 import entity.Recipe;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -34,6 +35,7 @@ public class ServingAdjustDataAccess implements ServingAdjustDataAccessInterface
         this.databaseManager = databaseManager;
         this.gson = new GsonBuilder()
                 .registerTypeAdapter(JSONArray.class, new JSONArrayTypeAdapter())
+                .registerTypeAdapter(Nutrition.class, new NutritionTypeAdapter())
                 .create();
     }
 
@@ -46,16 +48,16 @@ public class ServingAdjustDataAccess implements ServingAdjustDataAccessInterface
 
                 for (Recipe recipe : recipes) {
                     final String json = gson.toJson(recipe);
-                    final int recipeId = recipe.getRecipeId();
+                    final long recipeId = recipe.getRecipeId();
 
                     savedStmt.setString(1, json);
                     savedStmt.setInt(2, userId);
-                    savedStmt.setInt(3, recipeId);
+                    savedStmt.setLong(3, recipeId);
                     savedStmt.addBatch();
 
                     entryStmt.setString(1, json);
                     entryStmt.setInt(2, userId);
-                    entryStmt.setInt(3, recipeId);
+                    entryStmt.setLong(3, recipeId);
                     entryStmt.addBatch();
 
                     LOGGER.debug("Queued serving update for user={} recipe={} ({})", userId, recipeId, recipe.getTitle());
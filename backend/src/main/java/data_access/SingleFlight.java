@@ -0,0 +1,119 @@
+package data_access;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls for the same key into a single execution.
+ * <p>
+ * The first caller for a key runs the loader; callers that arrive while it is in flight wait for and share
+ * its result, or its exception. Loaders can be blocking or return a future. The key is released as soon as
+ * the call finishes, so results are never retained here.
+ * </p>
+ *
+ * @param <K> the key type
+ * @param <V> the result type
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * Runs the loader for the key unless an identical call is already in flight, in which case its
+     * outcome is shared.
+     *
+     * @param key    identifies identical calls
+     * @param loader produces the result; runs on the calling thread of the first caller
+     * @return the shared result
+     */
+    public V execute(K key, Supplier<V> loader) {
+        final CompletableFuture<V> call = new CompletableFuture<>();
+        final CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            coalesced.increment();
+            return await(existing);
+        }
+
+        try {
+            final V value = loader.get();
+            call.complete(value);
+            return value;
+        }
+        catch (RuntimeException | Error exception) {
+            call.completeExceptionally(exception);
+            throw exception;
+        }
+        finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    /**
+     * Starts the asynchronous loader for the key unless an identical call is already in flight, in which
+     * case a future of its outcome is returned. Synchronous and asynchronous callers of the same key
+     * share one call.
+     *
+     * @param key    identifies identical calls
+     * @param loader starts the call; runs on the calling thread of the first caller
+     * @return a future of the shared result
+     */
+    public CompletableFuture<V> executeAsync(K key, Supplier<CompletableFuture<V>> loader) {
+        final CompletableFuture<V> call = new CompletableFuture<>();
+        final CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            coalesced.increment();
+            return existing.copy();
+        }
+
+        CompletableFuture<V> loaded;
+        try {
+            loaded = loader.get();
+        }
+        catch (RuntimeException | Error exception) {
+            loaded = CompletableFuture.failedFuture(exception);
+        }
+        loaded.whenComplete((value, failure) -> {
+            inFlight.remove(key, call);
+            if (failure != null) {
+                call.completeExceptionally(failure instanceof CompletionException && failure.getCause() != null
+                        ? failure.getCause()
+                        : failure);
+            }
+            else {
+                call.complete(value);
+            }
+        });
+        return call.copy();
+    }
+
+    /**
+     * Number of calls that were served by another caller's in-flight execution.
+     */
+    public long coalescedCount() {
+        return coalesced.sum();
+    }
+
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private V await(CompletableFuture<V> call) {
+        try {
+            return call.join();
+        }
+        catch (CompletionException exception) {
+            final Throwable cause = exception.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw exception;
+        }
+    }
+}
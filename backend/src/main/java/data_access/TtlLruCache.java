@@ -0,0 +1,185 @@
+package data_access;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * A size-bounded, least-recently-used cache whose entries expire a fixed time after they were written.
+ * <p>
+ * Expired entries can optionally be retained for a further stale period, during which
+ * {@link #lookup(Object)} still returns them, marked stale, so callers can serve them while refreshing.
+ * </p>
+ * <p>
+ * All operations synchronize on the cache instance. Hit, stale hit, miss, put and eviction counts are
+ * tracked so they can be published as metrics.
+ * </p>
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public class TtlLruCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final long staleNanos;
+    private final LongSupplier clock;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public TtlLruCache(int maxSize, long ttlNanos) {
+        this(maxSize, ttlNanos, 0L);
+    }
+
+    public TtlLruCache(int maxSize, long ttlNanos, long staleNanos) {
+        this(maxSize, ttlNanos, staleNanos, System::nanoTime);
+    }
+
+    TtlLruCache(int maxSize, long ttlNanos, long staleNanos, LongSupplier clock) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        if (ttlNanos <= 0) {
+            throw new IllegalArgumentException("ttl must be positive");
+        }
+        if (staleNanos < 0) {
+            throw new IllegalArgumentException("stale period must not be negative");
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlNanos;
+        this.staleNanos = staleNanos;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Returns the cached value for the key, or null if it is absent or expired.
+     */
+    public synchronized V get(K key) {
+        final Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (isExpired(entry)) {
+            if (isPastStale(entry)) {
+                entries.remove(key);
+                evictions.increment();
+            }
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value;
+    }
+
+    /**
+     * Looks the key up once, returning its value and whether it has expired but is still within its stale
+     * period, or null if it is absent or past that period. Counts a hit, a stale hit or a miss accordingly.
+     */
+    public synchronized Lookup<V> lookup(K key) {
+        final Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (!isExpired(entry)) {
+            hits.increment();
+            return new Lookup<>(entry.value, false);
+        }
+        if (isPastStale(entry)) {
+            entries.remove(key);
+            evictions.increment();
+            misses.increment();
+            return null;
+        }
+        staleHits.increment();
+        return new Lookup<>(entry.value, true);
+    }
+
+    /**
+     * Stores the value, evicting the least recently used entry when the cache is full.
+     */
+    public synchronized void put(K key, V value) {
+        entries.put(key, new Entry<>(value, clock.getAsLong()));
+        puts.increment();
+        if (entries.size() > maxSize) {
+            evictOne();
+        }
+    }
+
+    /**
+     * Returns whether a fresh entry exists, without counting a hit or miss.
+     */
+    public synchronized boolean containsKey(K key) {
+        final Entry<V> entry = entries.get(key);
+        return entry != null && !isExpired(entry);
+    }
+
+    public synchronized void invalidateAll() {
+        entries.clear();
+    }
+
+    public synchronized long size() {
+        return entries.size();
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Number of lookups that returned an expired value within its stale period.
+     */
+    public long staleHitCount() {
+        return staleHits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long putCount() {
+        return puts.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    private void evictOne() {
+        final Iterator<Map.Entry<K, Entry<V>>> iterator = entries.entrySet().iterator();
+        if (iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            evictions.increment();
+        }
+    }
+
+    private boolean isExpired(Entry<V> entry) {
+        return clock.getAsLong() - entry.writtenAt >= ttlNanos;
+    }
+
+    private boolean isPastStale(Entry<V> entry) {
+        return clock.getAsLong() - entry.writtenAt >= ttlNanos + staleNanos;
+    }
+
+    /**
+     * The outcome of a {@link #lookup(Object)} that found a value.
+     *
+     * @param value the cached value
+     * @param stale whether the value has expired and is only being served within its stale period
+     */
+    public record Lookup<V>(V value, boolean stale) {
+    }
+
+    private record Entry<V>(V value, long writtenAt) {
+    }
+}
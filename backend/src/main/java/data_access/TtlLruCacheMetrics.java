@@ -0,0 +1,58 @@
+package data_access;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+
+/**
+ * Publishes the standard {@code cache.*} meters (gets, puts, evictions, size) for a {@link TtlLruCache}.
+ * Expired values served within their stale period count as {@code cache.gets} with {@code result=stale},
+ * not as misses.
+ */
+public class TtlLruCacheMetrics extends CacheMeterBinder<TtlLruCache<?, ?>> {
+
+    public TtlLruCacheMetrics(TtlLruCache<?, ?> cache, String cacheName, Iterable<Tag> tags) {
+        super(cache, cacheName, tags);
+    }
+
+    @Override
+    protected Long size() {
+        final TtlLruCache<?, ?> cache = getCache();
+        return cache == null ? null : cache.size();
+    }
+
+    @Override
+    protected long hitCount() {
+        final TtlLruCache<?, ?> cache = getCache();
+        return cache == null ? 0L : cache.hitCount();
+    }
+
+    @Override
+    protected Long missCount() {
+        final TtlLruCache<?, ?> cache = getCache();
+        return cache == null ? null : cache.missCount();
+    }
+
+    @Override
+    protected Long evictionCount() {
+        final TtlLruCache<?, ?> cache = getCache();
+        return cache == null ? null : cache.evictionCount();
+    }
+
+    @Override
+    protected long putCount() {
+        final TtlLruCache<?, ?> cache = getCache();
+        return cache == null ? 0L : cache.putCount();
+    }
+
+    @Override
+    protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", getCache(), TtlLruCache::staleHitCount)
+                .tags(getTagsWithCacheName())
+                .tag("result", "stale")
+                .description("The number of times cache lookup methods have returned an expired value within "
+                        + "its stale period")
+                .register(registry);
+    }
+}
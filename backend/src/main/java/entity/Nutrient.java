@@ -5,17 +5,34 @@ package entity;
  */
 public class Nutrient {
 
-    private String nutrientInfo;
+    private final NutrientCode code;
+    private final double quantity;
 
-    public Nutrient(String nutrients) {
-        this.nutrientInfo = nutrients;
+    public Nutrient(NutrientCode code, double quantity) {
+        this.code = code;
+        this.quantity = quantity;
     }
 
-    public String getNutrientInfo() {
-        return nutrientInfo;
+    public NutrientCode getCode() {
+        return code;
+    }
+
+    public double getQuantity() {
+        return quantity;
+    }
+
+    public String getLabel() {
+        return code.label();
+    }
+
+    public String getUnit() {
+        return code.unit();
     }
 
-    public void setNutrientInfo(String nutrients) {
-        this.nutrientInfo = nutrients;
+    /**
+     * @return the nutrient as text, e.g. {@code Energy: 667kcal}
+     */
+    public String getNutrientInfo() {
+        return code.label() + ": " + Math.round(quantity) + code.unit();
     }
 }
@@ -0,0 +1,99 @@
+package entity;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The fixed dictionary of nutrients Recipe Wiz keeps, by their Edamam code, with the label and unit Edamam
+ * reports them in. The order of the constants is the order nutrients are listed in, and each constant's
+ * ordinal is its index in a {@link NutrientVector}. There can be at most 64, as a vector keeps a presence
+ * bit for each in a {@code long}.
+ */
+public enum NutrientCode {
+    ENERGY("ENERC_KCAL", "Energy", "kcal"),
+    FAT("FAT", "Fat", "g"),
+    SATURATED_FAT("FASAT", "Saturated", "g"),
+    TRANS_FAT("FATRN", "Trans", "g"),
+    MONOUNSATURATED_FAT("FAMS", "Monounsaturated", "g"),
+    POLYUNSATURATED_FAT("FAPU", "Polyunsaturated", "g"),
+    CARBOHYDRATES("CHOCDF", "Carbs", "g"),
+    NET_CARBOHYDRATES("CHOCDF.net", "Carbohydrates (net)", "g"),
+    FIBER("FIBTG", "Fiber", "g"),
+    SUGAR("SUGAR", "Sugars", "g"),
+    ADDED_SUGAR("SUGAR.added", "Sugars, added", "g"),
+    PROTEIN("PROCNT", "Protein", "g"),
+    CHOLESTEROL("CHOLE", "Cholesterol", "mg"),
+    SODIUM("NA", "Sodium", "mg"),
+    CALCIUM("CA", "Calcium", "mg"),
+    MAGNESIUM("MG", "Magnesium", "mg"),
+    POTASSIUM("K", "Potassium", "mg"),
+    IRON("FE", "Iron", "mg"),
+    ZINC("ZN", "Zinc", "mg"),
+    PHOSPHORUS("P", "Phosphorus", "mg"),
+    VITAMIN_A("VITA_RAE", "Vitamin A", "µg"),
+    VITAMIN_C("VITC", "Vitamin C", "mg"),
+    THIAMIN("THIA", "Thiamin (B1)", "mg"),
+    RIBOFLAVIN("RIBF", "Riboflavin (B2)", "mg"),
+    NIACIN("NIA", "Niacin (B3)", "mg"),
+    VITAMIN_B6("VITB6A", "Vitamin B6", "mg"),
+    FOLATE_DFE("FOLDFE", "Folate equivalent (total)", "µg"),
+    FOLATE_FOOD("FOLFD", "Folate (food)", "µg"),
+    FOLIC_ACID("FOLAC", "Folic acid", "µg"),
+    VITAMIN_B12("VITB12", "Vitamin B12", "µg"),
+    VITAMIN_D("VITD", "Vitamin D (D2 + D3)", "µg"),
+    VITAMIN_E("TOCPHA", "Vitamin E", "mg"),
+    VITAMIN_K("VITK1", "Vitamin K", "µg"),
+    WATER("WATER", "Water", "g");
+
+    private static final NutrientCode[] VALUES = values();
+    private static final Map<String, NutrientCode> BY_CODE = new HashMap<>();
+
+    static {
+        for (NutrientCode code : VALUES) {
+            BY_CODE.put(code.code, code);
+        }
+    }
+
+    private final String code;
+    private final String label;
+    private final String unit;
+
+    NutrientCode(String code, String label, String unit) {
+        this.code = code;
+        this.label = label;
+        this.unit = unit;
+    }
+
+    /**
+     * @return the Edamam nutrient code, e.g. {@code ENERC_KCAL}
+     */
+    public String code() {
+        return code;
+    }
+
+    public String label() {
+        return label;
+    }
+
+    public String unit() {
+        return unit;
+    }
+
+    /**
+     * @return the nutrient with the Edamam code, or null if it is not in the dictionary
+     */
+    public static NutrientCode forCode(String code) {
+        return BY_CODE.get(code);
+    }
+
+    /**
+     * @return the nutrient at a {@link NutrientVector} index
+     */
+    static NutrientCode at(int index) {
+        return VALUES[index];
+    }
+
+    static int count() {
+        return VALUES.length;
+    }
+}
@@ -0,0 +1,123 @@
+package entity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Quantities of every nutrient of the {@link NutrientCode} dictionary, in one {@code double[]} indexed by
+ * the code's ordinal, with a bit per nutrient recording whether it was ever given a quantity; a nutrient
+ * reported as 0 is thereby told apart from one never reported.
+ * <p>
+ * Adding and scaling change the vector in place and allocate nothing, so summing the nutrients of many
+ * ingredient lines or recipes costs one vector for the total. Not thread-safe.
+ * </p>
+ */
+public final class NutrientVector {
+
+    private final double[] quantities;
+    private long present;
+
+    public NutrientVector() {
+        this.quantities = new double[NutrientCode.count()];
+    }
+
+    private NutrientVector(double[] quantities, long present) {
+        this.quantities = quantities;
+        this.present = present;
+    }
+
+    /**
+     * @return the quantity of the nutrient, 0 if it has none
+     */
+    public double get(NutrientCode code) {
+        return quantities[code.ordinal()];
+    }
+
+    /**
+     * @return whether the nutrient was given a quantity, even 0
+     */
+    public boolean has(NutrientCode code) {
+        return (present & bit(code.ordinal())) != 0;
+    }
+
+    public boolean isEmpty() {
+        return present == 0;
+    }
+
+    public NutrientVector set(NutrientCode code, double quantity) {
+        quantities[code.ordinal()] = quantity;
+        present |= bit(code.ordinal());
+        return this;
+    }
+
+    public NutrientVector add(NutrientCode code, double quantity) {
+        quantities[code.ordinal()] += quantity;
+        present |= bit(code.ordinal());
+        return this;
+    }
+
+    /**
+     * Adds every quantity of {@code other} to this vector.
+     */
+    public NutrientVector add(NutrientVector other) {
+        for (int i = 0; i < quantities.length; i++) {
+            quantities[i] += other.quantities[i];
+        }
+        present |= other.present;
+        return this;
+    }
+
+    /**
+     * Adds every quantity of {@code other} to this vector and keeps only the nutrients both have, clearing
+     * the others; for totals over parts from different sources, where a nutrient missing from one part
+     * would leave a partial sum.
+     */
+    public NutrientVector addCommon(NutrientVector other) {
+        present &= other.present;
+        for (int i = 0; i < quantities.length; i++) {
+            quantities[i] = (present & bit(i)) != 0 ? quantities[i] + other.quantities[i] : 0;
+        }
+        return this;
+    }
+
+    /**
+     * Adds every quantity of {@code other}, multiplied by {@code factor}, to this vector.
+     */
+    public NutrientVector addScaled(NutrientVector other, double factor) {
+        for (int i = 0; i < quantities.length; i++) {
+            quantities[i] += other.quantities[i] * factor;
+        }
+        present |= other.present;
+        return this;
+    }
+
+    /**
+     * Multiplies every quantity by {@code factor}.
+     */
+    public NutrientVector scale(double factor) {
+        for (int i = 0; i < quantities.length; i++) {
+            quantities[i] *= factor;
+        }
+        return this;
+    }
+
+    public NutrientVector copy() {
+        return new NutrientVector(quantities.clone(), present);
+    }
+
+    /**
+     * @return a {@link Nutrient} for every nutrient given a quantity, in dictionary order
+     */
+    public List<Nutrient> toNutrients() {
+        final List<Nutrient> result = new ArrayList<>(Long.bitCount(present));
+        for (long remaining = present; remaining != 0; remaining &= remaining - 1) {
+            final int index = Long.numberOfTrailingZeros(remaining);
+            result.add(new Nutrient(NutrientCode.at(index), quantities[index]));
+        }
+        return result;
+    }
+
+    private static long bit(int index) {
+        return 1L << index;
+    }
+}
@@ -5,21 +5,24 @@ package entity;
  */
 public class Nutrition {
 
-    private double calories;
-    private double protein;
-    private double fat;
-    private double carbohydrates;
-    private double fiber;
-    private double sugar;
+    private final NutrientVector nutrients;
 
     public Nutrition(double calories, double protein, double fat, double carbohydrates,
                      double fiber, double sugar) {
-        this.calories = calories;
-        this.protein = protein;
-        this.fat = fat;
-        this.carbohydrates = carbohydrates;
-        this.fiber = fiber;
-        this.sugar = sugar;
+        this(new NutrientVector()
+                .set(NutrientCode.ENERGY, calories)
+                .set(NutrientCode.PROTEIN, protein)
+                .set(NutrientCode.FAT, fat)
+                .set(NutrientCode.CARBOHYDRATES, carbohydrates)
+                .set(NutrientCode.FIBER, fiber)
+                .set(NutrientCode.SUGAR, sugar));
+    }
+
+    /**
+     * @param nutrients every nutrient known for the food, used as is rather than copied
+     */
+    public Nutrition(NutrientVector nutrients) {
+        this.nutrients = nutrients;
     }
 
     /**
@@ -29,55 +32,69 @@ public class Nutrition {
     public String formatNutritionInfo() {
         return String.format(
                 "Calories: %.2f, Protein: %.2f g, Fat: %.2f g, Carbohydrates: %.2f g, Fiber: %.2f g, Sugar: %.2f g",
-                calories, protein, fat, carbohydrates, fiber, sugar
+                getCalories(), getProtein(), getFat(), getCarbohydrates(), getFiber(), getSugar()
         );
     }
 
+    /**
+     * @return every nutrient known for the food; changes to it change this nutrition
+     */
+    public NutrientVector getNutrients() {
+        return nutrients;
+    }
+
+    /**
+     * Multiplies every nutrient by {@code factor}, e.g. when a recipe is made for more servings.
+     */
+    public void scale(double factor) {
+        nutrients.scale(factor);
+    }
+
     public double getCalories() {
-        return calories;
+        return nutrients.get(NutrientCode.ENERGY);
     }
 
     public void setCalories(double calories) {
-        this.calories = calories;
+        nutrients.set(NutrientCode.ENERGY, calories);
     }
 
     public double getProtein() {
-        return protein;
+        return nutrients.get(NutrientCode.PROTEIN);
     }
 
     public void setProtein(double protein) {
-        this.protein = protein;
+        nutrients.set(NutrientCode.PROTEIN, protein);
     }
 
     public double getFat() {
-        return fat;
+        return nutrients.get(NutrientCode.FAT);
     }
 
     public void setFat(double fat) {
-        this.fat = fat;
+        nutrients.set(NutrientCode.FAT, fat);
     }
 
     public double getCarbohydrates() {
-        return carbohydrates;
+        return nutrients.get(NutrientCode.CARBOHYDRATES);
     }
 
     public void setCarbohydrates(double carbohydrates) {
-        this.carbohydrates = carbohydrates;
+        nutrients.set(NutrientCode.CARBOHYDRATES, carbohydrates);
     }
 
     public double getFiber() {
-        return fiber;
+        return nutrients.get(NutrientCode.FIBER);
     }
 
     public void setFiber(double fiber) {
-        this.fiber = fiber;
+        nutrients.set(NutrientCode.FIBER, fiber);
     }
 
     public double getSugar() {
-        return sugar;
+        return nutrients.get(NutrientCode.SUGAR);
     }
 
     public void setSugar(double sugar) {
-        this.sugar = sugar;
+        nutrients.set(NutrientCode.SUGAR, sugar);
     }
 }
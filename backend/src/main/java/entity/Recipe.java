@@ -1,5 +1,9 @@
 package entity;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.List;
 import java.util.Objects;
 
@@ -10,7 +14,10 @@ import org.json.JSONArray;
  */
 public class Recipe {
 
-    private int recipeId;
+    // Ids stay within the integers a JavaScript number holds exactly (2^53 - 1)
+    private static final long ID_MASK = (1L << 53) - 1;
+
+    private long recipeId;
     private String title;
     private String description;
     private List<Ingredient> ingredients;
@@ -19,10 +26,11 @@ public class Recipe {
     private List<Food> food;
     private JSONArray jsonIngredient;
     private int servings;
+    private String uri;
 
     /**
      * Constructor for Recipe with all fields.
-     * @param recipeId the Id of the recipe in the api.
+     * @param recipeId the stable Id of the recipe, see {@link #idFor(String)}.
      * @param title the name of the recipe.
      * @param description a brief description of this recipe.
      * @param ingredients a list of all ingredients of this recipe.
@@ -32,7 +40,7 @@ public class Recipe {
      * @param jsonIngredient the list of ingredients in JSONArray form.
      * @param servings the number of people this meal is serving.
      */
-    public Recipe(int recipeId, String title, String description, List<Ingredient> ingredients,
+    public Recipe(long recipeId, String title, String description, List<Ingredient> ingredients,
                   String instructions, Nutrition nutrition, List<Food> food, JSONArray jsonIngredient, int servings) {
         this.recipeId = recipeId;
         this.title = title;
@@ -45,12 +53,31 @@ public class Recipe {
         this.servings = servings;
     }
 
+    /**
+     * Derives the stable Id of a recipe from its Edamam URI, so the same recipe has the same Id in every
+     * search, page and saved copy. The Id is the first 53 bits of the SHA-256 of the URI and is never 0.
+     * @param uri the Edamam recipe URI, or another key that identifies the recipe if it has none.
+     * @return a positive Id of at most 53 bits.
+     */
+    public static long idFor(String uri) {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        final byte[] hash = digest.digest(uri.getBytes(StandardCharsets.UTF_8));
+        final long id = ByteBuffer.wrap(hash).getLong() & ID_MASK;
+        return id == 0 ? 1 : id;
+    }
+
     // Getters and setters for all fields
-    public int getRecipeId() {
+    public long getRecipeId() {
         return recipeId;
     }
 
-    public void setRecipeId(int recipeId) {
+    public void setRecipeId(long recipeId) {
         this.recipeId = recipeId;
     }
 
@@ -118,6 +145,17 @@ public class Recipe {
         this.servings = servings;
     }
 
+    /**
+     * The stable Edamam URI of this recipe, or null if it did not come from Edamam.
+     */
+    public String getUri() {
+        return uri;
+    }
+
+    public void setUri(String uri) {
+        this.uri = uri;
+    }
+
     @Override
     public String toString() {
         return String.format("Recipe: %s (Servings: %d)%nDescription: %s%nIngredients: %s%nInstructions: %s",
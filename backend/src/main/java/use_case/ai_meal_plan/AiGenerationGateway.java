@@ -23,5 +23,5 @@ public interface AiGenerationGateway {
 
     record UserProfile(String gender, int heightCm, int weightKg, int age, String goal) {}
 
-    record RawEntry(int recipeId, LocalDate mealDate, String mealType) {}
+    record RawEntry(long recipeId, LocalDate mealDate, String mealType) {}
 }
@@ -13,10 +13,10 @@ public interface AiMealPlanDataAccessInterface {
     List<Recipe> getSavedRecipes(int userId);
 
     /** Returns a single saved recipe, or null if not found. */
-    Recipe getSavedRecipe(int userId, int recipeId);
+    Recipe getSavedRecipe(int userId, long recipeId);
 
     /** Bulk-inserts meal plan entries for the user. */
     void bulkAddMealEntries(int userId, List<BulkEntry> entries);
 
-    record BulkEntry(int recipeId, LocalDate mealDate, String mealType) {}
+    record BulkEntry(long recipeId, LocalDate mealDate, String mealType) {}
 }
@@ -47,7 +47,7 @@ public class AiMealPlanInteractor {
         // Plan to end of ISO week (Sunday inclusive)
         LocalDate weekEnd = today.with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY));
 
-        Set<Integer> validIds = saved.stream()
+        Set<Long> validIds = saved.stream()
                 .map(Recipe::getRecipeId)
                 .collect(Collectors.toSet());
 
@@ -80,7 +80,7 @@ public class AiMealPlanInteractor {
 
     private List<AiMealPlanDataAccessInterface.BulkEntry> filterValid(
             List<AiGenerationGateway.RawEntry> raw,
-            Set<Integer> validIds,
+            Set<Long> validIds,
             LocalDate from,
             LocalDate to) {
         return raw.stream()
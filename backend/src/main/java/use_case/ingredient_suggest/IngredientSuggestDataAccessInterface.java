@@ -0,0 +1,13 @@
+package use_case.ingredient_suggest;
+
+import java.util.List;
+
+public interface IngredientSuggestDataAccessInterface {
+    /**
+     * Find known ingredient names starting with a prefix.
+     * @param prefix the text typed so far
+     * @param limit maximum number of names to return
+     * @return the names used by the most recipes first
+     */
+    List<IngredientSuggestion> suggest(String prefix, int limit);
+}
@@ -0,0 +1,11 @@
+package use_case.ingredient_suggest;
+
+/**
+ * Exception class for ingredient suggestion errors.
+ */
+public class IngredientSuggestException extends RuntimeException {
+
+    public IngredientSuggestException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,14 @@
+package use_case.ingredient_suggest;
+
+/**
+ * Interface for the ingredient suggestion use case.
+ */
+public interface IngredientSuggestInputBoundary {
+    /**
+     * Suggests ingredient names for what the user has typed so far.
+     * @param prefix the text typed so far
+     * @param limit maximum number of names to suggest
+     * @throws IngredientSuggestException if the lookup fails
+     */
+    void suggest(String prefix, int limit) throws IngredientSuggestException;
+}
@@ -0,0 +1,26 @@
+package use_case.ingredient_suggest;
+
+public class IngredientSuggestInteractor implements IngredientSuggestInputBoundary {
+    private final IngredientSuggestDataAccessInterface ingredientSuggestDataAccessInterface;
+    private final IngredientSuggestOutputBoundary outputBoundary;
+
+    public IngredientSuggestInteractor(IngredientSuggestDataAccessInterface ingredientSuggestDataAccessInterface,
+                                       IngredientSuggestOutputBoundary outputBoundary) {
+        this.ingredientSuggestDataAccessInterface = ingredientSuggestDataAccessInterface;
+        this.outputBoundary = outputBoundary;
+    }
+
+    @Override
+    public void suggest(String prefix, int limit) throws IngredientSuggestException {
+        try {
+            if (limit <= 0) {
+                throw new IllegalArgumentException("limit must be positive");
+            }
+            outputBoundary.presentSuggestions(ingredientSuggestDataAccessInterface.suggest(prefix, limit));
+        }
+        catch (Exception exception) {
+            outputBoundary.presentError("Failed to suggest ingredients: " + exception.getMessage());
+            throw new IngredientSuggestException("Ingredient suggestion failed", exception);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package use_case.ingredient_suggest;
+
+import java.util.List;
+
+public interface IngredientSuggestOutputBoundary {
+    /**
+     * Present the suggested ingredient names to the user.
+     * @param suggestions the suggestions, most used first
+     */
+    void presentSuggestions(List<IngredientSuggestion> suggestions);
+
+    /**
+     * Present an error message to the user.
+     * @param error Error message to present
+     */
+    void presentError(String error);
+}
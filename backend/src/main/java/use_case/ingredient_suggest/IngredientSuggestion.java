@@ -0,0 +1,10 @@
+package use_case.ingredient_suggest;
+
+/**
+ * An ingredient name offered while the user types.
+ *
+ * @param name    the normalized ingredient name
+ * @param recipes how many known recipes use it
+ */
+public record IngredientSuggestion(String name, int recipes) {
+}
@@ -19,7 +19,7 @@ public interface MealPlanningDataAccessInterface {
      * @param date the date for which the meal is planned
      * @param mealType the type of meal (e.g., breakfast, lunch, dinner)
      */
-    void addMealPlanEntry(int userId, int recipeId, LocalDate date, String mealType);
+    void addMealPlanEntry(int userId, long recipeId, LocalDate date, String mealType);
 
     /**
      * Removes a meal plan entry for a specific user.
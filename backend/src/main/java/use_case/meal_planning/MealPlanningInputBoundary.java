@@ -19,7 +19,7 @@ public interface MealPlanningInputBoundary {
      * @param date the date to add the meal
      * @param mealType the type of meal (breakfast, lunch, dinner)
      */
-    void addToCalendar(int userId, int recipeId, LocalDate date, String mealType);
+    void addToCalendar(int userId, long recipeId, LocalDate date, String mealType);
 
     /**
      * Removes a meal plan entry from the calendar.
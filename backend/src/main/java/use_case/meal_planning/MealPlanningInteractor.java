@@ -55,7 +55,7 @@ public class MealPlanningInteractor implements MealPlanningInputBoundary {
     }
 
     @Override
-    public void addToCalendar(int userId, int recipeId, LocalDate date, String mealType) {
+    public void addToCalendar(int userId, long recipeId, LocalDate date, String mealType) {
         try {
             validateUserId(userId);
             validateRecipeId(recipeId);
@@ -118,7 +118,7 @@ public class MealPlanningInteractor implements MealPlanningInputBoundary {
         }
     }
 
-    private void validateRecipeId(int recipeId) {
+    private void validateRecipeId(long recipeId) {
         if (recipeId <= 0) {
             throw new MealPlanningException("Invalid recipe ID", MealPlanningException.INVALID_RECIPE);
         }
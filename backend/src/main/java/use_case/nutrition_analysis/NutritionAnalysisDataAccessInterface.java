@@ -1,16 +1,18 @@
 package use_case.nutrition_analysis;
 
-import entity.Nutrient;
+import entity.NutrientVector;
 import entity.Recipe;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Interface for accessing nutritional analysis data from an external API.
  * <p>
  * Provides a method to analyze the nutritional content of a given recipe
- * and return a list of Nutrient.
+ * and return its nutrients.
  * </p>
  */
 public interface NutritionAnalysisDataAccessInterface {
@@ -18,10 +20,43 @@ public interface NutritionAnalysisDataAccessInterface {
      * Get totalNutrients from a POST request from the API.
      *
      * @param recipe the recipe we want to analyze the nutrition of.
-     * @return A list of Nutrient entity
+     * @return the nutrients of the whole recipe, empty if none could be analyzed
      * @throws IOException If an I/O error occurs.
      */
-    List<Nutrient> analyzeNutrition(Recipe recipe) throws IOException;
+    NutrientVector analyzeNutrition(Recipe recipe) throws IOException;
+
+    /**
+     * Asynchronous {@link #analyzeNutrition(Recipe)}. The default runs the analysis on the calling thread;
+     * implementations that call remote services override it to release the caller while the call is in
+     * flight.
+     *
+     * @param recipe the recipe we want to analyze the nutrition of.
+     * @return a future of the nutrients, failed with the analysis's exception if it fails
+     */
+    default CompletableFuture<NutrientVector> analyzeNutritionAsync(Recipe recipe) {
+        try {
+            return CompletableFuture.completedFuture(analyzeNutrition(recipe));
+        }
+        catch (IOException | RuntimeException exception) {
+            return CompletableFuture.failedFuture(exception);
+        }
+    }
+
+    /**
+     * Analyzes several recipes at once. The default analyzes each with {@link #analyzeNutritionAsync(Recipe)};
+     * implementations override it to share the work recipes have in common.
+     *
+     * @param recipes the recipes we want to analyze the nutrition of.
+     * @return a future of each recipe's nutrients, in the order of the recipes, completing as soon as that
+     *         recipe is analyzed
+     */
+    default List<CompletableFuture<NutrientVector>> analyzeNutritionBatch(List<Recipe> recipes) {
+        final List<CompletableFuture<NutrientVector>> analyses = new ArrayList<>();
+        for (Recipe recipe : recipes) {
+            analyses.add(analyzeNutritionAsync(recipe));
+        }
+        return analyses;
+    }
     // Helper methods are private and are not in the interface according to
     // the encapsulation principle and interface Segregation (from SOLID).
 }
@@ -1,6 +1,7 @@
 package use_case.nutrition_analysis;
 
 import entity.Recipe;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Interface for the Nutrition Analysis use case.
@@ -14,4 +15,14 @@ public interface NutritionAnalysisInputBoundary {
      * @throws NutritionAnalysisException if search fails
      */
     void analyzeNutrition(Recipe recipe) throws NutritionAnalysisException;
+
+    /**
+     * Analyzes the recipe without waiting for the analysis to finish; the nutrients are presented when it
+     * does.
+     *
+     * @param recipe the title of recipe to analyze.
+     * @return a future that completes once the nutrients have been presented, or fails if the analysis
+     *         fails
+     */
+    CompletableFuture<Void> analyzeNutritionAsync(Recipe recipe);
 }
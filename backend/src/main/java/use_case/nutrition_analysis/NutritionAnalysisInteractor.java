@@ -1,9 +1,10 @@
 package use_case.nutrition_analysis;
 
 import java.io.IOException;
-import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
-import entity.Nutrient;
+import entity.NutrientVector;
 import entity.Recipe;
 
 /**
@@ -24,10 +25,10 @@ public class NutritionAnalysisInteractor implements NutritionAnalysisInputBounda
     public void analyzeNutrition(Recipe recipe) throws NutritionAnalysisException {
         try {
             // Get NutritionInfo from Edamam API by the RecipeName.
-            final List<Nutrient> nutritionInfo = nutritionAnalysisDAO.analyzeNutrition(recipe);
+            final NutrientVector nutrients = nutritionAnalysisDAO.analyzeNutrition(recipe);
 
             // Present success
-            outputBoundary.presentNutritionInfo(nutritionInfo);
+            outputBoundary.presentNutritionInfo(nutrients.toNutrients());
         }
         catch (IOException exception) {
             // Present error
@@ -35,4 +36,19 @@ public class NutritionAnalysisInteractor implements NutritionAnalysisInputBounda
             throw new NutritionAnalysisException("Analysis failed", exception);
         }
     }
+
+    @Override
+    public CompletableFuture<Void> analyzeNutritionAsync(Recipe recipe) {
+        return nutritionAnalysisDAO.analyzeNutritionAsync(recipe).handle((nutrients, failure) -> {
+            if (failure == null) {
+                outputBoundary.presentNutritionInfo(nutrients.toNutrients());
+                return null;
+            }
+            final Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                    ? failure.getCause()
+                    : failure;
+            outputBoundary.presentError("Failed to analyze the recipe: " + cause.getMessage());
+            throw new NutritionAnalysisException("Analysis failed", cause);
+        });
+    }
 }
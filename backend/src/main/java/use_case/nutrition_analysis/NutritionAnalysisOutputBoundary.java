@@ -10,7 +10,7 @@ import entity.Nutrient;
 public interface NutritionAnalysisOutputBoundary {
     /**
      * Present the Nutrition information to the user.
-     * @param NutritionInfo List of recipes to present
+     * @param NutritionInfo every nutrient with a quantity, in {@link entity.NutrientCode} order
      */
     void presentNutritionInfo(List<Nutrient> NutritionInfo);
 
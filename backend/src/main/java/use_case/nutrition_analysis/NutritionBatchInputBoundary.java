@@ -0,0 +1,20 @@
+package use_case.nutrition_analysis;
+
+import entity.Recipe;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Interface for the Nutrition Batch use case, which analyzes several recipes at once.
+ */
+public interface NutritionBatchInputBoundary {
+
+    /**
+     * Analyzes the recipes without waiting for the analyses to finish; each recipe's nutrients, or its
+     * error, are presented as soon as it is analyzed.
+     *
+     * @param recipes the recipes to analyze.
+     * @return a future that completes once every recipe has been presented
+     */
+    CompletableFuture<Void> analyzeNutritionBatch(List<Recipe> recipes);
+}
@@ -0,0 +1,46 @@
+package use_case.nutrition_analysis;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import entity.NutrientVector;
+import entity.Recipe;
+
+/**
+ * Implementation of the Nutrition Batch use case. A recipe that fails is presented as an error and does not
+ * affect the others.
+ */
+public class NutritionBatchInteractor implements NutritionBatchInputBoundary {
+
+    private final NutritionAnalysisDataAccessInterface nutritionAnalysisDAO;
+    private final NutritionBatchOutputBoundary outputBoundary;
+
+    public NutritionBatchInteractor(NutritionAnalysisDataAccessInterface nutritionAnalysisDAO,
+                                    NutritionBatchOutputBoundary outputBoundary) {
+        this.nutritionAnalysisDAO = nutritionAnalysisDAO;
+        this.outputBoundary = outputBoundary;
+    }
+
+    @Override
+    public CompletableFuture<Void> analyzeNutritionBatch(List<Recipe> recipes) {
+        final List<CompletableFuture<NutrientVector>> analyses = nutritionAnalysisDAO.analyzeNutritionBatch(recipes);
+        final CompletableFuture<?>[] presented = new CompletableFuture<?>[analyses.size()];
+        for (int i = 0; i < analyses.size(); i++) {
+            final int index = i;
+            presented[i] = analyses.get(i).handle((nutrients, failure) -> {
+                if (failure == null) {
+                    outputBoundary.presentRecipeNutrition(index, nutrients.toNutrients());
+                }
+                else {
+                    final Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                            ? failure.getCause()
+                            : failure;
+                    outputBoundary.presentRecipeError(index, "Failed to analyze the recipe: " + cause.getMessage());
+                }
+                return null;
+            });
+        }
+        return CompletableFuture.allOf(presented);
+    }
+}
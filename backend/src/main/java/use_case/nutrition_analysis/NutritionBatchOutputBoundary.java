@@ -0,0 +1,25 @@
+package use_case.nutrition_analysis;
+
+import java.util.List;
+
+import entity.Nutrient;
+
+/**
+ * Output boundary for the Nutrition Batch use case. Recipes are presented in the order they finish, possibly
+ * from several threads at once.
+ */
+public interface NutritionBatchOutputBoundary {
+    /**
+     * Present the nutrients of one recipe of the batch.
+     * @param index the recipe's position in the batch
+     * @param nutritionInfo every nutrient with a quantity, in {@link entity.NutrientCode} order
+     */
+    void presentRecipeNutrition(int index, List<Nutrient> nutritionInfo);
+
+    /**
+     * Present why one recipe of the batch could not be analyzed.
+     * @param index the recipe's position in the batch
+     * @param error Error message to present
+     */
+    void presentRecipeError(int index, String error);
+}
@@ -0,0 +1,24 @@
+package use_case.pantry_search;
+
+import entity.Recipe;
+
+/**
+ * A recipe that can be cooked mostly from the user's pantry.
+ *
+ * @param recipe             the recipe
+ * @param matchedIngredients how many of its distinct ingredients are in the pantry
+ * @param totalIngredients   how many distinct ingredients it uses
+ */
+public record PantryMatch(Recipe recipe, int matchedIngredients, int totalIngredients) {
+
+    public int missingIngredients() {
+        return totalIngredients - matchedIngredients;
+    }
+
+    /**
+     * The share of the recipe's ingredients that are in the pantry, from 0 to 1.
+     */
+    public double coverage() {
+        return totalIngredients == 0 ? 0 : (double) matchedIngredients / totalIngredients;
+    }
+}
@@ -0,0 +1,14 @@
+package use_case.pantry_search;
+
+import java.util.List;
+
+public interface PantrySearchDataAccessInterface {
+    /**
+     * Find recipes that use at least one of the given ingredients and at most {@code maxMissing}
+     * ingredients outside them.
+     * @param ingredients the ingredient names the user has
+     * @param maxMissing the number of recipe ingredients allowed to be missing
+     * @return matches with the best coverage first
+     */
+    List<PantryMatch> searchByPantry(List<String> ingredients, int maxMissing);
+}
@@ -0,0 +1,11 @@
+package use_case.pantry_search;
+
+/**
+ * Exception class for pantry search errors.
+ */
+public class PantrySearchException extends RuntimeException {
+
+    public PantrySearchException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
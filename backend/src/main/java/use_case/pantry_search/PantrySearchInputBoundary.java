@@ -0,0 +1,16 @@
+package use_case.pantry_search;
+
+import java.util.List;
+
+/**
+ * Interface for the pantry search use case.
+ */
+public interface PantrySearchInputBoundary {
+    /**
+     * Searches for recipes that can be cooked with the given ingredients.
+     * @param ingredients List of ingredients the user has
+     * @param maxMissing number of recipe ingredients allowed to be missing from the list
+     * @throws PantrySearchException if search fails
+     */
+    void searchByPantry(List<String> ingredients, int maxMissing) throws PantrySearchException;
+}
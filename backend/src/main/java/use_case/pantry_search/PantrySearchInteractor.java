@@ -0,0 +1,28 @@
+package use_case.pantry_search;
+
+import java.util.List;
+
+public class PantrySearchInteractor implements PantrySearchInputBoundary {
+    private final PantrySearchDataAccessInterface pantrySearchDataAccessInterface;
+    private final PantrySearchOutputBoundary outputBoundary;
+
+    public PantrySearchInteractor(PantrySearchDataAccessInterface pantrySearchDataAccessInterface,
+                                  PantrySearchOutputBoundary outputBoundary) {
+        this.pantrySearchDataAccessInterface = pantrySearchDataAccessInterface;
+        this.outputBoundary = outputBoundary;
+    }
+
+    @Override
+    public void searchByPantry(List<String> ingredients, int maxMissing) throws PantrySearchException {
+        try {
+            if (maxMissing < 0) {
+                throw new IllegalArgumentException("maxMissing must not be negative");
+            }
+            outputBoundary.presentMatches(pantrySearchDataAccessInterface.searchByPantry(ingredients, maxMissing));
+        }
+        catch (Exception exception) {
+            outputBoundary.presentError("Failed to search recipes: " + exception.getMessage());
+            throw new PantrySearchException("Pantry search failed", exception);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package use_case.pantry_search;
+
+import java.util.List;
+
+public interface PantrySearchOutputBoundary {
+    /**
+     * Present the matching recipes to the user.
+     * @param matches the matches, best coverage first
+     */
+    void presentMatches(List<PantryMatch> matches);
+
+    /**
+     * Present an error message to the user.
+     * @param error Error message to present
+     */
+    void presentError(String error);
+}
@@ -0,0 +1,23 @@
+package use_case.recipe_search;
+
+/**
+ * Optional inputs of the relevance ranking of search results.
+ *
+ * @param userId      whose saved recipes similar results are ranked up for, or null
+ * @param macroTarget the nutrition per serving results should be close to, or null
+ */
+public record RankingPreferences(Integer userId, MacroTarget macroTarget) {
+
+    /** Ranks by the query alone. */
+    public static final RankingPreferences NONE = new RankingPreferences(null, null);
+
+    /**
+     * Target nutrition per serving; null fields are not targeted.
+     */
+    public record MacroTarget(Double calories, Double protein, Double fat, Double carbohydrates) {
+
+        public boolean isEmpty() {
+            return calories == null && protein == null && fat == null && carbohydrates == null;
+        }
+    }
+}
@@ -0,0 +1,433 @@
+package use_case.recipe_search;
+
+import entity.Ingredient;
+import entity.Nutrition;
+import entity.Recipe;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Orders search results by local relevance before they are presented.
+ * <p>
+ * Every recipe scores the weighted sum of three parts, each between 0 and 1:
+ * </p>
+ * <ul>
+ *     <li>ingredient overlap: the share of query words found in its title or ingredient names;</li>
+ *     <li>macro closeness: {@code 1 / (1 + e)}, where {@code e} is the mean relative error of its nutrition
+ *     per serving against the targeted macros (0 when nothing is targeted);</li>
+ *     <li>saved similarity: the share of its ingredient words that also appear in the user's saved
+ *     recipes (0 without a user).</li>
+ * </ul>
+ * <p>
+ * Recipes with equal scores keep the order they came in. Words are lower-cased, split on anything but
+ * letters and digits, stripped of a plural "s" and hashed while the text is scanned, so no substrings are
+ * created; the words of the query and of the saved recipes go into open-addressing {@code int} tables and
+ * recipes are ordered by sorting packed {@code long} keys, so ranking does not box.
+ * </p>
+ */
+public class RecipeRanker {
+
+    private static final int FNV_OFFSET = 0x811c9dc5;
+    private static final int FNV_PRIME = 0x01000193;
+    private static final int GOLDEN_RATIO = 0x9e3779b9;
+
+    // Lower-cased letters and digits by ASCII code; 0 for every other character
+    private static final char[] ASCII_WORD_CHARS = new char[128];
+
+    static {
+        for (char c = 0; c < ASCII_WORD_CHARS.length; c++) {
+            ASCII_WORD_CHARS[c] = Character.isLetterOrDigit(c) ? Character.toLowerCase(c) : 0;
+        }
+    }
+
+    private static final int INDEX_BITS = 22;
+    private static final int MAX_RECIPES = 1 << INDEX_BITS;
+    private static final double SCORE_SCALE = (double) (1L << 40);
+
+    private static final int CALORIES = 0;
+    private static final int PROTEIN = 1;
+    private static final int FAT = 2;
+    private static final int CARBOHYDRATES = 3;
+
+    private final double ingredientWeight;
+    private final double macroWeight;
+    private final double savedWeight;
+
+    public RecipeRanker(double ingredientWeight, double macroWeight, double savedWeight) {
+        if (ingredientWeight < 0 || macroWeight < 0 || savedWeight < 0) {
+            throw new IllegalArgumentException("Ranking weights must not be negative");
+        }
+        this.ingredientWeight = ingredientWeight;
+        this.macroWeight = macroWeight;
+        this.savedWeight = savedWeight;
+    }
+
+    /**
+     * Prepares the inputs of one ranking.
+     *
+     * @param terms        the search terms, e.g. the ingredients searched for
+     * @param macroTarget  the targeted nutrition per serving, or null
+     * @param savedRecipes the user's saved recipes; empty without a user
+     */
+    public Query query(Collection<String> terms, RankingPreferences.MacroTarget macroTarget,
+                       List<Recipe> savedRecipes) {
+        final WordHashes queryWords = new WordHashes(16);
+        for (String term : terms) {
+            queryWords.addWords(term);
+        }
+        final WordHashes savedWords = new WordHashes(256);
+        for (Recipe recipe : savedRecipes) {
+            addIngredientWords(savedWords, recipe);
+        }
+
+        final double[] target = new double[4];
+        Arrays.fill(target, Double.NaN);
+        if (macroTarget != null) {
+            target[CALORIES] = orNaN(macroTarget.calories());
+            target[PROTEIN] = orNaN(macroTarget.protein());
+            target[FAT] = orNaN(macroTarget.fat());
+            target[CARBOHYDRATES] = orNaN(macroTarget.carbohydrates());
+        }
+        return new Query(new WordTable(queryWords.distinct()), target, new WordTable(savedWords.distinct()));
+    }
+
+    /**
+     * @return the recipes, most relevant first
+     */
+    public List<Recipe> rank(List<Recipe> recipes, Query query) {
+        final int count = recipes.size();
+        if (count < 2 || query.isEmpty()) {
+            return recipes;
+        }
+        if (count > MAX_RECIPES) {
+            throw new IllegalArgumentException("Cannot rank more than " + MAX_RECIPES + " recipes");
+        }
+
+        final double maxScore = ingredientWeight + macroWeight + savedWeight;
+        if (maxScore == 0) {
+            return recipes;
+        }
+        final Scorer scorer = new Scorer(query);
+        final long[] keys = new long[count];
+        for (int i = 0; i < count; i++) {
+            final Recipe recipe = recipes.get(i);
+            final double score = ingredientWeight * scorer.ingredientOverlap(recipe)
+                    + macroWeight * scorer.macroCloseness(recipe)
+                    + savedWeight * scorer.savedSimilarity(recipe);
+            // Higher scores sort last; among equal scores, earlier recipes sort last
+            keys[i] = (long) (score / maxScore * SCORE_SCALE) << INDEX_BITS | (MAX_RECIPES - 1 - i);
+        }
+        Arrays.sort(keys);
+
+        final List<Recipe> ranked = new ArrayList<>(count);
+        for (int i = count - 1; i >= 0; i--) {
+            ranked.add(recipes.get(MAX_RECIPES - 1 - (int) (keys[i] & (MAX_RECIPES - 1))));
+        }
+        return ranked;
+    }
+
+    private static void addIngredientWords(WordSink words, Recipe recipe) {
+        if (recipe.getIngredients() != null) {
+            for (Ingredient ingredient : recipe.getIngredients()) {
+                words.addWords(ingredient.getName());
+            }
+        }
+    }
+
+    private static double orNaN(Double value) {
+        return value == null ? Double.NaN : value;
+    }
+
+    /**
+     * Hashes every word of the text; see {@link RecipeRanker} for what a word is.
+     */
+    private interface WordSink {
+        void accept(int hash);
+
+        default void addWords(String text) {
+            if (text == null) {
+                return;
+            }
+            int hash = FNV_OFFSET;
+            int beforeLast = FNV_OFFSET;
+            int length = 0;
+            char last = 0;
+            for (int i = 0, n = text.length(); i <= n; i++) {
+                final char raw = i < n ? text.charAt(i) : ' ';
+                final char c = raw < ASCII_WORD_CHARS.length ? ASCII_WORD_CHARS[raw] : Character.toLowerCase(raw);
+                if (c != 0 && (raw < ASCII_WORD_CHARS.length || Character.isLetterOrDigit(c))) {
+                    beforeLast = hash;
+                    hash = (hash ^ c) * FNV_PRIME;
+                    last = c;
+                    length++;
+                }
+                else if (length > 0) {
+                    accept(length > 3 && last == 's' ? beforeLast : hash);
+                    hash = FNV_OFFSET;
+                    length = 0;
+                }
+            }
+        }
+    }
+
+    private static final class WordHashes implements WordSink {
+        private int[] hashes;
+        private int size;
+
+        WordHashes(int capacity) {
+            hashes = new int[capacity];
+        }
+
+        @Override
+        public void accept(int hash) {
+            if (size == hashes.length) {
+                hashes = Arrays.copyOf(hashes, size * 2);
+            }
+            hashes[size++] = hash;
+        }
+
+        int[] distinct() {
+            final int[] sorted = Arrays.copyOf(hashes, size);
+            Arrays.sort(sorted);
+            int unique = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                if (i == 0 || sorted[i] != sorted[i - 1]) {
+                    sorted[unique++] = sorted[i];
+                }
+            }
+            return Arrays.copyOf(sorted, unique);
+        }
+    }
+
+    /**
+     * Open-addressing table of distinct word hashes, numbered in the order they were given.
+     */
+    private static final class WordTable {
+        // Word hash in each slot; 0 marks an empty slot, so a hash of 0 is stored as 1
+        private final int[] slots;
+        private final int[] numbers;
+        private final int shift;
+        private final int size;
+
+        WordTable(int[] hashes) {
+            final int capacity = Integer.highestOneBit(Math.max(2, hashes.length * 2) * 2 - 1);
+            slots = new int[capacity];
+            numbers = new int[capacity];
+            shift = Integer.numberOfLeadingZeros(capacity) + 1;
+            size = hashes.length;
+            for (int i = 0; i < hashes.length; i++) {
+                final int key = hashes[i] == 0 ? 1 : hashes[i];
+                int slot = (key * GOLDEN_RATIO) >>> shift;
+                while (slots[slot] != 0) {
+                    slot = (slot + 1) & (capacity - 1);
+                }
+                slots[slot] = key;
+                numbers[slot] = i;
+            }
+        }
+
+        /**
+         * @return the number of the word, or -1 if it is not in the table
+         */
+        int numberOf(int hash) {
+            final int key = hash == 0 ? 1 : hash;
+            int slot = (key * GOLDEN_RATIO) >>> shift;
+            int stored;
+            while ((stored = slots[slot]) != 0) {
+                if (stored == key) {
+                    return numbers[slot];
+                }
+                slot = (slot + 1) & (slots.length - 1);
+            }
+            return -1;
+        }
+
+        int size() {
+            return size;
+        }
+    }
+
+    /**
+     * Scores one recipe at a time, reusing its scratch state between recipes.
+     * <p>
+     * Ingredient names repeat across recipes, so what the words of each distinct name match is remembered
+     * for the rest of the ranking: the query words as a bit mask (while there are at most 64) and the number
+     * of words and of saved words.
+     * </p>
+     */
+    private static final class Scorer implements WordSink {
+        private static final int NAME_SLOT_BITS = 12;
+        private static final int NAME_SLOTS = 1 << NAME_SLOT_BITS;
+        private static final int MAX_NAMES = NAME_SLOTS * 3 / 4;
+
+        private final Query query;
+        // Query words found in the current recipe, one bit per word number
+        private final long[] matched;
+        private final boolean cacheNames;
+        private final String[] names;
+        private final long[] nameMatches;
+        // Words of the name in the high half, saved words in the low half
+        private final long[] nameCounts;
+        private int cachedNames;
+        private boolean countSaved;
+        private int words;
+        private int savedWords;
+
+        Scorer(Query query) {
+            this.query = query;
+            this.matched = new long[Math.max(1, (query.words.size() + 63) / 64)];
+            this.cacheNames = query.words.size() <= 64;
+            this.names = cacheNames ? new String[NAME_SLOTS] : null;
+            this.nameMatches = cacheNames ? new long[NAME_SLOTS] : null;
+            this.nameCounts = cacheNames ? new long[NAME_SLOTS] : null;
+        }
+
+        @Override
+        public void accept(int hash) {
+            if (countSaved) {
+                words++;
+                if (query.savedWords.numberOf(hash) >= 0) {
+                    savedWords++;
+                }
+            }
+            final int word = query.words.numberOf(hash);
+            if (word >= 0) {
+                matched[word >>> 6] |= 1L << word;
+            }
+        }
+
+        double ingredientOverlap(Recipe recipe) {
+            if (query.words.size() == 0) {
+                return 0;
+            }
+            Arrays.fill(matched, 0);
+            countSaved = false;
+            addWords(recipe.getTitle());
+            countSaved = query.savedWords.size() > 0;
+            words = 0;
+            savedWords = 0;
+            if (recipe.getIngredients() != null) {
+                for (Ingredient ingredient : recipe.getIngredients()) {
+                    addName(ingredient.getName());
+                }
+            }
+            countSaved = false;
+
+            int found = 0;
+            for (long bits : matched) {
+                found += Long.bitCount(bits);
+            }
+            return (double) found / query.words.size();
+        }
+
+        private void addName(String name) {
+            if (name == null) {
+                return;
+            }
+            if (!cacheNames) {
+                addWords(name);
+                return;
+            }
+            int slot = (name.hashCode() * GOLDEN_RATIO) >>> (Integer.SIZE - NAME_SLOT_BITS);
+            String cached;
+            while ((cached = names[slot]) != null) {
+                if (cached.equals(name)) {
+                    matched[0] |= nameMatches[slot];
+                    words += (int) (nameCounts[slot] >>> 32);
+                    savedWords += (int) nameCounts[slot];
+                    return;
+                }
+                slot = (slot + 1) & (NAME_SLOTS - 1);
+            }
+
+            final long matchedBefore = matched[0];
+            final int wordsBefore = words;
+            final int savedBefore = savedWords;
+            matched[0] = 0;
+            addWords(name);
+            if (cachedNames < MAX_NAMES) {
+                names[slot] = name;
+                nameMatches[slot] = matched[0];
+                nameCounts[slot] = (long) (words - wordsBefore) << 32 | (savedWords - savedBefore);
+                cachedNames++;
+            }
+            matched[0] |= matchedBefore;
+        }
+
+        /**
+         * Only valid after {@link #ingredientOverlap(Recipe)} of the same recipe, which counts its words.
+         */
+        double savedSimilarity(Recipe recipe) {
+            if (query.savedWords.size() == 0) {
+                return 0;
+            }
+            if (query.words.size() == 0) {
+                words = 0;
+                savedWords = 0;
+                countSaved = true;
+                addIngredientWords(this, recipe);
+                countSaved = false;
+            }
+            return words == 0 ? 0 : (double) savedWords / words;
+        }
+
+        double macroCloseness(Recipe recipe) {
+            final Nutrition nutrition = recipe.getNutrition();
+            if (!query.hasTarget || nutrition == null) {
+                return 0;
+            }
+            final double servings = Math.max(recipe.getServings(), 1);
+            final double[] target = query.target;
+            double error = 0;
+            int targeted = 0;
+            if (!Double.isNaN(target[CALORIES])) {
+                error += relativeError(nutrition.getCalories() / servings, target[CALORIES]);
+                targeted++;
+            }
+            if (!Double.isNaN(target[PROTEIN])) {
+                error += relativeError(nutrition.getProtein() / servings, target[PROTEIN]);
+                targeted++;
+            }
+            if (!Double.isNaN(target[FAT])) {
+                error += relativeError(nutrition.getFat() / servings, target[FAT]);
+                targeted++;
+            }
+            if (!Double.isNaN(target[CARBOHYDRATES])) {
+                error += relativeError(nutrition.getCarbohydrates() / servings, target[CARBOHYDRATES]);
+                targeted++;
+            }
+            return 1 / (1 + error / targeted);
+        }
+
+        private static double relativeError(double value, double target) {
+            return Math.abs(value - target) / Math.max(target, 1);
+        }
+    }
+
+    /**
+     * The prepared inputs of one ranking; see {@link #query(Collection, RankingPreferences.MacroTarget, List)}.
+     */
+    public static final class Query {
+        private final WordTable words;
+        private final double[] target;
+        private final boolean hasTarget;
+        private final WordTable savedWords;
+
+        private Query(WordTable words, double[] target, WordTable savedWords) {
+            this.words = words;
+            this.target = target;
+            this.savedWords = savedWords;
+            boolean anyTarget = false;
+            for (double value : target) {
+                anyTarget |= !Double.isNaN(value);
+            }
+            this.hasTarget = anyTarget;
+        }
+
+        boolean isEmpty() {
+            return words.size() == 0 && !hasTarget && savedWords.size() == 0;
+        }
+    }
+}
@@ -4,6 +4,7 @@ import entity.Recipe;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface RecipeSearchDataAccessInterface {
     /**
@@ -14,4 +15,29 @@ public interface RecipeSearchDataAccessInterface {
      * @throws IOException If an I/O error occurs.
      */
     List<Recipe> searchRecipesByFoodName(String foodName);
+
+    /**
+     * Get one page of recipes for the food name, or the page a previous page token points to.
+     *
+     * @param foodName the recipe name we want to display; ignored when a page token is given.
+     * @param pageToken the next page token of a previous page, or null for the first page.
+     * @return the recipes of the page and the token of the following page
+     */
+    RecipeSearchPage searchRecipePage(String foodName, String pageToken);
+
+    /**
+     * Asynchronous {@link #searchRecipePage(String, String)}. The default runs the search on the calling
+     * thread; implementations that call remote services override it to release the caller while the
+     * call is in flight.
+     *
+     * @return a future of the page, failed with the search's exception if it fails
+     */
+    default CompletableFuture<RecipeSearchPage> searchRecipePageAsync(String foodName, String pageToken) {
+        try {
+            return CompletableFuture.completedFuture(searchRecipePage(foodName, pageToken));
+        }
+        catch (RuntimeException exception) {
+            return CompletableFuture.failedFuture(exception);
+        }
+    }
 }
@@ -1,6 +1,7 @@
 package use_case.recipe_search;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import entity.Recipe;
 
@@ -15,6 +16,37 @@ public interface RecipeSearchInputBoundary {
      */
     void searchRecipes(List<String> ingredients) throws RecipeSearchException;
 
+    /**
+     * Searches for one page of recipes based on a list of ingredients.
+     * @param ingredients List of ingredients to search with; ignored when a page token is given
+     * @param pageToken token of the page to fetch, or null for the first page
+     * @throws RecipeSearchException if search fails
+     */
+    void searchRecipes(List<String> ingredients, String pageToken) throws RecipeSearchException;
+
+    /**
+     * Searches for one page of recipes and presents them most relevant first.
+     * @param ingredients List of ingredients to search with and to rank by; only ranked by when a page token
+     *                    is given
+     * @param pageToken token of the page to fetch, or null for the first page
+     * @param preferences the user and nutrition target to rank by
+     * @throws RecipeSearchException if search fails
+     */
+    void searchRecipes(List<String> ingredients, String pageToken, RankingPreferences preferences)
+            throws RecipeSearchException;
+
+    /**
+     * Searches for one page of recipes without waiting for the search to finish; the results are presented,
+     * most relevant first, when it does.
+     * @param ingredients List of ingredients to search with and to rank by; only ranked by when a page token
+     *                    is given
+     * @param pageToken token of the page to fetch, or null for the first page
+     * @param preferences the user and nutrition target to rank by
+     * @return a future that completes once the page has been presented, or fails if the search fails
+     */
+    CompletableFuture<Void> searchRecipesAsync(List<String> ingredients, String pageToken,
+                                               RankingPreferences preferences);
+
     /**
      * Searches for recipes based on a list of ingredients.
      * @param userId number represents user id.
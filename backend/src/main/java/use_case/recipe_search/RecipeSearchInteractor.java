@@ -2,6 +2,8 @@ package use_case.recipe_search;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import data_access.SavedRecipesDataAccessInterface;
 import entity.Food;
@@ -12,13 +14,16 @@ public class RecipeSearchInteractor implements RecipeSearchInputBoundary {
     private final RecipeSearchDataAccessInterface recipeSearchDataAccessInterface;
     private final RecipeSearchOutputBoundary outputBoundary;
     private final SavedRecipesDataAccessInterface savedRecipesDataAccessInterface;
+    private final RecipeRanker ranker;
 
     public RecipeSearchInteractor(RecipeSearchDataAccessInterface recipeSearchDataAccessInterface,
                                   SavedRecipesDataAccessInterface savedRecipesDataAccessInterface,
-                                  RecipeSearchOutputBoundary outputBoundary) {
+                                  RecipeSearchOutputBoundary outputBoundary,
+                                  RecipeRanker ranker) {
         this.recipeSearchDataAccessInterface = recipeSearchDataAccessInterface;
         this.savedRecipesDataAccessInterface = savedRecipesDataAccessInterface;
         this.outputBoundary = outputBoundary;
+        this.ranker = ranker;
     }
 
     @Override
@@ -35,11 +40,22 @@ public class RecipeSearchInteractor implements RecipeSearchInputBoundary {
 
     @Override
     public void searchRecipes(List<String> ingredients) throws RecipeSearchException {
+        searchRecipes(ingredients, null);
+    }
+
+    @Override
+    public void searchRecipes(List<String> ingredients, String pageToken) throws RecipeSearchException {
+        searchRecipes(ingredients, pageToken, RankingPreferences.NONE);
+    }
+
+    @Override
+    public void searchRecipes(List<String> ingredients, String pageToken, RankingPreferences preferences)
+            throws RecipeSearchException {
         try {
+            final RecipeRanker.Query rankingQuery = rankingQuery(ingredients, preferences);
             final String searchQuery = String.join(",", ingredients);
-            final List<Recipe> searchResults = recipeSearchDataAccessInterface.searchRecipesByFoodName(searchQuery);
-            final List<Recipe> recipes = convertToRecipes(searchResults);
-            outputBoundary.presentRecipes(recipes);
+            final RecipeSearchPage page = recipeSearchDataAccessInterface.searchRecipePage(searchQuery, pageToken);
+            presentPage(page, rankingQuery);
         }
         catch (Exception exception) {
             outputBoundary.presentError("Failed to search recipes: " + exception.getMessage());
@@ -47,9 +63,56 @@ public class RecipeSearchInteractor implements RecipeSearchInputBoundary {
         }
     }
 
+    @Override
+    public CompletableFuture<Void> searchRecipesAsync(List<String> ingredients, String pageToken,
+                                                      RankingPreferences preferences) {
+        final RecipeRanker.Query rankingQuery;
+        final CompletableFuture<RecipeSearchPage> search;
+        try {
+            rankingQuery = rankingQuery(ingredients, preferences);
+            final String searchQuery = String.join(",", ingredients);
+            search = recipeSearchDataAccessInterface.searchRecipePageAsync(searchQuery, pageToken);
+        }
+        catch (RuntimeException exception) {
+            outputBoundary.presentError("Failed to search recipes: " + exception.getMessage());
+            throw new RecipeSearchException("Recipe search failed", exception);
+        }
+        return search.handle((page, failure) -> {
+            Throwable error = failure instanceof CompletionException && failure.getCause() != null
+                    ? failure.getCause()
+                    : failure;
+            if (error == null) {
+                try {
+                    presentPage(page, rankingQuery);
+                    return null;
+                }
+                catch (Exception exception) {
+                    error = exception;
+                }
+            }
+            outputBoundary.presentError("Failed to search recipes: " + error.getMessage());
+            throw new RecipeSearchException("Recipe search failed", error);
+        });
+    }
+
+    /**
+     * Reads what ranking needs, including the user's saved recipes, before the search is sent.
+     */
+    private RecipeRanker.Query rankingQuery(List<String> ingredients, RankingPreferences preferences) {
+        final List<Recipe> savedRecipes = preferences.userId() == null
+                ? List.of()
+                : savedRecipesDataAccessInterface.getSavedRecipes(preferences.userId());
+        return ranker.query(ingredients, preferences.macroTarget(), savedRecipes);
+    }
+
+    private void presentPage(RecipeSearchPage page, RecipeRanker.Query rankingQuery) {
+        final List<Recipe> recipes = ranker.rank(convertToRecipes(page.recipes()), rankingQuery);
+        outputBoundary.presentRecipes(recipes);
+        outputBoundary.presentNextPageToken(page.nextPageToken());
+    }
+
     private List<Recipe> convertToRecipes(List<Recipe> searchResults) {
         final List<Recipe> recipes = new ArrayList<>();
-        int recipeId = 1;
 
         for (Recipe result : searchResults) {
             final String description = defaultIfNull(result.getDescription(), "No description available");
@@ -59,7 +122,7 @@ public class RecipeSearchInteractor implements RecipeSearchInputBoundary {
             final int servings = Math.max(result.getServings(), 1);
 
             final Recipe recipe = new Recipe(
-                    recipeId++,
+                    result.getRecipeId(),
                     result.getTitle(),
                     description,
                     result.getIngredients(),
@@ -69,6 +132,7 @@ public class RecipeSearchInteractor implements RecipeSearchInputBoundary {
                     result.getJsonIngredient(),
                     servings
             );
+            recipe.setUri(result.getUri());
 
             recipes.add(recipe);
         }
@@ -0,0 +1,13 @@
+package use_case.recipe_search;
+
+import entity.Recipe;
+import java.util.List;
+
+/**
+ * One page of recipe search results.
+ *
+ * @param recipes       the recipes on this page
+ * @param nextPageToken opaque token of the following page, or null if this is the last page
+ */
+public record RecipeSearchPage(List<Recipe> recipes, String nextPageToken) {
+}
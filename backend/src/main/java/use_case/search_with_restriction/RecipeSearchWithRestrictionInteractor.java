@@ -3,15 +3,22 @@ package use_case.search_with_restriction;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
+import data_access.SavedRecipesDataAccessInterface;
 import entity.Food;
 import entity.Nutrition;
 import entity.Recipe;
+import use_case.recipe_search.RankingPreferences;
+import use_case.recipe_search.RecipeRanker;
+import use_case.recipe_search.RecipeSearchPage;
 
 /**
  * Interactor for recipe search with restriction.
  */
 public class RecipeSearchWithRestrictionInteractor implements SearchWithRestrictionInputBoundary {
+    private static final String FOOD_NAME = "Food Name";
     private static final String DIET_LABEL = "Diet Label";
     private static final String HEALTH_LABEL = "Health Label";
     private static final String CUISINE_TYPE = "Cuisine Type";
@@ -19,36 +26,39 @@ public class RecipeSearchWithRestrictionInteractor implements SearchWithRestrict
 
     private final SearchWithRestrictionDataAccessInterface searchWithRestrictionDataAccessInterface;
     private final SearchWithRestrictionOutputBoundary outputBoundary;
+    private final SavedRecipesDataAccessInterface savedRecipesDataAccessInterface;
+    private final RecipeRanker ranker;
 
     public RecipeSearchWithRestrictionInteractor(SearchWithRestrictionDataAccessInterface searchWithRestrictionDataAccessInterface,
-                                                 SearchWithRestrictionOutputBoundary outputBoundary) {
+                                                 SavedRecipesDataAccessInterface savedRecipesDataAccessInterface,
+                                                 SearchWithRestrictionOutputBoundary outputBoundary,
+                                                 RecipeRanker ranker) {
         this.searchWithRestrictionDataAccessInterface = searchWithRestrictionDataAccessInterface;
+        this.savedRecipesDataAccessInterface = savedRecipesDataAccessInterface;
         this.outputBoundary = outputBoundary;
+        this.ranker = ranker;
     }
 
     @Override
     public void searchRestrictionRecipes(Map<String, List<String>> restrictions) throws SearchWithRestrictionException {
-        try {
-            final String searchFoodQuery = String.join(DELIMETER, restrictions.get("Food Name"));
-
-            String searchDietQuery = null;
-            if (restrictions.get(DIET_LABEL) != null && !restrictions.get(DIET_LABEL).isEmpty()) {
-                searchDietQuery = String.join(DELIMETER, restrictions.get(DIET_LABEL));
-            }
+        searchRestrictionRecipes(restrictions, null);
+    }
 
-            String searchHealthQuery = null;
-            if (restrictions.get(HEALTH_LABEL) != null && !restrictions.get(HEALTH_LABEL).isEmpty()) {
-                searchHealthQuery = String.join(DELIMETER, restrictions.get(HEALTH_LABEL));
-            }
+    @Override
+    public void searchRestrictionRecipes(Map<String, List<String>> restrictions, String pageToken)
+            throws SearchWithRestrictionException {
+        searchRestrictionRecipes(restrictions, pageToken, RankingPreferences.NONE);
+    }
 
-            String searchCuisineQuery = null;
-            if (restrictions.get(CUISINE_TYPE) != null && !restrictions.get(CUISINE_TYPE).isEmpty()) {
-                searchCuisineQuery = String.join(DELIMETER, restrictions.get(CUISINE_TYPE));
-            }
-            final List<Recipe> searchResults = searchWithRestrictionDataAccessInterface.searchRecipesByRestriction(
-                    searchFoodQuery, searchDietQuery, searchHealthQuery, searchCuisineQuery);
-            final List<Recipe> recipes = convertToRecipes(searchResults);
-            outputBoundary.presentRecipes(recipes);
+    @Override
+    public void searchRestrictionRecipes(Map<String, List<String>> restrictions, String pageToken,
+                                         RankingPreferences preferences) throws SearchWithRestrictionException {
+        try {
+            final RecipeRanker.Query rankingQuery = rankingQuery(restrictions, preferences);
+            final RecipeSearchPage page = searchWithRestrictionDataAccessInterface.searchRecipePageByRestriction(
+                    joined(restrictions, FOOD_NAME), joinedOrNull(restrictions, DIET_LABEL),
+                    joinedOrNull(restrictions, HEALTH_LABEL), joinedOrNull(restrictions, CUISINE_TYPE), pageToken);
+            presentPage(page, rankingQuery);
         }
         catch (Exception exception) {
             outputBoundary.presentError("Failed to search recipes: " + exception.getMessage());
@@ -56,9 +66,67 @@ public class RecipeSearchWithRestrictionInteractor implements SearchWithRestrict
         }
     }
 
+    @Override
+    public CompletableFuture<Void> searchRestrictionRecipesAsync(Map<String, List<String>> restrictions,
+                                                                 String pageToken, RankingPreferences preferences) {
+        final RecipeRanker.Query rankingQuery;
+        final CompletableFuture<RecipeSearchPage> search;
+        try {
+            rankingQuery = rankingQuery(restrictions, preferences);
+            search = searchWithRestrictionDataAccessInterface.searchRecipePageByRestrictionAsync(
+                    joined(restrictions, FOOD_NAME), joinedOrNull(restrictions, DIET_LABEL),
+                    joinedOrNull(restrictions, HEALTH_LABEL), joinedOrNull(restrictions, CUISINE_TYPE), pageToken);
+        }
+        catch (RuntimeException exception) {
+            outputBoundary.presentError("Failed to search recipes: " + exception.getMessage());
+            throw new SearchWithRestrictionException("Recipe search failed", exception);
+        }
+        return search.handle((page, failure) -> {
+            Throwable error = failure instanceof CompletionException && failure.getCause() != null
+                    ? failure.getCause()
+                    : failure;
+            if (error == null) {
+                try {
+                    presentPage(page, rankingQuery);
+                    return null;
+                }
+                catch (Exception exception) {
+                    error = exception;
+                }
+            }
+            outputBoundary.presentError("Failed to search recipes: " + error.getMessage());
+            throw new SearchWithRestrictionException("Recipe search failed", error);
+        });
+    }
+
+    /**
+     * Reads what ranking needs, including the user's saved recipes, before the search is sent.
+     */
+    private RecipeRanker.Query rankingQuery(Map<String, List<String>> restrictions, RankingPreferences preferences) {
+        final List<Recipe> savedRecipes = preferences.userId() == null
+                ? List.of()
+                : savedRecipesDataAccessInterface.getSavedRecipes(preferences.userId());
+        return ranker.query(restrictions.getOrDefault(FOOD_NAME, List.of()), preferences.macroTarget(),
+                savedRecipes);
+    }
+
+    private void presentPage(RecipeSearchPage page, RecipeRanker.Query rankingQuery) {
+        final List<Recipe> recipes = ranker.rank(convertToRecipes(page.recipes()), rankingQuery);
+        outputBoundary.presentRecipes(recipes);
+        outputBoundary.presentNextPageToken(page.nextPageToken());
+    }
+
+    private static String joined(Map<String, List<String>> restrictions, String key) {
+        return String.join(DELIMETER, restrictions.get(key));
+    }
+
+    private static String joinedOrNull(Map<String, List<String>> restrictions, String key) {
+        final List<String> values = restrictions.get(key);
+        return values == null || values.isEmpty() ? null : String.join(DELIMETER, values);
+    }
+
     private List<Recipe> convertToRecipes(List<Recipe> searchResults) {
         final List<Recipe> recipes = new ArrayList<>();
-        int recipeId = 1;
 
         for (Recipe result : searchResults) {
             final String description = defaultIfNull(result.getDescription(), "No description available");
@@ -68,7 +136,7 @@ public class RecipeSearchWithRestrictionInteractor implements SearchWithRestrict
             final int servings = Math.max(result.getServings(), 1);
 
             final Recipe recipe = new Recipe(
-                    recipeId++,
+                    result.getRecipeId(),
                     result.getTitle(),
                     description,
                     result.getIngredients(),
@@ -78,6 +146,7 @@ public class RecipeSearchWithRestrictionInteractor implements SearchWithRestrict
                     result.getJsonIngredient(),
                     servings
             );
+            recipe.setUri(result.getUri());
 
             recipes.add(recipe);
         }
@@ -3,6 +3,9 @@ package use_case.search_with_restriction;
 import entity.Recipe;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import use_case.recipe_search.RecipeSearchPage;
 
 public interface SearchWithRestrictionDataAccessInterface {
     /**
@@ -16,4 +19,36 @@ public interface SearchWithRestrictionDataAccessInterface {
      */
     List<Recipe> searchRecipesByRestriction(String foodName, String diet, String health, String
             cuisineType);
+
+    /**
+     * Get one page of restricted search results, or the page a previous page token points to.
+     * The search parameters are ignored when a page token is given.
+     *
+     * @param foodName the ingredient name from user's input.
+     * @param diet the diet plan user chose.
+     * @param health the health plan user chose.
+     * @param cuisineType the cuisine type user chose.
+     * @param pageToken the next page token of a previous page, or null for the first page.
+     * @return the recipes of the page and the token of the following page
+     */
+    RecipeSearchPage searchRecipePageByRestriction(String foodName, String diet, String health,
+                                                   String cuisineType, String pageToken);
+
+    /**
+     * Asynchronous {@link #searchRecipePageByRestriction(String, String, String, String, String)}. The
+     * default runs the search on the calling thread; implementations that call remote services override it
+     * to release the caller while the call is in flight.
+     *
+     * @return a future of the page, failed with the search's exception if it fails
+     */
+    default CompletableFuture<RecipeSearchPage> searchRecipePageByRestrictionAsync(
+            String foodName, String diet, String health, String cuisineType, String pageToken) {
+        try {
+            return CompletableFuture.completedFuture(
+                    searchRecipePageByRestriction(foodName, diet, health, cuisineType, pageToken));
+        }
+        catch (RuntimeException exception) {
+            return CompletableFuture.failedFuture(exception);
+        }
+    }
 }
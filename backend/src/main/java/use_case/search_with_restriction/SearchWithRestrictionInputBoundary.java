@@ -2,7 +2,9 @@ package use_case.search_with_restriction;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
+import use_case.recipe_search.RankingPreferences;
 import use_case.recipe_search.RecipeSearchException;
 
 /**
@@ -16,4 +18,36 @@ public interface SearchWithRestrictionInputBoundary {
      */
     void searchRestrictionRecipes(Map<String, List<String>> restrictions) throws RecipeSearchException;
 
+    /**
+     * Searches for one page of recipes based on a map of restrictions.
+     * @param restrictions Map of restrictions to search with; ignored when a page token is given
+     * @param pageToken token of the page to fetch, or null for the first page
+     * @throws RecipeSearchException if search fails
+     */
+    void searchRestrictionRecipes(Map<String, List<String>> restrictions, String pageToken)
+            throws RecipeSearchException;
+
+    /**
+     * Searches for one page of recipes based on a map of restrictions and presents them most relevant first.
+     * @param restrictions Map of restrictions to search with; only the food name is ranked by when a page
+     *                     token is given
+     * @param pageToken token of the page to fetch, or null for the first page
+     * @param preferences the user and nutrition target to rank by
+     * @throws RecipeSearchException if search fails
+     */
+    void searchRestrictionRecipes(Map<String, List<String>> restrictions, String pageToken,
+                                  RankingPreferences preferences) throws RecipeSearchException;
+
+    /**
+     * Searches for one page of recipes based on a map of restrictions without waiting for the search to
+     * finish; the results are presented, most relevant first, when it does.
+     * @param restrictions Map of restrictions to search with; only the food name is ranked by when a page
+     *                     token is given
+     * @param pageToken token of the page to fetch, or null for the first page
+     * @param preferences the user and nutrition target to rank by
+     * @return a future that completes once the page has been presented, or fails if the search fails
+     */
+    CompletableFuture<Void> searchRestrictionRecipesAsync(Map<String, List<String>> restrictions,
+                                                          String pageToken, RankingPreferences preferences);
+
 }
@@ -14,6 +14,12 @@ public interface SearchWithRestrictionOutputBoundary {
      */
     void presentRecipes(List<Recipe> recipes);
 
+    /**
+     * Present the token of the page following the presented recipes.
+     * @param nextPageToken the token, or null if there are no more pages
+     */
+    void presentNextPageToken(String nextPageToken);
+
     /**
      * Present an error message to the user.
      * @param error Error message to present
@@ -74,6 +74,10 @@ public class ServingAdjustInteractor implements ServingAdjustInputBoundary {
         recipe.getIngredients().forEach(ingredient -> {
             ingredient.setQuantity(ingredient.getQuantity() * factor);
         });
+        // Nutrition is of the whole recipe, so it grows with the ingredients
+        if (recipe.getNutrition() != null) {
+            recipe.getNutrition().scale(factor);
+        }
 
         recipe.setServings(newServings);
     }
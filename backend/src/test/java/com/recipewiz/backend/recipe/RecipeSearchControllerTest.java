@@ -0,0 +1,95 @@
+package com.recipewiz.backend.recipe;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.recipewiz.backend.nutrition.AsyncNutritionAnalysisController;
+import com.recipewiz.backend.nutrition.NutritionAnalysisController;
+import com.recipewiz.backend.nutrition.NutritionService;
+import com.recipewiz.backend.recipe.dto.RecipePageDto;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+class RecipeSearchControllerTest {
+
+    private final RecipeService recipeService = mock(RecipeService.class);
+
+    private final WebApplicationContextRunner contextRunner = new WebApplicationContextRunner()
+            .withBean(RecipeService.class, () -> recipeService)
+            .withBean(NutritionService.class, () -> mock(NutritionService.class))
+            .withUserConfiguration(RecipeSearchController.class, AsyncRecipeSearchController.class,
+                    NutritionAnalysisController.class, AsyncNutritionAnalysisController.class);
+
+    @Test
+    void theBlockingControllersServeByDefault() {
+        contextRunner.run(context -> {
+            assertThat(context).hasSingleBean(RecipeSearchController.class);
+            assertThat(context).hasSingleBean(NutritionAnalysisController.class);
+            assertThat(context).doesNotHaveBean(AsyncRecipeSearchController.class);
+            assertThat(context).doesNotHaveBean(AsyncNutritionAnalysisController.class);
+        });
+    }
+
+    @Test
+    void theAsyncControllersReplaceThemWhenEnabled() {
+        contextRunner.withPropertyValues("recipewiz.async.enabled=true").run(context -> {
+            assertThat(context).hasSingleBean(AsyncRecipeSearchController.class);
+            assertThat(context).hasSingleBean(AsyncNutritionAnalysisController.class);
+            assertThat(context).doesNotHaveBean(RecipeSearchController.class);
+            assertThat(context).doesNotHaveBean(NutritionAnalysisController.class);
+        });
+    }
+
+    @Test
+    void aBlockingSearchAnswersWithoutStartingAsyncProcessing() throws Exception {
+        when(recipeService.searchRecipes(eq(List.of("egg", "rice")), isNull(), eq(RecipeSearchMode.EDAMAM), any()))
+                .thenReturn(new RecipePageDto(List.of(), "next"));
+        final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new RecipeSearchController(recipeService)).build();
+
+        mockMvc.perform(get("/api/recipes/search").param("ingredients", "egg, rice"))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isOk())
+                .andExpect(header().string(RecipeController.NEXT_PAGE_TOKEN_HEADER, "next"));
+    }
+
+    @Test
+    void anAsyncSearchReleasesTheRequestAndAnswersWhenTheSearchCompletes() throws Exception {
+        final CompletableFuture<RecipePageDto> search = new CompletableFuture<>();
+        when(recipeService.searchRecipesAsync(eq(List.of("egg")), isNull(), eq(RecipeSearchMode.EDAMAM), any()))
+                .thenReturn(search);
+        final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new AsyncRecipeSearchController(recipeService))
+                .build();
+
+        final MvcResult result = mockMvc.perform(get("/api/recipes/search").param("ingredients", "egg"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        search.complete(new RecipePageDto(List.of(), null));
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(RecipeController.NEXT_PAGE_TOKEN_HEADER));
+    }
+
+    @Test
+    void aLocalSearchWithAPageTokenIsRejected() throws Exception {
+        final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new RecipeSearchController(recipeService)).build();
+
+        mockMvc.perform(get("/api/recipes/search").param("ingredients", "egg").param("mode", "local")
+                        .param("pageToken", "token"))
+                .andExpect(status().isBadRequest());
+    }
+}
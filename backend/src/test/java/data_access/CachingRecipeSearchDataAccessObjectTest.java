@@ -0,0 +1,117 @@
+package data_access;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import use_case.recipe_search.RecipeSearchPage;
+
+class CachingRecipeSearchDataAccessObjectTest {
+
+    private static final EdamamSearchPage LAST_PAGE = new EdamamSearchPage(List.of(), null);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RecipeSearchDataAccessObject recipeSearchDao = mock(RecipeSearchDataAccessObject.class);
+    private final SearchWithRestrictionDataAccessObject restrictionSearchDao =
+            mock(SearchWithRestrictionDataAccessObject.class);
+    private final EdamamClient edamamClient = mock(EdamamClient.class);
+    // Opens when half of 2 or more calls take 50 ms or longer
+    private final CircuitBreaker breaker = new CircuitBreaker("edamam", 10, 2, 50,
+            TimeUnit.MILLISECONDS.toNanos(50), 50, TimeUnit.SECONDS.toNanos(30), 1);
+    private QuotaScheduler quota;
+    private CachingRecipeSearchDataAccessObject searches;
+
+    @AfterEach
+    void shutdown() {
+        searches.shutdown();
+    }
+
+    @Test
+    void queueingForAQuotaPermitIsNotASlowCall() {
+        // One permit every 100 ms: every search after the first queues for about 100 ms
+        createSearches(600, Duration.ofSeconds(5));
+        for (int i = 0; i < 5; i++) {
+            assertThat(searches.searchRecipesByFoodName("food " + i)).isEmpty();
+        }
+
+        assertThat(breaker.slowCallCount()).isZero();
+        assertThat(breaker.successCount()).isEqualTo(5);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void queueingForAQuotaPermitIsNotASlowAsyncCall() {
+        createSearches(600, Duration.ofSeconds(5));
+        final List<CompletableFuture<?>> pages = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            pages.add(searches.searchRecipePageAsync("food " + i, null));
+        }
+        CompletableFuture.allOf(pages.toArray(CompletableFuture[]::new)).join();
+
+        assertThat(breaker.slowCallCount()).isZero();
+        assertThat(breaker.successCount()).isEqualTo(5);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void aSearchDoesNotWaitOnAPrefetchQueueingForBackgroundQuota() throws InterruptedException {
+        // One permit every 10 s, which interactive searches may wait 200 ms for
+        createSearches(6, Duration.ofMillis(200));
+        final RecipeSearchPage first = searches.searchRecipePage("rice", null);
+        awaitQueueDepth(1);
+
+        final long start = System.nanoTime();
+        assertThatThrownBy(() -> searches.searchRecipePage("rice", first.nextPageToken()))
+                .isInstanceOf(QuotaExceededException.class);
+        assertThatThrownBy(() -> searches.searchRecipePageAsync("rice", first.nextPageToken()).join())
+                .hasCauseInstanceOf(QuotaExceededException.class);
+        assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(2));
+        // The prefetch is still waiting for its permit
+        assertThat(quota.queueDepth()).isEqualTo(1);
+    }
+
+    private void createSearches(int permitsPerMinute, Duration interactiveWait) {
+        quota = new QuotaScheduler("edamam-recipe-search", permitsPerMinute, 1,
+                Map.of(QuotaScheduler.Priority.INTERACTIVE, interactiveWait.toNanos(),
+                        QuotaScheduler.Priority.BACKGROUND, TimeUnit.SECONDS.toNanos(30)), meterRegistry);
+        doAnswer(invocation -> {
+            quota.acquire(invocation.getArgument(0));
+            return null;
+        }).when(edamamClient).acquireRecipeQuota(any());
+        when(edamamClient.acquireRecipeQuotaAsync(any()))
+                .thenAnswer(invocation -> quota.acquireAsync(invocation.getArgument(0)));
+        // First pages link to a second page
+        when(recipeSearchDao.searchPage(any(RecipeSearchKey.class))).thenAnswer(invocation ->
+                page(invocation.getArgument(0)));
+        when(recipeSearchDao.searchPageAsync(any(RecipeSearchKey.class))).thenAnswer(invocation ->
+                CompletableFuture.completedFuture(page(invocation.getArgument(0))));
+
+        searches = new CachingRecipeSearchDataAccessObject(recipeSearchDao, restrictionSearchDao, edamamClient,
+                breaker, meterRegistry, 100, Duration.ofMinutes(10), Duration.ofHours(1), 1, 4, 1, 4);
+    }
+
+    private static EdamamSearchPage page(RecipeSearchKey key) {
+        return key.cursor() == null && key.query().equals("rice") ? new EdamamSearchPage(List.of(), "page-2")
+                : LAST_PAGE;
+    }
+
+    private void awaitQueueDepth(int depth) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (quota.queueDepth() != depth) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+}
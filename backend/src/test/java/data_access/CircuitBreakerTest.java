@@ -0,0 +1,211 @@
+package data_access;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class CircuitBreakerTest {
+
+    private static final long SLOW = 1_000;
+    private static final long OPEN = 10_000;
+
+    private final AtomicLong now = new AtomicLong();
+
+    // Window of 4 calls, opens from 2 recorded calls at 50% failed or slow, 2 trial calls
+    private final CircuitBreaker breaker = new CircuitBreaker("test", 4, 2, 50, SLOW, 50, OPEN, 2, now::get);
+
+    @Test
+    void staysClosedBelowTheMinimumNumberOfCalls() {
+        fail();
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.failureCount()).isEqualTo(1);
+    }
+
+    @Test
+    void opensWhenTheFailureRateReachesTheThresholdAndRejectsCalls() {
+        succeed();
+        fail();
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.isCallPermitted()).isFalse();
+        assertThatThrownBy(() -> breaker.execute(() -> "value")).isInstanceOf(CircuitBreakerOpenException.class);
+        assertThat(breaker.rejectionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void opensWhenTooManyCallsAreSlow() {
+        succeed();
+        breaker.execute(() -> now.addAndGet(SLOW));
+
+        assertThat(breaker.slowCallCount()).isEqualTo(1);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void onlyTheLastWindowOfCallsCounts() {
+        succeed();
+        succeed();
+        succeed();
+        fail();
+        succeed();
+        fail();
+
+        // The window holds success, fail, success, fail: exactly 50%
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void closesAfterTheOpenDurationWhenTheTrialCallsSucceed() {
+        open();
+        now.addAndGet(OPEN);
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        succeed();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        succeed();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void reopensWhenATrialCallFails() {
+        open();
+        now.addAndGet(OPEN);
+
+        fail();
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        now.addAndGet(OPEN - 1);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void limitsTrialCallsInFlight() {
+        open();
+        now.addAndGet(OPEN);
+        final CompletableFuture<String> first = new CompletableFuture<>();
+        final CompletableFuture<String> second = new CompletableFuture<>();
+
+        breaker.executeAsync(() -> first);
+        breaker.executeAsync(() -> second);
+
+        assertThat(breaker.isCallPermitted()).isFalse();
+        assertThat(breaker.executeAsync(() -> CompletableFuture.completedFuture("third")))
+                .isCompletedExceptionally();
+        first.complete("a");
+        second.complete("b");
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void quotaRejectionsAreNotRecordedAndReturnTheirTrialPermit() {
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> breaker.execute(() -> {
+                throw new QuotaExceededException("test", "no permit");
+            })).isInstanceOf(QuotaExceededException.class);
+        }
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.failureCount()).isZero();
+
+        open();
+        now.addAndGet(OPEN);
+        breaker.executeAsync(() -> CompletableFuture.failedFuture(new QuotaExceededException("test", "no permit")));
+        breaker.executeAsync(() -> CompletableFuture.failedFuture(new QuotaExceededException("test", "no permit")));
+        assertThat(breaker.isCallPermitted()).isTrue();
+    }
+
+    @Test
+    void timeSpentInTheSetupIsNotCountedAsASlowCall() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            assertThat(breaker.execute(() -> now.addAndGet(10 * SLOW), () -> "value")).isEqualTo("value");
+        }
+        final CompletableFuture<Void> permit = new CompletableFuture<>();
+        final CompletableFuture<String> async = breaker.executeAsync(() -> permit,
+                () -> CompletableFuture.completedFuture("value"));
+        now.addAndGet(10 * SLOW);
+        permit.complete(null);
+
+        assertThat(async.get()).isEqualTo("value");
+        assertThat(breaker.slowCallCount()).isZero();
+        assertThat(breaker.successCount()).isEqualTo(5);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void aFailedSetupSkipsTheCallAndReturnsItsTrialPermit() {
+        open();
+        now.addAndGet(OPEN);
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> breaker.execute(() -> {
+                throw new QuotaExceededException("test", "no permit");
+            }, () -> {
+                throw new IllegalStateException("not called");
+            })).isInstanceOf(QuotaExceededException.class);
+        }
+        breaker.executeAsync(() -> CompletableFuture.failedFuture(new QuotaExceededException("test", "no permit")),
+                () -> CompletableFuture.failedFuture(new IllegalStateException("not called")));
+
+        assertThat(breaker.failureCount()).isEqualTo(2);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        succeed();
+        succeed();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void outcomesOfCallsAdmittedBeforeATransitionAreIgnored() {
+        final CompletableFuture<String> late = new CompletableFuture<>();
+        breaker.executeAsync(() -> late);
+        open();
+        now.addAndGet(OPEN);
+        succeed();
+
+        late.completeExceptionally(new IllegalStateException("late"));
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        succeed();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void asyncFailuresAreRecorded() {
+        breaker.executeAsync(() -> CompletableFuture.failedFuture(new IllegalStateException("boom")));
+        breaker.executeAsync(() -> {
+            throw new IllegalStateException("boom");
+        });
+
+        assertThat(breaker.failureCount()).isEqualTo(2);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThatThrownBy(() -> breaker.executeAsync(() -> CompletableFuture.completedFuture("x")).get())
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(CircuitBreakerOpenException.class);
+    }
+
+    @Test
+    void rejectsInvalidSettings() {
+        assertThatThrownBy(() -> new CircuitBreaker("test", 0, 1, 50, SLOW, 50, OPEN, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new CircuitBreaker("test", 4, 5, 50, SLOW, 50, OPEN, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void open() {
+        fail();
+        fail();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    private void succeed() {
+        assertThat(breaker.execute(() -> "value")).isEqualTo("value");
+    }
+
+    private void fail() {
+        assertThatThrownBy(() -> breaker.execute(() -> {
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+    }
+}
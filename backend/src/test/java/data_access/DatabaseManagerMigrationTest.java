@@ -0,0 +1,145 @@
+package data_access;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import entity.Recipe;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sqlite.SQLiteDataSource;
+
+/**
+ * Runs {@link DatabaseManager#initializeDatabase()} over a database written before recipe ids were stable.
+ */
+class DatabaseManagerMigrationTest {
+
+    private static final String SOUP = "http://www.edamam.com/ontologies/edamam.owl#recipe_soup";
+
+    @TempDir
+    Path directory;
+
+    private SQLiteDataSource dataSource;
+
+    @BeforeEach
+    void createPositionIdDatabase() throws SQLException {
+        dataSource = new SQLiteDataSource();
+        dataSource.setUrl("jdbc:sqlite:" + directory.resolve("recipewiz.db"));
+        execute(
+                "CREATE TABLE users (user_id INTEGER PRIMARY KEY, username TEXT NOT NULL)",
+                "CREATE TABLE recipes (recipe_id INTEGER PRIMARY KEY, title TEXT NOT NULL, description TEXT, "
+                        + "instructions TEXT, servings INTEGER DEFAULT 1, ingredient_lines TEXT, "
+                        + "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, uri TEXT)",
+                "CREATE TABLE saved_recipes (id INTEGER PRIMARY KEY AUTOINCREMENT, user_id INTEGER, "
+                        + "recipe_id INTEGER, recipe_data TEXT, saved_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, "
+                        + "FOREIGN KEY (user_id) REFERENCES users(user_id), UNIQUE(user_id, recipe_id))",
+                "CREATE TABLE meal_plan_entries (entry_id INTEGER PRIMARY KEY AUTOINCREMENT, user_id INTEGER, "
+                        + "recipe_id INTEGER, recipe_data TEXT, meal_date DATE, meal_type TEXT, "
+                        + "status TEXT DEFAULT 'planned', created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, "
+                        + "FOREIGN KEY (user_id) REFERENCES users(user_id))",
+                "INSERT INTO users (user_id, username) VALUES (1, 'a'), (2, 'b')",
+                "INSERT INTO recipes (recipe_id, title, uri) VALUES (7, 'Soup', '" + SOUP + "')",
+                // User 1 saved the soup from two searches, at positions 1 and 2
+                "INSERT INTO saved_recipes (user_id, recipe_id, recipe_data, saved_at) VALUES "
+                        + "(1, 1, '" + recipeJson(1, "Soup", SOUP) + "', '2024-01-01 10:00:00'), "
+                        + "(1, 2, '" + recipeJson(2, "Soup, again", SOUP) + "', '2024-02-01 10:00:00'), "
+                        + "(1, 3, '" + recipeJson(3, "Toast", null) + "', '2024-01-01 10:00:00'), "
+                        + "(1, 4, 'not json', '2024-01-01 10:00:00'), "
+                        + "(2, 1, '" + recipeJson(1, "Soup", SOUP) + "', '2024-01-01 10:00:00')",
+                "INSERT INTO meal_plan_entries (user_id, recipe_id, recipe_data, meal_date, meal_type) VALUES "
+                        + "(1, 1, '" + recipeJson(1, "Soup", SOUP) + "', '2024-03-01', 'lunch'), "
+                        + "(1, 2, '" + recipeJson(2, "Soup", SOUP) + "', '2024-03-02', 'lunch')"
+        );
+    }
+
+    @Test
+    void savedRecipesMoveToStableIdsKeepingTheLastSavedCopy() throws SQLException {
+        new DatabaseManager(dataSource, 0).initializeDatabase();
+
+        final long soup = Recipe.idFor(SOUP);
+        final long toast = Recipe.idFor("Toast");
+        assertThat(query("SELECT user_id, recipe_id, recipe_data FROM saved_recipes ORDER BY user_id, id"))
+                .containsExactly(
+                        "1 " + soup + " Soup, again " + soup,
+                        "1 " + toast + " Toast " + toast,
+                        "1 4 not json",
+                        "2 " + soup + " Soup " + soup);
+    }
+
+    @Test
+    void mealPlanEntriesKeepEveryEntry() throws SQLException {
+        new DatabaseManager(dataSource, 0).initializeDatabase();
+
+        final long soup = Recipe.idFor(SOUP);
+        assertThat(query("SELECT user_id, recipe_id, recipe_data FROM meal_plan_entries ORDER BY entry_id"))
+                .containsExactly("1 " + soup + " Soup " + soup, "1 " + soup + " Soup " + soup);
+    }
+
+    @Test
+    void catalogRowsGetTheStableIdOfTheirUri() throws SQLException {
+        new DatabaseManager(dataSource, 0).initializeDatabase();
+
+        assertThat(query("SELECT recipe_id, stable_id FROM recipes"))
+                .containsExactly("7 " + Recipe.idFor(SOUP));
+    }
+
+    @Test
+    void runsOnce() throws SQLException {
+        new DatabaseManager(dataSource, 0).initializeDatabase();
+        execute("UPDATE saved_recipes SET recipe_id = 99 WHERE user_id = 2");
+
+        new DatabaseManager(dataSource, 0).initializeDatabase();
+
+        assertThat(query("SELECT recipe_id FROM saved_recipes WHERE user_id = 2")).containsExactly("99");
+        assertThat(query("PRAGMA user_version")).containsExactly("1");
+    }
+
+    private static String recipeJson(long recipeId, String title, String uri) {
+        final JSONObject recipe = new JSONObject().put("recipeId", recipeId).put("title", title);
+        if (uri != null) {
+            recipe.put("uri", uri);
+        }
+        return recipe.toString();
+    }
+
+    private void execute(String... statements) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            for (String sql : statements) {
+                statement.execute(sql);
+            }
+        }
+    }
+
+    /**
+     * Returns each row as its columns joined by spaces; a recipe_data column becomes the title and id it holds.
+     */
+    private List<String> query(String sql) throws SQLException {
+        final List<String> rows = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(sql)) {
+            final int columns = rs.getMetaData().getColumnCount();
+            while (rs.next()) {
+                final StringBuilder row = new StringBuilder();
+                for (int i = 1; i <= columns; i++) {
+                    String value = rs.getString(i);
+                    if ("recipe_data".equals(rs.getMetaData().getColumnName(i)) && value.startsWith("{")) {
+                        final JSONObject recipe = new JSONObject(value);
+                        value = recipe.getString("title") + " " + recipe.getLong("recipeId");
+                    }
+                    row.append(i == 1 ? "" : " ").append(value);
+                }
+                rows.add(row.toString());
+            }
+        }
+        return rows;
+    }
+}
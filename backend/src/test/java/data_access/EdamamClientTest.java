@@ -0,0 +1,143 @@
+package data_access;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs the client against a local server standing in for Edamam, as the emulator module does.
+ */
+class EdamamClientTest {
+
+    private static final String SEARCH_PAGE = """
+            {"from": 1, "to": 0, "count": 0, "hits": [],
+             "_links": {"next": {"href": "http://localhost/api/recipes/v2?type=public&_cont=CURSOR-2"}}}
+            """;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+    private final AtomicInteger status = new AtomicInteger(200);
+    private final AtomicInteger wireBytes = new AtomicInteger();
+    private HttpServer server;
+    private EdamamClient client;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/edamam/", exchange -> {
+            requests.add(exchange.getRequestMethod() + " " + exchange.getRequestURI());
+            byte[] body = (exchange.getRequestURI().getPath().endsWith("nutrition-details")
+                    ? "{\"calories\": 42}" : SEARCH_PAGE).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            final String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+                body = gzip(body);
+                exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            }
+            wireBytes.set(body.length);
+            exchange.sendResponseHeaders(status.get(), body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+
+        final QuotaScheduler quota = new QuotaScheduler("test", 6000, 100,
+                Map.of(QuotaScheduler.Priority.INTERACTIVE, 0L, QuotaScheduler.Priority.BACKGROUND, 0L),
+                meterRegistry);
+        final Duration timeout = Duration.ofSeconds(5);
+        client = new EdamamClient(new OkHttpClient(), meterRegistry,
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/edamam", "recipe-id", "recipe-key",
+                List.of("uri", " label "), quota, "nutrition-id", "nutrition-key", quota, 2, Duration.ofMinutes(1),
+                8, timeout, timeout, timeout, timeout);
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void searchesUnderTheConfiguredBaseUrlWithTheEdamamQuery() {
+        final EdamamSearchPage page = client.searchRecipes(
+                RecipeSearchKey.of("Greens, Chips", "balanced", null, null).withCursor("CURSOR-1"),
+                QuotaScheduler.Priority.INTERACTIVE);
+
+        assertThat(page.recipes()).isEmpty();
+        assertThat(page.nextCursor()).isEqualTo("CURSOR-2");
+        assertThat(requests).containsExactly("GET /edamam/api/recipes/v2?type=public&app_id=recipe-id"
+                + "&app_key=recipe-key&q=greens%2Cchips&diet=balanced&_cont=CURSOR-1&field=uri&field=label");
+    }
+
+    @Test
+    void failsSearchesOnErrorStatuses() {
+        status.set(500);
+        final RecipeSearchKey key = RecipeSearchKey.of("rice", null, null, null);
+
+        assertThatThrownBy(() -> client.searchRecipes(key, QuotaScheduler.Priority.INTERACTIVE))
+                .isInstanceOf(RuntimeException.class)
+                .hasRootCauseMessage("Edamam returned HTTP 500");
+
+        status.set(429);
+        assertThatThrownBy(() -> client.searchRecipes(key, QuotaScheduler.Priority.INTERACTIVE))
+                .isInstanceOf(QuotaExceededException.class);
+    }
+
+    @Test
+    void readsNutritionBodiesOfLowQualityAnswersButNotOfServerErrors() throws IOException {
+        assertThat(client.analyzeNutrition("Soup", List.of("1 cup rice"))).isEqualTo("{\"calories\": 42}");
+        assertThat(requests).containsExactly(
+                "POST /edamam/api/nutrition-details?app_id=nutrition-id&app_key=nutrition-key");
+
+        status.set(555);
+        assertThat(client.analyzeNutrition("Soup", List.of("1 cup rice"))).isEqualTo("{\"calories\": 42}");
+
+        status.set(503);
+        assertThatThrownBy(() -> client.analyzeNutrition("Soup", List.of("1 cup rice")))
+                .isInstanceOf(IOException.class)
+                .hasRootCauseMessage("Edamam returned HTTP 503");
+    }
+
+    @Test
+    void requestsGzipAndRecordsEachCallByEndpointAndStatus() throws IOException {
+        final EdamamSearchPage page = client.searchRecipes(RecipeSearchKey.of("rice", null, null, null),
+                QuotaScheduler.Priority.INTERACTIVE);
+        client.analyzeNutrition("Soup", List.of("1 cup rice"));
+
+        assertThat(page.nextCursor()).isEqualTo("CURSOR-2");
+        assertThat(meterRegistry.get("recipewiz.edamam.requests").tag("endpoint", "recipe-search")
+                .tag("status", "200").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("recipewiz.edamam.requests").tag("endpoint", "nutrition-analysis")
+                .tag("status", "200").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("recipewiz.edamam.request.bytes").tag("endpoint", "nutrition-analysis")
+                .summary().totalAmount()).isPositive();
+        // Bytes as sent on the wire, before gzip decoding
+        assertThat(meterRegistry.get("recipewiz.edamam.response.bytes").tag("endpoint", "nutrition-analysis")
+                .summary().totalAmount()).isEqualTo(wireBytes.get());
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(body);
+        }
+        return compressed.toByteArray();
+    }
+}
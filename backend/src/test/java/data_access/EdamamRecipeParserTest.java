@@ -0,0 +1,111 @@
+package data_access;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import entity.NutrientCode;
+import entity.NutrientVector;
+import entity.Recipe;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+class EdamamRecipeParserTest {
+
+    private static final String OMELETTE_URI = "http://www.edamam.com/ontologies/edamam.owl#recipe_omelette";
+
+    private static final String OMELETTE_HIT = """
+            {"recipe": {
+                "uri": "%s",
+                "label": "Omelette",
+                "image": "https://example.com/omelette.jpg",
+                "source": "Kitchen",
+                "url": "https://example.com/omelette",
+                "yield": 2.0,
+                "ingredientLines": ["2 eggs", "1 tbsp butter"],
+                "ingredients": [
+                    {"text": "2 eggs", "quantity": 2, "measure": "<unit>", "food": "egg", "weight": 100},
+                    {"text": "1 tbsp butter", "quantity": 1, "measure": "tablespoon", "food": "butter"}
+                ],
+                "digest": [{"label": "Fat", "sub": [{"label": "Saturated"}]}],
+                "totalNutrients": {
+                    "ENERC_KCAL": {"label": "Energy", "quantity": 245.5, "unit": "kcal"},
+                    "PROCNT": {"label": "Protein", "quantity": 12.6, "unit": "g"},
+                    "NOT_A_CODE": {"label": "Unknown", "quantity": 1, "unit": "g"}
+                }
+            }, "_links": {"self": {"href": "https://example.com/self"}}}
+            """.formatted(OMELETTE_URI);
+
+    private final EdamamRecipeParser parser = new EdamamRecipeParser();
+
+    @Test
+    void parsesTheHitsOfASearchPageIntoRecipes() throws IOException {
+        final EdamamSearchPage page = parser.parseSearchPage(body("""
+                {"from": 1, "to": 1, "count": 1, "hits": [%s]}
+                """.formatted(OMELETTE_HIT)));
+
+        assertThat(page.recipes()).hasSize(1);
+        final Recipe recipe = page.recipes().get(0);
+        assertThat(recipe.getUri()).isEqualTo(OMELETTE_URI);
+        assertThat(recipe.getRecipeId()).isEqualTo(Recipe.idFor(OMELETTE_URI));
+        assertThat(recipe.getTitle()).isEqualTo("Omelette");
+        assertThat(recipe.getDescription()).isEqualTo("Kitchen");
+        assertThat(recipe.getInstructions()).isEqualTo("https://example.com/omelette");
+        assertThat(recipe.getServings()).isEqualTo(2);
+        assertThat(recipe.getJsonIngredient().toList()).containsExactly("2 eggs", "1 tbsp butter");
+        assertThat(recipe.getIngredients()).extracting("name").containsExactly("egg", "butter");
+        assertThat(recipe.getIngredients()).extracting("unit").containsExactly("<unit>", "tablespoon");
+
+        final NutrientVector nutrients = recipe.getNutrition().getNutrients();
+        assertThat(nutrients.get(NutrientCode.ENERGY)).isEqualTo(245.5);
+        assertThat(nutrients.get(NutrientCode.PROTEIN)).isEqualTo(12.6);
+        assertThat(nutrients.has(NutrientCode.FAT)).isFalse();
+        assertThat(page.hasNext()).isFalse();
+    }
+
+    @Test
+    void takesTheNextPageCursorFromTheContParameterOfTheNextLink() throws IOException {
+        final EdamamSearchPage page = parser.parseSearchPage(body("""
+                {"hits": [%s], "_links": {"next": {
+                    "href": "https://api.edamam.com/api/recipes/v2?q=egg&_cont=CHcVQBtN%%2BQ%%3D%%3D&type=public",
+                    "title": "Next page"
+                }}}
+                """.formatted(OMELETTE_HIT)));
+
+        assertThat(page.nextCursor()).isEqualTo("CHcVQBtN+Q==");
+        assertThat(page.hasNext()).isTrue();
+        assertThat(page.recipes()).extracting(Recipe::getTitle).containsExactly("Omelette");
+    }
+
+    @Test
+    void anEmptyPageHasNoRecipesAndNoCursor() throws IOException {
+        final EdamamSearchPage page = parser.parseSearchPage(body("{\"count\": 0, \"hits\": [], \"_links\": {}}"));
+
+        assertThat(page.recipes()).isEmpty();
+        assertThat(page.hasNext()).isFalse();
+    }
+
+    @Test
+    void rejectsAResponseWithoutAHitsArray() {
+        assertThatThrownBy(() -> parser.parseSearchPage(body("{\"status\": \"error\", \"message\": \"Unauthorized\"}")))
+                .isInstanceOf(JsonParseException.class)
+                .hasMessageContaining("no hits array");
+        assertThatThrownBy(() -> parser.parseSearchPage(body("[]")))
+                .isInstanceOf(JsonParseException.class);
+    }
+
+    @Test
+    void parsesASingleRecipeResponse() throws IOException {
+        final Recipe recipe = parser.parseRecipeResponse(body(OMELETTE_HIT));
+
+        assertThat(recipe.getTitle()).isEqualTo("Omelette");
+        assertThat(parser.parseRecipeResponse(body("{\"_links\": {}}"))).isNull();
+    }
+
+    private static InputStream body(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,123 @@
+package data_access;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+import entity.NutrientCode;
+import entity.NutrientVector;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class FoodCompositionTableTest {
+
+    private static final String CSV = """
+            # A few foods for tests
+            name,aliases,grams_per_cup,grams_per_piece,ENERC_KCAL,PROCNT,NOT_A_CODE
+            chicken breast,chicken breasts;chicken breast fillet,140,174,120,22.5,1
+            chicken,,140,,119,21.4,1
+            chicken broth,chicken stock,240,,15,1,1
+            butter,,240,,700,1,
+            peanut butter,,258,,588,25,
+            rice,white rice,185,,360,7,
+            flour,plain flour,125,,364,10,
+            milk,whole milk,244,,61,3,
+            sugar,,200,,387,,
+            broccoli,broccoli floret,90,148,34,2.8,
+            garlic,garlic clove,136,3,150,6,
+            """;
+
+    private static FoodCompositionTable table;
+
+    @BeforeAll
+    static void readTable() throws IOException {
+        table = new FoodCompositionTable(FoodCompositionTable.readCsv(new StringReader(CSV)));
+    }
+
+    @Test
+    void readsFoodsFromCsv() {
+        assertThat(table.size()).isEqualTo(11);
+        final FoodCompositionTable.Food chicken = table.foods().get(0);
+        assertThat(chicken.name()).isEqualTo("chicken breast");
+        assertThat(chicken.aliases()).containsExactly("chicken breasts", "chicken breast fillet");
+        assertThat(chicken.gramsPerCup()).isEqualTo(140);
+        assertThat(chicken.per100g().get(NutrientCode.PROTEIN)).isEqualTo(22.5);
+        assertThat(table.foods().get(1).gramsPerPiece()).isNaN();
+        assertThat(table.foods().get(8).per100g().has(NutrientCode.PROTEIN)).isFalse();
+    }
+
+    @Test
+    void rejectsRowsWithTheWrongNumberOfColumns() {
+        assertThatThrownBy(() -> FoodCompositionTable.readCsv(new StringReader("name,aliases,a,b,FAT\nbutter,,1,2\n")))
+                .isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void readsTheBundledTable() {
+        assertThat(new FoodCompositionTable(FoodCompositionTable.readBundled()).size()).isGreaterThan(100);
+    }
+
+    @Test
+    void matchesNamesIgnoringPluralsAndDescriptiveWords() {
+        assertThat(foodOf("boneless skinless chicken breasts")).isEqualTo("chicken breast");
+        assertThat(foodOf("whole milk")).isEqualTo("milk");
+        assertThat(foodOf("Garlic Cloves")).isEqualTo("garlic");
+        assertThat(foodOf("chicken")).isEqualTo("chicken");
+        assertThat(table.match("fresh rice").confidence()).isEqualTo(1);
+    }
+
+    @Test
+    void aModifierTheAliasLacksNamesAnotherFood() {
+        assertThat(foodOf("peanut butter")).isEqualTo("peanut butter");
+        assertThat(foodOf("chicken broth")).isEqualTo("chicken broth");
+        for (String food : List.of("cauliflower rice", "brown rice", "coconut flour", "almond flour",
+                "coconut sugar", "soy milk", "almond butter", "chicken liver")) {
+            assertThat(table.match(food)).as(food).isNull();
+        }
+        assertThat(table.match("")).isNull();
+        assertThat(table.match("salmon")).isNull();
+    }
+
+    @Test
+    void acceptsOneTypoAtALowerConfidence() {
+        final FoodCompositionTable.Match broccoli = table.match("brocoli");
+        assertThat(broccoli.food().name()).isEqualTo("broccoli");
+        assertThat(broccoli.confidence()).isEqualTo(0.75);
+
+        final FoodCompositionTable.Match chicken = table.match("chiken breast");
+        assertThat(chicken.food().name()).isEqualTo("chicken breast");
+        assertThat(chicken.confidence()).isEqualTo(0.875);
+
+        // Short words must be spelled right
+        assertThat(table.match("rize")).isNull();
+    }
+
+    @Test
+    void analyzesLinesByWeightVolumeAndCount() {
+        assertThat(table.analyzeLine("200 g chicken breast", 0.8).get(NutrientCode.ENERGY))
+                .isCloseTo(240, within(1e-9));
+        assertThat(table.analyzeLine("2 tablespoons butter, softened", 0.8).get(NutrientCode.ENERGY))
+                .isCloseTo(210, within(1e-9));
+        final NutrientVector garlic = table.analyzeLine("2 cloves garlic, minced", 0.8);
+        assertThat(garlic.get(NutrientCode.ENERGY)).isCloseTo(9, within(1e-9));
+        assertThat(garlic.get(NutrientCode.PROTEIN)).isCloseTo(0.36, within(1e-9));
+    }
+
+    @Test
+    void rejectsLinesBelowTheConfidenceOrWithoutAConversion() {
+        assertThat(table.analyzeLine("1 cup brocoli", 0.7)).isNotNull();
+        assertThat(table.analyzeLine("1 cup brocoli", 0.8)).isNull();
+        // Chicken has no weight per piece
+        assertThat(table.analyzeLine("2 chicken", 0.8)).isNull();
+        assertThat(table.analyzeLine("2 cups cauliflower rice", 0.8)).isNull();
+        assertThat(table.analyzeLine("salt and pepper to taste", 0.8)).isNull();
+    }
+
+    private static String foodOf(String text) {
+        final FoodCompositionTable.Match match = table.match(text);
+        return match == null ? null : match.food().name();
+    }
+}
@@ -0,0 +1,118 @@
+package data_access;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class IngredientIndexTest {
+
+    @Test
+    void findsRecipesWithinTheAllowedMissingIngredients() {
+        final IngredientIndex index = new IngredientIndex();
+        index.add(1, List.of("Chicken", "rice"));
+        index.add(2, List.of("chicken", "rice", "garlic"));
+        index.add(3, List.of("beef", "rice", "onion", "garlic"));
+        index.add(4, List.of("beef"));
+
+        assertThat(index.search(List.of("chicken", " RICE "), 0, 10))
+                .containsExactly(new IngredientIndex.Match(1, 2, 2));
+        assertThat(index.search(List.of("chicken", "rice"), 1, 10))
+                .containsExactly(new IngredientIndex.Match(1, 2, 2), new IngredientIndex.Match(2, 2, 3));
+        assertThat(index.search(List.of("rice"), 3, 10))
+                .containsExactly(new IngredientIndex.Match(1, 1, 2), new IngredientIndex.Match(2, 1, 3),
+                        new IngredientIndex.Match(3, 1, 4));
+    }
+
+    @Test
+    void ignoresRecipesWithoutAnyPantryIngredient() {
+        final IngredientIndex index = new IngredientIndex();
+        index.add(1, List.of("beef"));
+
+        assertThat(index.search(List.of("tofu"), 5, 10)).isEmpty();
+        assertThat(index.search(List.of(), 5, 10)).isEmpty();
+        assertThat(index.search(List.of("beef"), 0, 0)).isEmpty();
+    }
+
+    @Test
+    void indexesEachRecipeOnce() {
+        final IngredientIndex index = new IngredientIndex();
+
+        assertThat(index.add(7, List.of("egg", "Egg", "milk"))).isTrue();
+        assertThat(index.add(7, List.of("flour"))).isFalse();
+
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.search(List.of("egg", "milk"), 0, 10))
+                .containsExactly(new IngredientIndex.Match(7, 2, 2));
+        assertThat(index.search(List.of("flour"), 5, 10)).isEmpty();
+    }
+
+    @Test
+    void normalizesNames() {
+        assertThat(IngredientIndex.normalize("  Cherry \t Tomato ")).isEqualTo("cherry tomato");
+        assertThat(IngredientIndex.normalize("   ")).isNull();
+        assertThat(IngredientIndex.normalize(null)).isNull();
+    }
+
+    /**
+     * Compares the bit-sliced search with a direct count over random recipes spread across several 2^16-id
+     * chunks, with up to 40 ingredients each so counts span several slices and the adder carries.
+     */
+    @Test
+    void matchesADirectCountOverRandomRecipes() {
+        final Random random = new Random(42);
+        final List<String> vocabulary = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            vocabulary.add("ingredient " + i);
+        }
+        final IngredientIndex index = new IngredientIndex();
+        final Map<Integer, Set<String>> recipes = new HashMap<>();
+        for (int i = 0; i < 3000; i++) {
+            final int recipeId = random.nextInt(4 << 16);
+            final Set<String> names = new HashSet<>();
+            final int count = 1 + random.nextInt(i % 10 == 0 ? 40 : 8);
+            while (names.size() < count) {
+                names.add(vocabulary.get(random.nextInt(random.nextBoolean() ? 12 : vocabulary.size())));
+            }
+            if (index.add(recipeId, names)) {
+                recipes.put(recipeId, names);
+            }
+        }
+
+        for (int query = 0; query < 50; query++) {
+            final Set<String> pantry = new HashSet<>();
+            final int size = 1 + random.nextInt(query % 5 == 0 ? 40 : 10);
+            while (pantry.size() < size) {
+                pantry.add(vocabulary.get(random.nextInt(vocabulary.size())));
+            }
+            final int maxMissing = random.nextInt(6);
+            final int limit = 1 + random.nextInt(50);
+
+            assertThat(index.search(pantry, maxMissing, limit))
+                    .as("pantry %s, maxMissing %d", pantry, maxMissing)
+                    .containsExactlyElementsOf(directSearch(recipes, pantry, maxMissing, limit));
+        }
+    }
+
+    private static List<IngredientIndex.Match> directSearch(Map<Integer, Set<String>> recipes, Set<String> pantry,
+                                                            int maxMissing, int limit) {
+        final List<IngredientIndex.Match> matches = new ArrayList<>();
+        recipes.forEach((recipeId, names) -> {
+            final int matched = (int) names.stream().filter(pantry::contains).count();
+            if (matched > 0 && names.size() - matched <= maxMissing) {
+                matches.add(new IngredientIndex.Match(recipeId, matched, names.size()));
+            }
+        });
+        matches.sort(Comparator.comparingDouble(IngredientIndex.Match::coverage).reversed()
+                .thenComparingInt(IngredientIndex.Match::missingIngredients)
+                .thenComparing(Comparator.comparingInt(IngredientIndex.Match::recipeId).reversed()));
+        return matches.subList(0, Math.min(limit, matches.size()));
+    }
+}
@@ -0,0 +1,73 @@
+package data_access;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import data_access.IngredientLineParser.ParsedLine;
+import data_access.IngredientLineParser.Unit;
+import org.junit.jupiter.api.Test;
+
+class IngredientLineParserTest {
+
+    @Test
+    void readsQuantityUnitAndFood() {
+        assertThat(IngredientLineParser.parse("1 1/2 cups red lentils, rinsed"))
+                .isEqualTo(new ParsedLine(1.5, Unit.CUP, "red lentils"));
+        assertThat(IngredientLineParser.parse("2 Tbsp. butter, softened"))
+                .isEqualTo(new ParsedLine(2, Unit.TABLESPOON, "butter"));
+        assertThat(IngredientLineParser.parse("200g chicken breast"))
+                .isEqualTo(new ParsedLine(200, Unit.GRAM, "chicken breast"));
+        assertThat(IngredientLineParser.parse("0.5 kg Potatoes"))
+                .isEqualTo(new ParsedLine(0.5, Unit.KILOGRAM, "potatoes"));
+        assertThat(IngredientLineParser.parse("3 fl oz orange juice"))
+                .isEqualTo(new ParsedLine(3, Unit.FLUID_OUNCE, "orange juice"));
+    }
+
+    @Test
+    void readsUnicodeFractionsAndNumberWords() {
+        assertThat(IngredientLineParser.parse("½ cup sugar")).isEqualTo(new ParsedLine(0.5, Unit.CUP, "sugar"));
+        assertThat(IngredientLineParser.parse("1½ cups flour")).isEqualTo(new ParsedLine(1.5, Unit.CUP, "flour"));
+        assertThat(IngredientLineParser.parse("a pinch of salt")).isEqualTo(new ParsedLine(1, Unit.PINCH, "salt"));
+        assertThat(IngredientLineParser.parse("two eggs")).isEqualTo(new ParsedLine(2, Unit.PIECE, "eggs"));
+    }
+
+    @Test
+    void readsRangesAsTheirMiddle() {
+        assertThat(IngredientLineParser.parse("2-3 cloves garlic"))
+                .isEqualTo(new ParsedLine(2.5, Unit.PIECE, "garlic"));
+        assertThat(IngredientLineParser.parse("1 to 2 tbsp olive oil"))
+                .isEqualTo(new ParsedLine(1.5, Unit.TABLESPOON, "olive oil"));
+    }
+
+    @Test
+    void readsCountedFoodsAndContainersByTheSizeInParentheses() {
+        assertThat(IngredientLineParser.parse("1 can (14 oz) coconut milk"))
+                .isEqualTo(new ParsedLine(14, Unit.OUNCE, "coconut milk"));
+        assertThat(IngredientLineParser.parse("2 (28 oz) cans crushed tomatoes"))
+                .isEqualTo(new ParsedLine(56, Unit.OUNCE, "crushed tomatoes"));
+        assertThat(IngredientLineParser.parse("4 salmon fillets (6 oz each)"))
+                .isEqualTo(new ParsedLine(24, Unit.OUNCE, "salmon fillets"));
+        assertThat(IngredientLineParser.parse("1 whole chicken (about 1.5 kg)"))
+                .isEqualTo(new ParsedLine(1.5, Unit.KILOGRAM, "chicken"));
+        assertThat(IngredientLineParser.parse("1 can diced tomatoes")).isNull();
+    }
+
+    @Test
+    void keepsTheFirstAlternative() {
+        assertThat(IngredientLineParser.parse("2 Tbsp. butter or margarine"))
+                .isEqualTo(new ParsedLine(2, Unit.TABLESPOON, "butter"));
+    }
+
+    @Test
+    void rejectsLinesItCannotMeasure() {
+        assertThat(IngredientLineParser.parse(null)).isNull();
+        assertThat(IngredientLineParser.parse("")).isNull();
+        assertThat(IngredientLineParser.parse("salt to taste")).isNull();
+        assertThat(IngredientLineParser.parse("salt and pepper to taste")).isNull();
+        assertThat(IngredientLineParser.parse("2 tbsp salt & pepper")).isNull();
+        assertThat(IngredientLineParser.parse("1 head garlic, halved")).isNull();
+        assertThat(IngredientLineParser.parse("1 bunch cilantro")).isNull();
+        assertThat(IngredientLineParser.parse("0 cups sugar")).isNull();
+        assertThat(IngredientLineParser.parse("1/0 cup sugar")).isNull();
+        assertThat(IngredientLineParser.parse("2 cups")).isNull();
+    }
+}
@@ -0,0 +1,114 @@
+package data_access;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class IngredientSuggestionIndexTest {
+
+    private final IngredientSuggestionIndex index = new IngredientSuggestionIndex();
+
+    @Test
+    void suggestsTheMostUsedNamesWithThePrefixFirst() {
+        index.add(List.of("Olive Oil", "salt"));
+        index.add(List.of("olive oil", "onion"));
+        index.add(List.of("olives", "onion", "olive oil"));
+
+        assertThat(index.suggest("  OL", 10)).containsExactly(
+                new IngredientSuggestionIndex.Suggestion("olive oil", 3),
+                new IngredientSuggestionIndex.Suggestion("olives", 1));
+        assertThat(index.suggest("o", 2)).containsExactly(
+                new IngredientSuggestionIndex.Suggestion("olive oil", 3),
+                new IngredientSuggestionIndex.Suggestion("onion", 2));
+        assertThat(index.size()).isEqualTo(4);
+    }
+
+    @Test
+    void aTrailingSpaceRequiresAnotherWord() {
+        index.add(List.of("olive oil", "olives"));
+
+        assertThat(index.suggest("olive ", 10))
+                .containsExactly(new IngredientSuggestionIndex.Suggestion("olive oil", 1));
+    }
+
+    @Test
+    void countsANameOncePerRecipe() {
+        index.add(List.of("egg", "Egg", " egg "));
+
+        assertThat(index.suggest("egg", 10)).containsExactly(new IngredientSuggestionIndex.Suggestion("egg", 1));
+    }
+
+    @Test
+    void ignoresBlankPrefixesAndLimits() {
+        index.add(List.of("egg"));
+
+        assertThat(index.suggest("   ", 10)).isEmpty();
+        assertThat(index.suggest(null, 10)).isEmpty();
+        assertThat(index.suggest("e", 0)).isEmpty();
+        assertThat(IngredientSuggestionIndex.normalizePrefix("  Olive   O")).isEqualTo("olive o");
+    }
+
+    /**
+     * Compares suggestions with a direct scan over enough names, some of them not ASCII, to merge the
+     * pending names into the sorted arrays several times.
+     */
+    @Test
+    void matchesADirectScanAcrossMerges() {
+        final Random random = new Random(7);
+        final String[] syllables = {"ba", "be", "ca", "ch", "li", "mo", "on", "pe", "ra", "sa", "to", "jalapeño",
+                "crème", " "};
+        final List<String> vocabulary = new ArrayList<>();
+        final Set<String> seen = new HashSet<>();
+        while (vocabulary.size() < 5000) {
+            final StringBuilder name = new StringBuilder();
+            for (int i = 1 + random.nextInt(4); i > 0; i--) {
+                name.append(syllables[random.nextInt(syllables.length)]);
+            }
+            final String normalized = IngredientIndex.normalize(name.toString());
+            if (normalized != null && seen.add(normalized)) {
+                vocabulary.add(normalized);
+            }
+        }
+
+        final Map<String, Integer> counts = new HashMap<>();
+        for (int recipe = 0; recipe < 4000; recipe++) {
+            final Set<String> ingredients = new HashSet<>();
+            for (int i = 1 + random.nextInt(8); i > 0; i--) {
+                // Skewed towards the first names, so counts differ
+                final int bound = random.nextBoolean() ? 200 : vocabulary.size();
+                ingredients.add(vocabulary.get(random.nextInt(bound)));
+            }
+            index.add(ingredients);
+            ingredients.forEach(name -> counts.merge(name, 1, Integer::sum));
+
+            if (recipe % 500 == 0 || recipe == 3999) {
+                for (String prefix : List.of("b", "ca", "cr", "ch", "j", "mo", "sa ", "to", "x", "pe")) {
+                    final int limit = 1 + random.nextInt(20);
+                    assertThat(index.suggest(prefix, limit))
+                            .as("prefix '%s' after %d recipes", prefix, recipe + 1)
+                            .containsExactlyElementsOf(directScan(counts, prefix, limit));
+                }
+            }
+        }
+        assertThat(index.size()).isEqualTo(counts.size());
+    }
+
+    private static List<IngredientSuggestionIndex.Suggestion> directScan(Map<String, Integer> counts,
+                                                                         String prefix, int limit) {
+        return counts.entrySet().stream()
+                .filter(entry -> entry.getKey().startsWith(prefix))
+                .map(entry -> new IngredientSuggestionIndex.Suggestion(entry.getKey(), entry.getValue()))
+                .sorted(Comparator.comparingInt(IngredientSuggestionIndex.Suggestion::recipes).reversed()
+                        .thenComparing(IngredientSuggestionIndex.Suggestion::name))
+                .limit(limit)
+                .toList();
+    }
+}
@@ -0,0 +1,95 @@
+package data_access;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import entity.NutrientCode;
+import entity.NutrientVector;
+import entity.Recipe;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.json.JSONArray;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.sqlite.SQLiteDataSource;
+
+class LocalNutritionDataAccessObjectTest {
+
+    // 2 tablespoons of butter: 28.375 g at 717 kcal per 100 g
+    private static final double BUTTER_KCAL = 203.44875;
+
+    @TempDir
+    Path directory;
+
+    private final NutritionAnalysisDataAccessObject edamamDao = mock(NutritionAnalysisDataAccessObject.class);
+    private LocalNutritionDataAccessObject nutrition;
+
+    @BeforeEach
+    void createDao() {
+        final SQLiteDataSource dataSource = new SQLiteDataSource();
+        dataSource.setUrl("jdbc:sqlite:" + directory.resolve("recipewiz.db"));
+        final DatabaseManager databaseManager = new DatabaseManager(dataSource, 0);
+        databaseManager.initializeDatabase();
+        nutrition = new LocalNutritionDataAccessObject(databaseManager, edamamDao, new SimpleMeterRegistry(), true,
+                0.5);
+    }
+
+    @Test
+    void resolvesEveryLineLocallyWithoutCallingEdamam() throws IOException {
+        final NutrientVector nutrients = nutrition.analyzeNutrition(recipe("2 tablespoons butter", "2 cloves garlic"));
+
+        assertThat(nutrients.get(NutrientCode.ENERGY)).isCloseTo(BUTTER_KCAL + 2 * 3 * 1.49, within(1e-9));
+        verify(edamamDao, never()).analyzeNutrition(any());
+    }
+
+    @Test
+    void keepsOnlyTheNutrientsBothSourcesReport() throws IOException {
+        when(edamamDao.analyzeNutrition(any())).thenReturn(new NutrientVector()
+                .set(NutrientCode.ENERGY, 100)
+                .set(NutrientCode.TRANS_FAT, 1));
+
+        final NutrientVector nutrients =
+                nutrition.analyzeNutrition(recipe("2 tablespoons butter", "1 cup dragonfruit"));
+
+        assertThat(nutrients.get(NutrientCode.ENERGY)).isCloseTo(BUTTER_KCAL + 100, within(1e-9));
+        assertThat(nutrients.has(NutrientCode.TRANS_FAT)).isFalse();
+        assertThat(nutrients.has(NutrientCode.PROTEIN)).isFalse();
+        final ArgumentCaptor<Recipe> sent = ArgumentCaptor.forClass(Recipe.class);
+        verify(edamamDao).analyzeNutrition(sent.capture());
+        assertThat(sent.getValue().getJsonIngredient().toList()).containsExactly("1 cup dragonfruit");
+    }
+
+    @Test
+    void keepsTheLocalTotalsWhenEdamamAnalyzesNoneOfTheOtherLines() throws IOException {
+        when(edamamDao.analyzeNutrition(any())).thenReturn(new NutrientVector());
+        when(edamamDao.analyzeNutritionAsync(any()))
+                .thenReturn(CompletableFuture.completedFuture(new NutrientVector()));
+        when(edamamDao.analyzeNutritionBatch(anyList()))
+                .thenAnswer(invocation -> List.of(CompletableFuture.completedFuture(new NutrientVector())));
+        final Recipe recipe = recipe("2 tablespoons butter", "salt to taste");
+
+        final NutrientVector nutrients = nutrition.analyzeNutrition(recipe);
+        final NutrientVector async = nutrition.analyzeNutritionAsync(recipe).join();
+        final NutrientVector batch = nutrition.analyzeNutritionBatch(List.of(recipe)).get(0).join();
+
+        for (NutrientVector result : List.of(nutrients, async, batch)) {
+            assertThat(result.get(NutrientCode.ENERGY)).isCloseTo(BUTTER_KCAL, within(1e-9));
+            assertThat(result.has(NutrientCode.PROTEIN)).isTrue();
+        }
+    }
+
+    private static Recipe recipe(String... lines) {
+        return new Recipe(1, "Test", null, List.of(), null, null, List.of(), new JSONArray(List.of(lines)), 1);
+    }
+}
@@ -0,0 +1,87 @@
+package data_access;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import entity.Nutrition;
+import entity.Recipe;
+import java.time.LocalDate;
+import java.util.List;
+import org.json.JSONArray;
+import org.junit.jupiter.api.Test;
+import use_case.ai_meal_plan.AiGenerationGateway.UserProfile;
+
+class MealPlanPromptBuilderTest {
+
+    private static final UserProfile PROFILE = new UserProfile("female", 170, 60, 30, "maintain");
+    private static final LocalDate FROM = LocalDate.of(2026, 10, 19);
+    private static final LocalDate TO = LocalDate.of(2026, 10, 25);
+
+    private final Recipe salad = recipe(101, "Chicken salad", 400.4, 30.2, 20, 19.6);
+    private final Recipe sameSalad = recipe(102, "Chicken salad", 410, 30, 20, 20);
+    private final Recipe cake = recipe(103, "Chocolate cake", 800, 5, 40, 100);
+
+    @Test
+    void writesEveryRecipeThatFitsAsARowWithAShortId() {
+        final MealPlanPromptBuilder.Prompt prompt = new MealPlanPromptBuilder(10_000)
+                .build(PROFILE, List.of(salad, recipe(7, "Rice, beans and \"salsa\"", 0, 0, 0, 0), cake), FROM, TO);
+
+        assertThat(prompt.text()).contains(MealPlanPromptBuilder.TABLE_HEADER + "\n"
+                + "1,Chicken salad,400,30,20,20\n"
+                + "2,\"Rice, beans and \"\"salsa\"\"\",0,0,0,0\n"
+                + "3,Chocolate cake,800,5,40,100\n");
+        assertThat(prompt.recipeIds()).containsExactly(101L, 7L, 103L);
+        assertThat(prompt.recipes()).isEqualTo(3);
+        assertThat(prompt.estimatedTokens()).isEqualTo(MealPlanPromptBuilder.estimateTokens(prompt.text()));
+    }
+
+    @Test
+    void mapsShortIdsBackToRecipeIds() {
+        final MealPlanPromptBuilder.Prompt prompt = new MealPlanPromptBuilder(10_000)
+                .build(PROFILE, List.of(salad, cake), FROM, TO);
+
+        assertThat(prompt.recipeId(1)).isEqualTo(101);
+        assertThat(prompt.recipeId(2)).isEqualTo(103);
+        assertThat(prompt.recipeId(0)).isEqualTo(-1);
+        assertThat(prompt.recipeId(3)).isEqualTo(-1);
+    }
+
+    @Test
+    void cutsTitlesToTheMaximumLength() {
+        final String title = "A".repeat(MealPlanPromptBuilder.MAX_TITLE_LENGTH + 10);
+        final MealPlanPromptBuilder.Prompt prompt = new MealPlanPromptBuilder(10_000)
+                .build(PROFILE, List.of(recipe(1, title, 100, 1, 1, 1)), FROM, TO);
+
+        assertThat(prompt.text()).contains("1," + "A".repeat(MealPlanPromptBuilder.MAX_TITLE_LENGTH) + ",100,");
+    }
+
+    @Test
+    void offersTheMostDiverseRecipesThatFitTheBudget() {
+        final int header = new MealPlanPromptBuilder(10_000).build(PROFILE, List.of(), FROM, TO).text().length();
+        // Room for two rows of about 28 characters but not three
+        final int budget = (header + 70 + MealPlanPromptBuilder.CHARS_PER_TOKEN - 1)
+                / MealPlanPromptBuilder.CHARS_PER_TOKEN;
+
+        final MealPlanPromptBuilder.Prompt prompt = new MealPlanPromptBuilder(budget)
+                .build(PROFILE, List.of(salad, sameSalad, cake), FROM, TO);
+
+        assertThat(prompt.estimatedTokens()).isLessThanOrEqualTo(budget);
+        assertThat(prompt.recipes()).isEqualTo(3);
+        assertThat(prompt.recipeIds()).hasSize(2).contains(103L);
+        assertThat(prompt.recipeId(2)).isEqualTo(103);
+    }
+
+    @Test
+    void offersOneRecipeEvenIfItDoesNotFit() {
+        final MealPlanPromptBuilder.Prompt prompt = new MealPlanPromptBuilder(1)
+                .build(PROFILE, List.of(salad, cake), FROM, TO);
+
+        assertThat(prompt.recipeIds()).hasSize(1);
+        assertThatThrownBy(() -> new MealPlanPromptBuilder(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Recipe recipe(long id, String title, double kcal, double protein, double fat, double carbs) {
+        return new Recipe(id, title, "", List.of(), "", new Nutrition(kcal, protein, fat, carbs, 0, 0), List.of(),
+                new JSONArray(), 1);
+    }
+}
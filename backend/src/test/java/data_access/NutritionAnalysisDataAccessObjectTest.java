@@ -0,0 +1,129 @@
+package data_access;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import entity.NutrientCode;
+import entity.NutrientVector;
+import entity.Recipe;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+class NutritionAnalysisDataAccessObjectTest {
+
+    private static final Map<String, Double> KCAL = Map.of(
+            "1 egg", 70.0,
+            "1 cup rice", 200.0,
+            "1 tbsp butter", 100.0,
+            "1 cup milk", 150.0);
+
+    private final EdamamClient edamamClient = mock(EdamamClient.class);
+    private final NutritionLineCache lineCache = mock(NutritionLineCache.class);
+    private final Map<String, NutrientVector> cachedLines = new HashMap<>();
+    private final List<List<String>> calls = new CopyOnWriteArrayList<>();
+    private final List<CompletableFuture<String>> answers = new CopyOnWriteArrayList<>();
+    private boolean answerImmediately = true;
+
+    NutritionAnalysisDataAccessObjectTest() {
+        when(lineCache.getAll(any())).thenAnswer(invocation -> {
+            final Map<String, NutrientVector> found = new HashMap<>();
+            for (String line : invocation.<Collection<String>>getArgument(0)) {
+                if (cachedLines.containsKey(line)) {
+                    found.put(line, cachedLines.get(line).copy());
+                }
+            }
+            return found;
+        });
+        when(edamamClient.analyzeNutritionAsync(anyString(), any())).thenAnswer(invocation -> {
+            final List<String> lines = new ArrayList<>(invocation.<List<String>>getArgument(1));
+            calls.add(lines);
+            final CompletableFuture<String> answer = new CompletableFuture<>();
+            answers.add(answer);
+            if (answerImmediately) {
+                answer.complete(analysis(lines));
+            }
+            return answer;
+        });
+    }
+
+    @Test
+    void sendsEachDistinctLineOnceSplitIntoCallsOfLinesPerCall() {
+        final NutritionAnalysisDataAccessObject dao = new NutritionAnalysisDataAccessObject(edamamClient, lineCache,
+                4, 2);
+
+        final List<CompletableFuture<NutrientVector>> results = dao.analyzeNutritionBatch(List.of(
+                recipe("1 egg", "1 cup rice"),
+                recipe("1  EGG ", "1 tbsp butter", "1 cup rice", "1 cup milk")));
+
+        assertThat(calls).containsExactly(List.of("1 egg", "1 cup rice"), List.of("1 tbsp butter", "1 cup milk"));
+        assertThat(results.get(0).join().get(NutrientCode.ENERGY)).isEqualTo(270);
+        assertThat(results.get(1).join().get(NutrientCode.ENERGY)).isEqualTo(520);
+    }
+
+    @Test
+    void cachedLinesAreNotSent() {
+        cachedLines.put("1 egg", new NutrientVector().set(NutrientCode.ENERGY, 70));
+        final NutritionAnalysisDataAccessObject dao = new NutritionAnalysisDataAccessObject(edamamClient, lineCache,
+                4, 25);
+
+        final List<CompletableFuture<NutrientVector>> results = dao.analyzeNutritionBatch(List.of(
+                recipe("1 egg"),
+                recipe("1 egg", "1 cup milk")));
+
+        assertThat(calls).containsExactly(List.of("1 cup milk"));
+        assertThat(results.get(0).join().get(NutrientCode.ENERGY)).isEqualTo(70);
+        assertThat(results.get(1).join().get(NutrientCode.ENERGY)).isEqualTo(220);
+    }
+
+    @Test
+    void startsAtMostParallelismCallsAtOnce() {
+        answerImmediately = false;
+        final NutritionAnalysisDataAccessObject dao = new NutritionAnalysisDataAccessObject(edamamClient, lineCache,
+                2, 1);
+
+        final List<CompletableFuture<NutrientVector>> results = dao.analyzeNutritionBatch(List.of(
+                recipe("1 egg", "1 cup rice"),
+                recipe("1 tbsp butter", "1 cup milk")));
+
+        assertThat(calls).hasSize(2);
+        answers.get(0).complete(analysis(calls.get(0)));
+        assertThat(calls).hasSize(3);
+        answers.get(1).complete(analysis(calls.get(1)));
+        answers.get(2).complete(analysis(calls.get(2)));
+        assertThat(results.get(0).join().get(NutrientCode.ENERGY)).isEqualTo(270);
+        assertThat(results.get(1)).isNotDone();
+        answers.get(3).complete(analysis(calls.get(3)));
+        assertThat(results.get(1).join().get(NutrientCode.ENERGY)).isEqualTo(250);
+    }
+
+    private static Recipe recipe(String... lines) {
+        return new Recipe(0, "Test", "", List.of(), "", null, List.of(), new JSONArray(List.of(lines)), 1);
+    }
+
+    /**
+     * An Edamam nutrition answer breaking every line down into one food.
+     */
+    private static String analysis(List<String> lines) {
+        final JSONArray ingredients = new JSONArray();
+        for (String line : lines) {
+            final JSONObject energy = new JSONObject().put("label", "Energy").put("unit", "kcal")
+                    .put("quantity", KCAL.get(NutritionLineCache.normalize(line)));
+            ingredients.put(new JSONObject()
+                    .put("text", line)
+                    .put("parsed", new JSONArray().put(new JSONObject()
+                            .put("nutrients", new JSONObject().put("ENERC_KCAL", energy)))));
+        }
+        return new JSONObject().put("ingredients", ingredients).toString();
+    }
+}
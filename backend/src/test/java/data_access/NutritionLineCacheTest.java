@@ -0,0 +1,86 @@
+package data_access;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import entity.NutrientCode;
+import entity.NutrientVector;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sqlite.SQLiteDataSource;
+
+class NutritionLineCacheTest {
+
+    @TempDir
+    Path directory;
+
+    private DatabaseManager databaseManager;
+
+    @BeforeEach
+    void createDatabase() {
+        final SQLiteDataSource dataSource = new SQLiteDataSource();
+        dataSource.setUrl("jdbc:sqlite:" + directory.resolve("recipewiz.db"));
+        databaseManager = new DatabaseManager(dataSource, 0);
+        databaseManager.initializeDatabase();
+    }
+
+    @Test
+    void normalizesCaseAndWhitespace() {
+        assertThat(NutritionLineCache.normalize("  2 Cups\tFlour \n")).isEqualTo("2 cups flour");
+    }
+
+    @Test
+    void returnsOnlyTheLinesItHas() {
+        final NutritionLineCache cache = cache(new SimpleMeterRegistry());
+        final NutrientVector egg = new NutrientVector().set(NutrientCode.ENERGY, 70);
+
+        cache.putAll(Map.of("1 egg", egg));
+
+        assertThat(cache.getAll(List.of("1 egg", "1 cup rice"))).containsOnlyKeys("1 egg");
+        assertThat(cache.getAll(List.of("1 egg")).get("1 egg")).isSameAs(egg);
+    }
+
+    @Test
+    void linesAreReadBackFromTheDatabaseAfterARestart() throws InterruptedException {
+        final NutritionLineCache first = cache(new SimpleMeterRegistry());
+        first.putAll(Map.of("1 egg", new NutrientVector().set(NutrientCode.ENERGY, 70).set(NutrientCode.SUGAR, 0)));
+        first.shutdown();
+
+        final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        final NutritionLineCache second = cache(meterRegistry);
+        final NutrientVector egg = second.getAll(List.of("1 egg", "1 cup rice")).get("1 egg");
+
+        assertThat(egg.get(NutrientCode.ENERGY)).isEqualTo(70);
+        assertThat(egg.has(NutrientCode.SUGAR)).isTrue();
+        assertThat(egg.has(NutrientCode.FAT)).isFalse();
+        assertThat(meterRegistry.get("recipewiz.nutrition.line-cache.database-hits").functionCounter().count())
+                .isEqualTo(1);
+        // Now in memory too
+        second.getAll(List.of("1 egg"));
+        assertThat(meterRegistry.get("recipewiz.nutrition.line-cache.database-hits").functionCounter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void readsTheCompactAndTheEdamamFormOfStoredNutrients() {
+        final NutrientVector nutrients = new NutrientVector().set(NutrientCode.ENERGY, 667.2);
+
+        assertThat(NutritionLineCache.toJson(nutrients)).isEqualTo("{\"ENERC_KCAL\":667.2}");
+        assertThat(NutritionLineCache.fromJson(NutritionLineCache.toJson(nutrients)).get(NutrientCode.ENERGY))
+                .isEqualTo(667.2);
+
+        final NutrientVector edamam = NutritionLineCache.fromJson(
+                "{\"ENERC_KCAL\": {\"label\": \"Energy\", \"quantity\": 667.2, \"unit\": \"kcal\"}, \"XYZ\": 1}");
+        assertThat(edamam.get(NutrientCode.ENERGY)).isEqualTo(667.2);
+        assertThat(edamam.toNutrients()).hasSize(1);
+    }
+
+    private NutritionLineCache cache(SimpleMeterRegistry meterRegistry) {
+        return new NutritionLineCache(databaseManager, meterRegistry, 100, Duration.ofHours(1), 10);
+    }
+}
@@ -0,0 +1,74 @@
+package data_access;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class QueryCanonicalizerTest {
+
+    @Test
+    void sortsAndDeduplicatesSingularIngredients() {
+        assertThat(QueryCanonicalizer.canonicalQuery("Chicken, rice")).isEqualTo("chicken,rice");
+        assertThat(QueryCanonicalizer.canonicalQuery("rice,chicken ,chicken")).isEqualTo("chicken,rice");
+        assertThat(QueryCanonicalizer.canonicalQuery("Cherry   Tomatoes,cherry tomato")).isEqualTo("cherry tomato");
+    }
+
+    @Test
+    void makesWordsSingular() {
+        assertThat(QueryCanonicalizer.canonicalQuery("berries,peaches,radishes,potatoes,boxes,peas"))
+                .isEqualTo("berry,box,pea,peach,potato,radish");
+        assertThat(QueryCanonicalizer.canonicalQuery("bay leaves,chillies,cookies,geese"))
+                .isEqualTo("bay leaf,chilli,cookie,goose");
+    }
+
+    @Test
+    void leavesWordsThatOnlyLookPluralAlone() {
+        assertThat(QueryCanonicalizer.canonicalQuery("molasses,swiss chard,hummus,couscous,grits"))
+                .isEqualTo("couscous,grits,hummus,molasses,swiss chard");
+    }
+
+    @Test
+    void blankQueriesAreEmpty() {
+        assertThat(QueryCanonicalizer.canonicalQuery(null)).isEmpty();
+        assertThat(QueryCanonicalizer.canonicalQuery(" , ,")).isEmpty();
+        assertThat(QueryCanonicalizer.edamamQuery(null)).isEmpty();
+        assertThat(QueryCanonicalizer.edamamQuery(" , ,")).isEmpty();
+    }
+
+    @Test
+    void labelsKeepTheirCase() {
+        assertThat(QueryCanonicalizer.canonicalLabels(" low-fat,balanced ,low-fat,DASH"))
+                .isEqualTo("DASH,balanced,low-fat");
+        assertThat(QueryCanonicalizer.canonicalLabels(" , ")).isNull();
+        assertThat(QueryCanonicalizer.canonicalLabels(null)).isNull();
+    }
+
+    @Test
+    void edamamQueryKeepsPluralsAndOrder() {
+        assertThat(QueryCanonicalizer.edamamQuery(" Greens,  Chips ,greens,Cherry  Tomatoes"))
+                .isEqualTo("greens,chips,cherry tomatoes");
+    }
+
+    @Test
+    void keysOfTheSameCanonicalSearchAreEqual() {
+        final RecipeSearchKey plural = RecipeSearchKey.of("Greens,Chips", "balanced", " ", null);
+        final RecipeSearchKey singular = RecipeSearchKey.of("chip,green", "balanced", null, "");
+
+        assertThat(plural).isEqualTo(singular).hasSameHashCodeAs(singular);
+        assertThat(plural.edamamQuery()).isEqualTo("greens,chips");
+        assertThat(singular.edamamQuery()).isEqualTo("chip,green");
+        assertThat(plural.health()).isNull();
+        assertThat(singular.cuisineType()).isNull();
+    }
+
+    @Test
+    void theCursorIsPartOfTheKey() {
+        final RecipeSearchKey first = RecipeSearchKey.of("rice", null, null, null);
+        final RecipeSearchKey next = first.withCursor(" abc ");
+
+        assertThat(next).isNotEqualTo(first);
+        assertThat(next.cursor()).isEqualTo("abc");
+        assertThat(next.edamamQuery()).isEqualTo("rice");
+        assertThat(first.withCursor(" ")).isEqualTo(first);
+    }
+}
@@ -0,0 +1,131 @@
+package data_access;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.Test;
+
+class QuotaSchedulerTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong now = new AtomicLong();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void grantsTheBurstRightAway() {
+        final QuotaScheduler quota = scheduler(60, 3, 0, 0);
+
+        for (int i = 0; i < 3; i++) {
+            quota.acquire(QuotaScheduler.Priority.INTERACTIVE);
+        }
+
+        assertThat(quota.availablePermits()).isZero();
+        assertThat(quota.queueDepth()).isZero();
+    }
+
+    @Test
+    void rejectsCallsWhoseExpectedWaitExceedsTheMaximum() {
+        final QuotaScheduler quota = scheduler(60, 1, SECOND / 2, 0);
+        quota.acquire(QuotaScheduler.Priority.INTERACTIVE);
+
+        // The next permit is a second away
+        assertThatThrownBy(() -> quota.acquire(QuotaScheduler.Priority.INTERACTIVE))
+                .isInstanceOf(QuotaExceededException.class);
+        assertThatThrownBy(() -> quota.acquire(QuotaScheduler.Priority.BACKGROUND))
+                .isInstanceOf(QuotaExceededException.class);
+        assertThat(meterRegistry.get("recipewiz.quota.rejected").tag("priority", "interactive").counter().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("recipewiz.quota.rejected").tag("priority", "background").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void refillsAtTheQuotaRateUpToTheBurst() {
+        final QuotaScheduler quota = scheduler(60, 2, 0, 0);
+        quota.acquire(QuotaScheduler.Priority.INTERACTIVE);
+        quota.acquire(QuotaScheduler.Priority.INTERACTIVE);
+
+        now.addAndGet(SECOND);
+        assertThat(quota.availablePermits()).isEqualTo(1.0);
+        quota.acquire(QuotaScheduler.Priority.INTERACTIVE);
+
+        now.addAndGet(60 * SECOND);
+        assertThat(quota.availablePermits()).isEqualTo(2.0);
+    }
+
+    @Test
+    void throttlingEmptiesTheBucket() {
+        final QuotaScheduler quota = scheduler(60, 5, 0, 0);
+
+        final QuotaExceededException exception = quota.throttled();
+
+        assertThat(exception).hasMessageContaining("test");
+        assertThat(quota.availablePermits()).isZero();
+        assertThatThrownBy(() -> quota.acquire(QuotaScheduler.Priority.INTERACTIVE))
+                .isInstanceOf(QuotaExceededException.class);
+    }
+
+    @Test
+    void asyncAcquisitionCompletesRightAwayOrFails() {
+        final QuotaScheduler quota = scheduler(60, 1, 0, 0);
+
+        assertThat(quota.acquireAsync(QuotaScheduler.Priority.INTERACTIVE)).isCompleted();
+        final CompletableFuture<Void> rejected = quota.acquireAsync(QuotaScheduler.Priority.INTERACTIVE);
+
+        assertThatThrownBy(() -> rejected.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(QuotaExceededException.class);
+    }
+
+    @Test
+    void queuedInteractiveCallsGoAheadOfBackgroundOnes() throws Exception {
+        // Real time: one permit every 500 ms
+        final QuotaScheduler quota = new QuotaScheduler("test", 120, 1,
+                Map.of(QuotaScheduler.Priority.INTERACTIVE, 5 * SECOND, QuotaScheduler.Priority.BACKGROUND,
+                        5 * SECOND), meterRegistry);
+        quota.acquire(QuotaScheduler.Priority.INTERACTIVE);
+        final List<QuotaScheduler.Priority> served = new CopyOnWriteArrayList<>();
+
+        final CompletableFuture<Void> background = quota.acquireAsync(QuotaScheduler.Priority.BACKGROUND)
+                .thenRun(() -> served.add(QuotaScheduler.Priority.BACKGROUND));
+        awaitTrue(() -> quota.queueDepth() == 1);
+        final CompletableFuture<Void> interactive = quota.acquireAsync(QuotaScheduler.Priority.INTERACTIVE)
+                .thenRun(() -> served.add(QuotaScheduler.Priority.INTERACTIVE));
+
+        CompletableFuture.allOf(background, interactive).get(5, TimeUnit.SECONDS);
+        assertThat(served).containsExactly(QuotaScheduler.Priority.INTERACTIVE, QuotaScheduler.Priority.BACKGROUND);
+        assertThat(quota.queueDepth()).isZero();
+    }
+
+    @Test
+    void requiresAMaximumWaitForEveryPriority() {
+        assertThatThrownBy(() -> new QuotaScheduler("test", 60, 1, Map.of(QuotaScheduler.Priority.INTERACTIVE, 0L),
+                meterRegistry)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> scheduler(0, 1, 0, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private QuotaScheduler scheduler(int permitsPerMinute, int burst, long interactiveWait, long backgroundWait) {
+        return new QuotaScheduler("test", permitsPerMinute, burst,
+                Map.of(QuotaScheduler.Priority.INTERACTIVE, interactiveWait,
+                        QuotaScheduler.Priority.BACKGROUND, backgroundWait),
+                meterRegistry, now::get);
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        final long deadline = System.nanoTime() + 5 * SECOND;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package data_access;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import entity.Ingredient;
+import entity.Nutrition;
+import entity.Recipe;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.json.JSONArray;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sqlite.SQLiteDataSource;
+import use_case.recipe_search.RecipeSearchPage;
+
+class RecipeCatalogDataAccessObjectTest {
+
+    @TempDir
+    Path directory;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RecipeCatalogDataAccessObject catalog;
+
+    @BeforeEach
+    void createCatalog() {
+        final SQLiteDataSource dataSource = new SQLiteDataSource();
+        dataSource.setUrl("jdbc:sqlite:" + directory.resolve("recipewiz.db"));
+        final DatabaseManager databaseManager = new DatabaseManager(dataSource, 0);
+        databaseManager.initializeDatabase();
+        catalog = new RecipeCatalogDataAccessObject(databaseManager,
+                new IngredientSuggestionDataAccessObject(databaseManager, meterRegistry), meterRegistry,
+                100, 1000, 20, 500);
+    }
+
+    @AfterEach
+    void shutdown() throws InterruptedException {
+        catalog.shutdown();
+    }
+
+    @Test
+    void upsertsRecipesByUriAndReadsThemBackWithTheirStableId() {
+        catalog.upsert(List.of(recipe("uri-omelette", "Omelette", "2 eggs", "1 tbsp butter")));
+        catalog.upsert(List.of(recipe("uri-omelette", "Cheese omelette", "2 eggs", "30 g cheddar")));
+
+        final Recipe stored = catalog.findByUri("uri-omelette");
+        assertThat(stored.getRecipeId()).isEqualTo(Recipe.idFor("uri-omelette"));
+        assertThat(stored.getTitle()).isEqualTo("Cheese omelette");
+        assertThat(stored.getJsonIngredient().toList()).containsExactly("2 eggs", "30 g cheddar");
+        assertThat(stored.getIngredients()).extracting(Ingredient::getName).containsExactly("2 eggs", "30 g cheddar");
+        assertThat(stored.getNutrition().getCalories()).isEqualTo(300);
+        assertThat(catalog.findByUri("uri-unknown")).isNull();
+        assertThat(catalog.findByUris(List.of("uri-omelette", "uri-unknown"))).containsOnlyKeys("uri-omelette");
+    }
+
+    @Test
+    void searchHitsAreWrittenThroughToTheCatalogInTheBackground() throws InterruptedException {
+        final EdamamClient edamamClient = mock(EdamamClient.class);
+        final RecipeSearchKey key = RecipeSearchKey.of("egg", null, null, null);
+        when(edamamClient.searchRecipes(key)).thenReturn(new EdamamSearchPage(List.of(
+                recipe("uri-omelette", "Omelette", "2 eggs"),
+                recipe(null, "No uri", "1 egg")), null));
+
+        new SearchWithRestrictionDataAccessObject(edamamClient, catalog).searchPage(key);
+
+        for (int i = 0; i < 100 && catalog.findByUri("uri-omelette") == null; i++) {
+            Thread.sleep(20);
+        }
+        assertThat(catalog.findByUri("uri-omelette").getTitle()).isEqualTo("Omelette");
+        assertThat(meterRegistry.get("recipewiz.catalog.upserts").tag("result", "written").functionCounter()
+                .count()).isEqualTo(1);
+    }
+
+    @Test
+    void fullTextSearchMatchesEveryStemmedWordUpToTheLimit() {
+        catalog.upsert(List.of(
+                recipe("uri-cake", "Carrot cake", "3 carrots", "2 cups flour"),
+                recipe("uri-soup", "Carrot ginger soup", "4 carrots", "1 tbsp ginger", "1 carrot top"),
+                recipe("uri-stir-fry", "Ginger beef stir-fry", "300 g beef", "1 tbsp ginger")));
+
+        assertThat(catalog.search("ginger", 10)).extracting(Recipe::getUri)
+                .containsExactlyInAnyOrder("uri-soup", "uri-stir-fry");
+        assertThat(catalog.search("Carrot, GINGER", 10)).extracting(Recipe::getUri).containsExactly("uri-soup");
+        assertThat(catalog.search("carrots", 10)).extracting(Recipe::getUri)
+                .containsExactlyInAnyOrder("uri-cake", "uri-soup");
+        assertThat(catalog.search("carrot", 1)).hasSize(1);
+        assertThat(catalog.search("lamb", 10)).isEmpty();
+        assertThat(catalog.search(" , ", 10)).isEmpty();
+    }
+
+    @Test
+    void localSearchResultsComeAsASinglePage() {
+        catalog.upsert(List.of(recipe("uri-soup", "Carrot soup", "4 carrots")));
+
+        final RecipeSearchPage page = catalog.searchRecipePage("carrot", null);
+
+        assertThat(page.recipes()).extracting(Recipe::getUri).containsExactly("uri-soup");
+        assertThat(page.nextPageToken()).isNull();
+        assertThatThrownBy(() -> catalog.searchRecipePage("carrot", "token"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Recipe recipe(String uri, String title, String... lines) {
+        final List<Ingredient> ingredients = new ArrayList<>();
+        for (String line : lines) {
+            ingredients.add(new Ingredient(ingredients.size() + 1, line, 1, ""));
+        }
+        final Recipe recipe = new Recipe(0, title, "Kitchen", ingredients, "https://example.com",
+                new Nutrition(300, 20, 20, 5, 0, 1), new ArrayList<>(), new JSONArray(List.of(lines)), 2);
+        recipe.setUri(uri);
+        return recipe;
+    }
+}
@@ -0,0 +1,123 @@
+package data_access;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import entity.Recipe;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.json.JSONArray;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class RecipeLookupBatcherTest {
+
+    private final EdamamClient edamamClient = mock(EdamamClient.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<List<String>> calls = new CopyOnWriteArrayList<>();
+    private final Map<List<String>, CompletableFuture<List<Recipe>>> responses = new ConcurrentHashMap<>();
+    private RecipeLookupBatcher batcher;
+
+    RecipeLookupBatcherTest() {
+        when(edamamClient.lookupRecipesAsync(any(), eq(QuotaScheduler.Priority.INTERACTIVE))).thenAnswer(invocation -> {
+            final List<String> uris = new ArrayList<>(invocation.<Collection<String>>getArgument(0));
+            calls.add(uris);
+            return responses.computeIfAbsent(uris, ignored -> CompletableFuture.completedFuture(
+                    uris.stream().filter(uri -> !uri.endsWith("unknown")).map(RecipeLookupBatcherTest::recipe)
+                            .toList()));
+        });
+    }
+
+    @AfterEach
+    void shutdown() {
+        batcher.shutdown();
+    }
+
+    @Test
+    void sendsTheLookupsOfAWindowInOneCallWhenItCloses() throws Exception {
+        batcher = new RecipeLookupBatcher(edamamClient, meterRegistry, Duration.ofSeconds(1), 20);
+
+        final CompletableFuture<Recipe> first = batcher.lookup("uri-a");
+        final CompletableFuture<Recipe> second = batcher.lookup("uri-b");
+        final CompletableFuture<Recipe> unknown = batcher.lookup("uri-unknown");
+        assertThat(calls).isEmpty();
+
+        assertThat(first.get(5, TimeUnit.SECONDS).getUri()).isEqualTo("uri-a");
+        assertThat(second.get(5, TimeUnit.SECONDS).getUri()).isEqualTo("uri-b");
+        assertThat(unknown.get(5, TimeUnit.SECONDS)).isNull();
+        assertThat(calls).containsExactly(List.of("uri-a", "uri-b", "uri-unknown"));
+        assertThat(meterRegistry.get("recipewiz.edamam.lookup.batch.size").summary().max()).isEqualTo(3);
+    }
+
+    @Test
+    void sendsAFullBatchWithoutWaitingForTheWindow() throws Exception {
+        batcher = new RecipeLookupBatcher(edamamClient, meterRegistry, Duration.ofHours(1), 2);
+
+        final CompletableFuture<Recipe> first = batcher.lookup("uri-a");
+        final CompletableFuture<Recipe> second = batcher.lookup("uri-b");
+        final CompletableFuture<Recipe> third = batcher.lookup("uri-c");
+
+        assertThat(first).isCompleted();
+        assertThat(second).isCompleted();
+        assertThat(third).isNotDone();
+        assertThat(calls).containsExactly(List.of("uri-a", "uri-b"));
+        assertThat(second.get().getUri()).isEqualTo("uri-b");
+    }
+
+    @Test
+    void aDuplicateUriInTheOpenBatchSharesItsFuture() {
+        batcher = new RecipeLookupBatcher(edamamClient, meterRegistry, Duration.ofHours(1), 3);
+
+        final CompletableFuture<Recipe> first = batcher.lookup("uri-a");
+        final CompletableFuture<Recipe> duplicate = batcher.lookup("uri-a");
+        batcher.lookup("uri-b");
+        batcher.lookup("uri-c");
+
+        assertThat(duplicate).isSameAs(first);
+        assertThat(calls).containsExactly(List.of("uri-a", "uri-b", "uri-c"));
+    }
+
+    @Test
+    void aFailedCallFailsEveryLookupOfItsBatch() {
+        batcher = new RecipeLookupBatcher(edamamClient, meterRegistry, Duration.ofHours(1), 2);
+        responses.put(List.of("uri-a", "uri-b"), CompletableFuture.failedFuture(new IllegalStateException("boom")));
+
+        final CompletableFuture<Recipe> first = batcher.lookup("uri-a");
+        final CompletableFuture<Recipe> second = batcher.lookup("uri-b");
+
+        assertThatThrownBy(first::get).isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(second::get).isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void aZeroWindowSendsEveryLookupOnItsOwn() {
+        batcher = new RecipeLookupBatcher(edamamClient, meterRegistry, Duration.ZERO, 20);
+
+        batcher.lookup("uri-a");
+        batcher.lookup("uri-b");
+
+        assertThat(calls).containsExactly(List.of("uri-a"), List.of("uri-b"));
+    }
+
+    private static Recipe recipe(String uri) {
+        final Recipe recipe = new Recipe(Recipe.idFor(uri), uri, "", List.of(), "", null, List.of(),
+                new JSONArray(), 1);
+        recipe.setUri(uri);
+        return recipe;
+    }
+}
@@ -0,0 +1,59 @@
+package data_access;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Arrays;
+import java.util.Base64;
+import org.junit.jupiter.api.Test;
+
+class RecipePageTokenTest {
+
+    @Test
+    void decodesTheKeyItEncoded() {
+        final RecipeSearchKey key = RecipeSearchKey.of("Cherry Tomatoes, basil", "low-fat", "vegan", null)
+                .withCursor("cursor-1");
+
+        final RecipeSearchKey decoded = RecipePageToken.decode(RecipePageToken.encode(key));
+
+        assertThat(decoded).isEqualTo(key);
+        assertThat(decoded.cursor()).isEqualTo("cursor-1");
+        assertThat(decoded.cuisineType()).isNull();
+        assertThat(decoded.edamamQuery()).isEqualTo("cherry tomatoes,basil");
+    }
+
+    @Test
+    void tokensAreUrlSafe() {
+        final RecipeSearchKey key = RecipeSearchKey.of("chicken", null, null, null).withCursor("a+b/c=?&d");
+
+        assertThat(RecipePageToken.encode(key)).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void firstPagesHaveNoToken() {
+        final RecipeSearchKey key = RecipeSearchKey.of("chicken", null, null, null);
+
+        assertThatThrownBy(() -> RecipePageToken.encode(key)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        final String valid = RecipePageToken.encode(RecipeSearchKey.of("chicken", null, null, null).withCursor("c"));
+        final byte[] bytes = Base64.getUrlDecoder().decode(valid);
+        final byte[] otherVersion = bytes.clone();
+        otherVersion[0] = 9;
+        final byte[] trailing = Arrays.copyOf(bytes, bytes.length + 1);
+
+        for (String token : new String[] {"", "not base64!", valid.substring(0, valid.length() - 3),
+                encode(otherVersion), encode(trailing)}) {
+            assertThatThrownBy(() -> RecipePageToken.decode(token))
+                    .as(token)
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Invalid page token");
+        }
+    }
+
+    private static String encode(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -0,0 +1,141 @@
+package data_access;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+    @Test
+    void concurrentCallersOfOneKeyShareOneExecution() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger loads = new AtomicInteger();
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final Future<String> first = executor.submit(() -> singleFlight.execute("key", () -> {
+                loads.incrementAndGet();
+                started.countDown();
+                await(release);
+                return "value";
+            }));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            final Future<String> second = executor.submit(() -> singleFlight.execute("key", () -> {
+                loads.incrementAndGet();
+                return "other";
+            }));
+            while (singleFlight.coalescedCount() == 0) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+            assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+            assertThat(loads).hasValue(1);
+            assertThat(singleFlight.inFlightCount()).isZero();
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void sequentialCallsRunTheLoaderEachTime() {
+        final AtomicInteger loads = new AtomicInteger();
+
+        singleFlight.execute("key", () -> "v" + loads.incrementAndGet());
+        final String second = singleFlight.execute("key", () -> "v" + loads.incrementAndGet());
+
+        assertThat(second).isEqualTo("v2");
+        assertThat(singleFlight.coalescedCount()).isZero();
+    }
+
+    @Test
+    void failuresAreThrownAndTheKeyIsReleased() {
+        assertThatThrownBy(() -> singleFlight.execute("key", () -> {
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class).hasMessage("boom");
+
+        assertThat(singleFlight.inFlightCount()).isZero();
+        assertThat(singleFlight.execute("key", () -> "recovered")).isEqualTo("recovered");
+    }
+
+    @Test
+    void asyncCallersShareTheInFlightFuture() throws Exception {
+        final CompletableFuture<String> upstream = new CompletableFuture<>();
+        final AtomicInteger loads = new AtomicInteger();
+
+        final CompletableFuture<String> first = singleFlight.executeAsync("key", () -> {
+            loads.incrementAndGet();
+            return upstream;
+        });
+        final CompletableFuture<String> second = singleFlight.executeAsync("key", () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture("other");
+        });
+        assertThat(singleFlight.inFlightCount()).isEqualTo(1);
+        upstream.complete("value");
+
+        assertThat(first.get()).isEqualTo("value");
+        assertThat(second.get()).isEqualTo("value");
+        assertThat(loads).hasValue(1);
+        assertThat(singleFlight.coalescedCount()).isEqualTo(1);
+        assertThat(singleFlight.inFlightCount()).isZero();
+    }
+
+    @Test
+    void asyncFailuresCompleteEveryCallerWithTheCause() {
+        final CompletableFuture<String> upstream = new CompletableFuture<>();
+        final CompletableFuture<String> first = singleFlight.executeAsync("key", () -> upstream);
+        final CompletableFuture<String> second = singleFlight.executeAsync("key", () -> upstream);
+        upstream.completeExceptionally(new IllegalStateException("boom"));
+
+        assertThatThrownBy(first::get).isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(second::get).isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(singleFlight.inFlightCount()).isZero();
+    }
+
+    @Test
+    void aLoaderThatThrowsFailsTheAsyncCall() {
+        final CompletableFuture<String> call = singleFlight.executeAsync("key", () -> {
+            throw new IllegalStateException("boom");
+        });
+
+        assertThatThrownBy(call::get).hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(singleFlight.inFlightCount()).isZero();
+    }
+
+    @Test
+    void cancellingACallerDoesNotCancelTheSharedCall() throws Exception {
+        final CompletableFuture<String> upstream = new CompletableFuture<>();
+        final CompletableFuture<String> first = singleFlight.executeAsync("key", () -> upstream);
+        final CompletableFuture<String> second = singleFlight.executeAsync("key", () -> upstream);
+
+        first.cancel(true);
+        upstream.complete("value");
+
+        assertThat(second.get()).isEqualTo("value");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
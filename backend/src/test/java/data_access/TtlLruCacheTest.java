@@ -0,0 +1,111 @@
+package data_access;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class TtlLruCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void returnsValuesUntilTheyExpire() {
+        final TtlLruCache<String, String> cache = new TtlLruCache<>(10, 100, 0, now::get);
+        cache.put("a", "1");
+
+        now.set(99);
+        assertThat(cache.get("a")).isEqualTo("1");
+        assertThat(cache.containsKey("a")).isTrue();
+
+        now.set(100);
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.containsKey("a")).isFalse();
+        assertThat(cache.size()).isZero();
+        assertThat(cache.hitCount()).isEqualTo(1);
+        assertThat(cache.missCount()).isEqualTo(1);
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedEntryWhenFull() {
+        final TtlLruCache<String, String> cache = new TtlLruCache<>(2, 100, 0, now::get);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.get("a");
+        cache.put("c", "3");
+
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("a")).isEqualTo("1");
+        assertThat(cache.get("c")).isEqualTo("3");
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.evictionCount()).isEqualTo(1);
+        assertThat(cache.putCount()).isEqualTo(3);
+    }
+
+    @Test
+    void servesExpiredEntriesAsStaleUntilTheStalePeriodEnds() {
+        final TtlLruCache<String, String> cache = new TtlLruCache<>(10, 100, 50, now::get);
+        cache.put("a", "1");
+
+        assertThat(cache.lookup("a")).isEqualTo(new TtlLruCache.Lookup<>("1", false));
+        now.set(120);
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.lookup("a")).isEqualTo(new TtlLruCache.Lookup<>("1", true));
+
+        now.set(150);
+        assertThat(cache.lookup("a")).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void aStaleLookupIsCountedAsItsOwnOutcomeNotAMiss() {
+        final TtlLruCache<String, String> cache = new TtlLruCache<>(10, 100, 50, now::get);
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new TtlLruCacheMetrics(cache, "test", Tags.empty()).bindTo(registry);
+        cache.put("a", "1");
+
+        cache.lookup("a");
+        now.set(120);
+        cache.lookup("a");
+        cache.lookup("b");
+
+        assertThat(cache.hitCount()).isEqualTo(1);
+        assertThat(cache.staleHitCount()).isEqualTo(1);
+        assertThat(cache.missCount()).isEqualTo(1);
+        assertThat(registry.get("cache.gets").tag("result", "stale").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("cache.gets").tag("result", "miss").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("cache.gets").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void rewritingAnEntryRestartsItsTtl() {
+        final TtlLruCache<String, String> cache = new TtlLruCache<>(10, 100, 0, now::get);
+        cache.put("a", "1");
+        now.set(80);
+        cache.put("a", "2");
+
+        now.set(150);
+        assertThat(cache.get("a")).isEqualTo("2");
+    }
+
+    @Test
+    void invalidateAllEmptiesTheCache() {
+        final TtlLruCache<String, String> cache = new TtlLruCache<>(10, 100, 0, now::get);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.invalidateAll();
+
+        assertThat(cache.size()).isZero();
+        assertThat(cache.get("a")).isNull();
+    }
+
+    @Test
+    void rejectsInvalidLimits() {
+        assertThatThrownBy(() -> new TtlLruCache<>(0, 100)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TtlLruCache<>(1, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TtlLruCache<>(1, 100, -1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,79 @@
+package entity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class NutrientVectorTest {
+
+    @Test
+    void tellsANutrientReportedAsZeroFromOneNeverReported() {
+        final NutrientVector vector = new NutrientVector().set(NutrientCode.SUGAR, 0);
+
+        assertThat(vector.has(NutrientCode.SUGAR)).isTrue();
+        assertThat(vector.has(NutrientCode.FIBER)).isFalse();
+        assertThat(vector.get(NutrientCode.FIBER)).isZero();
+        assertThat(vector.isEmpty()).isFalse();
+        assertThat(new NutrientVector().isEmpty()).isTrue();
+    }
+
+    @Test
+    void addScaledAddsTheScaledQuantitiesAndKeepsEveryNutrient() {
+        final NutrientVector total = new NutrientVector()
+                .set(NutrientCode.ENERGY, 100)
+                .set(NutrientCode.FAT, 2);
+        final NutrientVector per100g = new NutrientVector()
+                .set(NutrientCode.ENERGY, 400)
+                .set(NutrientCode.PROTEIN, 10);
+
+        assertThat(total.addScaled(per100g, 0.25)).isSameAs(total);
+
+        assertThat(total.get(NutrientCode.ENERGY)).isEqualTo(200);
+        assertThat(total.get(NutrientCode.FAT)).isEqualTo(2);
+        assertThat(total.get(NutrientCode.PROTEIN)).isEqualTo(2.5);
+        assertThat(total.has(NutrientCode.PROTEIN)).isTrue();
+        assertThat(per100g.get(NutrientCode.ENERGY)).isEqualTo(400);
+    }
+
+    @Test
+    void addCommonKeepsOnlyTheNutrientsBothVectorsHave() {
+        final NutrientVector local = new NutrientVector()
+                .set(NutrientCode.ENERGY, 100)
+                .set(NutrientCode.FAT, 2)
+                .set(NutrientCode.SODIUM, 0);
+        final NutrientVector edamam = new NutrientVector()
+                .set(NutrientCode.ENERGY, 50)
+                .set(NutrientCode.SODIUM, 30)
+                .set(NutrientCode.VITAMIN_C, 4);
+
+        local.addCommon(edamam);
+
+        assertThat(local.get(NutrientCode.ENERGY)).isEqualTo(150);
+        assertThat(local.get(NutrientCode.SODIUM)).isEqualTo(30);
+        assertThat(local.has(NutrientCode.FAT)).isFalse();
+        assertThat(local.get(NutrientCode.FAT)).isZero();
+        assertThat(local.has(NutrientCode.VITAMIN_C)).isFalse();
+        assertThat(local.toNutrients()).extracting(Nutrient::getCode)
+                .containsExactly(NutrientCode.ENERGY, NutrientCode.SODIUM);
+    }
+
+    @Test
+    void addCommonWithAnEmptyVectorClearsEverything() {
+        final NutrientVector vector = new NutrientVector().set(NutrientCode.ENERGY, 100);
+
+        vector.addCommon(new NutrientVector());
+
+        assertThat(vector.isEmpty()).isTrue();
+        assertThat(vector.get(NutrientCode.ENERGY)).isZero();
+    }
+
+    @Test
+    void aCopyIsIndependentOfTheOriginal() {
+        final NutrientVector original = new NutrientVector().set(NutrientCode.ENERGY, 100);
+        final NutrientVector copy = original.copy().scale(2).add(NutrientCode.FAT, 1);
+
+        assertThat(copy.get(NutrientCode.ENERGY)).isEqualTo(200);
+        assertThat(original.get(NutrientCode.ENERGY)).isEqualTo(100);
+        assertThat(original.has(NutrientCode.FAT)).isFalse();
+    }
+}
@@ -0,0 +1,85 @@
+package use_case.recipe_search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import entity.Ingredient;
+import entity.Nutrition;
+import entity.Recipe;
+import java.util.ArrayList;
+import java.util.List;
+import org.json.JSONArray;
+import org.junit.jupiter.api.Test;
+
+class RecipeRankerTest {
+
+    private final RecipeRanker ingredientsOnly = new RecipeRanker(1, 0, 0);
+
+    @Test
+    void ranksRecipesByTheShareOfQueryWordsTheyContain() {
+        final Recipe pasta = recipe(1, "Pasta", null, 1, "pasta", "basil");
+        final Recipe curry = recipe(2, "Curry", null, 1, "Chicken thighs", "onion");
+        final Recipe roast = recipe(3, "Roast chicken with a carrot", null, 1, "potato");
+
+        final List<Recipe> ranked = ingredientsOnly.rank(List.of(pasta, curry, roast),
+                ingredientsOnly.query(List.of("chicken", "Carrots"), null, List.of()));
+
+        assertThat(ranked).extracting(Recipe::getRecipeId).containsExactly(3L, 2L, 1L);
+    }
+
+    @Test
+    void recipesWithEqualScoresKeepTheirOrder() {
+        final List<Recipe> recipes = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            recipes.add(recipe(i, "Salad " + i, null, 1, "lettuce"));
+        }
+        recipes.add(2, recipe(9, "Egg salad", null, 1, "egg"));
+
+        final List<Recipe> ranked = ingredientsOnly.rank(recipes,
+                ingredientsOnly.query(List.of("egg"), null, List.of()));
+
+        assertThat(ranked).extracting(Recipe::getRecipeId).containsExactly(9L, 0L, 1L, 2L, 3L, 4L);
+    }
+
+    @Test
+    void ranksRecipesCloserToTheMacroTargetPerServingFirst() {
+        final RecipeRanker ranker = new RecipeRanker(0, 1, 0);
+        final Recipe heavy = recipe(1, "Lasagne", new Nutrition(2000, 80, 100, 150, 0, 0), 1);
+        final Recipe onTarget = recipe(2, "Stew", new Nutrition(1000, 60, 30, 80, 0, 0), 2);
+        final Recipe unknown = recipe(3, "Soup", null, 1);
+
+        final List<Recipe> ranked = ranker.rank(List.of(unknown, heavy, onTarget), ranker.query(List.of(),
+                new RankingPreferences.MacroTarget(500.0, 30.0, null, null), List.of()));
+
+        assertThat(ranked).extracting(Recipe::getRecipeId).containsExactly(2L, 1L, 3L);
+    }
+
+    @Test
+    void ranksRecipesLikeTheSavedOnesFirst() {
+        final RecipeRanker ranker = new RecipeRanker(0, 0, 1);
+        final Recipe saved = recipe(10, "Mapo tofu", null, 1, "silken tofu", "ginger");
+        final Recipe beef = recipe(1, "Burger", null, 1, "beef", "bun");
+        final Recipe tofu = recipe(2, "Tofu bowl", null, 1, "tofu", "rice");
+
+        final List<Recipe> ranked = ranker.rank(List.of(beef, tofu), ranker.query(List.of(), null, List.of(saved)));
+
+        assertThat(ranked).extracting(Recipe::getRecipeId).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void anEmptyQueryLeavesTheOrderAlone() {
+        final List<Recipe> recipes = List.of(recipe(1, "B", null, 1), recipe(2, "A", null, 1));
+
+        assertThat(ingredientsOnly.rank(recipes, ingredientsOnly.query(List.of(), null, List.of())))
+                .isSameAs(recipes);
+        assertThatThrownBy(() -> new RecipeRanker(-1, 0, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Recipe recipe(long id, String title, Nutrition nutrition, int servings, String... foods) {
+        final List<Ingredient> ingredients = new ArrayList<>();
+        for (String food : foods) {
+            ingredients.add(new Ingredient(ingredients.size() + 1, food, 1, ""));
+        }
+        return new Recipe(id, title, "", ingredients, "", nutrition, List.of(), new JSONArray(), servings);
+    }
+}
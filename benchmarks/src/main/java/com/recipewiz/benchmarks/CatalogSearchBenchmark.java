@@ -0,0 +1,88 @@
+package com.recipewiz.benchmarks;
+
+import com.zaxxer.hikari.HikariDataSource;
+import data_access.DatabaseManager;
+import data_access.IngredientSuggestionDataAccessObject;
+import data_access.RecipeCatalogDataAccessObject;
+import entity.Recipe;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Latency of a ranked full-text search of the local recipe catalog, through the same pooled
+ * connections and SQL as the {@code mode=local} search path.
+ * <p>
+ * The catalog is built once per fork in a temporary SQLite file; building 100k rows takes a few
+ * seconds before the first warmup iteration.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CatalogSearchBenchmark {
+
+    @Param({"100000"})
+    private int rows;
+
+    // A staple, a common pair, a rare ingredient and a title word
+    @Param({"garlic", "chicken,rice", "saffron", "curry"})
+    private String query;
+
+    // Matches ranked per query; 100000 ranks every match
+    @Param({"500", "100000"})
+    private int candidates;
+
+    private Path databaseFile;
+    private HikariDataSource dataSource;
+    private RecipeCatalogDataAccessObject catalog;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        databaseFile = Files.createTempFile("recipe-catalog-", ".db");
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:sqlite:" + databaseFile);
+        final DatabaseManager databaseManager = new DatabaseManager(dataSource, 0);
+        databaseManager.initializeDatabase();
+        final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        catalog = new RecipeCatalogDataAccessObject(databaseManager,
+                new IngredientSuggestionDataAccessObject(databaseManager, meterRegistry), meterRegistry, 1000, 1, 20,
+                candidates);
+
+        final List<Recipe> recipes = EdamamFixtures.catalogRecipes(rows, 42L);
+        for (int from = 0; from < recipes.size(); from += 1000) {
+            catalog.upsert(recipes.subList(from, Math.min(from + 1000, recipes.size())));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        catalog.shutdown();
+        dataSource.close();
+        Files.deleteIfExists(databaseFile);
+    }
+
+    @Benchmark
+    public List<Recipe> search() {
+        return catalog.search(query, 20);
+    }
+}
@@ -0,0 +1,265 @@
+package com.recipewiz.benchmarks;
+
+import entity.Ingredient;
+import entity.Nutrition;
+import entity.Recipe;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.json.JSONArray;
+
+/**
+ * Builds synthetic Edamam recipe search payloads shaped like real responses, including the large
+ * sections the backend never reads (images, digest, totalDaily, labels, links), and synthetic
+ * catalogs of already parsed recipes.
+ */
+public final class EdamamFixtures {
+
+    private static final String[] NUTRIENT_CODES = {
+            "ENERC_KCAL", "FAT", "FASAT", "FATRN", "FAMS", "FAPU", "CHOCDF", "CHOCDF.net", "FIBTG", "SUGAR",
+            "SUGAR.added", "PROCNT", "CHOLE", "NA", "CA", "MG", "K", "FE", "ZN", "P", "VITA_RAE", "VITC",
+            "THIA", "RIBF", "NIA", "VITB6A", "FOLDFE", "FOLFD", "FOLAC", "VITB12", "VITD", "TOCPHA", "VITK1",
+            "WATER"
+    };
+
+    private static final String[] FOODS = {
+            "chicken", "rice", "garlic", "onion", "olive oil", "salt", "black pepper", "tomato", "butter",
+            "lemon", "parsley", "carrot", "celery", "thyme", "flour", "egg", "milk", "parmesan"
+    };
+
+    private static final String[] CATALOG_FOODS = {
+            "salt", "olive oil", "garlic", "onion", "butter", "black pepper", "egg", "flour", "sugar", "milk",
+            "chicken", "lemon", "tomato", "parsley", "carrot", "rice", "potato", "cream", "parmesan", "thyme",
+            "celery", "cumin", "ginger", "soy sauce", "honey", "beef", "basil", "spinach", "mushroom", "bacon",
+            "coriander", "paprika", "cinnamon", "vinegar", "mustard", "yogurt", "chickpea", "lentil", "pork",
+            "salmon", "shrimp", "avocado", "lime", "chili", "coconut milk", "oregano", "rosemary", "zucchini",
+            "eggplant", "feta", "mozzarella", "cheddar", "pasta", "noodle", "tofu", "broccoli", "cauliflower",
+            "kale", "quinoa", "oat", "almond", "walnut", "pecan", "apple", "banana", "strawberry", "blueberry",
+            "mango", "pineapple", "peach", "pear", "cranberry", "lamb", "duck", "turkey", "cod", "tuna",
+            "sardine", "anchovy", "saffron", "cardamom", "fennel", "leek", "shallot", "asparagus", "artichoke",
+            "beet", "turnip", "parsnip", "pumpkin", "squash", "corn", "pea", "green bean", "black bean",
+            "kidney bean", "miso", "tahini", "sesame", "maple syrup", "chocolate", "vanilla", "nutmeg", "clove"
+    };
+
+    private static final String[] CATALOG_STYLES = {
+            "Roasted", "Grilled", "Braised", "Spicy", "Creamy", "Easy", "Classic", "Crispy", "Slow Cooker",
+            "One-Pan", "Baked", "Stir-Fried", "Smoky", "Lemony", "Herbed", "Quick"
+    };
+
+    private static final String[] CATALOG_DISHES = {
+            "Salad", "Soup", "Stew", "Curry", "Pasta", "Bowl", "Tacos", "Casserole", "Skillet", "Pie", "Risotto",
+            "Sandwich", "Tart", "Bake", "Stir-Fry", "Cake"
+    };
+
+    private static final String[] INGREDIENT_PREPARATIONS = {
+            "fresh", "dried", "frozen", "canned", "smoked", "roasted", "ground", "chopped", "sliced", "diced",
+            "minced", "grated", "shredded", "toasted", "pickled", "cured", "raw", "cooked", "organic", "baby",
+            "wild", "unsalted", "low-fat", "whole", "crushed", "peeled", "boneless", "skinless", "sweet", "hot"
+    };
+
+    private static final String[] INGREDIENT_FORMS = {
+            "", "powder", "paste", "puree", "juice", "zest", "flakes", "leaves", "slices", "cubes", "chunks",
+            "fillet", "stock", "sauce", "oil", "seeds", "halves", "wedges", "strips", "florets", "pieces",
+            "extract", "syrup", "butter", "cream", "salsa", "chips", "crumbs", "spread", "jam", "blend", "mix",
+            "pods", "rings", "sticks"
+    };
+
+    private EdamamFixtures() {
+    }
+
+    /**
+     * Returns distinct ingredient names in random order, such as "smoked salmon fillet", built from
+     * preparations, the catalog foods and forms (at most about 110k names).
+     */
+    public static List<String> ingredientNames(int count, long seed) {
+        final int combinations = INGREDIENT_PREPARATIONS.length * CATALOG_FOODS.length * INGREDIENT_FORMS.length;
+        if (count > combinations) {
+            throw new IllegalArgumentException("At most " + combinations + " distinct ingredient names");
+        }
+        final List<String> names = new ArrayList<>(combinations);
+        for (String preparation : INGREDIENT_PREPARATIONS) {
+            for (String food : CATALOG_FOODS) {
+                for (String form : INGREDIENT_FORMS) {
+                    names.add(form.isEmpty() ? preparation + " " + food : preparation + " " + food + " " + form);
+                }
+            }
+        }
+        Collections.shuffle(names, new Random(seed));
+        return new ArrayList<>(names.subList(0, count));
+    }
+
+    /**
+     * Returns parsed recipes shaped like catalog rows. Ingredient popularity is skewed so that staples
+     * such as salt and garlic occur in most recipes and spices like saffron in few, as in real data.
+     */
+    public static List<Recipe> catalogRecipes(int count, long seed) {
+        final Random random = new Random(seed);
+        final List<Recipe> recipes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final int ingredientCount = 5 + random.nextInt(10);
+            final JSONArray lines = new JSONArray();
+            final List<Ingredient> ingredients = new ArrayList<>(ingredientCount);
+            String mainFood = null;
+            for (int j = 0; j < ingredientCount; j++) {
+                final double skew = random.nextDouble();
+                final String food = CATALOG_FOODS[(int) (CATALOG_FOODS.length * skew * skew)];
+                if (mainFood == null && j >= 2) {
+                    mainFood = food;
+                }
+                final double quantity = 1 + random.nextInt(4);
+                lines.put((int) quantity + " cups " + food + ", finely chopped");
+                ingredients.add(new Ingredient(j + 1, food, quantity, "cup"));
+            }
+            final String title = CATALOG_STYLES[random.nextInt(CATALOG_STYLES.length)] + " "
+                    + capitalize(mainFood) + " " + CATALOG_DISHES[random.nextInt(CATALOG_DISHES.length)];
+            final Recipe recipe = new Recipe(i + 1, title, "Source " + random.nextInt(500), ingredients,
+                    "https://example.com/recipes/" + i,
+                    new Nutrition(random.nextDouble() * 2000, random.nextDouble() * 100, random.nextDouble() * 100,
+                            random.nextDouble() * 200, random.nextDouble() * 30, random.nextDouble() * 50),
+                    new ArrayList<>(), lines, 2 + random.nextInt(6));
+            recipe.setUri("http://www.edamam.com/ontologies/edamam.owl#recipe_" + Long.toHexString(random.nextLong())
+                    + Integer.toHexString(i));
+            recipes.add(recipe);
+        }
+        return recipes;
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+
+    /**
+     * Returns a search response body with the given number of hits.
+     */
+    public static byte[] searchResponse(int hits, long seed) {
+        final Random random = new Random(seed);
+        final StringBuilder sb = new StringBuilder(hits * 24_000);
+        sb.append("{\"from\":1,\"to\":").append(hits).append(",\"count\":10000,");
+        sb.append("\"_links\":{\"next\":{\"href\":\"https://api.edamam.com/api/recipes/v2?q=chicken&_cont=")
+                .append(Long.toHexString(random.nextLong())).append("\",\"title\":\"Next page\"}},");
+        sb.append("\"hits\":[");
+        for (int i = 0; i < hits; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            appendHit(sb, i, random);
+        }
+        sb.append("]}");
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void appendHit(StringBuilder sb, int index, Random random) {
+        final String id = Long.toHexString(random.nextLong());
+        sb.append("{\"recipe\":{");
+        sb.append("\"uri\":\"http://www.edamam.com/ontologies/edamam.owl#recipe_").append(id).append("\",");
+        sb.append("\"label\":\"Recipe ").append(index).append(' ').append(FOODS[index % FOODS.length]).append("\",");
+        sb.append("\"image\":\"https://edamam-product-images.s3.amazonaws.com/web-img/").append(id)
+                .append(".jpg?X-Amz-Security-Token=").append("A".repeat(600)).append("\",");
+        sb.append("\"images\":{");
+        final String[] sizes = {"THUMBNAIL", "SMALL", "REGULAR", "LARGE"};
+        for (int s = 0; s < sizes.length; s++) {
+            if (s > 0) {
+                sb.append(',');
+            }
+            sb.append('"').append(sizes[s]).append("\":{\"url\":\"https://edamam-product-images.s3.amazonaws.com/")
+                    .append(id).append('-').append(s).append(".jpg?X-Amz-Security-Token=")
+                    .append("B".repeat(600)).append("\",\"width\":").append(100 * (s + 1))
+                    .append(",\"height\":").append(100 * (s + 1)).append('}');
+        }
+        sb.append("},");
+        sb.append("\"source\":\"Source ").append(index).append("\",");
+        sb.append("\"url\":\"https://example.com/recipes/").append(id).append("\",");
+        sb.append("\"shareAs\":\"http://www.edamam.com/recipe/").append(id).append("\",");
+        sb.append("\"yield\":").append(2 + random.nextInt(6)).append(".0,");
+        appendStringArray(sb, "dietLabels", "Balanced", "High-Protein");
+        sb.append(',');
+        appendStringArray(sb, "healthLabels", "Sugar-Conscious", "Kidney-Friendly", "Keto-Friendly",
+                "Paleo", "Dairy-Free", "Gluten-Free", "Wheat-Free", "Egg-Free", "Peanut-Free", "Tree-Nut-Free",
+                "Soy-Free", "Fish-Free", "Shellfish-Free", "Pork-Free", "Red-Meat-Free", "Crustacean-Free",
+                "Celery-Free", "Mustard-Free", "Sesame-Free", "Lupine-Free", "Mollusk-Free", "Alcohol-Free",
+                "Sulfite-Free");
+        sb.append(',');
+        appendStringArray(sb, "cautions", "Sulfites");
+
+        final int ingredientCount = 6 + random.nextInt(8);
+        sb.append(",\"ingredientLines\":[");
+        for (int j = 0; j < ingredientCount; j++) {
+            if (j > 0) {
+                sb.append(',');
+            }
+            sb.append("\"").append(1 + random.nextInt(4)).append(" cups ")
+                    .append(FOODS[(index + j) % FOODS.length]).append(", finely chopped\"");
+        }
+        sb.append("],\"ingredients\":[");
+        for (int j = 0; j < ingredientCount; j++) {
+            if (j > 0) {
+                sb.append(',');
+            }
+            final String food = FOODS[(index + j) % FOODS.length];
+            sb.append("{\"text\":\"1 cup ").append(food).append("\",\"quantity\":")
+                    .append(1 + random.nextInt(4)).append(".0,\"measure\":\"cup\",\"food\":\"").append(food)
+                    .append("\",\"weight\":").append(50 + random.nextInt(400))
+                    .append(".5,\"foodCategory\":\"vegetables\",\"foodId\":\"food_").append(Long.toHexString(random.nextLong()))
+                    .append("\",\"image\":\"https://www.edamam.com/food-img/").append(Long.toHexString(random.nextLong()))
+                    .append(".jpg\"}");
+        }
+        sb.append("],\"calories\":").append(random.nextDouble() * 2000);
+        sb.append(",\"totalWeight\":").append(random.nextDouble() * 2000);
+        sb.append(",\"totalTime\":0.0,");
+        appendStringArray(sb, "cuisineType", "american");
+        sb.append(',');
+        appendStringArray(sb, "mealType", "lunch/dinner");
+        sb.append(',');
+        appendStringArray(sb, "dishType", "main course");
+        sb.append(",\"totalNutrients\":");
+        appendNutrientMap(sb, random);
+        sb.append(",\"totalDaily\":");
+        appendNutrientMap(sb, random);
+        sb.append(",\"digest\":[");
+        for (int d = 0; d < 27; d++) {
+            if (d > 0) {
+                sb.append(',');
+            }
+            sb.append("{\"label\":\"").append(NUTRIENT_CODES[d]).append("\",\"tag\":\"").append(NUTRIENT_CODES[d])
+                    .append("\",\"schemaOrgTag\":\"fatContent\",\"total\":").append(random.nextDouble() * 100)
+                    .append(",\"hasRDI\":true,\"daily\":").append(random.nextDouble() * 100)
+                    .append(",\"unit\":\"g\",\"sub\":[");
+            for (int s = 0; s < 4; s++) {
+                if (s > 0) {
+                    sb.append(',');
+                }
+                sb.append("{\"label\":\"Sub ").append(s).append("\",\"tag\":\"").append(NUTRIENT_CODES[s])
+                        .append("\",\"total\":").append(random.nextDouble() * 10)
+                        .append(",\"hasRDI\":false,\"daily\":0.0,\"unit\":\"g\"}");
+            }
+            sb.append("]}");
+        }
+        sb.append("]},\"_links\":{\"self\":{\"href\":\"https://api.edamam.com/api/recipes/v2/").append(id)
+                .append("?type=public\",\"title\":\"Self\"}}}");
+    }
+
+    private static void appendNutrientMap(StringBuilder sb, Random random) {
+        sb.append('{');
+        for (int n = 0; n < NUTRIENT_CODES.length; n++) {
+            if (n > 0) {
+                sb.append(',');
+            }
+            sb.append('"').append(NUTRIENT_CODES[n]).append("\":{\"label\":\"").append(NUTRIENT_CODES[n])
+                    .append("\",\"quantity\":").append(random.nextDouble() * 500).append(",\"unit\":\"g\"}");
+        }
+        sb.append('}');
+    }
+
+    private static void appendStringArray(StringBuilder sb, String name, String... values) {
+        sb.append('"').append(name).append("\":[");
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append('"').append(values[i]).append('"');
+        }
+        sb.append(']');
+    }
+}
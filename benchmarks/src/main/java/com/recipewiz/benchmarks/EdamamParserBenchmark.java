@@ -0,0 +1,117 @@
+package com.recipewiz.benchmarks;
+
+import data_access.EdamamRecipeParser;
+import entity.Food;
+import entity.Ingredient;
+import entity.Nutrition;
+import entity.Recipe;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the streaming {@link EdamamRecipeParser} with the previous {@code String} +
+ * {@code JSONObject} tree path on a search response.
+ * <p>
+ * Run with {@code -prof gc} to see the allocation rate per operation next to the latency.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EdamamParserBenchmark {
+
+    @Param({"20"})
+    private int hits;
+
+    private byte[] payload;
+    private EdamamRecipeParser parser;
+
+    @Setup
+    public void setUp() {
+        payload = EdamamFixtures.searchResponse(hits, 42L);
+        parser = new EdamamRecipeParser();
+    }
+
+    @Benchmark
+    public List<Recipe> streaming() throws IOException {
+        return parser.parseSearchResponse(new ByteArrayInputStream(payload));
+    }
+
+    @Benchmark
+    public List<Recipe> jsonObjectTree() throws IOException {
+        // response.body().string() decodes the whole body before parsing
+        final String jsonData = new String(new ByteArrayInputStream(payload).readAllBytes(), StandardCharsets.UTF_8);
+        return parseWithJsonObject(jsonData);
+    }
+
+    /**
+     * The parsing path the search DAOs used before the streaming parser.
+     */
+    private static List<Recipe> parseWithJsonObject(String jsonData) {
+        final List<Recipe> recipes = new ArrayList<>();
+        final JSONObject jsonObject = new JSONObject(jsonData);
+        final JSONArray hitsArray = jsonObject.getJSONArray("hits");
+
+        for (int i = 0; i < hitsArray.length(); i++) {
+            final JSONObject recipeJson = hitsArray.getJSONObject(i).getJSONObject("recipe");
+
+            final String name = recipeJson.getString("label");
+            final JSONArray jsonIngredient = recipeJson.getJSONArray("ingredientLines");
+            final String description = recipeJson.optString("source", "No description available");
+            final String instructions = recipeJson.optString("url", "Instructions not available");
+
+            final JSONArray ingredientsArray = recipeJson.getJSONArray("ingredients");
+            final List<Ingredient> ingredients = new ArrayList<>();
+            for (int j = 0; j < ingredientsArray.length(); j++) {
+                final JSONObject ingredientJson = ingredientsArray.getJSONObject(j);
+                ingredients.add(new Ingredient(j + 1,
+                        ingredientJson.getString("food"),
+                        ingredientJson.optDouble("quantity", 0.0),
+                        ingredientJson.optString("measure", "")));
+            }
+
+            final JSONObject totalNutrients = recipeJson.optJSONObject("totalNutrients");
+            final Nutrition nutrition = totalNutrients == null
+                    ? new Nutrition(0, 0, 0, 0, 0, 0)
+                    : new Nutrition(
+                    quantity(totalNutrients, "ENERC_KCAL"),
+                    quantity(totalNutrients, "PROCNT"),
+                    quantity(totalNutrients, "FAT"),
+                    quantity(totalNutrients, "CHOCDF"),
+                    quantity(totalNutrients, "FIBTG"),
+                    quantity(totalNutrients, "SUGAR"));
+
+            final List<Food> food = new ArrayList<>();
+            final int servings = (int) Math.max(1, recipeJson.optDouble("yield", 1));
+
+            recipes.add(new Recipe(i + 1, name, description, ingredients, instructions, nutrition, food,
+                    jsonIngredient, servings));
+        }
+        return recipes;
+    }
+
+    private static double quantity(JSONObject nutrients, String key) {
+        final JSONObject entry = nutrients.optJSONObject(key);
+        return entry != null ? entry.optDouble("quantity", 0) : 0;
+    }
+}
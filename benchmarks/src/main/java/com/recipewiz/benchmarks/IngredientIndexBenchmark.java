@@ -0,0 +1,106 @@
+package com.recipewiz.benchmarks;
+
+import data_access.IngredientIndex;
+import entity.Ingredient;
+import entity.Recipe;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Pantry search ("recipes missing at most N of my ingredients, best coverage first") with the bitmap
+ * {@link IngredientIndex} vs. a linear scan over every recipe's ingredient ids.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class IngredientIndexBenchmark {
+
+    private static final List<String> PANTRY = List.of(
+            "salt", "olive oil", "garlic", "onion", "butter", "black pepper", "egg", "chicken", "rice", "lemon",
+            "parsley", "tomato");
+
+    @Param({"300000"})
+    private int recipes;
+
+    @Param({"0", "2"})
+    private int maxMissing;
+
+    private IngredientIndex index;
+    private int[][] recipeIngredients;
+    private boolean[] inPantry;
+
+    @Setup
+    public void setUp() {
+        index = new IngredientIndex();
+        final Map<String, Integer> ingredientIds = new HashMap<>();
+        recipeIngredients = new int[recipes][];
+        final List<Recipe> catalog = EdamamFixtures.catalogRecipes(recipes, 42L);
+        for (int i = 0; i < catalog.size(); i++) {
+            final Set<String> names = new LinkedHashSet<>();
+            for (Ingredient ingredient : catalog.get(i).getIngredients()) {
+                names.add(IngredientIndex.normalize(ingredient.getName()));
+            }
+            index.add(i + 1, names);
+            recipeIngredients[i] = names.stream()
+                    .mapToInt(name -> ingredientIds.computeIfAbsent(name, key -> ingredientIds.size()))
+                    .toArray();
+        }
+        inPantry = new boolean[ingredientIds.size()];
+        for (String name : PANTRY) {
+            final Integer id = ingredientIds.get(name);
+            if (id != null) {
+                inPantry[id] = true;
+            }
+        }
+    }
+
+    @Benchmark
+    public List<IngredientIndex.Match> bitmapIndex() {
+        return index.search(PANTRY, maxMissing, 20);
+    }
+
+    @Benchmark
+    public List<IngredientIndex.Match> linearScan() {
+        final PriorityQueue<IngredientIndex.Match> best = new PriorityQueue<>(21,
+                (a, b) -> Double.compare(a.coverage(), b.coverage()));
+        for (int i = 0; i < recipeIngredients.length; i++) {
+            int matched = 0;
+            for (int ingredient : recipeIngredients[i]) {
+                if (inPantry[ingredient]) {
+                    matched++;
+                }
+            }
+            final int total = recipeIngredients[i].length;
+            if (matched > 0 && total - matched <= maxMissing) {
+                best.add(new IngredientIndex.Match(i + 1, matched, total));
+                if (best.size() > 20) {
+                    best.poll();
+                }
+            }
+        }
+        final List<IngredientIndex.Match> ranked = new ArrayList<>(best);
+        ranked.sort((a, b) -> Double.compare(b.coverage(), a.coverage()));
+        return ranked;
+    }
+}
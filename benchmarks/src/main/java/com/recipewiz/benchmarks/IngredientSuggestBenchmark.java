@@ -0,0 +1,95 @@
+package com.recipewiz.benchmarks;
+
+import data_access.IngredientSuggestionIndex;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Top 10 ingredient suggestions for a typed prefix among 100k distinct names with skewed recipe counts:
+ * {@link IngredientSuggestionIndex} (sorted UTF-8 names, max segment tree over the counts) vs. a scan of
+ * a name-to-count map. A one-letter prefix matches thousands of names, a longer one a handful.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class IngredientSuggestBenchmark {
+
+    private static final int LIMIT = 10;
+
+    private static final Comparator<Map.Entry<String, Integer>> LEAST_USED_FIRST = Comparator
+            .comparing(Map.Entry<String, Integer>::getValue)
+            .thenComparing(Map.Entry::getKey, Comparator.reverseOrder());
+
+    @Param({"100000"})
+    private int names;
+
+    @Param({"s", "smoked sa"})
+    private String prefix;
+
+    private IngredientSuggestionIndex index;
+    private Map<String, Integer> counts;
+
+    @Setup
+    public void setUp() {
+        index = new IngredientSuggestionIndex();
+        counts = new HashMap<>();
+        final Random random = new Random(42L);
+        for (String name : EdamamFixtures.ingredientNames(names, 42L)) {
+            // Pareto-like: most names are used by a few recipes, some by thousands
+            final int recipes = (int) Math.min(10_000, Math.pow(1 - random.nextDouble(), -1.5));
+            counts.put(name, recipes);
+            for (int i = 0; i < recipes; i++) {
+                index.add(List.of(name));
+            }
+        }
+    }
+
+    @Benchmark
+    public List<IngredientSuggestionIndex.Suggestion> prefixIndex() {
+        return index.suggest(prefix, LIMIT);
+    }
+
+    @Benchmark
+    public List<String> mapScan() {
+        final PriorityQueue<Map.Entry<String, Integer>> best = new PriorityQueue<>(LIMIT, LEAST_USED_FIRST);
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            if (!entry.getKey().startsWith(prefix)) {
+                continue;
+            }
+            if (best.size() < LIMIT) {
+                best.add(entry);
+            }
+            else if (LEAST_USED_FIRST.compare(entry, best.peek()) > 0) {
+                best.poll();
+                best.add(entry);
+            }
+        }
+        final List<Map.Entry<String, Integer>> ranked = new ArrayList<>(best);
+        ranked.sort(LEAST_USED_FIRST.reversed());
+        final List<String> suggestions = new ArrayList<>(ranked.size());
+        for (Map.Entry<String, Integer> entry : ranked) {
+            suggestions.add(entry.getKey());
+        }
+        return suggestions;
+    }
+}
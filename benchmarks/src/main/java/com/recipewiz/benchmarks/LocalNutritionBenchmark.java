@@ -0,0 +1,82 @@
+package com.recipewiz.benchmarks;
+
+import data_access.FoodCompositionTable;
+import data_access.IngredientLineParser;
+import entity.NutrientVector;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Analyzing a recipe's ingredient lines with the bundled {@link FoodCompositionTable}, which replaces an
+ * Edamam round trip for the lines it resolves: {@link IngredientLineParser} alone, and parsing, fuzzy
+ * matching and scaling each line's nutrients into a recipe total.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class LocalNutritionBenchmark {
+
+    private static final List<String> LINES = List.of(
+            "1 1/2 cups red lentils, rinsed", "2 boneless chicken breasts, diced", "3 cloves garlic, minced",
+            "1 onion, chopped", "2 tablespoons olive oil", "1 can (14 oz) coconut milk",
+            "1 teaspoon ground cumin", "1/2 teaspoon salt", "1/4 teaspoon black pepper", "200g spinach",
+            "2 large eggs, beaten", "1 cup rolled oats", "12 ounces spaghetti", "1/2 cup grated parmesan",
+            "2 tomatoes, chopped", "1 tablespoon grated ginger", "3 tablespoons soy sauce", "2 carrots, diced",
+            "4 salmon fillets (6 oz each)", "1 tablespoon honey", "2-3 stalks celery", "½ cup milk",
+            "1 red pepper, diced", "2 cups chicken broth", "1 tbsp peanut butter", "4 cups broccoli florets",
+            "3 cups cooked rice, chilled", "2 tablespoons butter, softened", "1 cup frozen peas",
+            "salt and pepper to taste");
+
+    @Param({"10", "30"})
+    private int lines;
+
+    private FoodCompositionTable table;
+    private List<String> recipe;
+
+    @Setup
+    public void setUp() {
+        table = new FoodCompositionTable(FoodCompositionTable.readBundled());
+        final Random random = new Random(42L);
+        recipe = new ArrayList<>();
+        for (int i = 0; i < lines; i++) {
+            recipe.add(LINES.get(random.nextInt(LINES.size())));
+        }
+    }
+
+    @Benchmark
+    public List<IngredientLineParser.ParsedLine> parseLines() {
+        final List<IngredientLineParser.ParsedLine> parsed = new ArrayList<>(recipe.size());
+        for (String line : recipe) {
+            parsed.add(IngredientLineParser.parse(line));
+        }
+        return parsed;
+    }
+
+    @Benchmark
+    public NutrientVector analyzeLines() {
+        final NutrientVector total = new NutrientVector();
+        for (String line : recipe) {
+            final NutrientVector nutrients = table.analyzeLine(line, 0.5);
+            if (nutrients != null) {
+                total.add(nutrients);
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,148 @@
+package com.recipewiz.benchmarks;
+
+import entity.Nutrient;
+import entity.NutrientCode;
+import entity.NutrientVector;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Adding up the nutrients of a recipe's ingredient lines, each reporting every nutrient of the dictionary
+ * as Edamam does: into a {@link NutrientVector} vs. the previous {@code Map<String, double[]>} with a
+ * second map for labels and units, which allocates a {@code double[]} per merge, rendered as strings.
+ * Run with {@code -prof gc} to compare bytes allocated per recipe.
+ * <ul>
+ *     <li>{@code *FromJson}: from the parsed Edamam answer, as for lines Edamam just analyzed</li>
+ *     <li>{@code *FromLines}: from per-line nutrients already extracted, as for cached lines</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class NutrientAggregationBenchmark {
+
+    @Param({"10", "30"})
+    private int lines;
+
+    private JSONObject analysis;
+    private List<Map<String, double[]>> lineMaps;
+    private Map<String, String[]> meta;
+    private List<NutrientVector> lineVectors;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(42L);
+        final JSONArray ingredients = new JSONArray();
+        lineMaps = new ArrayList<>();
+        meta = new LinkedHashMap<>();
+        lineVectors = new ArrayList<>();
+        for (int i = 0; i < lines; i++) {
+            final JSONObject nutrients = new JSONObject();
+            final Map<String, double[]> lineMap = new LinkedHashMap<>();
+            final NutrientVector lineVector = new NutrientVector();
+            for (NutrientCode code : NutrientCode.values()) {
+                final double quantity = random.nextDouble() * 100;
+                nutrients.put(code.code(), new JSONObject()
+                        .put("label", code.label())
+                        .put("quantity", quantity)
+                        .put("unit", code.unit()));
+                lineMap.put(code.code(), new double[] {quantity});
+                meta.put(code.code(), new String[] {code.label(), code.unit()});
+                lineVector.set(code, quantity);
+            }
+            ingredients.put(new JSONObject()
+                    .put("text", "ingredient line " + i)
+                    .put("parsed", new JSONArray().put(new JSONObject().put("nutrients", nutrients))));
+            lineMaps.add(lineMap);
+            lineVectors.add(lineVector);
+        }
+        analysis = new JSONObject().put("ingredients", ingredients);
+    }
+
+    @Benchmark
+    public List<String> mapOfArraysFromJson() {
+        final Map<String, double[]> aggregated = new LinkedHashMap<>();
+        final Map<String, String[]> labels = new LinkedHashMap<>();
+        final JSONArray ingredients = analysis.getJSONArray("ingredients");
+        for (int i = 0; i < ingredients.length(); i++) {
+            final JSONArray parsed = ingredients.getJSONObject(i).getJSONArray("parsed");
+            for (int j = 0; j < parsed.length(); j++) {
+                final JSONObject nutrients = parsed.getJSONObject(j).getJSONObject("nutrients");
+                for (String key : nutrients.keySet()) {
+                    final JSONObject n = nutrients.getJSONObject(key);
+                    final double qty = n.optDouble("quantity", 0);
+                    aggregated.merge(key, new double[] {qty}, (a, b) -> new double[] {a[0] + b[0]});
+                    labels.putIfAbsent(key, new String[] {n.optString("label", key), n.optString("unit", "")});
+                }
+            }
+        }
+        return format(aggregated, labels);
+    }
+
+    @Benchmark
+    public List<Nutrient> nutrientVectorFromJson() {
+        final NutrientVector total = new NutrientVector();
+        final JSONArray ingredients = analysis.getJSONArray("ingredients");
+        for (int i = 0; i < ingredients.length(); i++) {
+            final JSONArray parsed = ingredients.getJSONObject(i).getJSONArray("parsed");
+            for (int j = 0; j < parsed.length(); j++) {
+                final JSONObject nutrients = parsed.getJSONObject(j).getJSONObject("nutrients");
+                for (String key : nutrients.keySet()) {
+                    final NutrientCode code = NutrientCode.forCode(key);
+                    if (code != null) {
+                        total.add(code, nutrients.getJSONObject(key).optDouble("quantity", 0));
+                    }
+                }
+            }
+        }
+        return total.toNutrients();
+    }
+
+    @Benchmark
+    public List<String> mapOfArraysFromLines() {
+        final Map<String, double[]> aggregated = new LinkedHashMap<>();
+        for (Map<String, double[]> line : lineMaps) {
+            line.forEach((key, quantity) ->
+                    aggregated.merge(key, new double[] {quantity[0]}, (a, b) -> new double[] {a[0] + b[0]}));
+        }
+        return format(aggregated, meta);
+    }
+
+    @Benchmark
+    public List<Nutrient> nutrientVectorFromLines() {
+        final NutrientVector total = new NutrientVector();
+        for (NutrientVector line : lineVectors) {
+            total.add(line);
+        }
+        return total.toNutrients();
+    }
+
+    private static List<String> format(Map<String, double[]> aggregated, Map<String, String[]> labels) {
+        final List<String> result = new ArrayList<>();
+        for (String key : aggregated.keySet()) {
+            final String[] labelUnit = labels.get(key);
+            result.add(labelUnit[0] + ": " + Math.round(aggregated.get(key)[0]) + labelUnit[1]);
+        }
+        return result;
+    }
+}
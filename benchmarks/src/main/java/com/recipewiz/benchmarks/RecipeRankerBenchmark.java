@@ -0,0 +1,119 @@
+package com.recipewiz.benchmarks;
+
+import entity.Ingredient;
+import entity.Recipe;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import use_case.recipe_search.RankingPreferences;
+import use_case.recipe_search.RecipeRanker;
+
+/**
+ * Ranking a page of search hits by ingredient overlap, closeness to a macro target and similarity to 30
+ * saved recipes: {@link RecipeRanker} (hashed words in primitive arrays, packed sort keys) vs. the same
+ * scores computed with split strings, hash sets and a boxed comparator sort.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class RecipeRankerBenchmark {
+
+    private static final List<String> QUERY = List.of("chicken", "rice", "garlic");
+    private static final RankingPreferences.MacroTarget TARGET =
+            new RankingPreferences.MacroTarget(600.0, 35.0, null, 60.0);
+
+    @Param({"1000", "5000"})
+    private int candidates;
+
+    private final RecipeRanker ranker = new RecipeRanker(1.0, 0.5, 0.25);
+    private List<Recipe> hits;
+    private List<Recipe> saved;
+    private RecipeRanker.Query query;
+
+    @Setup
+    public void setUp() {
+        hits = EdamamFixtures.catalogRecipes(candidates, 42L);
+        saved = EdamamFixtures.catalogRecipes(30, 7L);
+        query = ranker.query(QUERY, TARGET, saved);
+    }
+
+    @Benchmark
+    public List<Recipe> primitiveRanker() {
+        return ranker.rank(hits, query);
+    }
+
+    @Benchmark
+    public List<Recipe> primitiveRankerWithQuery() {
+        return ranker.rank(hits, ranker.query(QUERY, TARGET, saved));
+    }
+
+    @Benchmark
+    public List<Recipe> boxedBaseline() {
+        final Set<String> queryWords = new HashSet<>();
+        for (String term : QUERY) {
+            queryWords.addAll(words(term));
+        }
+        final Set<String> savedWords = new HashSet<>();
+        for (Recipe recipe : saved) {
+            for (Ingredient ingredient : recipe.getIngredients()) {
+                savedWords.addAll(words(ingredient.getName()));
+            }
+        }
+
+        final Map<Recipe, Double> scores = new HashMap<>();
+        for (Recipe recipe : hits) {
+            final Set<String> recipeWords = new HashSet<>(words(recipe.getTitle()));
+            final List<String> ingredientWords = new ArrayList<>();
+            for (Ingredient ingredient : recipe.getIngredients()) {
+                ingredientWords.addAll(words(ingredient.getName()));
+            }
+            recipeWords.addAll(ingredientWords);
+            final long overlap = queryWords.stream().filter(recipeWords::contains).count();
+            final long inSaved = ingredientWords.stream().filter(savedWords::contains).count();
+
+            final double servings = Math.max(recipe.getServings(), 1);
+            final double error = (relativeError(recipe.getNutrition().getCalories() / servings, TARGET.calories())
+                    + relativeError(recipe.getNutrition().getProtein() / servings, TARGET.protein())
+                    + relativeError(recipe.getNutrition().getCarbohydrates() / servings, TARGET.carbohydrates())) / 3;
+
+            scores.put(recipe, 1.0 * overlap / queryWords.size() + 0.5 / (1 + error)
+                    + 0.25 * (ingredientWords.isEmpty() ? 0 : (double) inSaved / ingredientWords.size()));
+        }
+        final List<Recipe> ranked = new ArrayList<>(hits);
+        ranked.sort((a, b) -> Double.compare(scores.get(b), scores.get(a)));
+        return ranked;
+    }
+
+    private static List<String> words(String text) {
+        final List<String> words = new ArrayList<>();
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                words.add(word.length() > 3 && word.endsWith("s") ? word.substring(0, word.length() - 1) : word);
+            }
+        }
+        return words;
+    }
+
+    private static double relativeError(double value, double target) {
+        return Math.abs(value - target) / Math.max(target, 1);
+    }
+}
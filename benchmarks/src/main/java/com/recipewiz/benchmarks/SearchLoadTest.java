@@ -0,0 +1,248 @@
+package com.recipewiz.benchmarks;
+
+import com.recipewiz.backend.RecipeWizApplication;
+import com.recipewiz.emulator.EmulatorOptions;
+import com.recipewiz.emulator.UpstreamEmulator;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Load test of the recipe search endpoint against a slow Edamam, in each of the backend's execution modes:
+ * <ul>
+ *     <li>{@code platform}: blocking calls on Tomcat's platform thread pool (the default)</li>
+ *     <li>{@code async}: {@code recipewiz.async.enabled}, request threads released while Edamam is called</li>
+ *     <li>{@code virtual}: the {@code virtual-threads} profile, blocking calls on virtual threads (Java 21+)</li>
+ * </ul>
+ * <p>
+ * The upstream emulator stands in for Edamam and answers every search after a fixed delay without holding a
+ * thread while it waits. The backend is started once per mode with its Edamam base URL pointing at the
+ * emulator, and receives bursts of concurrent searches with distinct queries, so every one of them goes upstream. A level
+ * of concurrency counts as sustained when every search succeeds and the 99th percentile stays within twice
+ * the upstream delay. While a burst is in flight a cheap SQLite-backed endpoint is probed, to show whether
+ * request threads are still available for other work, and heap use and live platform threads are sampled
+ * halfway through the delay. Heap per request includes the load generator's share, which is the same in
+ * every mode; platform thread stacks are outside the heap and show up in the thread count instead.
+ * </p>
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar com.recipewiz.benchmarks.SearchLoadTest \
+ *     [--modes=platform,async,virtual] [--concurrency=250,500,1000] [--delay-ms=2000]
+ * </pre>
+ */
+public final class SearchLoadTest {
+
+    private static final Duration PROBE_INTERVAL = Duration.ofMillis(100);
+
+    private SearchLoadTest() {
+    }
+
+    private enum Mode {
+        PLATFORM, ASYNC, VIRTUAL;
+
+        List<String> arguments() {
+            return switch (this) {
+                case PLATFORM -> List.of();
+                case ASYNC -> List.of("--recipewiz.async.enabled=true");
+                case VIRTUAL -> List.of("--spring.profiles.active=virtual-threads");
+            };
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        final Map<String, String> options = parseOptions(args);
+        final List<Mode> modes = Arrays.stream(options.getOrDefault("modes", "platform,async,virtual").split(","))
+                .map(mode -> Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT)))
+                .toList();
+        final int[] levels = Arrays.stream(options.getOrDefault("concurrency", "250,500,1000").split(","))
+                .mapToInt(level -> Integer.parseInt(level.trim()))
+                .toArray();
+        final long delayMillis = Long.parseLong(options.getOrDefault("delay-ms", "2000"));
+
+        try (UpstreamEmulator upstream = UpstreamEmulator.start(
+                EmulatorOptions.parse("--port=0", "--latency=fixed:" + delayMillis + "ms"))) {
+            final List<Result> results = new ArrayList<>();
+            for (Mode mode : modes) {
+                if (mode == Mode.VIRTUAL && Runtime.version().feature() < 21) {
+                    System.out.printf("Skipping %s: needs Java 21, running %s%n", mode, Runtime.version());
+                    continue;
+                }
+                results.addAll(run(mode, levels, delayMillis, upstream.baseUrl()));
+            }
+            report(results, delayMillis);
+        }
+    }
+
+    private static List<Result> run(Mode mode, int[] levels, long delayMillis, String upstreamUrl) throws Exception {
+        final Path database = Files.createTempFile("recipewiz-load", ".db");
+        final List<String> arguments = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--server.tomcat.accept-count=" + Arrays.stream(levels).max().orElse(100),
+                "--spring.datasource.url=jdbc:sqlite:" + database,
+                "--logging.level.root=WARN",
+                "--recipewiz.deepseek.api-key=unused",
+                "--recipewiz.edamam.base-url=" + upstreamUrl,
+                "--recipewiz.edamam.quota.recipe-search.requests-per-minute=1000000",
+                "--recipewiz.edamam.quota.recipe-search.burst=100000",
+                "--recipewiz.edamam.circuit-breaker.slow-call-duration=60s"));
+        arguments.addAll(mode.arguments());
+        final ConfigurableApplicationContext context = new SpringApplicationBuilder(RecipeWizApplication.class)
+                .run(arguments.toArray(String[]::new));
+        try {
+            final String base = "http://127.0.0.1:" + context.getEnvironment().getProperty("local.server.port");
+            final HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+
+            // One request first, so class loading and connection setup are not measured
+            send(client, base + "/api/recipes/search?ingredients=warmup").join();
+
+            final List<Result> results = new ArrayList<>();
+            for (int level : levels) {
+                results.add(burst(mode, level, delayMillis, client, base));
+            }
+            return results;
+        }
+        finally {
+            context.close();
+            Files.deleteIfExists(database);
+        }
+    }
+
+    private static Result burst(Mode mode, int requests, long delayMillis, HttpClient client, String base) {
+        final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        memory.gc();
+        final long baselineHeap = memory.getHeapMemoryUsage().getUsed();
+
+        final AtomicBoolean loading = new AtomicBoolean(true);
+        final CompletableFuture<Long> probe = CompletableFuture.supplyAsync(
+                () -> probe(client, base + "/api/users/1/recipes", loading));
+
+        final long start = System.nanoTime();
+        final List<CompletableFuture<Long>> calls = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++) {
+            calls.add(send(client, base + "/api/recipes/search?ingredients=load-" + mode + "-" + requests + "-" + i));
+        }
+
+        // Halfway through the upstream delay every admitted search is waiting for Edamam
+        sleep(delayMillis / 2);
+        memory.gc();
+        final long heapPerRequest = (memory.getHeapMemoryUsage().getUsed() - baselineHeap) / requests;
+        final int liveThreads = threads.getThreadCount();
+
+        CompletableFuture.allOf(calls.stream()
+                .map(call -> call.exceptionally(failure -> -1L))
+                .toArray(CompletableFuture[]::new)).join();
+        final long wallNanos = System.nanoTime() - start;
+        loading.set(false);
+
+        final long[] latencies = calls.stream()
+                .mapToLong(call -> call.exceptionally(failure -> -1L).join())
+                .filter(latency -> latency >= 0)
+                .sorted()
+                .toArray();
+        return new Result(mode, requests, wallNanos, latencies, probe.join(), heapPerRequest, liveThreads);
+    }
+
+    private static void report(List<Result> results, long delayMillis) {
+        System.out.printf("%nConcurrent searches, Edamam answering after %d ms%n", delayMillis);
+        System.out.printf("%-9s %6s %6s %9s %8s %9s %9s %10s %12s %8s%n", "mode", "conc", "ok", "wall (s)",
+                "req/s", "p50 (ms)", "p99 (ms)", "probe (ms)", "heap/req KB", "threads");
+        final Map<Mode, Integer> sustained = new HashMap<>();
+        for (Result result : results) {
+            System.out.printf("%-9s %6d %6d %9.2f %8.1f %9d %9d %10d %12.1f %8d%n",
+                    result.mode.name().toLowerCase(Locale.ROOT), result.requests, result.latencies.length,
+                    result.wallNanos / 1e9, result.latencies.length / (result.wallNanos / 1e9),
+                    result.percentileMillis(50), result.percentileMillis(99), result.probeMaxMillis,
+                    result.heapPerRequest / 1024.0, result.liveThreads);
+            if (result.latencies.length == result.requests && result.percentileMillis(99) <= 2 * delayMillis) {
+                sustained.merge(result.mode, result.requests, Math::max);
+            }
+        }
+        System.out.println();
+        for (Mode mode : Mode.values()) {
+            if (results.stream().anyMatch(result -> result.mode == mode)) {
+                System.out.printf("%-9s sustained up to %d concurrent searches%n",
+                        mode.name().toLowerCase(Locale.ROOT), sustained.getOrDefault(mode, 0));
+            }
+        }
+    }
+
+    /**
+     * Sends a GET request and completes with its latency in nanoseconds, or fails unless it returns 200.
+     */
+    private static CompletableFuture<Long> send(HttpClient client, String uri) {
+        final HttpRequest request = HttpRequest.newBuilder(URI.create(uri)).timeout(Duration.ofMinutes(5)).build();
+        final long start = System.nanoTime();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).thenApply(response -> {
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException(uri + " returned " + response.statusCode());
+            }
+            return System.nanoTime() - start;
+        });
+    }
+
+    /**
+     * Calls the endpoint repeatedly while {@code loading} is set and returns the slowest response in ms.
+     */
+    private static long probe(HttpClient client, String uri, AtomicBoolean loading) {
+        long maxNanos = 0;
+        while (loading.get()) {
+            maxNanos = Math.max(maxNanos, send(client, uri).join());
+            sleep(PROBE_INTERVAL.toMillis());
+        }
+        return TimeUnit.NANOSECONDS.toMillis(maxNanos);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        }
+        catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        final Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            final int equals = arg.indexOf('=');
+            options.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+        return options;
+    }
+
+    private record Result(Mode mode, int requests, long wallNanos, long[] latencies, long probeMaxMillis,
+                          long heapPerRequest, int liveThreads) {
+
+        long percentileMillis(int percentile) {
+            if (latencies.length == 0) {
+                return 0;
+            }
+            final int index = (int) Math.ceil(percentile / 100.0 * latencies.length) - 1;
+            return TimeUnit.NANOSECONDS.toMillis(latencies[Math.max(0, index)]);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.recipewiz.emulator;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Command line options of the emulator, as {@code --name=value}. Latency, error rate and rate limit apply to
+ * every endpoint and can be overridden per endpoint with a {@code .<endpoint>} suffix, e.g.
+ * {@code --latency=lognormal:300ms-2s --latency.nutrition-analysis=uniform:1s-4s}.
+ * <ul>
+ *     <li>{@code port}: port to listen on, 0 for any free port (default 8089)</li>
+ *     <li>{@code fixtures}: directory with fixture files replacing the bundled ones (see {@link Fixtures})</li>
+ *     <li>{@code latency}: a {@link LatencyDistribution} (default {@code none})</li>
+ *     <li>{@code error-rate}: fraction of admitted requests answered with an error status (default 0)</li>
+ *     <li>{@code error-status}: comma separated statuses errors are drawn from (default 500,502,503)</li>
+ *     <li>{@code rate-limit}: requests per minute before answering 429, 0 for none (default 0)</li>
+ *     <li>{@code burst}: requests admitted at once under a rate limit (default 10)</li>
+ *     <li>{@code search-pages}: number of result pages every search has (default 3)</li>
+ *     <li>{@code seed}: seed of latencies and errors, for repeatable runs (default random)</li>
+ * </ul>
+ */
+public final class EmulatorOptions {
+
+    private static final String DEFAULT_LATENCY = "none";
+    private static final String DEFAULT_ERROR_STATUSES = "500,502,503";
+    private static final Set<String> OPTIONS = Set.of("port", "fixtures", "error-status", "search-pages", "seed");
+    private static final Set<String> ENDPOINT_OPTIONS = Set.of("latency", "error-rate", "rate-limit", "burst");
+
+    private final Map<String, String> options;
+    private final Map<Endpoint, EndpointBehavior> behaviors = new EnumMap<>(Endpoint.class);
+
+    private EmulatorOptions(Map<String, String> options) {
+        this.options = options;
+        final int[] errorStatuses = Arrays.stream(get("error-status", DEFAULT_ERROR_STATUSES).split(","))
+                .mapToInt(status -> Integer.parseInt(status.trim()))
+                .toArray();
+        for (Endpoint endpoint : Endpoint.values()) {
+            final double requestsPerMinute = Double.parseDouble(get("rate-limit", endpoint, "0"));
+            final int burst = Integer.parseInt(get("burst", endpoint, "10"));
+            behaviors.put(endpoint, new EndpointBehavior(
+                    LatencyDistribution.parse(get("latency", endpoint, DEFAULT_LATENCY)),
+                    Double.parseDouble(get("error-rate", endpoint, "0")),
+                    errorStatuses,
+                    requestsPerMinute > 0 ? new RateLimit(requestsPerMinute, burst) : null));
+        }
+    }
+
+    public static EmulatorOptions parse(String... args) {
+        final Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            final int equals = arg.indexOf('=');
+            options.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+        // Fail on misspelt options rather than silently running with the defaults
+        for (String name : options.keySet()) {
+            final int dot = name.indexOf('.');
+            if (dot < 0 && !OPTIONS.contains(name) && !ENDPOINT_OPTIONS.contains(name)
+                    || dot >= 0 && !ENDPOINT_OPTIONS.contains(name.substring(0, dot))) {
+                throw new IllegalArgumentException("Unknown option --" + name);
+            }
+            if (dot >= 0) {
+                Endpoint.forTag(name.substring(dot + 1));
+            }
+        }
+        return new EmulatorOptions(options);
+    }
+
+    public int port() {
+        return Integer.parseInt(get("port", "8089"));
+    }
+
+    /**
+     * @return the fixture directory, or null to use the bundled fixtures
+     */
+    public Path fixtures() {
+        final String fixtures = options.get("fixtures");
+        return fixtures == null ? null : Path.of(fixtures);
+    }
+
+    public int searchPages() {
+        return Integer.parseInt(get("search-pages", "3"));
+    }
+
+    /**
+     * @return the seed of the random draws, or null for a random seed
+     */
+    public Long seed() {
+        final String seed = options.get("seed");
+        return seed == null ? null : Long.valueOf(seed);
+    }
+
+    public EndpointBehavior behavior(Endpoint endpoint) {
+        return behaviors.get(endpoint);
+    }
+
+    private String get(String name, String defaultValue) {
+        return options.getOrDefault(name, defaultValue);
+    }
+
+    private String get(String name, Endpoint endpoint, String defaultValue) {
+        return options.getOrDefault(name + "." + endpoint.tag(), get(name, defaultValue));
+    }
+
+    /**
+     * How one endpoint misbehaves.
+     *
+     * @param latency       delay before each answer
+     * @param errorRate     fraction of admitted requests that fail
+     * @param errorStatuses statuses a failure is answered with, drawn uniformly
+     * @param rateLimit     the endpoint's quota, or null if it has none
+     */
+    public record EndpointBehavior(LatencyDistribution latency, double errorRate, int[] errorStatuses,
+                                   RateLimit rateLimit) {
+    }
+}
@@ -0,0 +1,52 @@
+package com.recipewiz.emulator;
+
+import java.util.Locale;
+
+/**
+ * The upstream endpoints the emulator serves. Edamam and DeepSeek paths do not overlap, so both APIs are
+ * served from one port. Tags match the {@code endpoint} tags of the backend's Edamam metrics.
+ */
+public enum Endpoint {
+    RECIPE_SEARCH("recipe-search", "GET", "/api/recipes/v2"),
+    RECIPE_LOOKUP("recipe-lookup", "GET", "/api/recipes/v2/by-uri"),
+    NUTRITION_ANALYSIS("nutrition-analysis", "POST", "/api/nutrition-details"),
+    DEEPSEEK_CHAT("deepseek-chat", "POST", "/chat/completions");
+
+    private final String tag;
+    private final String method;
+    private final String path;
+
+    Endpoint(String tag, String method, String path) {
+        this.tag = tag;
+        this.method = method;
+        this.path = path;
+    }
+
+    public String tag() {
+        return tag;
+    }
+
+    public String method() {
+        return method;
+    }
+
+    public String path() {
+        return path;
+    }
+
+    public boolean isEdamam() {
+        return this != DEEPSEEK_CHAT;
+    }
+
+    /**
+     * Returns the endpoint with the given tag, e.g. {@code recipe-search}.
+     */
+    public static Endpoint forTag(String tag) {
+        for (Endpoint endpoint : values()) {
+            if (endpoint.tag.equals(tag.toLowerCase(Locale.ROOT))) {
+                return endpoint;
+            }
+        }
+        throw new IllegalArgumentException("Unknown endpoint " + tag);
+    }
+}
@@ -0,0 +1,285 @@
+package com.recipewiz.emulator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Recorded upstream payloads and the responses the emulator builds from them. A fixture directory may
+ * replace any of the bundled files:
+ * <ul>
+ *     <li>{@code recipe-search.json}: one recipe search page; every page of every search returns its hits,
+ *     and lookups by URI find any of them</li>
+ *     <li>{@code nutrition-analysis.json}: a nutrition-details answer; each line of a request is answered
+ *     with the recorded ingredient of the same text, or else one picked by the text, and totals are summed
+ *     over the lines</li>
+ *     <li>{@code deepseek-chat.json}: a chat completion, whose meal plan is rewritten to use the recipe ids
+ *     and dates of each request</li>
+ * </ul>
+ * Search pages link to the next one through the emulator until the configured number of pages is reached.
+ */
+public final class Fixtures {
+
+    static final String RECIPE_SEARCH = "recipe-search.json";
+    static final String NUTRITION_ANALYSIS = "nutrition-analysis.json";
+    static final String DEEPSEEK_CHAT = "deepseek-chat.json";
+
+    // Rows of the recipe table, which start with the recipe's short id, or recipeId=<id> lines
+    private static final Pattern RECIPE_ID = Pattern.compile("(?m)^(?:recipeId=)?(\\d+)[,| ]");
+    private static final Pattern DATE_FROM = Pattern.compile("From:\\s*(\\d{4}-\\d{2}-\\d{2})");
+    private static final Pattern DATE_TO = Pattern.compile("To:\\s*(\\d{4}-\\d{2}-\\d{2})");
+    private static final String[] MEAL_TYPES = {"Breakfast", "Lunch", "Dinner"};
+    private static final int MAX_PLAN_DAYS = 31;
+
+    private final List<byte[]> searchPages = new ArrayList<>();
+    private final Map<String, JSONObject> hitsByUri = new LinkedHashMap<>();
+    private final String nutritionAnalysis;
+    private final Map<String, JSONObject> nutritionByLine = new LinkedHashMap<>();
+    private final String chatCompletion;
+
+    private Fixtures(JSONObject searchPage, String nutritionAnalysis, String chatCompletion, String baseUrl,
+                     int pages) {
+        final JSONArray hits = searchPage.getJSONArray("hits");
+        for (int i = 0; i < hits.length(); i++) {
+            final JSONObject hit = hits.getJSONObject(i);
+            hitsByUri.put(hit.getJSONObject("recipe").getString("uri"), hit);
+        }
+        for (int page = 1; page <= pages; page++) {
+            final JSONObject links = new JSONObject();
+            if (page < pages) {
+                links.put("next", new JSONObject()
+                        .put("title", "Next page")
+                        .put("href", baseUrl + Endpoint.RECIPE_SEARCH.path() + "?type=public&_cont=" + (page + 1)));
+            }
+            searchPage.put("from", (page - 1) * hits.length() + 1)
+                    .put("to", page * hits.length())
+                    .put("_links", links);
+            searchPages.add(searchPage.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        final JSONArray ingredients = new JSONObject(nutritionAnalysis).getJSONArray("ingredients");
+        for (int i = 0; i < ingredients.length(); i++) {
+            final JSONObject ingredient = ingredients.getJSONObject(i);
+            nutritionByLine.put(lineKey(ingredient.getString("text")), ingredient);
+        }
+        if (nutritionByLine.isEmpty()) {
+            throw new JSONException(NUTRITION_ANALYSIS + " has no ingredients");
+        }
+        this.nutritionAnalysis = nutritionAnalysis;
+        this.chatCompletion = chatCompletion;
+    }
+
+    /**
+     * Loads the fixtures, from {@code directory} where it has them and from the bundled ones otherwise.
+     *
+     * @param baseUrl URL of the emulator, which search pages link to
+     * @param pages   number of pages every search has
+     */
+    public static Fixtures load(Path directory, String baseUrl, int pages) throws IOException {
+        if (pages < 1) {
+            throw new IllegalArgumentException("A search has at least one page");
+        }
+        try {
+            return new Fixtures(new JSONObject(read(directory, RECIPE_SEARCH)),
+                    read(directory, NUTRITION_ANALYSIS),
+                    read(directory, DEEPSEEK_CHAT), baseUrl, pages);
+        }
+        catch (JSONException exception) {
+            throw new IOException("Invalid fixture: " + exception.getMessage(), exception);
+        }
+    }
+
+    /**
+     * Returns the search page a continuation cursor points to; the first page without one, the last page
+     * for cursors past it.
+     *
+     * @throws IllegalArgumentException if the cursor is not one the emulator issued
+     */
+    public byte[] searchPage(String cursor) {
+        if (cursor == null) {
+            return searchPages.get(0);
+        }
+        final int page;
+        try {
+            page = Integer.parseInt(cursor);
+        }
+        catch (NumberFormatException exception) {
+            throw new IllegalArgumentException("Unknown _cont " + cursor, exception);
+        }
+        if (page < 1) {
+            throw new IllegalArgumentException("Unknown _cont " + cursor);
+        }
+        return searchPages.get(Math.min(page, searchPages.size()) - 1);
+    }
+
+    /**
+     * Returns a by-URI lookup answer with the recorded recipes among the URIs; unknown URIs are left out,
+     * as Edamam does.
+     */
+    public byte[] lookup(Collection<String> uris) {
+        final JSONArray hits = new JSONArray();
+        for (String uri : uris) {
+            final JSONObject hit = hitsByUri.get(uri);
+            if (hit != null) {
+                hits.put(hit);
+            }
+        }
+        return new JSONObject()
+                .put("from", hits.isEmpty() ? 0 : 1)
+                .put("to", hits.length())
+                .put("count", hits.length())
+                .put("_links", new JSONObject())
+                .put("hits", hits)
+                .toString()
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the recorded nutrition-details answer rebuilt for the requested lines, in their order. A line
+     * gets the recorded ingredient of the same text, or else always the same one picked by its text, so
+     * repeated lines get repeated answers as they do from Edamam. {@code calories}, {@code totalWeight} and
+     * {@code totalNutrients} are summed over the lines.
+     */
+    public byte[] nutritionAnalysis(JSONArray lines) {
+        final JSONObject analysis = new JSONObject(nutritionAnalysis);
+        final List<JSONObject> recorded = new ArrayList<>(nutritionByLine.values());
+        final JSONArray ingredients = new JSONArray();
+        final JSONObject totalNutrients = new JSONObject();
+        double totalWeight = 0;
+        for (int i = 0; i < lines.length(); i++) {
+            final String line = lines.getString(i);
+            final JSONObject match = nutritionByLine.getOrDefault(lineKey(line),
+                    recorded.get(Math.floorMod(lineKey(line).hashCode(), recorded.size())));
+            final JSONObject ingredient = new JSONObject(match.toString()).put("text", line);
+            ingredients.put(ingredient);
+            final JSONArray parsed = ingredient.optJSONArray("parsed");
+            for (int j = 0; parsed != null && j < parsed.length(); j++) {
+                final JSONObject food = parsed.getJSONObject(j);
+                totalWeight += food.optDouble("weight", 0);
+                final JSONObject nutrients = food.optJSONObject("nutrients");
+                if (nutrients != null) {
+                    addNutrients(totalNutrients, nutrients);
+                }
+            }
+        }
+        final JSONObject energy = totalNutrients.optJSONObject("ENERC_KCAL");
+        return analysis.put("ingredients", ingredients)
+                .put("totalNutrients", totalNutrients)
+                .put("totalWeight", totalWeight)
+                .put("calories", energy == null ? 0 : Math.round(energy.getDouble("quantity")))
+                .toString()
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void addNutrients(JSONObject totals, JSONObject nutrients) {
+        for (String code : nutrients.keySet()) {
+            final JSONObject nutrient = nutrients.getJSONObject(code);
+            final JSONObject total = totals.optJSONObject(code);
+            if (total == null) {
+                totals.put(code, new JSONObject(nutrient.toString()));
+            }
+            else {
+                total.put("quantity", total.optDouble("quantity", 0) + nutrient.optDouble("quantity", 0));
+            }
+        }
+    }
+
+    private static String lineKey(String line) {
+        return line.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns the recorded chat completion with its meal plan rebuilt from the recipe ids (the ids of the
+     * recipe table's rows) and date range in the request's user message: up to three meals a day, cycling
+     * through the recipes. Requests that name no recipes or dates get the recorded completion unchanged.
+     */
+    public byte[] chatCompletion(String requestBody) {
+        final JSONObject completion = new JSONObject(chatCompletion);
+        final String prompt = userMessage(new JSONObject(requestBody));
+        final List<Long> recipeIds = new ArrayList<>();
+        final Matcher recipeId = RECIPE_ID.matcher(prompt);
+        while (recipeId.find()) {
+            recipeIds.add(Long.parseLong(recipeId.group(1)));
+        }
+        final LocalDate from = date(DATE_FROM, prompt);
+        final LocalDate to = date(DATE_TO, prompt);
+        if (recipeIds.isEmpty() || from == null || to == null) {
+            return completion.toString().getBytes(StandardCharsets.UTF_8);
+        }
+
+        final JSONArray mealPlan = new JSONArray();
+        final int mealsPerDay = Math.min(MEAL_TYPES.length, recipeIds.size());
+        int next = 0;
+        for (LocalDate day = from; !day.isAfter(to) && day.isBefore(from.plusDays(MAX_PLAN_DAYS));
+             day = day.plusDays(1)) {
+            for (int meal = 0; meal < mealsPerDay; meal++) {
+                mealPlan.put(new JSONObject()
+                        .put("recipeId", recipeIds.get(next++ % recipeIds.size()))
+                        .put("mealDate", day.toString())
+                        .put("mealType", MEAL_TYPES[meal]));
+            }
+        }
+        final String content = new JSONObject().put("mealPlan", mealPlan).toString();
+        completion.getJSONArray("choices").getJSONObject(0).getJSONObject("message").put("content", content);
+
+        // Roughly four characters per token, as DeepSeek counts English text
+        final JSONObject usage = completion.optJSONObject("usage");
+        if (usage != null) {
+            usage.put("prompt_tokens", requestBody.length() / 4)
+                    .put("completion_tokens", content.length() / 4)
+                    .put("total_tokens", requestBody.length() / 4 + content.length() / 4);
+        }
+        return completion.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String userMessage(JSONObject request) {
+        final JSONArray messages = request.optJSONArray("messages");
+        String content = "";
+        for (int i = 0; messages != null && i < messages.length(); i++) {
+            final JSONObject message = messages.optJSONObject(i);
+            if (message != null && "user".equals(message.optString("role"))) {
+                content = message.optString("content", "");
+            }
+        }
+        return content;
+    }
+
+    private static LocalDate date(Pattern pattern, String text) {
+        final Matcher matcher = pattern.matcher(text);
+        if (!matcher.find()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(matcher.group(1));
+        }
+        catch (DateTimeParseException exception) {
+            return null;
+        }
+    }
+
+    private static String read(Path directory, String name) throws IOException {
+        if (directory != null && Files.isRegularFile(directory.resolve(name))) {
+            return Files.readString(directory.resolve(name));
+        }
+        try (InputStream bundled = Fixtures.class.getResourceAsStream("/fixtures/" + name)) {
+            if (bundled == null) {
+                throw new IOException("Missing bundled fixture " + name);
+            }
+            return new String(bundled.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
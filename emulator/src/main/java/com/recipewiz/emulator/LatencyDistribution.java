@@ -0,0 +1,89 @@
+package com.recipewiz.emulator;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * How long the emulator waits before answering a request. Written as
+ * <ul>
+ *     <li>{@code none}: answer at once</li>
+ *     <li>{@code fixed:200ms}: always the same delay</li>
+ *     <li>{@code uniform:100ms-800ms}: uniformly between two delays</li>
+ *     <li>{@code lognormal:300ms-2s}: log-normal with the given median and 99th percentile, the long-tailed
+ *     shape of real API latencies</li>
+ * </ul>
+ * Delays are in {@code ms} or {@code s}; a bare number is milliseconds.
+ */
+@FunctionalInterface
+public interface LatencyDistribution {
+
+    /** 99th percentile of the standard normal distribution. */
+    double Z_99 = 2.3263478740408408;
+
+    LatencyDistribution NONE = random -> 0L;
+
+    /**
+     * Draws a delay in nanoseconds.
+     */
+    long sampleNanos(Random random);
+
+    static LatencyDistribution fixed(long nanos) {
+        return random -> nanos;
+    }
+
+    static LatencyDistribution uniform(long minNanos, long maxNanos) {
+        if (maxNanos < minNanos) {
+            throw new IllegalArgumentException("Uniform latency needs min <= max");
+        }
+        return random -> minNanos + (long) (random.nextDouble() * (maxNanos - minNanos));
+    }
+
+    static LatencyDistribution logNormal(long medianNanos, long p99Nanos) {
+        if (medianNanos <= 0 || p99Nanos < medianNanos) {
+            throw new IllegalArgumentException("Log-normal latency needs 0 < median <= p99");
+        }
+        final double sigma = Math.log((double) p99Nanos / medianNanos) / Z_99;
+        return random -> (long) (medianNanos * Math.exp(sigma * random.nextGaussian()));
+    }
+
+    static LatencyDistribution parse(String spec) {
+        final String trimmed = spec.trim().toLowerCase(Locale.ROOT);
+        if (trimmed.equals("none")) {
+            return NONE;
+        }
+        final int colon = trimmed.indexOf(':');
+        if (colon < 0) {
+            throw new IllegalArgumentException("Expected <shape>:<delays>, got " + spec);
+        }
+        final String shape = trimmed.substring(0, colon);
+        final String[] delays = trimmed.substring(colon + 1).split("-");
+        final int expected = switch (shape) {
+            case "fixed" -> 1;
+            case "uniform", "lognormal" -> 2;
+            default -> throw new IllegalArgumentException("Unknown latency distribution " + shape);
+        };
+        if (delays.length != expected) {
+            throw new IllegalArgumentException("Wrong number of delays in " + spec);
+        }
+        return switch (shape) {
+            case "fixed" -> fixed(parseNanos(delays[0]));
+            case "uniform" -> uniform(parseNanos(delays[0]), parseNanos(delays[1]));
+            default -> logNormal(parseNanos(delays[0]), parseNanos(delays[1]));
+        };
+    }
+
+    private static long parseNanos(String delay) {
+        final String trimmed = delay.trim();
+        final double millis;
+        if (trimmed.endsWith("ms")) {
+            millis = Double.parseDouble(trimmed.substring(0, trimmed.length() - 2));
+        }
+        else if (trimmed.endsWith("s")) {
+            millis = Double.parseDouble(trimmed.substring(0, trimmed.length() - 1)) * 1000;
+        }
+        else {
+            millis = Double.parseDouble(trimmed);
+        }
+        return Math.round(millis * 1_000_000);
+    }
+}
@@ -0,0 +1,41 @@
+package com.recipewiz.emulator;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket that throttles an endpoint the way Edamam enforces an application's per-minute quota:
+ * {@code burst} requests at once, then one every {@code 60s / requestsPerMinute}. Thread-safe.
+ */
+public class RateLimit {
+
+    private final double nanosPerRequest;
+    private final double burst;
+    private double tokens;
+    private long refilledAt;
+
+    public RateLimit(double requestsPerMinute, int burst) {
+        if (requestsPerMinute <= 0 || burst < 1) {
+            throw new IllegalArgumentException("A rate limit needs requestsPerMinute > 0 and burst >= 1");
+        }
+        this.nanosPerRequest = TimeUnit.MINUTES.toNanos(1) / requestsPerMinute;
+        this.burst = burst;
+        this.tokens = burst;
+        this.refilledAt = System.nanoTime();
+    }
+
+    /**
+     * Takes one request from the bucket.
+     *
+     * @return 0 if the request is admitted, otherwise the nanoseconds until the next one will be
+     */
+    public synchronized long tryAcquire() {
+        final long now = System.nanoTime();
+        tokens = Math.min(burst, tokens + (now - refilledAt) / nanosPerRequest);
+        refilledAt = now;
+        if (tokens >= 1) {
+            tokens--;
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) * nanosPerRequest);
+    }
+}
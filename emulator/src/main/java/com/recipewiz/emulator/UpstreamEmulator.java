@@ -0,0 +1,251 @@
+package com.recipewiz.emulator;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.json.JSONException;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Local stand-in for {@code api.edamam.com} (recipe search, lookup by URI, nutrition details) and
+ * {@code api.deepseek.com} (chat completions), serving recorded {@link Fixtures} with configurable latency,
+ * errors and 429 throttling (see {@link EmulatorOptions}). Point the backend at it with the
+ * {@code emulator} profile, or with {@code recipewiz.edamam.base-url} and {@code recipewiz.deepseek.base-url}.
+ * <p>
+ * Every request is checked in the order the real APIs do: credentials (401), rate limit (429 at once, with
+ * {@code Retry-After}), then an injected error or the fixture answer after the drawn latency. Delays run on
+ * a scheduler, so any number of requests can wait at once without holding a thread. Request, throttle and
+ * error counts per endpoint are served as JSON at {@code /emulator/stats}.
+ * </p>
+ * <pre>
+ * java -jar emulator/target/emulator.jar [--port=8089] [--latency=lognormal:300ms-2s] [--error-rate=0.02] \
+ *     [--rate-limit=10] [--latency.nutrition-analysis=uniform:1s-4s] ...
+ * </pre>
+ */
+public final class UpstreamEmulator implements AutoCloseable {
+
+    private static final int BACKLOG = 4096;
+    private static final String STATS_PATH = "/emulator/stats";
+
+    private final EmulatorOptions options;
+    private final HttpServer server;
+    private final ExecutorService handlers;
+    private final ScheduledExecutorService responder;
+    private final Random random;
+    private final Fixtures fixtures;
+    private final Map<Endpoint, Counters> counters = new EnumMap<>(Endpoint.class);
+
+    private UpstreamEmulator(EmulatorOptions options) throws IOException {
+        this.options = options;
+        this.server = HttpServer.create(new InetSocketAddress(options.port()), BACKLOG);
+        this.random = options.seed() == null ? new Random() : new Random(options.seed());
+        this.fixtures = Fixtures.load(options.fixtures(), baseUrl(), options.searchPages());
+        this.handlers = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+        this.responder = Executors.newScheduledThreadPool(2);
+        for (Endpoint endpoint : Endpoint.values()) {
+            counters.put(endpoint, new Counters());
+            server.createContext(endpoint.path(), exchange -> handle(endpoint, exchange));
+        }
+        server.createContext(STATS_PATH, this::handleStats);
+        server.setExecutor(handlers);
+    }
+
+    /**
+     * Starts an emulator; {@code --port=0} picks a free port, see {@link #port()}.
+     */
+    public static UpstreamEmulator start(EmulatorOptions options) throws IOException {
+        final UpstreamEmulator emulator = new UpstreamEmulator(options);
+        emulator.server.start();
+        return emulator;
+    }
+
+    public static void main(String[] args) throws IOException {
+        final UpstreamEmulator emulator = start(EmulatorOptions.parse(args));
+        Runtime.getRuntime().addShutdownHook(new Thread(emulator::close));
+        System.out.printf("Emulating Edamam and DeepSeek at %s (stats at %s%s)%n",
+                emulator.baseUrl(), emulator.baseUrl(), STATS_PATH);
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Returns the URL to set as {@code recipewiz.edamam.base-url} and {@code recipewiz.deepseek.base-url}.
+     */
+    public String baseUrl() {
+        return "http://localhost:" + port();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        responder.shutdownNow();
+        handlers.shutdownNow();
+    }
+
+    private void handle(Endpoint endpoint, HttpExchange exchange) throws IOException {
+        final byte[] requestBody;
+        try (InputStream body = exchange.getRequestBody()) {
+            requestBody = body.readAllBytes();
+        }
+        final Counters endpointCounters = counters.get(endpoint);
+        endpointCounters.requests.increment();
+        if (!exchange.getRequestURI().getPath().equals(endpoint.path())) {
+            send(exchange, 404, errorBody(endpoint, "Not found"));
+            return;
+        }
+        if (!exchange.getRequestMethod().equals(endpoint.method())) {
+            send(exchange, 405, errorBody(endpoint, "Method not allowed"));
+            return;
+        }
+        final Map<String, List<String>> query = query(exchange.getRequestURI().getRawQuery());
+        if (!authorized(endpoint, exchange, query)) {
+            send(exchange, 401, errorBody(endpoint, "Unauthorized"));
+            return;
+        }
+
+        final EmulatorOptions.EndpointBehavior behavior = options.behavior(endpoint);
+        if (behavior.rateLimit() != null) {
+            final long waitNanos = behavior.rateLimit().tryAcquire();
+            if (waitNanos > 0) {
+                endpointCounters.throttled.increment();
+                final long retryAfterSeconds = TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1;
+                exchange.getResponseHeaders().set("Retry-After", Long.toString(retryAfterSeconds));
+                send(exchange, 429, errorBody(endpoint, "Too many requests"));
+                return;
+            }
+        }
+
+        int status = 200;
+        byte[] body;
+        if (random.nextDouble() < behavior.errorRate()) {
+            endpointCounters.errors.increment();
+            status = behavior.errorStatuses()[random.nextInt(behavior.errorStatuses().length)];
+            body = errorBody(endpoint, "Emulated upstream error");
+        }
+        else {
+            try {
+                body = answer(endpoint, query, new String(requestBody, StandardCharsets.UTF_8));
+            }
+            catch (IllegalArgumentException | JSONException exception) {
+                status = 400;
+                body = errorBody(endpoint, exception.getMessage());
+            }
+        }
+        final int responseStatus = status;
+        final byte[] responseBody = body;
+        responder.schedule(() -> send(exchange, responseStatus, responseBody),
+                behavior.latency().sampleNanos(random), TimeUnit.NANOSECONDS);
+    }
+
+    private byte[] answer(Endpoint endpoint, Map<String, List<String>> query, String requestBody) {
+        return switch (endpoint) {
+            case RECIPE_SEARCH -> {
+                if (first(query, "q") == null) {
+                    throw new IllegalArgumentException("Missing q");
+                }
+                yield fixtures.searchPage(first(query, "_cont"));
+            }
+            case RECIPE_LOOKUP -> fixtures.lookup(query.getOrDefault("uri", List.of()));
+            case NUTRITION_ANALYSIS -> {
+                final JSONArray lines = new JSONObject(requestBody).optJSONArray("ingr");
+                if (lines == null) {
+                    throw new IllegalArgumentException("Missing ingr");
+                }
+                yield fixtures.nutritionAnalysis(lines);
+            }
+            case DEEPSEEK_CHAT -> fixtures.chatCompletion(requestBody);
+        };
+    }
+
+    private static boolean authorized(Endpoint endpoint, HttpExchange exchange, Map<String, List<String>> query) {
+        if (endpoint.isEdamam()) {
+            return first(query, "app_id") != null && first(query, "app_key") != null;
+        }
+        final String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        return authorization != null && authorization.startsWith("Bearer ") && authorization.length() > 7;
+    }
+
+    private void handleStats(HttpExchange exchange) {
+        final JSONObject stats = new JSONObject();
+        for (Map.Entry<Endpoint, Counters> entry : counters.entrySet()) {
+            stats.put(entry.getKey().tag(), new JSONObject()
+                    .put("requests", entry.getValue().requests.sum())
+                    .put("throttled", entry.getValue().throttled.sum())
+                    .put("errors", entry.getValue().errors.sum()));
+        }
+        send(exchange, 200, stats.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Error bodies shaped like each API's own.
+     */
+    private static byte[] errorBody(Endpoint endpoint, String message) {
+        final JSONObject error = endpoint.isEdamam()
+                ? new JSONObject().put("status", "error").put("message", message)
+                : new JSONObject().put("error", new JSONObject().put("message", message).put("type", "api_error"));
+        return error.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) {
+        try (OutputStream responseBody = exchange.getResponseBody()) {
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, body.length);
+            responseBody.write(body);
+        }
+        catch (IOException exception) {
+            exchange.close();
+        }
+    }
+
+    private static Map<String, List<String>> query(String rawQuery) {
+        final Map<String, List<String>> parameters = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return parameters;
+        }
+        for (String pair : rawQuery.split("&")) {
+            final int equals = pair.indexOf('=');
+            final String name = equals < 0 ? pair : pair.substring(0, equals);
+            final String value = equals < 0 ? "" : pair.substring(equals + 1);
+            parameters.computeIfAbsent(URLDecoder.decode(name, StandardCharsets.UTF_8), ignored -> new ArrayList<>())
+                    .add(URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return parameters;
+    }
+
+    /**
+     * Returns the first non-blank value of a query parameter, or null.
+     */
+    private static String first(Map<String, List<String>> query, String name) {
+        for (String value : query.getOrDefault(name, List.of())) {
+            if (!value.isBlank()) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    private static final class Counters {
+        final LongAdder requests = new LongAdder();
+        final LongAdder throttled = new LongAdder();
+        final LongAdder errors = new LongAdder();
+    }
+}
@@ -1,7 +1,7 @@
 import { apiClient } from './client';
-import type { RecipeDto } from '../types/api';
+import type { NutrientDto, RecipeDto } from '../types/api';
 
-export const analyzeNutrition = async (recipe: RecipeDto): Promise<string[]> => {
-  const response = await apiClient.post<string[]>('/api/nutrition/analyze', recipe);
+export const analyzeNutrition = async (recipe: RecipeDto): Promise<NutrientDto[]> => {
+  const response = await apiClient.post<NutrientDto[]>('/api/nutrition/analyze', recipe);
   return response.data;
 };
@@ -4,6 +4,7 @@ import {
 } from '@chakra-ui/react';
 import { useTranslation } from 'react-i18next';
 import { motion } from 'framer-motion';
+import type { NutrientDto } from '../../../types/api';
 
 const MotionBox = motion(Box);
 
@@ -11,7 +12,7 @@ interface NutritionModalProps {
   isOpen: boolean;
   onClose: () => void;
   recipeName?: string;
-  nutritionInfo: string[];
+  nutritionInfo: NutrientDto[];
   isLoading: boolean;
   error?: string | null;
 }
@@ -28,6 +29,9 @@ const nutrientColor = (label: string): string => {
   return 'gray';
 };
 
+const formatQuantity = (quantity: number): string =>
+  quantity >= 10 ? String(Math.round(quantity)) : String(Math.round(quantity * 10) / 10);
+
 const COLOR_BG: Record<string, string> = {
   orange: '#FFF3E0', blue: '#E3F2FD', pink: '#FCE4EC', green: '#E8F5E9',
   purple: '#F3E5F5', teal: '#E0F2F1', gray: '#F5F5F5',
@@ -77,11 +81,11 @@ export const NutritionModal = ({
             </Box>
           ) : (
             <List spacing={2}>
-              {nutritionInfo.map((info, i) => {
-                const color = nutrientColor(info);
+              {nutritionInfo.map((nutrient, i) => {
+                const color = nutrientColor(nutrient.label);
                 return (
                   <MotionBox
-                    key={info}
+                    key={nutrient.code}
                     as={ListItem}
                     initial={{ opacity: 0, x: -12 }}
                     animate={{ opacity: 1, x: 0 }}
@@ -102,8 +106,11 @@ export const NutritionModal = ({
                         bg={COLOR_DOT[color]}
                         flexShrink={0}
                       />
-                      <Text fontSize="sm" color="gray.700" fontWeight={500}>
-                        {info}
+                      <Text fontSize="sm" color="gray.700" fontWeight={500} flex={1}>
+                        {nutrient.label}
+                      </Text>
+                      <Text fontSize="sm" color="gray.700" fontWeight={700}>
+                        {formatQuantity(nutrient.quantity)} {nutrient.unit}
                       </Text>
                     </Flex>
                   </MotionBox>
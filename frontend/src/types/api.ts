@@ -14,8 +14,16 @@ export interface NutritionDto {
   sugar: number;
 }
 
+export interface NutrientDto {
+  code: string;
+  label: string;
+  quantity: number;
+  unit: string;
+}
+
 export interface RecipeDto {
   recipeId: number;
+  uri?: string | null;
   title: string;
   description: string;
   instructions: string;
@@ -0,0 +1,116 @@
+package com.recipewiz.loadtest;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.json.JSONObject;
+
+/**
+ * Latencies and outcomes of the measured requests of one scenario. Thread-safe.
+ * <p>
+ * Response time runs from the moment the request was due to be sent, as set by the request rate, so that
+ * a backend too slow to keep up is charged for the requests queued behind it (the load generator's own
+ * delays count as well, which is why the report shows its largest lag). Service time runs from the moment
+ * the request was actually sent. Both include failed requests and are kept with three significant digits.
+ * </p>
+ */
+final class EndpointResults {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Histogram responseTimes = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+    private final Histogram serviceTimes = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+    private final LongAdder ok = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final Map<Integer, LongAdder> errorStatuses = new ConcurrentHashMap<>();
+
+    /**
+     * Records one request.
+     *
+     * @param dueNanos  when the request was due to be sent
+     * @param sentNanos when it was sent
+     * @param doneNanos when its response or failure arrived
+     * @param status    the response status, or -1 if no response arrived
+     */
+    void record(long dueNanos, long sentNanos, long doneNanos, int status) {
+        responseTimes.recordValue(TimeUnit.NANOSECONDS.toMicros(doneNanos - dueNanos));
+        serviceTimes.recordValue(TimeUnit.NANOSECONDS.toMicros(doneNanos - sentNanos));
+        if (status < 0) {
+            failures.increment();
+        }
+        else if (status < 400) {
+            ok.increment();
+        }
+        else {
+            errorStatuses.computeIfAbsent(status, ignored -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * Adds the requests of {@code other} to these.
+     */
+    void add(EndpointResults other) {
+        responseTimes.add(other.responseTimes);
+        serviceTimes.add(other.serviceTimes);
+        ok.add(other.ok.sum());
+        failures.add(other.failures.sum());
+        other.errorStatuses.forEach((status, count) ->
+                errorStatuses.computeIfAbsent(status, ignored -> new LongAdder()).add(count.sum()));
+    }
+
+    long requests() {
+        return responseTimes.getTotalCount();
+    }
+
+    long ok() {
+        return ok.sum();
+    }
+
+    long errors() {
+        return requests() - ok();
+    }
+
+    /**
+     * Returns a response time percentile in milliseconds.
+     */
+    double responseTimeMillis(double percentile) {
+        return responseTimes.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    double maxResponseTimeMillis() {
+        return responseTimes.getMaxValue() / 1000.0;
+    }
+
+    /**
+     * @param seconds how long the requests were measured
+     */
+    JSONObject toJson(double seconds) {
+        final Map<String, Long> statuses = new TreeMap<>();
+        errorStatuses.forEach((status, count) -> statuses.put(Integer.toString(status), count.sum()));
+        return new JSONObject()
+                .put("requests", requests())
+                .put("ok", ok())
+                .put("errorStatuses", statuses)
+                .put("failures", failures.sum())
+                .put("throughput", ok() / seconds)
+                .put("responseTimeMs", percentiles(responseTimes))
+                .put("serviceTimeMs", percentiles(serviceTimes));
+    }
+
+    private static JSONObject percentiles(Histogram histogram) {
+        final JSONObject json = new JSONObject();
+        if (histogram.getTotalCount() == 0) {
+            return json;
+        }
+        return json.put("p50", histogram.getValueAtPercentile(50) / 1000.0)
+                .put("p95", histogram.getValueAtPercentile(95) / 1000.0)
+                .put("p99", histogram.getValueAtPercentile(99) / 1000.0)
+                .put("p999", histogram.getValueAtPercentile(99.9) / 1000.0)
+                .put("max", histogram.getMaxValue() / 1000.0)
+                .put("mean", histogram.getMean() / 1000.0);
+    }
+}
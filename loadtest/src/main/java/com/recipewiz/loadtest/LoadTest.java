@@ -0,0 +1,288 @@
+package com.recipewiz.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Open-loop load test of a running backend: requests of a weighted mix of {@link Scenario}s are started at a
+ * fixed rate whether or not earlier ones have been answered, as independent users would, and their
+ * latencies are recorded without coordinated omission (see {@link EndpointResults}).
+ * <p>
+ * Meant for a backend whose upstream APIs are the emulator module, so results do not depend on Edamam or
+ * DeepSeek and no quota is spent. Before the run the user gets a few saved recipes, which AI generation
+ * needs, from an ordinary search. After a warmup that is not measured, requests are measured for the
+ * given duration; the report shows throughput and p50/p95/p99/p99.9 response times per scenario, is
+ * written as JSON and can be compared with an earlier report.
+ * </p>
+ * <pre>
+ * java -jar loadtest/target/loadtest.jar --target=http://localhost:8080 --rate=50 --duration=2m \
+ *     [--mix=search:40,week-view:20,...] [--emulator=http://localhost:8089] [--baseline=earlier.json]
+ * </pre>
+ */
+public final class LoadTest {
+
+    private static final int SAVED_RECIPES = 3;
+    private static final int MAX_RECIPES = 20;
+    private static final String SETUP_QUERY = "chicken";
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        final LoadTestOptions options = LoadTestOptions.parse(args);
+        final HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        final Random random = options.seed() == null ? new Random() : new Random(options.seed());
+        final Workload workload = prepare(client, options);
+        final JSONObject upstreamBefore = upstreamStats(client, options.emulator());
+
+        final Instant startedAt = Instant.now();
+        final Map<Scenario, EndpointResults> results = new EnumMap<>(Scenario.class);
+        final long maxLagNanos = run(client, options, workload, random, results);
+
+        final JSONObject report = report(options, startedAt, results, maxLagNanos);
+        final JSONObject upstreamAfter = upstreamStats(client, options.emulator());
+        if (upstreamBefore != null && upstreamAfter != null) {
+            report.put("upstream", difference(upstreamBefore, upstreamAfter));
+        }
+        print(report);
+        if (options.baseline() != null) {
+            compare(new JSONObject(Files.readString(options.baseline())), report);
+        }
+        final Path output = options.output();
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        Files.writeString(output, report.toString(2));
+        System.out.printf("%nReport written to %s%n", output);
+    }
+
+    /**
+     * Finds recipes to send through an ordinary search and saves a few for the user.
+     */
+    private static Workload prepare(HttpClient client, LoadTestOptions options) throws IOException,
+            InterruptedException {
+        final Workload setup = new Workload(options.target(), options.user(), options.timeout(), List.of());
+        final HttpResponse<String> search = client.send(
+                setup.get("/api/recipes/search?ingredients=" + SETUP_QUERY), HttpResponse.BodyHandlers.ofString());
+        if (search.statusCode() != 200) {
+            throw new IllegalStateException("Setup search returned HTTP " + search.statusCode());
+        }
+        final JSONArray found = new JSONArray(search.body());
+        final List<JSONObject> recipes = new ArrayList<>();
+        for (int i = 0; i < found.length() && recipes.size() < MAX_RECIPES; i++) {
+            recipes.add(found.getJSONObject(i));
+        }
+        if (recipes.size() < SAVED_RECIPES) {
+            throw new IllegalStateException("Setup search found " + recipes.size() + " recipes, " + SAVED_RECIPES
+                    + " are needed; is the backend running with the emulator profile?");
+        }
+        for (JSONObject recipe : recipes.subList(0, SAVED_RECIPES)) {
+            final HttpResponse<Void> saved = client.send(
+                    setup.post("/api/users/" + options.user() + "/recipes", new JSONObject().put("recipe", recipe)),
+                    HttpResponse.BodyHandlers.discarding());
+            if (saved.statusCode() != 201) {
+                throw new IllegalStateException("Saving a setup recipe returned HTTP " + saved.statusCode());
+            }
+        }
+        return new Workload(options.target(), options.user(), options.timeout(), recipes);
+    }
+
+    /**
+     * Sends requests at the configured rate until the warmup and the measured duration have passed, then
+     * waits for the outstanding ones.
+     *
+     * @return the largest delay of a measured request behind its due time, in nanoseconds
+     */
+    private static long run(HttpClient client, LoadTestOptions options, Workload workload, Random random,
+                            Map<Scenario, EndpointResults> results) throws InterruptedException {
+        final Map<Scenario, Integer> mix = options.mix();
+        final Scenario[] scenarios = mix.keySet().toArray(Scenario[]::new);
+        final int[] cumulativeWeights = new int[scenarios.length];
+        int totalWeight = 0;
+        for (int i = 0; i < scenarios.length; i++) {
+            totalWeight += mix.get(scenarios[i]);
+            cumulativeWeights[i] = totalWeight;
+            results.put(scenarios[i], new EndpointResults());
+        }
+
+        final int maxInFlight = options.maxInFlight();
+        final Semaphore inFlight = new Semaphore(maxInFlight);
+        final double intervalNanos = TimeUnit.SECONDS.toNanos(1) / options.rate();
+        final long start = System.nanoTime();
+        final long measuredFrom = start + options.warmup().toNanos();
+        final long end = measuredFrom + options.duration().toNanos();
+        long maxLagNanos = 0;
+        for (long i = 0; ; i++) {
+            final long due = start + Math.round(i * intervalNanos);
+            if (due - end >= 0) {
+                break;
+            }
+            long wait;
+            while ((wait = due - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            final int draw = random.nextInt(totalWeight);
+            int pick = 0;
+            while (cumulativeWeights[pick] <= draw) {
+                pick++;
+            }
+            final EndpointResults endpoint = due - measuredFrom >= 0 ? results.get(scenarios[pick]) : null;
+            final HttpRequest request = scenarios[pick].request(workload, random);
+            inFlight.acquire();
+            final long sent = System.nanoTime();
+            if (endpoint != null) {
+                maxLagNanos = Math.max(maxLagNanos, sent - due);
+            }
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, failure) -> {
+                if (endpoint != null) {
+                    endpoint.record(due, sent, System.nanoTime(), response == null ? -1 : response.statusCode());
+                }
+                inFlight.release();
+            });
+        }
+        inFlight.acquire(maxInFlight);
+        return maxLagNanos;
+    }
+
+    private static JSONObject report(LoadTestOptions options, Instant startedAt,
+                                     Map<Scenario, EndpointResults> results, long maxLagNanos) {
+        final double seconds = options.duration().toNanos() / 1e9;
+        final JSONObject mix = new JSONObject();
+        options.mix().forEach((scenario, weight) -> mix.put(scenario.tag(), weight));
+        final JSONObject endpoints = new JSONObject();
+        final EndpointResults total = new EndpointResults();
+        results.forEach((scenario, endpoint) -> {
+            endpoints.put(scenario.tag(), endpoint.toJson(seconds));
+            total.add(endpoint);
+        });
+        return new JSONObject()
+                .put("startedAt", startedAt.toString())
+                .put("target", options.target())
+                .put("rate", options.rate())
+                .put("durationSeconds", seconds)
+                .put("warmupSeconds", options.warmup().toNanos() / 1e9)
+                .put("mix", mix)
+                .put("maxDispatchLagMs", maxLagNanos / 1e6)
+                .put("endpoints", endpoints)
+                .put("total", total.toJson(seconds));
+    }
+
+    private static void print(JSONObject report) {
+        System.out.printf("%n%.0f requests/s for %.0f s against %s%n", report.getDouble("rate"),
+                report.getDouble("durationSeconds"), report.getString("target"));
+        System.out.printf("%-18s %8s %8s %8s %9s %9s %9s %9s %9s %9s%n", "endpoint", "requests", "ok", "errors",
+                "req/s", "p50 (ms)", "p95 (ms)", "p99 (ms)", "p999 (ms)", "max (ms)");
+        final JSONObject endpoints = report.getJSONObject("endpoints");
+        for (Scenario scenario : Scenario.values()) {
+            if (endpoints.has(scenario.tag())) {
+                printRow(scenario.tag(), endpoints.getJSONObject(scenario.tag()));
+            }
+        }
+        printRow("total", report.getJSONObject("total"));
+        System.out.printf("Largest dispatch lag: %.1f ms%n", report.getDouble("maxDispatchLagMs"));
+        if (report.has("upstream")) {
+            System.out.printf("Upstream emulator: %s%n", report.getJSONObject("upstream"));
+        }
+    }
+
+    private static void printRow(String name, JSONObject endpoint) {
+        final JSONObject latency = endpoint.getJSONObject("responseTimeMs");
+        final long requests = endpoint.getLong("requests");
+        final long ok = endpoint.getLong("ok");
+        System.out.printf("%-18s %8d %8d %8d %9.1f %9.1f %9.1f %9.1f %9.1f %9.1f%n", name, requests, ok,
+                requests - ok, endpoint.getDouble("throughput"), latency.optDouble("p50", 0),
+                latency.optDouble("p95", 0), latency.optDouble("p99", 0), latency.optDouble("p999", 0),
+                latency.optDouble("max", 0));
+    }
+
+    /**
+     * Prints the change in throughput and 99th percentile of every endpoint found in both reports.
+     */
+    private static void compare(JSONObject baseline, JSONObject report) {
+        System.out.printf("%nCompared with the run of %s%n", baseline.optString("startedAt", "?"));
+        System.out.printf("%-18s %25s %27s%n", "endpoint", "req/s", "p99 (ms)");
+        final JSONObject before = baseline.getJSONObject("endpoints");
+        final JSONObject after = report.getJSONObject("endpoints");
+        for (Scenario scenario : Scenario.values()) {
+            if (before.has(scenario.tag()) && after.has(scenario.tag())) {
+                compareRow(scenario.tag(), before.getJSONObject(scenario.tag()), after.getJSONObject(scenario.tag()));
+            }
+        }
+        compareRow("total", baseline.getJSONObject("total"), report.getJSONObject("total"));
+    }
+
+    private static void compareRow(String name, JSONObject before, JSONObject after) {
+        final double throughputBefore = before.getDouble("throughput");
+        final double throughputAfter = after.getDouble("throughput");
+        final double p99Before = before.getJSONObject("responseTimeMs").optDouble("p99", 0);
+        final double p99After = after.getJSONObject("responseTimeMs").optDouble("p99", 0);
+        System.out.printf("%-18s %7.1f -> %7.1f %+5.0f%% %8.1f -> %8.1f %+5.0f%%%n", name, throughputBefore,
+                throughputAfter, change(throughputBefore, throughputAfter), p99Before, p99After,
+                change(p99Before, p99After));
+    }
+
+    private static double change(double before, double after) {
+        return before == 0 ? 0 : (after - before) / before * 100;
+    }
+
+    /**
+     * Fetches the emulator's request counts, or returns null if no emulator was given or it did not answer.
+     */
+    private static JSONObject upstreamStats(HttpClient client, String emulator) {
+        if (emulator == null) {
+            return null;
+        }
+        final String base = emulator.endsWith("/") ? emulator.substring(0, emulator.length() - 1) : emulator;
+        try {
+            final HttpResponse<String> response = client.send(
+                    HttpRequest.newBuilder(URI.create(base + "/emulator/stats")).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            return response.statusCode() == 200 ? new JSONObject(response.body()) : null;
+        }
+        catch (IOException exception) {
+            System.out.printf("Could not read the emulator's stats: %s%n", exception.getMessage());
+            return null;
+        }
+        catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * Subtracts one set of emulator counts from another, endpoint by endpoint.
+     */
+    private static JSONObject difference(JSONObject before, JSONObject after) {
+        final JSONObject difference = new JSONObject();
+        for (String endpoint : after.keySet()) {
+            final JSONObject countsBefore = before.optJSONObject(endpoint, new JSONObject());
+            final JSONObject countsAfter = after.getJSONObject(endpoint);
+            final JSONObject counts = new JSONObject();
+            for (String counter : countsAfter.keySet()) {
+                counts.put(counter, countsAfter.getLong(counter) - countsBefore.optLong(counter));
+            }
+            difference.put(endpoint, counts);
+        }
+        return difference;
+    }
+}
@@ -0,0 +1,166 @@
+package com.recipewiz.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Command line options of the load test, as {@code --name=value}:
+ * <ul>
+ *     <li>{@code target}: base URL of the backend (default http://localhost:8080)</li>
+ *     <li>{@code rate}: requests started per second, whatever the backend's answers take (default 20)</li>
+ *     <li>{@code duration}: how long requests are measured, e.g. {@code 60s} or {@code 5m} (default 60s)</li>
+ *     <li>{@code warmup}: how long requests are sent before measuring (default 10s)</li>
+ *     <li>{@code mix}: comma separated {@code scenario:weight} pairs; scenarios left out are not sent
+ *     (default search:40,restricted-search:10,save:5,week-view:20,serving-adjust:10,nutrition:10,ai-generate:5)</li>
+ *     <li>{@code user}: user whose recipes and meal plan are used (default 1)</li>
+ *     <li>{@code timeout}: timeout of each request (default 30s)</li>
+ *     <li>{@code max-in-flight}: requests outstanding at once before sending waits (default 10000)</li>
+ *     <li>{@code output}: JSON report file (default loadtest-results/run-&lt;time&gt;.json)</li>
+ *     <li>{@code baseline}: an earlier JSON report to compare with</li>
+ *     <li>{@code emulator}: base URL of the upstream emulator, whose request counts are added to the report</li>
+ *     <li>{@code seed}: seed of the traffic mix, for repeatable runs (default random)</li>
+ * </ul>
+ */
+final class LoadTestOptions {
+
+    private static final Set<String> OPTIONS = Set.of("target", "rate", "duration", "warmup", "mix", "user",
+            "timeout", "max-in-flight", "output", "baseline", "emulator", "seed");
+    private static final DateTimeFormatter RUN_NAME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final Map<String, String> options;
+
+    private LoadTestOptions(Map<String, String> options) {
+        this.options = options;
+    }
+
+    static LoadTestOptions parse(String... args) {
+        final Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            final int equals = arg.indexOf('=');
+            final String name = arg.substring(2, equals);
+            if (!OPTIONS.contains(name)) {
+                throw new IllegalArgumentException("Unknown option --" + name);
+            }
+            options.put(name, arg.substring(equals + 1));
+        }
+        return new LoadTestOptions(options);
+    }
+
+    String target() {
+        return options.getOrDefault("target", "http://localhost:8080");
+    }
+
+    double rate() {
+        final double rate = Double.parseDouble(options.getOrDefault("rate", "20"));
+        if (rate <= 0) {
+            throw new IllegalArgumentException("--rate must be positive");
+        }
+        return rate;
+    }
+
+    Duration duration() {
+        return duration("duration", "60s");
+    }
+
+    Duration warmup() {
+        return duration("warmup", "10s");
+    }
+
+    Duration timeout() {
+        return duration("timeout", "30s");
+    }
+
+    /**
+     * @return the weight of every scenario sent, in scenario order
+     */
+    Map<Scenario, Integer> mix() {
+        final Map<Scenario, Integer> mix = new EnumMap<>(Scenario.class);
+        final String spec = options.get("mix");
+        if (spec == null) {
+            for (Scenario scenario : Scenario.values()) {
+                mix.put(scenario, scenario.defaultWeight());
+            }
+            return mix;
+        }
+        for (String entry : spec.split(",")) {
+            final int colon = entry.indexOf(':');
+            if (colon < 0) {
+                throw new IllegalArgumentException("Expected scenario:weight in --mix, got " + entry);
+            }
+            final int weight = Integer.parseInt(entry.substring(colon + 1).trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight in --mix: " + entry);
+            }
+            if (weight > 0) {
+                mix.put(Scenario.forTag(entry.substring(0, colon)), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("--mix sends no scenario");
+        }
+        return mix;
+    }
+
+    int user() {
+        return Integer.parseInt(options.getOrDefault("user", "1"));
+    }
+
+    int maxInFlight() {
+        return Integer.parseInt(options.getOrDefault("max-in-flight", "10000"));
+    }
+
+    Path output() {
+        final String output = options.get("output");
+        return output != null ? Path.of(output)
+                : Path.of("loadtest-results", "run-" + RUN_NAME.format(LocalDateTime.now()) + ".json");
+    }
+
+    /**
+     * @return the report to compare with, or null
+     */
+    Path baseline() {
+        final String baseline = options.get("baseline");
+        return baseline == null ? null : Path.of(baseline);
+    }
+
+    /**
+     * @return the emulator's base URL, or null
+     */
+    String emulator() {
+        return options.get("emulator");
+    }
+
+    /**
+     * @return the seed of the traffic mix, or null for a random seed
+     */
+    Long seed() {
+        final String seed = options.get("seed");
+        return seed == null ? null : Long.valueOf(seed);
+    }
+
+    /**
+     * Parses a duration such as {@code 500ms}, {@code 30s} or {@code 5m}; a bare number is seconds.
+     */
+    private Duration duration(String name, String defaultValue) {
+        final String value = options.getOrDefault(name, defaultValue).trim();
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        if (value.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(value));
+    }
+}
@@ -0,0 +1,51 @@
+package com.recipewiz.loadtest;
+
+import java.net.http.HttpRequest;
+import java.util.Locale;
+import java.util.Random;
+import java.util.function.BiFunction;
+
+/**
+ * The kinds of request a load test mixes, each with the weight it has in the default traffic mix: reads
+ * dominate, as in the frontend, and the slow AI and nutrition calls are rarer.
+ */
+enum Scenario {
+    SEARCH("search", 40, Workload::search),
+    RESTRICTED_SEARCH("restricted-search", 10, Workload::restrictedSearch),
+    SAVE("save", 5, Workload::save),
+    WEEK_VIEW("week-view", 20, Workload::weekView),
+    SERVING_ADJUST("serving-adjust", 10, Workload::servingAdjust),
+    NUTRITION("nutrition", 10, Workload::nutrition),
+    AI_GENERATE("ai-generate", 5, Workload::aiGenerate);
+
+    private final String tag;
+    private final int defaultWeight;
+    private final BiFunction<Workload, Random, HttpRequest> request;
+
+    Scenario(String tag, int defaultWeight, BiFunction<Workload, Random, HttpRequest> request) {
+        this.tag = tag;
+        this.defaultWeight = defaultWeight;
+        this.request = request;
+    }
+
+    String tag() {
+        return tag;
+    }
+
+    int defaultWeight() {
+        return defaultWeight;
+    }
+
+    HttpRequest request(Workload workload, Random random) {
+        return request.apply(workload, random);
+    }
+
+    static Scenario forTag(String tag) {
+        for (Scenario scenario : values()) {
+            if (scenario.tag.equals(tag.trim().toLowerCase(Locale.ROOT))) {
+                return scenario;
+            }
+        }
+        throw new IllegalArgumentException("Unknown scenario " + tag);
+    }
+}
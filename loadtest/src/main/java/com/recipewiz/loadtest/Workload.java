@@ -0,0 +1,140 @@
+package com.recipewiz.loadtest;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+import java.util.Random;
+import java.util.StringJoiner;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Builds the requests of each {@link Scenario} for one user of the backend. Query parameters are drawn with
+ * a skew towards common ingredients and labels, so the backend's caches see a realistic mix of repeated and
+ * new searches.
+ */
+final class Workload {
+
+    private static final String[] INGREDIENTS = {
+            "chicken", "rice", "egg", "tomato", "onion", "garlic", "potato", "beef", "pasta", "cheese",
+            "salmon", "spinach", "mushroom", "carrot", "broccoli", "tofu", "lentil", "chickpea", "pork",
+            "shrimp", "avocado", "zucchini", "quinoa", "bacon", "lemon", "cod", "kale", "eggplant", "lamb", "oat"
+    };
+    private static final String[] DIET_LABELS = {"balanced", "high-protein", "low-carb", "low-fat"};
+    private static final String[] HEALTH_LABELS = {"vegetarian", "vegan", "gluten-free", "dairy-free"};
+    private static final String[] CUISINE_TYPES = {"italian", "asian", "mexican", "indian", "mediterranean"};
+    private static final double LABEL_PROBABILITY = 0.3;
+    private static final int MAX_SERVINGS = 8;
+    private static final int WEEKS_AROUND = 2;
+
+    private final String target;
+    private final int userId;
+    private final Duration timeout;
+    private final List<JSONObject> recipes;
+
+    /**
+     * @param target  base URL of the backend
+     * @param userId  user whose recipes and meal plan the requests use
+     * @param timeout timeout of every request
+     * @param recipes recipes as the backend serves them, to save, rescale and analyze
+     */
+    Workload(String target, int userId, Duration timeout, List<JSONObject> recipes) {
+        this.target = target.endsWith("/") ? target.substring(0, target.length() - 1) : target;
+        this.userId = userId;
+        this.timeout = timeout;
+        this.recipes = recipes;
+    }
+
+    HttpRequest search(Random random) {
+        final StringJoiner ingredients = new StringJoiner(",");
+        final int count = 1 + random.nextInt(3);
+        for (int i = 0; i < count; i++) {
+            ingredients.add(skewed(INGREDIENTS, random));
+        }
+        return get("/api/recipes/search?ingredients=" + encode(ingredients.toString()));
+    }
+
+    HttpRequest restrictedSearch(Random random) {
+        final JSONObject body = new JSONObject()
+                .put("foodName", skewed(INGREDIENTS, random))
+                .put("dietLabels", labels(DIET_LABELS, random))
+                .put("healthLabels", labels(HEALTH_LABELS, random))
+                .put("cuisineTypes", labels(CUISINE_TYPES, random));
+        return post("/api/recipes/search/restricted", body);
+    }
+
+    HttpRequest save(Random random) {
+        return post("/api/users/" + userId + "/recipes", new JSONObject().put("recipe", recipe(random)));
+    }
+
+    HttpRequest weekView(Random random) {
+        final LocalDate monday = LocalDate.now()
+                .with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+                .plusWeeks(random.nextInt(2 * WEEKS_AROUND + 1) - WEEKS_AROUND);
+        return get("/api/users/" + userId + "/meal-plan?weekStart=" + monday);
+    }
+
+    HttpRequest servingAdjust(Random random) {
+        final JSONObject body = new JSONObject()
+                .put("userId", userId)
+                .put("newServings", 1 + random.nextInt(MAX_SERVINGS))
+                .put("recipes", new JSONArray().put(recipe(random)));
+        return post("/api/servings/adjust", body);
+    }
+
+    HttpRequest nutrition(Random random) {
+        return post("/api/nutrition/analyze", recipe(random));
+    }
+
+    HttpRequest aiGenerate(Random random) {
+        final JSONObject body = new JSONObject()
+                .put("gender", 1 + random.nextInt(2))
+                .put("heightCm", 150 + random.nextInt(50))
+                .put("weightKg", 50 + random.nextInt(50))
+                .put("age", 18 + random.nextInt(60))
+                .put("goal", random.nextBoolean() ? "lose weight" : "build muscle");
+        return post("/api/users/" + userId + "/meal-plan/ai/generate", body);
+    }
+
+    HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(target + path)).timeout(timeout).GET().build();
+    }
+
+    HttpRequest post(String path, JSONObject body) {
+        return HttpRequest.newBuilder(URI.create(target + path))
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build();
+    }
+
+    private JSONObject recipe(Random random) {
+        return recipes.get(random.nextInt(recipes.size()));
+    }
+
+    private static JSONArray labels(String[] labels, Random random) {
+        final JSONArray chosen = new JSONArray();
+        if (random.nextDouble() < LABEL_PROBABILITY) {
+            chosen.put(skewed(labels, random));
+        }
+        return chosen;
+    }
+
+    /**
+     * Draws from {@code values} with the first ones the most likely, roughly as often as in real queries.
+     */
+    private static String skewed(String[] values, Random random) {
+        final double u = random.nextDouble();
+        return values[(int) (values.length * u * u)];
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}